@@ -0,0 +1,95 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+code = """
+#include "Python.h"
+
+static PyObject* sum_items(PyObject* self, PyObject* args) {
+    PyObject* list;
+    Py_ssize_t i, n;
+    long sum = 0;
+
+    if (!PyArg_ParseTuple(args, "O", &list)) {
+        return NULL;
+    }
+    n = PyList_Size(list);
+    for (i = 0; i < n; i++) {
+        PyObject* item = PyList_GetItem(list, i);
+        if (item == NULL) {
+            return NULL;
+        }
+        sum += PyLong_AsLong(item);
+    }
+    return PyLong_FromLong(sum);
+}
+
+static struct PyMethodDef c_list_getitem_methods[] = {
+    {"sum_items", (PyCFunction)sum_items, METH_VARARGS, ""},
+    {NULL, NULL, 0, NULL}
+};
+
+static PyModuleDef c_list_getitem_module = {
+    PyModuleDef_HEAD_INIT,
+    "c_list_getitem_module",
+    "",
+    -1,
+    c_list_getitem_methods,
+    NULL, NULL, NULL, NULL
+};
+
+PyMODINIT_FUNC
+PyInit_c_list_getitem_module(void) {
+    return PyModule_Create(&c_list_getitem_module);
+}
+"""
+
+
+ccompile("c_list_getitem_module", code)
+import c_list_getitem_module
+
+
+def measure(num):
+    ll = list(range(1000))
+    for t in range(num):
+        result = c_list_getitem_module.sum_items(ll)
+    print("Sum ", result)
+
+
+def __benchmark__(num=100000):
+    measure(num)
@@ -75,7 +75,8 @@ int PyDict_Next(PyObject *d, Py_ssize_t *ppos, PyObject **pkey, PyObject **pvalu
     	}
     	return 0;
     }
-    (*ppos)++;
+    // the position of the next entry, which need not be the next integer
+    *ppos = PyLong_AsSsize_t(PyTuple_GetItem(tresult, 2));
     if (pkey != NULL) {
     	*pkey = PyTuple_GetItem(tresult, 0);
     }
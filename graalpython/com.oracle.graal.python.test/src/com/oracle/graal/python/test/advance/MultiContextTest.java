@@ -40,6 +40,12 @@
  */
 package com.oracle.graal.python.test.advance;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.junit.Test;
@@ -57,6 +63,50 @@ public class MultiContextTest extends PythonTests {
         }
     }
 
+    private static final String SHARED_CODE = "def f(a, b=[]):\n" +
+                    "    b.append(a)\n" +
+                    "    return b\n" +
+                    "def g():\n" +
+                    "    yield 123456789012345678901234567890\n" +
+                    "    yield 2j\n" +
+                    "big, cplx = g()\n" +
+                    "f(1)\n" +
+                    "result = (type(big) is int, type(cplx) is complex, f(2))\n";
+
+    @Test
+    public void testSharedCodeIsContextIndependent() {
+        Engine engine = Engine.newBuilder().build();
+        List<Context> contexts = new ArrayList<>();
+        try {
+            // keep all contexts alive, so the code is shared between them
+            for (int i = 0; i < 24; i++) {
+                Context context = newContext(engine);
+                contexts.add(context);
+                context.eval("python", SHARED_CODE);
+            }
+            for (Context context : contexts) {
+                context.eval("python", "f(3)");
+                assertEquals("(True, True, [1, 2, 3])", context.eval("python", "str((result[0], result[1], f.__defaults__[0]))").asString());
+            }
+        } finally {
+            for (Context context : contexts) {
+                context.close();
+            }
+        }
+    }
+
+    @Test
+    public void testWarmContextCreation() {
+        Engine engine = Engine.newBuilder().build();
+        for (int i = 0; i < 12; i++) {
+            // later contexts reuse the code of the core library that the first one parsed
+            try (Context context = newContext(engine)) {
+                assertSame(engine, context.getEngine());
+                assertEquals("[1, 4, 9]", context.eval("python", "str(list(map(lambda x: x * x, [1, 2, 3])))").asString());
+            }
+        }
+    }
+
     private static Context newContext(Engine engine) {
         return Context.newBuilder().allowAllAccess(true).engine(engine).build();
     }
@@ -88,6 +88,13 @@ def _reference_next(args):
         return (0, None, None)
 
 
+def _dict_with_removed_keys(keys):
+    d = {k: str(k) for k in keys}
+    for k in keys[::3]:
+        del d[k]
+    return d
+
+
 def _reference_copy(args):
     if not isinstance(args[0], dict):
         raise SystemError
@@ -206,7 +213,8 @@ class TestPyDict(CPyExtTestCase):
     test_PyDict_Next = CPyExtFunctionOutVars(
         _reference_next,
         # lambda: (({'a': "hello"}, 0), ({'a': "hello", 'b': 'world'}, 1), ({'a': "hello"}, 1)),
-        lambda: (({'a': "hello"}, 1),),
+        lambda: (({'a': "hello"}, 1), ({1: "a", 2: "b", 3: "c"}, 2), (_dict_with_removed_keys(list(range(20))), 7),
+                 (_dict_with_removed_keys([str(i) for i in range(20)]), 7), (_dict_with_removed_keys([str(i) for i in range(20)]), 13)),
         code='''int wrap_PyDict_Next(PyObject* dict, Py_ssize_t* ppos, PyObject** key, PyObject** value) {
             int res = 0;
             Py_ssize_t iterations = *ppos;
@@ -25,3 +25,69 @@ class BuiltinTest(unittest.TestCase):
         self.assertEqual(bin(MyIndexable(False)), '0b0')
         self.assertEqual(bin(MyIndexable(True)), '0b1')
         self.assertEqual(bin(MyIndexable(-(2**65))), '-0b1' + '0' * 65)
+
+    def test_any_all(self):
+        self.assertEqual(any([]), False)
+        self.assertEqual(any([0, '', 3]), True)
+        self.assertEqual(all([]), True)
+        self.assertEqual(all([1, 'a', 0]), False)
+        self.assertEqual(all(x < 10 for x in range(10)), True)
+        self.assertRaises(TypeError, any, 10)
+
+        def stops_early():
+            yield True
+            raise RuntimeError("any() must not advance past the first true item")
+        self.assertEqual(any(stops_early()), True)
+
+    def test_filter(self):
+        self.assertEqual(list(filter(None, [0, 1, '', 'a', None, []])), [1, 'a'])
+        self.assertEqual(list(filter(lambda x: x % 2, range(7))), [1, 3, 5])
+        it = filter(None, [1, 2])
+        self.assertIs(iter(it), it)
+        self.assertEqual(next(it), 1)
+        self.assertEqual(list(it), [2])
+        self.assertRaises(TypeError, filter, None, 10)
+
+    def test_hasattr(self):
+        class A:
+            x = 1
+
+            def __getattr__(self, name):
+                if name == 'dynamic':
+                    return 2
+                raise AttributeError(name)
+        self.assertTrue(hasattr(A(), 'x'))
+        self.assertTrue(hasattr(A(), 'dynamic'))
+        self.assertFalse(hasattr(A(), 'missing'))
+        self.assertRaises(TypeError, hasattr, A(), 1)
+
+        class B:
+            @property
+            def broken(self):
+                raise ValueError
+        self.assertRaises(ValueError, hasattr, B(), 'broken')
+
+    def test_print(self):
+        class Out:
+            def __init__(self):
+                self.parts = []
+                self.flushed = False
+
+            def write(self, s):
+                self.parts.append(s)
+
+            def flush(self):
+                self.flushed = True
+
+        out = Out()
+        print(1, 'a', None, sep='-', end='!', file=out)
+        self.assertEqual(''.join(out.parts), '1-a-None!')
+        out = Out()
+        print(file=out, flush=True)
+        self.assertEqual(''.join(out.parts), '\n')
+        self.assertTrue(out.flushed)
+        out = Out()
+        print(1, 2, sep=None, end=None, file=out)
+        self.assertEqual(''.join(out.parts), '1 2\n')
+        self.assertRaises(TypeError, print, 1, sep=1, file=out)
+
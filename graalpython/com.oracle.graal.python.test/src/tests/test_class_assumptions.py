@@ -0,0 +1,87 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+def lookup(obj):
+    return obj.attr
+
+
+def test_subclass_lookup_after_mutation():
+    class Base():
+        attr = 0
+
+    classes = [Base]
+    for i in range(2000):
+        classes.append(type("C%d" % i, (classes[-1] if i % 10 else Base,), {}))
+
+    for i in range(5):
+        Base.attr = i
+        for cls in classes:
+            assert lookup(cls()) == i
+
+    # shadow and unshadow the attribute in the middle of the chains
+    for cls in classes[5::10]:
+        cls.attr = cls.__name__
+    for cls in classes:
+        expected = cls.attr
+        assert lookup(cls()) == expected
+    for cls in classes[5::10]:
+        del cls.attr
+    for cls in classes:
+        assert lookup(cls()) == 4
+
+
+def test_many_dynamic_subclasses():
+    class Base():
+        attr = "base"
+
+    classes = []
+    for i in range(5000):
+        cls = type("D%d" % i, (Base,), {})
+        assert lookup(cls()) == "base"
+        if i % 2:
+            cls.attr = i
+            assert lookup(cls()) == i
+        Base.attr = "base"
+        classes.append(cls)
+
+    Base.attr = "changed"
+    assert lookup(Base()) == "changed"
+    for i, cls in enumerate(classes):
+        assert lookup(cls()) == (i if i % 2 else "changed")
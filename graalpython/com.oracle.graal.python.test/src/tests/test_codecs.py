@@ -53,6 +53,71 @@ def test_encode():
     assert codecs.encode('[]', 'ascii') == b'[]'
 
 
+def test_decode_errors():
+    assert b'a\xffb'.decode('utf-8', 'ignore') == 'ab'
+    assert b'a\xffb'.decode('utf-8', 'replace') == 'a�b'
+    assert b'a\xffb'.decode('utf-8', 'backslashreplace') == 'a\\xffb'
+    assert b'a\xffb'.decode('utf-8', 'surrogateescape') == 'a\udcffb'
+    assert b'a\x80'.decode('ascii', 'replace') == 'a�'
+    assert_raises(UnicodeDecodeError, b'a\xffb'.decode, 'utf-8')
+    assert_raises(UnicodeDecodeError, b'a\x80'.decode, 'ascii')
+    assert_raises(UnicodeDecodeError, b'\xe2\x82'.decode, 'utf-8')
+
+
+def test_encode_errors():
+    assert 'a\xe9b'.encode('ascii', 'ignore') == b'ab'
+    assert 'a\xe9b'.encode('ascii', 'replace') == b'a?b'
+    assert 'a\xe9b'.encode('ascii', 'backslashreplace') == b'a\\xe9b'
+    assert 'a\xe9b'.encode('ascii', 'xmlcharrefreplace') == b'a&#233;b'
+    assert 'a\udcffb'.encode('utf-8', 'surrogateescape') == b'a\xffb'
+    assert_raises(UnicodeEncodeError, 'a\xe9b'.encode, 'ascii')
+    assert_raises(UnicodeEncodeError, 'a€b'.encode, 'latin-1')
+
+
+def test_fast_paths():
+    s = 'abc\xe4\xf6\xfc€\U0001f600'
+    assert s.encode('utf-8') == b'abc\xc3\xa4\xc3\xb6\xc3\xbc\xe2\x82\xac\xf0\x9f\x98\x80'
+    assert s.encode('utf-8').decode('utf-8') == s
+    assert s[:6].encode('latin-1') == b'abc\xe4\xf6\xfc'
+    assert b'abc\xe4\xf6\xfc'.decode('latin-1') == s[:6]
+    assert 'abc'.encode('ascii') == b'abc'
+    assert b'abc'.decode('ascii') == 'abc'
+    assert bytearray(b'abc').decode('utf-8') == 'abc'
+
+
+def test_decode_utf8_errors():
+    data = b'\xc3\xa4\xe0\x80\xed\xa0\x80\xf4\x90\xf0\x9f\x98\xe2\x82\xacx\xff'
+    assert data.decode('utf-8', 'replace') == '\xe4\ufffd\ufffd\ufffd\ufffd\ufffd\ufffd\ufffd\ufffd\u20acx\ufffd'
+    assert data.decode('utf-8', 'backslashreplace') == '\xe4\\xe0\\x80\\xed\\xa0\\x80\\xf4\\x90\\xf0\\x9f\\x98\u20acx\\xff'
+    assert b'a\xed\xa0\x80b'.decode('utf-8', 'surrogatepass') == 'a\ud800b'
+    try:
+        b'\xc3\xa4\xf0\x9f\x98x'.decode('utf-8')
+    except UnicodeDecodeError as e:
+        assert (e.start, e.end) == (2, 5)
+    else:
+        assert False
+
+
+def test_decode_final():
+    import codecs
+    assert codecs.utf_8_decode(b'a\xe2\x82', 'strict', False) == ('a', 1)
+    assert codecs.utf_8_decode(b'a\xe2\x82\xac', 'strict', False) == ('a€', 4)
+    assert_raises(UnicodeDecodeError, codecs.utf_8_decode, b'a\xe2\x82', 'strict', True)
+
+
+def test_incremental_decoder():
+    import codecs
+    data = 'x€y\U0001f600z'.encode('utf-8')
+    decoder = codecs.getincrementaldecoder('utf-8')()
+    result = ''.join(decoder.decode(data[i:i + 1]) for i in range(len(data)))
+    result += decoder.decode(b'', final=True)
+    assert result == 'x€y\U0001f600z'
+
+    decoder = codecs.getincrementaldecoder('utf-8')()
+    assert decoder.decode(b'\xe2\x82') == ''
+    assert_raises(UnicodeDecodeError, decoder.decode, b'', True)
+
+
 import codecs
 import unittest
 
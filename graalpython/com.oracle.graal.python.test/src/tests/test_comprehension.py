@@ -0,0 +1,107 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+def test_list_comprehension():
+    assert [x * 2 for x in range(5)] == [0, 2, 4, 6, 8]
+    assert [x for x in []] == []
+    assert [(x, y) for x in range(3) if x != 1 for y in "ab" if y != "a"] == [(0, 'b'), (2, 'b')]
+    assert [x for x in [1, 2.5, "a", None]] == [1, 2.5, "a", None]
+    assert [[y for y in range(x)] for x in range(3)] == [[], [0], [0, 1]]
+
+
+def test_set_and_dict_comprehension():
+    assert {x % 3 for x in range(10)} == {0, 1, 2}
+    assert {x: x * x for x in range(4)} == {0: 0, 1: 1, 2: 4, 3: 9}
+    assert {k: v for k, v in [("a", 1), ("b", 2), ("a", 3)]} == {"a": 3, "b": 2}
+
+
+def test_comprehension_scope():
+    x = "outer"
+    result = [x for x in range(3)]
+    assert x == "outer"
+    assert result == [0, 1, 2]
+    funcs = [lambda: i for i in range(3)]
+    assert [f() for f in funcs] == [2, 2, 2]
+    funcs = [lambda i=i: i for i in range(3)]
+    assert [f() for f in funcs] == [0, 1, 2]
+    offset = 10
+    assert [i + offset for i in range(3)] == [10, 11, 12]
+
+
+def test_comprehension_outermost_iterable():
+    class C:
+        items = [1, 2, 3]
+        doubled = [i * 2 for i in items]
+    assert C.doubled == [2, 4, 6]
+
+    evaluated = []
+    def source():
+        evaluated.append(True)
+        return iter(range(3))
+    result = [x for x in source()]
+    assert evaluated == [True]
+    assert result == [0, 1, 2]
+
+    try:
+        [x for x in 1]
+    except TypeError:
+        pass
+    else:
+        assert False, "expected a TypeError"
+
+
+def test_comprehension_in_generator():
+    def gen(n):
+        for i in range(n):
+            yield [j for j in range(i)]
+    assert list(gen(3)) == [[], [0], [0, 1]]
+
+
+def test_comprehension_exception():
+    def fail(x):
+        if x == 2:
+            raise ValueError(x)
+        return x
+    try:
+        [fail(x) for x in range(5)]
+    except ValueError as e:
+        assert e.args == (2,)
+    else:
+        assert False, "expected a ValueError"
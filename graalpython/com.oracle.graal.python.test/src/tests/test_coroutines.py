@@ -0,0 +1,189 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+# Copyright (C) 1996-2017 Python Software Foundation
+#
+# Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+class Suspend:
+    def __await__(self):
+        value = yield "suspended"
+        return value
+
+
+def run(coro):
+    try:
+        coro.send(None)
+    except StopIteration as e:
+        return e.value
+    assert False, "coroutine did not finish"
+
+
+def test_generator_return_value():
+    def gen():
+        yield 1
+        return 42
+
+    g = gen()
+    assert next(g) == 1
+    try:
+        next(g)
+    except StopIteration as e:
+        assert e.value == 42
+    else:
+        assert False
+
+
+def test_yield_from():
+    def inner():
+        x = yield 1
+        yield x
+        return "done"
+
+    def outer():
+        result = yield from inner()
+        yield result
+
+    g = outer()
+    assert next(g) == 1
+    assert g.send(7) == 7
+    assert next(g) == "done"
+    assert_raises(StopIteration, next, g)
+    assert list(outer()) == [1, None, "done"]
+
+
+def test_await_chain():
+    async def leaf(x):
+        return x * 2
+
+    async def middle(x):
+        return await leaf(x) + 1
+
+    async def top():
+        return await middle(1) + await middle(2)
+
+    c = top()
+    assert type(c).__name__ == "coroutine"
+    assert run(c) == 8
+
+
+def test_send_and_throw():
+    async def coro():
+        try:
+            value = await Suspend()
+        except ValueError:
+            value = "caught"
+        return value
+
+    c = coro()
+    assert c.send(None) == "suspended"
+    try:
+        c.send("sent")
+    except StopIteration as e:
+        assert e.value == "sent"
+
+    c = coro()
+    assert c.send(None) == "suspended"
+    try:
+        c.throw(ValueError())
+    except StopIteration as e:
+        assert e.value == "caught"
+
+
+def test_close():
+    finalized = []
+
+    async def coro():
+        try:
+            await Suspend()
+        finally:
+            finalized.append(True)
+
+    c = coro()
+    c.send(None)
+    c.close()
+    assert finalized == [True]
+
+
+
+def test_await_plain_generator():
+    def gen():
+        yield 1
+
+    async def coro():
+        await gen()
+
+    assert_raises(TypeError, run, coro())
+
+
+def test_async_for_and_with_unsupported():
+    for source in ["async def f(x):\n    async for i in x:\n        pass\n",
+                   "async def f(x):\n    async with x:\n        pass\n",
+                   "async def f(x):\n    return [i async for i in x]\n"]:
+        try:
+            compile(source, "<test>", "exec")
+        except NotImplementedError:
+            pass
+        else:
+            assert False, "compiled as a synchronous statement: " + source
+
+
+class FakeLoop:
+    def __init__(self):
+        self.ready = []
+
+    def get_debug(self):
+        return False
+
+    def call_soon(self, callback, *args, **kwargs):
+        self.ready.append((callback, args))
+
+    def run(self):
+        while self.ready:
+            callback, args = self.ready.pop(0)
+            callback(*args)
+
+
+def test_future():
+    import _asyncio
+    loop = FakeLoop()
+    fut = _asyncio.Future(loop=loop)
+    assert not fut.done()
+    done = []
+    fut.add_done_callback(done.append)
+    fut.set_result(3)
+    assert fut.done() and fut.result() == 3
+    assert done == []
+    loop.run()
+    assert done == [fut]
+
+    fut = _asyncio.Future(loop=loop)
+    assert fut.cancel()
+    assert fut.cancelled()
+    assert not fut.cancel()
+
+
+def test_task():
+    import _asyncio
+    loop = FakeLoop()
+    fut = _asyncio.Future(loop=loop)
+
+    async def compute():
+        value = await fut
+        return value + 1
+
+    task = _asyncio.Task(compute(), loop=loop)
+    loop.run()
+    assert not task.done()
+    fut.set_result(41)
+    loop.run()
+    assert task.done()
+    assert task.result() == 42
@@ -629,3 +629,44 @@ class TestBasic(unittest.TestCase):
         klass = type(reversed(deque()))
         for s in ('abcd', range(2000)):
             self.assertEqual(list(klass(deque(s))), list(reversed(s)))
+
+    def test_mixed_types(self):
+        d = deque(range(100))
+        d.append(1.5)
+        d.appendleft("a")
+        d[50] = None
+        self.assertEqual(list(d), ["a"] + list(range(49)) + [None] + list(range(50, 100)) + [1.5])
+        d = deque([1.0, 2.0])
+        d.insert(1, 7)
+        d.extendleft([True])
+        self.assertEqual(list(d), [True, 1.0, 7, 2.0])
+        self.assertIs(d[0], True)
+
+    def test_maxlen_both_ends(self):
+        d = deque(range(10), maxlen=3)
+        self.assertEqual(list(d), [7, 8, 9])
+        d.appendleft(6)
+        self.assertEqual(list(d), [6, 7, 8])
+        d.extendleft([5, 4])
+        self.assertEqual(list(d), [4, 5, 6])
+        self.assertRaises(IndexError, d.insert, 0, 3)
+        d = deque(maxlen=0)
+        d.extend(range(10))
+        self.assertEqual(len(d), 0)
+
+    def test_iterator_mutation(self):
+        d = deque(range(200))
+        it = iter(d)
+        next(it)
+        d.rotate(1)
+        self.assertRaises(RuntimeError, next, it)
+        it = reversed(d)
+        self.assertEqual(next(it), 198)
+        d[0] = 1
+        self.assertEqual(next(it), 197)
+
+    def test_index_range(self):
+        d = deque("abcabc" * 50)
+        self.assertEqual(d.index("a", 1), 3)
+        self.assertEqual(d.index("c", -3), 299)
+        self.assertRaises(ValueError, d.index, "a", 1, 3)
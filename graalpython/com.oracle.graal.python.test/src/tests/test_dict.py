@@ -443,3 +443,117 @@ def test_object_set_item_single_instance_non_str_key():
     bar.a = 'a'
     assert 1 in bar.__dict__
     assert 'a' in bar.__dict__
+
+
+def test_int_float_keys():
+    d = {1: 'a', 2: 'b'}
+    assert d[1.0] == 'a'
+    assert hash(2.0) == hash(2)
+    assert hash(-7.0) == hash(-7)
+    d[2.0] = 'c'
+    assert len(d) == 2
+    assert d[2] == 'c'
+
+
+def test_copy_does_not_rehash():
+    calls = [0]
+
+    class Key:
+        def __init__(self, value):
+            self.value = value
+
+        def __hash__(self):
+            calls[0] += 1
+            return self.value
+
+        def __eq__(self, other):
+            return self.value == other.value
+
+    d = {Key(i): i for i in range(500)}
+    assert calls[0] == 500
+    c = d.copy()
+    assert calls[0] == 500
+    assert c[Key(42)] == 42
+
+
+def test_int_keys():
+    d = {}
+    for i in range(1000):
+        d[i * 3] = i
+    assert len(d) == 1000
+    assert d[300] == 100
+    assert d.get(301) is None
+    assert d[3.0] == 1
+    assert True not in d
+    del d[0]
+    assert 0 not in d
+    assert list(d.keys())[:3] == [3, 6, 9]
+    d[2 ** 62] = "big"
+    d[-5] = "neg"
+    assert d[2 ** 62] == "big" and d[-5] == "neg"
+    d["s"] = "str"
+    assert d[300] == 100 and d["s"] == "str" and d[2 ** 62] == "big"
+    assert len(d) == 1002
+
+
+def test_int_keys_order():
+    d = {}
+    d[5] = "a"
+    d[1] = "b"
+    d[3] = "c"
+    del d[1]
+    d[5] = "x"
+    d[1] = "y"
+    assert list(d.items()) == [(5, "x"), (3, "c"), (1, "y")]
+    assert {**d, **{"k": 1}} == {5: "x", 3: "c", 1: "y", "k": 1}
+
+
+def test_merge_keeps_python_hashes():
+    class Key:
+        def __init__(self, value):
+            self.value = value
+
+        def __hash__(self):
+            return self.value
+
+        def __eq__(self, other):
+            return self.value == other.value
+
+    d = dict({2.0: 'a'}, x=1)
+    assert d[2.0] == 'a' and d[2] == 'a' and d['x'] == 1
+    big = {float(i): i for i in range(100)}
+    d = dict(big, x=1)
+    assert d[42.0] == 42 and d[42] == 42 and d['x'] == 1
+    d = dict({Key(7): 'k'}, y=2)
+    assert d[Key(7)] == 'k' and d['y'] == 2
+
+
+def test_tuple_keys():
+    d = {(1, 2): 3, (1, (2.0, 'a')): 4}
+    assert d[(1, 2)] == 3
+    assert d[(1.0, (2, 'a'))] == 4
+    assert hash((1, 2)) == hash((1, 2))
+    assert hash(range(0, 4, 2)) == hash(range(0, 3, 2))
+    assert {frozenset([1, 2]): 'a'}[frozenset([2, 1])] == 'a'
+    assert {b'ab': 1}[b'a' + b'b'] == 1
+    big = {(i, str(i)): i for i in range(100)}
+    assert big[(42, '42')] == 42
+    assert (1, 2) in d.keys()
+
+
+def test_mixed_numeric_keys():
+    for key in (1, 1.0, True, 1 + 0j):
+        assert hash(key) == hash(1)
+        assert {1: 'a'}[key] == 'a'
+        assert {1.0: 'a'}[key] == 'a'
+        assert {1 + 0j: 'a'}[key] == 'a'
+        assert key in {1}
+        assert key in {1 + 0j}
+    assert hash(2.0 ** 63) == hash(2 ** 63)
+    assert hash(2.0 ** 80) == hash(2 ** 80)
+    assert {2 ** 80: 'big'}[2.0 ** 80] == 'big'
+    assert {-5: 'neg'}[complex(-5, 0)] == 'neg'
+    assert 1 + 1j not in {1: 'a'}
+    assert {1.5 + 0j: 'f'}[1.5] == 'f'
+    d = {0: 'int', 0.5: 'float', 1j: 'complex'}
+    assert d[False] == 'int' and d[0.5 + 0j] == 'float' and d[complex(0, 1)] == 'complex'
@@ -74,3 +74,45 @@ def test_code():
 
 def test_builtins():
     assert print == sys._getframe().f_builtins["print"]
+
+
+def test_getframe_depth():
+    def inner():
+        return sys._getframe(0), sys._getframe(1), sys._getframe(2)
+    def outer():
+        return inner()
+    f0, f1, f2 = outer()
+    assert f0.f_code.co_name == "inner"
+    assert f1.f_code.co_name == "outer"
+    assert f2.f_code.co_name == "test_getframe_depth"
+    assert f0.f_back.f_code.co_name == "outer"
+    assert f0.f_back.f_back.f_code.co_name == "test_getframe_depth"
+
+
+def test_getframe_too_deep():
+    depth = 0
+    frame = sys._getframe()
+    while frame.f_back is not None:
+        depth += 1
+        frame = frame.f_back
+    sys._getframe(depth)
+    try:
+        sys._getframe(depth + 1)
+    except ValueError:
+        pass
+    else:
+        assert False, "expected a ValueError"
+
+
+def test_globals_and_locals():
+    a = 1
+    def foo(b):
+        c = b + 1
+        return locals(), globals()
+    ls, gs = foo(2)
+    assert ls == {'b': 2, 'c': 3}
+    assert gs is globals() or gs == globals()
+    assert gs['test_globals_and_locals'] is test_globals_and_locals
+    assert locals()['a'] == 1
+    assert 'foo' in locals()
+    assert locals() is sys._getframe().f_locals
@@ -91,6 +91,28 @@ def test_defaults_method():
     assert_raises(AttributeError, assgn)
 
 
+def test_defaults_per_definition():
+    def make(n):
+        def g(x=n, *, y=n * 2):
+            return x, y
+        return g
+
+    g1 = make(1)
+    g2 = make(2)
+    assert g1() == (1, 2)
+    assert g2() == (2, 4)
+    assert g1(y=0) == (1, 0)
+
+
+def test_assign_defaults():
+    def h(a, b=1, c=2):
+        return a, b, c
+
+    h.__defaults__ = (5, 6)
+    assert h(0) == (0, 5, 6)
+    assert h(0, c=7) == (0, 5, 7)
+
+
 def test_constructor():
     import types
     func_copy = types.FunctionType(f.__code__, f.__globals__, f.__name__, f.__defaults__, f.__closure__)
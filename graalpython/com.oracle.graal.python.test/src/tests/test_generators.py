@@ -178,3 +178,126 @@ def test_generator_starargs():
     gen = (x for x in range(10))
     assert func(*lst) == set(lst)
     assert func(*gen) == set(lst)
+
+
+def test_statement_yields_in_control_flow():
+    def gen(n):
+        yield "start"
+        i = 0
+        while True:
+            i += 1
+            if i > n:
+                break
+            if i % 2:
+                yield i
+            else:
+                yield -i
+                continue
+            for j in range(i):
+                if j == 1:
+                    continue
+                yield (i, j)
+        yield "end"
+
+    assert list(gen(3)) == ["start", 1, (1, 0), -2, 3, (3, 0), (3, 2), "end"]
+    assert list(x for x in range(6) if x % 2) == [1, 3, 5]
+
+
+def test_statement_yields_mixed_with_expressions():
+    def gen():
+        for i in range(3):
+            yield i
+            received = yield
+            yield received
+            try:
+                yield "in try"
+            finally:
+                pass
+
+    g = gen()
+    assert next(g) == 0
+    assert next(g) is None
+    assert g.send("x") == "x"
+    assert next(g) == "in try"
+    assert next(g) == 1
+
+
+def test_throw_into_statement_yield():
+    def gen():
+        for i in range(3):
+            yield i
+        yield "unreachable"
+
+    g = gen()
+    assert next(g) == 0
+    try:
+        g.throw(ValueError("stop"))
+    except ValueError as e:
+        assert e.args == ("stop",)
+    else:
+        assert False
+    try:
+        next(g)
+    except StopIteration:
+        pass
+    else:
+        assert False
+
+
+def test_exhaustion():
+    def gen(n):
+        for i in range(n):
+            yield i
+
+    g = gen(2)
+    assert list(g) == [0, 1]
+    assert list(g) == []
+    try:
+        next(g)
+    except StopIteration as e:
+        assert e.value is None
+    else:
+        assert False
+
+    assert tuple(gen(3)) == (0, 1, 2)
+    total = 0
+    for _ in range(100):
+        for i in gen(3):
+            total += i
+    assert total == 300
+
+
+def test_return_value_after_loop():
+    def inner():
+        yield 1
+        return 42
+
+    def outer():
+        result = yield from inner()
+        yield result
+
+    assert list(outer()) == [1, 42]
+    g = inner()
+    next(g)
+    try:
+        next(g)
+    except StopIteration as e:
+        assert e.value == 42
+    else:
+        assert False
+
+
+def test_finished_after_error():
+    def gen():
+        yield 1
+        raise KeyError
+
+    g = gen()
+    assert next(g) == 1
+    try:
+        next(g)
+    except KeyError:
+        pass
+    else:
+        assert False
+    assert list(g) == []
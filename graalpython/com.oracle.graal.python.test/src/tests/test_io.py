@@ -0,0 +1,228 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import os
+
+FILE_NAME = "io_test_file.txt"
+
+
+def unlink(file_name):
+    try:
+        os.unlink(file_name)
+    except OSError:
+        pass
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def test_buffered_readline_large_file():
+    unlink(FILE_NAME)
+    lines = [("line %d " % i).encode() * (i % 50) + b"\n" for i in range(2000)]
+    try:
+        with open(FILE_NAME, "wb") as f:
+            for line in lines:
+                f.write(line)
+        with open(FILE_NAME, "rb") as f:
+            assert list(f) == lines
+        with open(FILE_NAME, "rb", buffering=16) as f:
+            assert f.readline() == lines[0]
+            assert f.readline(3) == lines[1][:3]
+            assert f.read() == b"".join(lines)[len(lines[0]) + 3:]
+            assert f.readline() == b""
+    finally:
+        unlink(FILE_NAME)
+
+
+def test_text_newlines():
+    unlink(FILE_NAME)
+    try:
+        with open(FILE_NAME, "wb") as f:
+            f.write(b"a\r\nb\rc\nd" + b"x" * 8190 + b"\r\ne")
+        with open(FILE_NAME, "r") as f:
+            assert f.readline() == "a\n"
+            assert f.readline() == "b\n"
+            assert f.readline() == "c\n"
+            assert f.readline() == "d" + "x" * 8190 + "\n"
+            assert f.readline() == "e"
+            assert f.newlines == ("\r", "\n", "\r\n")
+        with open(FILE_NAME, "r", newline="") as f:
+            assert f.read() == "a\r\nb\rc\nd" + "x" * 8190 + "\r\ne"
+        with open(FILE_NAME, "r", newline="\r\n") as f:
+            assert f.readline() == "a\r\n"
+            assert f.readline() == "b\rc\nd" + "x" * 8190 + "\r\n"
+        with open(FILE_NAME, "w", newline="\r\n") as f:
+            f.write("x\ny\n")
+        with open(FILE_NAME, "rb") as f:
+            assert f.read() == b"x\r\ny\r\n"
+    finally:
+        unlink(FILE_NAME)
+
+
+def test_text_tell_seek():
+    unlink(FILE_NAME)
+    try:
+        with open(FILE_NAME, "w", encoding="utf-8") as f:
+            f.write("héllo\nwörld\nend\n")
+        with open(FILE_NAME, "r", encoding="utf-8") as f:
+            assert f.readline() == "héllo\n"
+            pos = f.tell()
+            assert pos == 7
+            assert f.readline() == "wörld\n"
+            f.seek(pos)
+            assert f.readline() == "wörld\n"
+            f.seek(0)
+            assert f.read(1) == "h"
+            assert f.seek(0, 2) == 18
+            assert f.read() == ""
+            assert_raises(ValueError, f.seek, 0, 3)
+    finally:
+        unlink(FILE_NAME)
+
+
+def test_buffered_random():
+    unlink(FILE_NAME)
+    try:
+        with open(FILE_NAME, "wb") as f:
+            f.write(b"0123456789")
+        with open(FILE_NAME, "r+b") as f:
+            assert f.read(2) == b"01"
+            f.write(b"ab")
+            assert f.tell() == 4
+            assert f.read(2) == b"45"
+            f.seek(-1, 2)
+            f.write(b"Z")
+            f.seek(0)
+            assert f.read() == b"01ab45678Z"
+            assert f.peek(1) == b""
+    finally:
+        unlink(FILE_NAME)
+
+
+def test_line_buffering():
+    unlink(FILE_NAME)
+    try:
+        f = open(FILE_NAME, "w", buffering=1)
+        try:
+            assert f.line_buffering
+            f.write("partial")
+            with open(FILE_NAME, "r") as r:
+                assert r.read() == ""
+            f.write(" line\nrest")
+            with open(FILE_NAME, "r") as r:
+                assert r.read() == "partial line\nrest"
+        finally:
+            f.close()
+        with open(FILE_NAME, "r") as r:
+            assert r.read() == "partial line\nrest"
+    finally:
+        unlink(FILE_NAME)
+
+
+def test_unsupported_and_closed():
+    import io
+    unlink(FILE_NAME)
+    try:
+        with open(FILE_NAME, "wb") as f:
+            assert_raises(io.UnsupportedOperation, f.read)
+            f.write(b"abc")
+        assert f.closed
+        assert_raises(ValueError, f.write, b"x")
+        with open(FILE_NAME, "rb") as f:
+            assert_raises(io.UnsupportedOperation, f.write, b"x")
+            assert f.read1(10) == b"abc"
+    finally:
+        unlink(FILE_NAME)
+
+
+def test_pipe_readinto():
+    r, w = os.pipe()
+    try:
+        os.write(w, b"first\nsecond")
+        with open(r, "rb", closefd=False) as f:
+            # must return what is available instead of waiting for a full buffer
+            assert f.readline() == b"first\n"
+            assert f.read1(100) == b"second"
+        buf = bytearray(16)
+        os.write(w, b"abc")
+        assert os.readv(r, [buf, bytearray(4)]) == 3
+        assert buf[:3] == b"abc"
+        os.set_blocking(r, False)
+        with open(r, "rb", buffering=0, closefd=False) as f:
+            assert f.readinto(bytearray(4)) is None
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_buffered_write_would_block():
+    r, w = os.pipe()
+    try:
+        os.set_blocking(w, False)
+        with open(w, "wb", buffering=16, closefd=False) as f:
+            chunk = b"x" * 4096
+            raised = None
+            for i in range(1024):
+                try:
+                    f.write(chunk)
+                except BlockingIOError as e:
+                    raised = e
+                    break
+            assert raised is not None
+            assert 0 <= raised.characters_written <= len(chunk)
+            assert raised.args[0] == 11
+            try:
+                f.flush()
+            except BlockingIOError as e:
+                assert e.characters_written == 0
+            while os.read(r, 65536):
+                try:
+                    f.flush()
+                    break
+                except BlockingIOError:
+                    pass
+    finally:
+        os.close(r)
+        os.close(w)
@@ -115,3 +115,26 @@ def test_iter_try_except():
             break
 
     assert exit_via_break
+
+
+def test_exhausted_builtin_iterators():
+    from array import array
+    for iterable in ([1, 2], (1, 2), "ab", range(2), {1, 2}, array('i', [1, 2]), [1.5, 2.5], b"ab"):
+        it = iter(iterable)
+        assert len(list(it)) == 2
+        assert list(it) == []
+        try:
+            next(it)
+        except StopIteration:
+            pass
+        else:
+            assert False
+
+    class GetItemOnly:
+        def __getitem__(self, idx):
+            if idx < 3:
+                return idx
+            raise IndexError
+
+    assert list(GetItemOnly()) == [0, 1, 2]
+    assert [x for x in GetItemOnly()] == [0, 1, 2]
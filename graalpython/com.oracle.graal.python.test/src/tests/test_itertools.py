@@ -0,0 +1,320 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import itertools
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def take(n, iterable):
+    return list(itertools.islice(iterable, n))
+
+
+def test_count():
+    assert take(3, itertools.count()) == [0, 1, 2]
+    assert take(3, itertools.count(5, -2)) == [5, 3, 1]
+    assert take(3, itertools.count(step=3)) == [0, 3, 6]
+    big = 2 ** 63 - 2
+    assert take(3, itertools.count(big)) == [big, big + 1, big + 2]
+    assert take(2, itertools.count(0.5, 0.25)) == [0.5, 0.75]
+    c = itertools.count(2 ** 63 - 1)
+    next(c)
+    assert repr(c) == 'count(9223372036854775808)'
+
+
+def test_repeat():
+    assert list(itertools.repeat('a', 3)) == ['a', 'a', 'a']
+    assert list(itertools.repeat('a', -1)) == []
+    assert list(itertools.repeat('a', times=2)) == ['a', 'a']
+    assert take(4, itertools.repeat(1)) == [1, 1, 1, 1]
+    r = itertools.repeat(7, 2)
+    assert repr(r) == 'repeat(7, 2)'
+    assert r.__length_hint__() == 2
+    next(r)
+    assert repr(r) == 'repeat(7, 1)'
+    assert repr(itertools.repeat('x')) == "repeat('x')"
+    assert_raises(TypeError, itertools.repeat(1).__length_hint__)
+
+
+def test_chain():
+    assert list(itertools.chain()) == []
+    assert list(itertools.chain('ab', [], (1, 2), range(2))) == ['a', 'b', 1, 2, 0, 1]
+    assert list(itertools.chain.from_iterable(['ab', 'cd'])) == ['a', 'b', 'c', 'd']
+    assert list(itertools.chain.from_iterable(iter([[1], [], [2, 3]]))) == [1, 2, 3]
+
+
+def test_starmap():
+    assert list(itertools.starmap(pow, [(2, 3), (3, 2)])) == [8, 9]
+    assert list(itertools.starmap(lambda *args: args, [[], [1], 'ab'])) == [(), (1,), ('a', 'b')]
+
+
+def test_islice():
+    lst = list(range(10))
+    for iterable in (lst, iter(lst), range(10)):
+        assert list(itertools.islice(iterable, 3)) == [0, 1, 2]
+    assert list(itertools.islice(lst, 2, 8, 3)) == [2, 5]
+    assert list(itertools.islice(iter(lst), 2, 8, 3)) == [2, 5]
+    assert list(itertools.islice(lst, 8, None)) == [8, 9]
+    assert list(itertools.islice(lst, None)) == lst
+    assert list(itertools.islice(lst, 5, 2)) == []
+    assert list(itertools.islice(iter(lst), 5, 2)) == []
+    assert list(itertools.islice(lst, 0, 100, 4)) == [0, 4, 8]
+    assert_raises(ValueError, itertools.islice, lst, -1)
+    assert_raises(ValueError, itertools.islice, lst, 1, 2, 0)
+    assert_raises(ValueError, itertools.islice, lst, 'a')
+
+
+def test_islice_large_indices():
+    import sys
+
+    class Index:
+        def __init__(self, value):
+            self.value = value
+
+        def __index__(self):
+            return self.value
+
+    lst = list(range(10))
+    assert list(itertools.islice(lst, 8, sys.maxsize)) == [8, 9]
+    assert list(itertools.islice(iter(lst), 8, sys.maxsize)) == [8, 9]
+    assert list(itertools.islice(lst, 2 ** 31, None)) == []
+    assert list(itertools.islice(iter(lst), 1, None, 2 ** 31)) == [1]
+    assert list(itertools.islice(lst, Index(1), Index(6), Index(2))) == [1, 3, 5]
+    assert_raises(ValueError, itertools.islice, lst, sys.maxsize + 1)
+    assert_raises(ValueError, itertools.islice, lst, Index(-1))
+
+
+def test_islice_consumes_lazily():
+    it = iter(range(10))
+    assert list(itertools.islice(it, 1, 3)) == [1, 2]
+    assert next(it) == 3
+
+    # the items of a list are read when they are reached
+    lst = [1, 2, 3]
+    s = itertools.islice(lst, 1, None)
+    lst.append(4)
+    assert list(s) == [2, 3, 4]
+
+
+def test_permutations():
+    assert list(itertools.permutations('abc', 2)) == [('a', 'b'), ('a', 'c'), ('b', 'a'), ('b', 'c'), ('c', 'a'), ('c', 'b')]
+    assert len(list(itertools.permutations(range(4)))) == 24
+    assert list(itertools.permutations([1, 2], 3)) == []
+    assert list(itertools.permutations([1, 2], 0)) == [()]
+    assert list(itertools.permutations([])) == [()]
+    assert list(itertools.permutations(range(3), r=1)) == [(0,), (1,), (2,)]
+    assert_raises(ValueError, itertools.permutations, [1], -1)
+
+
+def rebuild(iterator):
+    reduced = iterator.__reduce__()
+    result = reduced[0](*reduced[1])
+    if len(reduced) > 2:
+        result.__setstate__(reduced[2])
+    return result
+
+
+def test_permutations_reduce():
+    p = itertools.permutations('abc', 2)
+    assert list(rebuild(p)) == list(itertools.permutations('abc', 2))
+    next(p)
+    next(p)
+    copy = rebuild(p)
+    assert list(copy) == list(p) == [('b', 'a'), ('b', 'c'), ('c', 'a'), ('c', 'b')]
+    assert list(rebuild(p)) == []
+    p = itertools.permutations(range(3))
+    next(p)
+    p.__setstate__(((2, 1, 0), (1, 1, 1)))
+    assert list(p) == []
+    assert_raises(ValueError, itertools.permutations(range(3)).__setstate__, ((0, 1), (3, 2, 1)))
+
+
+def test_combinations():
+    assert list(itertools.combinations('abcd', 2)) == [('a', 'b'), ('a', 'c'), ('a', 'd'), ('b', 'c'), ('b', 'd'), ('c', 'd')]
+    assert list(itertools.combinations(range(3), 3)) == [(0, 1, 2)]
+    assert list(itertools.combinations(range(3), 4)) == []
+    assert list(itertools.combinations(range(3), 0)) == [()]
+    assert_raises(ValueError, itertools.combinations, [1], -1)
+
+
+def test_combinations_with_replacement():
+    assert list(itertools.combinations_with_replacement('abc', 2)) == [('a', 'a'), ('a', 'b'), ('a', 'c'), ('b', 'b'), ('b', 'c'), ('c', 'c')]
+    assert list(itertools.combinations_with_replacement([], 2)) == []
+    assert list(itertools.combinations_with_replacement([], 0)) == [()]
+    assert len(list(itertools.combinations_with_replacement(range(4), 3))) == 20
+
+
+def test_product():
+    assert list(itertools.product('ab', [1, 2])) == [('a', 1), ('a', 2), ('b', 1), ('b', 2)]
+    assert list(itertools.product('ab', repeat=2)) == [('a', 'a'), ('a', 'b'), ('b', 'a'), ('b', 'b')]
+    assert list(itertools.product()) == [()]
+    assert list(itertools.product('ab', [])) == []
+    assert list(itertools.product('ab', repeat=0)) == [()]
+    assert_raises(ValueError, itertools.product, 'ab', repeat=-1)
+
+
+def test_product_of_ranges():
+    assert list(itertools.product(range(2), range(1, 7, 3))) == [(0, 1), (0, 4), (1, 1), (1, 4)]
+    assert list(itertools.product(range(3, 0, -2), repeat=2)) == [(3, 3), (3, 1), (1, 3), (1, 1)]
+    assert list(itertools.product(range(2), range(0))) == []
+    result = list(itertools.product(range(3), range(3), range(3)))
+    assert len(result) == 27
+    assert result[13] == (1, 1, 1)
+    assert result[-1] == (2, 2, 2)
+
+
+def test_product_reduce():
+    p = itertools.product('ab', [1, 2])
+    next(p)
+    copy = rebuild(p)
+    assert list(copy) == list(p) == [('a', 2), ('b', 1), ('b', 2)]
+    assert list(rebuild(p)) == []
+    p = itertools.product(range(2), range(1, 7, 3))
+    assert rebuild(p).__reduce__()[1] == ((0, 1), (1, 4))
+    next(p)
+    next(p)
+    assert list(rebuild(p)) == [(1, 1), (1, 4)]
+    p = itertools.product('ab', 'xyz')
+    next(p)
+    p.__setstate__((1, -3))
+    assert list(p) == [('b', 'y'), ('b', 'z')]
+
+
+def test_tee():
+    a, b = itertools.tee(range(5))
+    assert next(a) == 0
+    assert list(b) == [0, 1, 2, 3, 4]
+    assert list(a) == [1, 2, 3, 4]
+    assert itertools.tee([1]) != itertools.tee([1])
+    assert itertools.tee('abc', 0) == ()
+    a, b, c = itertools.tee(iter(range(200)), 3)
+    assert list(a) == list(range(200))
+    assert next(b) == 0
+    d, = itertools.tee(b, 1)
+    assert d is b
+    e = b.__copy__()
+    assert list(e) == list(b) == list(c)[1:]
+    assert_raises(ValueError, itertools.tee, [], -1)
+
+
+def test_accumulate():
+    assert list(itertools.accumulate([1, 2, 3, 4])) == [1, 3, 6, 10]
+    assert list(itertools.accumulate([3, 1, 4, 1, 5], max)) == [3, 3, 4, 4, 5]
+    assert list(itertools.accumulate([1, 2, 3], func=lambda a, b: a * b)) == [1, 2, 6]
+    assert list(itertools.accumulate(['a', 'b'])) == ['a', 'ab']
+    assert list(itertools.accumulate([])) == []
+
+
+def test_groupby():
+    groups = [(k, list(g)) for k, g in itertools.groupby('aaabccaa')]
+    assert groups == [('a', ['a', 'a', 'a']), ('b', ['b']), ('c', ['c', 'c']), ('a', ['a', 'a'])]
+    assert [k for k, g in itertools.groupby([1, 3, 2, 4, 5], key=lambda x: x % 2)] == [1, 0, 1]
+    assert list(itertools.groupby([])) == []
+
+
+def test_groupby_skips_unconsumed_groups():
+    groups = list(itertools.groupby('aabbbc'))
+    assert [k for k, g in groups] == ['a', 'b', 'c']
+    # a grouper is invalidated once the groupby advances
+    assert [list(g) for k, g in groups] == [[], [], []]
+
+    it = itertools.groupby('aab')
+    k, g = next(it)
+    assert next(g) == 'a'
+    k, g = next(it)
+    assert (k, list(g)) == ('b', ['b'])
+
+
+def test_zip_longest():
+    assert list(itertools.zip_longest('ab', [1, 2, 3])) == [('a', 1), ('b', 2), (None, 3)]
+    assert list(itertools.zip_longest('abc', [1], fillvalue='-')) == [('a', 1), ('b', '-'), ('c', '-')]
+    assert list(itertools.zip_longest()) == []
+    assert list(itertools.zip_longest([], [])) == []
+
+
+def test_cycle():
+    assert take(7, itertools.cycle('abc')) == ['a', 'b', 'c', 'a', 'b', 'c', 'a']
+    assert take(25, itertools.cycle(range(10)))[-5:] == [0, 1, 2, 3, 4]
+    assert list(itertools.cycle([])) == []
+
+
+def test_takewhile_dropwhile():
+    assert list(itertools.takewhile(lambda x: x < 5, [1, 4, 6, 4, 1])) == [1, 4]
+    assert list(itertools.dropwhile(lambda x: x < 5, [1, 4, 6, 4, 1])) == [6, 4, 1]
+    assert list(itertools.takewhile(bool, [])) == []
+    assert list(itertools.dropwhile(bool, [1, 1])) == []
+
+
+def test_filterfalse_compress():
+    assert list(itertools.filterfalse(lambda x: x % 2, range(10))) == [0, 2, 4, 6, 8]
+    assert list(itertools.filterfalse(None, [0, 1, '', 'a', None])) == [0, '', None]
+    assert list(itertools.compress('ABCDEF', [1, 0, 1, 0, 1, 1])) == ['A', 'C', 'E', 'F']
+    assert list(itertools.compress('ABC', [1])) == ['A']
+
+
+def test_for_loop_over_itertools():
+    total = 0
+    for x, y in itertools.product(range(3), range(4)):
+        total += x * y
+    assert total == 18
+
+    result = []
+    for x in itertools.chain(itertools.islice(itertools.count(10), 2), itertools.repeat(0, 2)):
+        result.append(x)
+    assert result == [10, 11, 0, 0]
+
+
+def test_subclass():
+    class MyCount(itertools.count):
+        def __next__(self):
+            return super().__next__() * 10
+
+    assert take(3, MyCount()) == [0, 10, 20]
+    result = []
+    for x in MyCount(1):
+        if x > 30:
+            break
+        result.append(x)
+    assert result == [10, 20, 30]
@@ -751,3 +751,73 @@ class ListCompareTest(CompareTest):
         self.assertEqual(l1 <= [1, 1], 'OK:False')
         self.assertEqual(l1 <= [1, 10], 'OK:True')
         self.assertEqual(l1 <= [1, 10, 0], 'OK:True')
+
+    def test_sort_primitive(self):
+        l = [5, 3, 9, 1, 7]
+        l.sort()
+        self.assertEqual(l, [1, 3, 5, 7, 9])
+        l.sort(reverse=True)
+        self.assertEqual(l, [9, 7, 5, 3, 1])
+
+        l = [LONG_NUMBER * 3, LONG_NUMBER, LONG_NUMBER * 2]
+        l.sort()
+        self.assertEqual(l, [LONG_NUMBER, LONG_NUMBER * 2, LONG_NUMBER * 3])
+
+        l = [2.5, -1.0, 0.0, 1.5]
+        l.sort()
+        self.assertEqual(l, [-1.0, 0.0, 1.5, 2.5])
+
+        # -0.0 and 0.0 compare equal and must keep their original order
+        l = [0.0, -0.0, -1.0]
+        l.sort()
+        self.assertEqual([str(x) for x in l], ['-1.0', '0.0', '-0.0'])
+
+    def test_sort_strings(self):
+        l = ['pear', 'apple', 'fig', 'banana']
+        l.sort()
+        self.assertEqual(l, ['apple', 'banana', 'fig', 'pear'])
+        l.sort(key=len)
+        self.assertEqual(l, ['fig', 'pear', 'apple', 'banana'])
+
+    def test_sort_stability(self):
+        data = [(i % 5, i) for i in range(200)]
+        l = list(data)
+        l.sort(key=lambda t: t[0])
+        self.assertEqual(l, sorted(data, key=lambda t: (t[0], t[1])))
+        l = list(data)
+        l.sort(key=lambda t: t[0], reverse=True)
+        self.assertEqual(l, sorted(data, key=lambda t: (-t[0], t[1])))
+
+    def test_sort_large(self):
+        import random
+        r = random.Random(42)
+        l = [r.randint(-1000, 1000) for i in range(5000)]
+        objs = [str(x) for x in l]
+        l.sort()
+        for i in range(len(l) - 1):
+            self.assertTrue(l[i] <= l[i + 1])
+        objs.sort(key=int)
+        self.assertEqual([int(x) for x in objs], l)
+
+    def test_sort_key_error(self):
+        l = [3, 2, 1]
+
+        def key(x):
+            if x == 1:
+                raise KeyError
+            return x
+
+        self.assertRaises(KeyError, l.sort, key=key)
+        self.assertEqual(l, [3, 2, 1])
+
+    def test_sort_empty_during_sort(self):
+        l = [3, 2, 1]
+        lengths = []
+
+        def key(x):
+            lengths.append(len(l))
+            return x
+
+        l.sort(key=key)
+        self.assertEqual(lengths, [0, 0, 0])
+        self.assertEqual(l, [1, 2, 3])
@@ -58,3 +58,36 @@ def test_map2():
     items0 = [0, 1, 2, 3, 4]
     items1 = [5, 6, 7, 8, 9]
     assert list(map(lambda x, y: x * y, items0, items1)) == [0, 6, 14, 24, 36]
+
+
+def test_map_lazy():
+    seen = []
+
+    def record(x):
+        seen.append(x)
+        return x
+
+    m = map(record, [1, 2, 3])
+    assert seen == []
+    assert next(m) == 1
+    assert seen == [1]
+    assert iter(m) is m
+    assert list(m) == [2, 3]
+
+
+def test_map_shortest():
+    assert list(map(lambda x, y, z: x + y + z, [1, 2, 3], [10, 20], range(100, 1000))) == [111, 123]
+
+
+def test_map_builtin_function():
+    assert list(map(str, range(3))) == ['0', '1', '2']
+    assert list(map(pow, [2, 3], [3, 2])) == [8, 9]
+
+
+def test_map_subclass():
+    class MyMap(map):
+        def __next__(self):
+            return -super().__next__()
+
+    assert list(MyMap(abs, [1, -2])) == [-1, -2]
+    assert [x for x in MyMap(abs, [3])] == [-3]
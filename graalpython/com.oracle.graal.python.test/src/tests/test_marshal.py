@@ -0,0 +1,123 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import marshal
+
+
+def roundtrip(value):
+    return marshal.loads(marshal.dumps(value))
+
+
+def test_simple_values():
+    for value in [None, True, False, Ellipsis, StopIteration, 0, -1, 2**31 - 1, -2**31, 2**31, -2**63, 2**100,
+                  -(2**200) + 7, 1.5, -0.0, float("inf"), 3 + 4j, "", "hello", "héllo wörld \U0001f600",
+                  b"", b"\x00bytes\xff"]:
+        result = roundtrip(value)
+        assert result == value, "%r != %r" % (result, value)
+        assert type(result) == type(value), "%r is not a %r" % (result, type(value))
+
+
+def test_containers():
+    value = (1, [2, 3.0, "four"], {"a": (b"b",), 5: None}, {1, 2, 3}, frozenset(["x"]), ())
+    assert roundtrip(value) == value
+    assert roundtrip(bytearray(b"abc")) == b"abc"
+    assert roundtrip(tuple(range(1000))) == tuple(range(1000))
+
+
+def test_cpython_format():
+    assert marshal.dumps(None) == b"N"
+    assert marshal.loads(b"i\x01\x00\x00\x00") == 1
+    assert marshal.loads(b"l\x02\x00\x00\x00\x00\x00\x01\x00") == 2**15
+    assert marshal.loads(b"\xa9\x02\xe9\x01\x00\x00\x00r\x01\x00\x00\x00") == (1, 1)
+
+
+def test_errors():
+    try:
+        marshal.dumps(object())
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+    try:
+        marshal.loads(b"i\x01")
+    except EOFError:
+        pass
+    else:
+        assert False, "expected EOFError"
+    try:
+        marshal.loads(b"?")
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_code():
+    code = compile("result = 42\n", "<marshal_test>", "exec")
+    try:
+        marshal.dumps(code)
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_file():
+    import io
+    buf = io.BytesIO()
+    marshal.dump({"key": [1, 2]}, buf)
+    buf.seek(0)
+    assert marshal.load(buf) == {"key": [1, 2]}
+
+
+def test_threads():
+    import threading
+    errors = []
+
+    def work(i):
+        value = [i, "x" * i, (i, 2.5), {i: [i] * 100}]
+        for _ in range(200):
+            if roundtrip(value) != value:
+                errors.append(i)
+
+    threads = [threading.Thread(target=work, args=(i,)) for i in range(4)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    assert errors == []
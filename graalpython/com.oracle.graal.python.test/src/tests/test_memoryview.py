@@ -25,7 +25,7 @@ def test_readonly():
         assert False
 
 
-def _test_assignment():
+def test_assignment():
     data = bytearray(b'abcefg')
     v = memoryview(data)
     v[0] = ord(b'z')
@@ -46,3 +46,152 @@ def test_tobytes():
     b = b"hello"
     v = memoryview(b)
     assert v.tobytes() == b
+
+
+def test_shares_storage():
+    data = bytearray(b'abcdefgh')
+    v = memoryview(data)
+    s = v[2:6]
+    data[3] = ord('X')
+    assert s[1] == ord('X')
+    s[0] = ord('Y')
+    assert data == bytearray(b'abYXefgh')
+    assert s.obj is data
+
+
+def test_slice_steps():
+    v = memoryview(b'0123456789')
+    assert v[::2].tobytes() == b'02468'
+    assert v[::2][1:4].tobytes() == b'246'
+    assert v[::-1].tobytes() == b'9876543210'
+    assert v[8:2:-3].tobytes() == b'85'
+    assert v[::2].strides == (2,)
+    assert not v[::2].contiguous
+    assert len(v[3:3]) == 0
+
+
+def test_properties():
+    v = memoryview(b'abc')
+    assert len(v) == 3
+    assert v.nbytes == 3
+    assert v.readonly
+    assert v.itemsize == 1
+    assert v.format == 'B'
+    assert v.ndim == 1
+    assert v.shape == (3,)
+    assert v.tolist() == [97, 98, 99]
+    assert v.hex() == '616263'
+    assert v == b'abc'
+    assert v != b'abd'
+
+
+def test_readonly_assignment():
+    v = memoryview(b'abc')
+    try:
+        v[0] = 1
+    except TypeError:
+        pass
+    else:
+        assert False
+
+
+def test_invalid_item():
+    v = memoryview(bytearray(b'abc'))
+    try:
+        v[0] = 256
+    except ValueError:
+        pass
+    else:
+        assert False
+    try:
+        v[3]
+    except IndexError:
+        pass
+    else:
+        assert False
+
+
+def test_release():
+    v = memoryview(b'abc')
+    with v as m:
+        assert m[0] == 97
+    try:
+        v[0]
+    except ValueError:
+        pass
+    else:
+        assert False
+    try:
+        len(v)
+    except ValueError:
+        pass
+    else:
+        assert False
+
+
+def test_cast():
+    v = memoryview(bytearray(b'\xff\x01'))
+    c = v.cast('b')
+    assert c.format == 'b'
+    assert c.tolist() == [-1, 1]
+    assert v.cast('c')[0] == b'\xff'
+
+
+def test_array():
+    from array import array
+    a = array('i', [1, 2, 3])
+    v = memoryview(a)
+    assert v.format == 'i'
+    assert v.itemsize == 4
+    assert v.nbytes == 12
+    assert v.tolist() == [1, 2, 3]
+    v[1] = 42
+    assert a[1] == 42
+    assert bytes(v) == a.tobytes()
+
+
+def test_bytes_constructors():
+    v = memoryview(b'abcdef')[1:5]
+    assert bytes(v) == b'bcde'
+    assert bytearray(v) == bytearray(b'bcde')
+    assert bytes(v[::2]) == b'bd'
+
+
+def test_write():
+    import os
+    r, w = os.pipe()
+    try:
+        data = bytearray(b'0123456789')
+        assert os.write(w, memoryview(data)[2:5]) == 3
+        assert os.write(w, memoryview(data)[7:]) == 3
+        assert os.read(r, 6) == b'234789'
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_resize_owner():
+    def assert_index_error(f):
+        try:
+            f()
+        except IndexError:
+            pass
+        else:
+            assert False
+
+    b = bytearray(8)
+    memoryview(b)[:2].tobytes()
+    b.append(0)
+    assert len(b) == 9
+
+    buf = bytearray(b'abcdef')
+    m = memoryview(buf)[2:]
+    m[0] = ord('x')
+    del buf[:2]
+    assert buf == bytearray(b'xdef')
+    assert m[1] == ord('f')
+    assert_index_error(lambda: m.tobytes())
+    assert_index_error(lambda: m[3])
+    assert_index_error(lambda: m.__setitem__(3, 0))
+    buf.extend(b'gh')
+    assert m.tobytes() == b'efgh'
@@ -176,3 +176,69 @@ def test_builtin_open():
         unlink(file_name)
 
     assert success
+
+
+def test_fd_dup_close():
+    import os
+    file_name = "dump_fd.txt"
+    unlink(file_name)
+    try:
+        fd = os.open(file_name, os.O_WRONLY | os.O_CREAT)
+        os.write(fd, b"abcdef")
+        os.close(fd)
+
+        fd = os.open(file_name, os.O_RDONLY)
+        fd2 = os.dup(fd)
+        assert fd2 != fd
+        os.close(fd)
+        # the duplicate keeps the file open
+        assert os.read(fd2, 3) == b"abc"
+        assert_raises(OSError, os.read, fd, 1)
+        os.close(fd2)
+
+        # closed descriptors are reused
+        fd3 = os.open(file_name, os.O_RDONLY)
+        assert fd3 in (fd, fd2)
+        assert os.read(fd3, 100) == b"abcdef"
+        assert os.read(fd3, 100) == b""
+        os.close(fd3)
+        assert_raises(OSError, os.close, fd3)
+    finally:
+        unlink(file_name)
+
+
+def test_lowest_free_fd():
+    import os
+    file_name = "dump_fd.txt"
+    unlink(file_name)
+    try:
+        fds = [os.open(file_name, os.O_WRONLY | os.O_CREAT) for i in range(3)]
+        os.close(fds[2])
+        os.close(fds[0])
+        # the lowest free descriptor is allocated first, as in POSIX
+        fd = os.open(file_name, os.O_RDONLY)
+        assert fd == fds[0]
+        os.close(fd)
+        os.close(fds[1])
+    finally:
+        unlink(file_name)
+
+
+def test_readinto_and_large_read():
+    import _pyio as pyio
+    file_name = "dump_large.bin"
+    data = bytes(range(256)) * (5 * 4096 + 3)
+    unlink(file_name)
+    try:
+        with pyio.open(file_name, "wb") as f:
+            f.write(data)
+        with pyio.open(file_name, "rb", buffering=0) as f:
+            buf = bytearray(10)
+            assert f.readinto(buf) == 10
+            assert buf == data[:10]
+            assert f.read() == data[10:]
+            buf = bytearray(b"xyz")
+            assert f.readinto(buf) == 0
+            assert buf == b"xyz"
+    finally:
+        unlink(file_name)
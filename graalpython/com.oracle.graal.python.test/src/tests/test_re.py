@@ -390,3 +390,57 @@ class ReTests(unittest.TestCase):
         self.assertTrue(match)
         assert "frac" in match.groupdict()
         assert match.groupdict()["frac"] == "1"
+
+    def test_match_object(self):
+        m = re.compile(r"(?P<key>\w+)=(?P<value>\d+)?(;)?").match("size=; rest")
+        self.assertEqual(m.group(), "size=;")
+        self.assertEqual(m.group("key", 1, 3), ("size", "size", ";"))
+        self.assertEqual(m["key"], "size")
+        self.assertIsNone(m.group("value"))
+        self.assertEqual(m.groups(), ("size", None, ";"))
+        self.assertEqual(m.groups("-"), ("size", "-", ";"))
+        self.assertEqual(m.groupdict(), {"key": "size", "value": None})
+        self.assertEqual(m.groupdict(0), {"key": "size", "value": 0})
+        self.assertEqual(m.span("key"), (0, 4))
+        self.assertEqual(m.span(2), (-1, -1))
+        self.assertEqual((m.start(3), m.end(3)), (5, 6))
+        self.assertEqual(m.string, "size=; rest")
+        self.assertEqual((m.pos, m.endpos), (0, 11))
+        self.assertEqual(m.lastindex, 3)
+        self.assertIsNone(m.lastgroup)
+        self.assertRaises(IndexError, m.group, 4)
+        self.assertRaises(IndexError, m.group, "missing")
+
+        m = re.compile(r"(a)(?P<b>b)").search("xxab", 1, 4)
+        self.assertEqual((m.pos, m.endpos), (1, 4))
+        self.assertEqual(m.lastgroup, "b")
+        self.assertIsNone(re.compile("ab").search("xxab", 1, 3))
+
+    def test_repeated_match(self):
+        pattern = re.compile(r"(\d+)-(\d+)")
+        for i in range(100):
+            m = pattern.match("%d-%d" % (i, i * 2))
+            self.assertEqual(m.groups(), (str(i), str(i * 2)))
+            self.assertIsNone(pattern.match("x%d-%d" % (i, i)))
+            self.assertEqual(re.match(r"(\d+)-(\d+)", "%d-%d" % (i, i)).group(2), str(i))
+        self.assertIsNone(re.compile("a|b").fullmatch("ab"))
+        self.assertEqual(re.compile("a|ab").fullmatch("ab").group(), "ab")
+        self.assertIsNone(re.compile("x|ab").match("zab"))
+
+    def test_finditer(self):
+        iterator = re.compile(r"(\w)=(\d)").finditer("a=1, b=2, c=x, d=4")
+        self.assertEqual([m.groups() for m in iterator], [("a", "1"), ("b", "2"), ("d", "4")])
+        self.assertEqual([m.span() for m in re.finditer("x*", "axxb")], [(0, 0), (1, 3), (3, 3), (4, 4)])
+        self.assertEqual(re.findall(r"(\w)=(\d)?", "a=1 b="), [("a", "1"), ("b", "")])
+
+    def test_subn(self):
+        self.assertEqual(re.subn(r"(\d+)", r"<\1>", "a1b22c"), ("a<1>b<22>c", 2))
+        self.assertEqual(re.subn(r"(\d+)", r"<\g<0>>", "a1b22c", 1), ("a<1>b22c", 1))
+        self.assertEqual(re.sub(r"(?P<d>\d)(x)?", r"[\g<d>\2]", "1x2"), "[1x][2]")
+        self.assertEqual(re.sub(r"\d", lambda m: None, "a1b2"), "ab")
+        self.assertEqual(re.sub(r"\d", lambda m: m.re.pattern, "a1"), r"a\d")
+
+    def test_split(self):
+        self.assertEqual(re.split(r"[,;]\s*", "a, b;c"), ["a", "b", "c"])
+        self.assertEqual(re.split(r"([,;])", "a,b;c", 1), ["a", ",", "b;c"])
+        self.assertEqual(re.split(r"(,)|(;)", "a,b;c"), ["a", ",", None, "b", None, ";", "c"])
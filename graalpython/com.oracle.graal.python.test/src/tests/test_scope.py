@@ -906,3 +906,75 @@ def test_func_scope():
 
     assert set(my_obj.__code__.co_cellvars) == set()
     assert set(my_obj.__code__.co_freevars) == {'my_obj', 'y'}
+
+
+def read_len():
+    return len
+
+
+def read_a_rebound_global():
+    return a_rebound_global
+
+
+def test_global_shadows_builtin():
+    global len
+    builtin_len = read_len()
+    for i in range(10):
+        assert read_len() is builtin_len
+    len = lambda x: -1
+    try:
+        for i in range(10):
+            assert read_len()("abc") == -1
+    finally:
+        del len
+    for i in range(10):
+        assert read_len() is builtin_len
+
+
+def test_rebound_builtin():
+    import builtins
+    builtin_len = builtins.len
+    for i in range(10):
+        assert read_len() is builtin_len
+    builtins.len = lambda x: -2
+    try:
+        for i in range(10):
+            assert read_len()("abc") == -2
+    finally:
+        builtins.len = builtin_len
+    assert read_len() is builtin_len
+
+
+def test_rebound_global():
+    global a_rebound_global
+    for i in range(20):
+        a_rebound_global = i
+        assert read_a_rebound_global() == i
+    globals()["a_rebound_global"] = "via dict"
+    assert read_a_rebound_global() == "via dict"
+    del a_rebound_global
+    assert_raises(NameError, read_a_rebound_global)
+
+
+def test_rebound_global_through_module_dict():
+    import types
+    m = types.ModuleType("rebound_via_dict")
+    exec("x = 1\ndef read_x():\n    return x\ndef read_len():\n    return len\n", m.__dict__)
+    assert m.read_x.__globals__ is m.__dict__
+    for i in range(10):
+        assert m.read_x() == 1
+    m.__dict__["x"] = 2
+    assert m.read_x() == 2
+    m.__dict__.update(x=3)
+    assert m.read_x() == 3
+    m.x = 4
+    assert m.read_x() == 4
+    del m.__dict__["x"]
+    assert_raises(NameError, m.read_x)
+    builtin_len = m.read_len()
+    m.__dict__["len"] = "shadowed"
+    assert m.read_len() == "shadowed"
+    read_x, read_len = m.read_x, m.read_len
+    m.__dict__.clear()
+    assert_raises(NameError, read_x)
+    assert read_len() is builtin_len
@@ -0,0 +1,204 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import os
+import select
+
+
+def test_select_pipe():
+    r, w = os.pipe()
+    try:
+        assert select.select([r], [], [], 0) == ([], [], [])
+        assert select.select([r], [w], [], 0) == ([], [w], [])
+        os.write(w, b"x")
+        assert select.select([r], [], [], 1) == ([r], [], [])
+        assert os.read(r, 1) == b"x"
+        assert select.select([r], [], [], 0.01) == ([], [], [])
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_nonblocking_pipe():
+    r, w = os.pipe()
+    try:
+        os.set_blocking(r, False)
+        os.set_blocking(w, False)
+        raised = False
+        try:
+            os.read(r, 1)
+        except BlockingIOError:
+            raised = True
+        assert raised
+        os.write(w, b"x")
+        assert os.read(r, 10) == b"x"
+
+        raised = False
+        chunk = b"x" * 65536
+        for i in range(1024):
+            try:
+                os.write(w, chunk)
+            except BlockingIOError:
+                raised = True
+                break
+        assert raised
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_select_fileno_objects():
+    class F:
+        def __init__(self, fd):
+            self.fd = fd
+
+        def fileno(self):
+            return self.fd
+
+    r, w = os.pipe()
+    try:
+        reader = F(r)
+        os.write(w, b"x")
+        assert select.select([reader], [], [], 0)[0] == [reader]
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_poll_many():
+    p = select.poll()
+    pipes = [os.pipe() for i in range(200)]
+    try:
+        for r, w in pipes:
+            p.register(r, select.POLLIN)
+        assert p.poll(0) == []
+        os.write(pipes[3][1], b"x")
+        os.write(pipes[150][1], b"y")
+        assert sorted(p.poll(1000)) == sorted([(pipes[3][0], select.POLLIN), (pipes[150][0], select.POLLIN)])
+        p.unregister(pipes[3][0])
+        assert p.poll(0) == [(pipes[150][0], select.POLLIN)]
+        assert os.read(pipes[150][0], 1) == b"y"
+        assert os.read(pipes[3][0], 1) == b"x"
+        p.modify(pipes[0][0], select.POLLOUT)
+        assert p.poll(0) == []
+    finally:
+        for r, w in pipes:
+            os.close(r)
+            os.close(w)
+
+
+def test_poll_keeps_blocking_mode():
+    import threading
+    r, w = os.pipe()
+    p = select.poll()
+    try:
+        p.register(r, select.POLLIN)
+        assert os.get_blocking(r)
+        os.set_blocking(r, True)
+        assert p.poll(0) == []
+
+        # a registered descriptor in blocking mode still waits for data
+        writer = threading.Timer(0.05, os.write, (w, b"x"))
+        writer.start()
+        assert os.read(r, 1) == b"x"
+        writer.join()
+
+        os.set_blocking(r, False)
+        assert not os.get_blocking(r)
+        raised = False
+        try:
+            os.read(r, 1)
+        except BlockingIOError:
+            raised = True
+        assert raised
+        p.unregister(r)
+        assert not os.get_blocking(r)
+        os.set_blocking(r, True)
+        os.write(w, b"y")
+        assert os.read(r, 1) == b"y"
+    finally:
+        os.close(r)
+        os.close(w)
+
+
+def test_epoll():
+    if not hasattr(select, "epoll"):
+        return
+    r, w = os.pipe()
+    ep = select.epoll()
+    try:
+        ep.register(r, select.EPOLLIN)
+        ep.register(w, select.EPOLLOUT)
+        assert ep.poll(0) == [(w, select.EPOLLOUT)]
+        ep.modify(w, select.EPOLLIN)
+        assert ep.poll(0) == []
+        os.write(w, b"abc")
+        assert ep.poll(1) == [(r, select.EPOLLIN)]
+        raised = False
+        try:
+            ep.register(r, select.EPOLLIN)
+        except FileExistsError:
+            raised = True
+        assert raised
+        ep.unregister(r)
+        assert ep.poll(0) == []
+        assert os.read(r, 3) == b"abc"
+    finally:
+        ep.close()
+        os.close(r)
+        os.close(w)
+    assert ep.closed
+
+
+def test_selectors():
+    import selectors
+    r, w = os.pipe()
+    sel = selectors.DefaultSelector()
+    try:
+        sel.register(r, selectors.EVENT_READ, "data")
+        assert sel.select(0) == []
+        os.write(w, b"x")
+        [(key, events)] = sel.select(1)
+        assert key.fd == r and key.data == "data" and events == selectors.EVENT_READ
+        sel.unregister(r)
+        assert os.read(r, 1) == b"x"
+    finally:
+        sel.close()
+        os.close(r)
+        os.close(w)
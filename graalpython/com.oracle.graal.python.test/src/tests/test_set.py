@@ -252,3 +252,124 @@ def test_rich_compare():
     myobj = TestRichSetCompare()
     myset >= myobj
     assert myobj.le_called
+
+
+class CountingHash:
+    hash_calls = 0
+
+    def __init__(self, value):
+        self.value = value
+
+    def __hash__(self):
+        CountingHash.hash_calls += 1
+        return hash(self.value)
+
+    def __eq__(self, other):
+        return isinstance(other, CountingHash) and self.value == other.value
+
+
+def test_set_operations_reuse_hashes():
+    a = {CountingHash(i) for i in range(100)}
+    b = {CountingHash(i) for i in range(50, 150)}
+    CountingHash.hash_calls = 0
+    assert len(a | b) == 150
+    assert len(a & b) == 50
+    assert len(a - b) == 50
+    assert CountingHash.hash_calls == 0
+
+
+def test_set_grow_does_not_rehash():
+    CountingHash.hash_calls = 0
+    s = set()
+    for i in range(1000):
+        s.add(CountingHash(i))
+    assert CountingHash.hash_calls == 1000
+    assert CountingHash(500) in s
+    assert CountingHash(1000) not in s
+
+
+def test_set_int_float_keys():
+    s = {1, 2, 3}
+    assert 2.0 in s
+    assert 2.5 not in s
+    assert {1.0, 2.0} & s == {1.0, 2.0}
+
+
+def test_int_set():
+    s = set()
+    for i in range(10000):
+        s.add(i * 7)
+    assert len(s) == 10000
+    assert 700 in s
+    assert 701 not in s
+    assert 700.0 in s
+    assert True not in s
+    assert 0 in s and False in s
+    assert "700" not in s
+    assert 2 ** 40 not in s
+    s.add(2 ** 40)
+    assert 2 ** 40 in s
+    s.discard(0)
+    s.remove(7)
+    assert 0 not in s and 7 not in s
+    assert len(s) == 9999
+
+
+def test_int_set_generalize():
+    s = {1, 2, 3}
+    s.add("a")
+    s.add(4)
+    assert s == {1, 2, 3, 4, "a"}
+    f = frozenset([1, 2, (3, 4)])
+    assert (3, 4) in f and 2 in f
+    assert len(f) == 3
+
+
+def test_int_set_other_keys():
+    class IntLike:
+        def __init__(self, value):
+            self.value = value
+
+        def __hash__(self):
+            return hash(self.value)
+
+        def __eq__(self, other):
+            return self.value == other
+
+    s = set()
+    for i in range(0, 2000, 2):
+        s.add(i)
+    assert None not in s
+    assert (1, 2) not in s
+    assert IntLike(10) in s
+    assert IntLike(11) not in s
+    assert 2 ** 64 + 10 not in s
+    s.discard(IntLike(10))
+    assert 10 not in s and len(s) == 999
+    f = frozenset(s) | {"a"}
+    assert "a" in f and 12 in f and len(f) == 1000
+
+
+def test_int_set_operations():
+    a = set(range(0, 100))
+    b = set(range(50, 150))
+    assert a | b == set(range(150))
+    assert a & b == set(range(50, 100))
+    assert a - b == set(range(50))
+    assert a ^ b == set(range(50)) | set(range(100, 150))
+    assert a & {50.0, "x"} == {50}
+
+
+def test_set_tuple_keys():
+    s = {(1, 2), (3, 4)}
+    assert (1, 2) in s
+    assert (1, 3) not in s
+    assert {(1, 2)} - s == set()
+    assert {(1, 2), (5, 6)} & s == {(1, 2)}
+    assert hash(frozenset([1, 2, 3])) == hash(frozenset([3, 2, 1]))
+    try:
+        hash({1})
+    except TypeError:
+        pass
+    else:
+        assert False, "set must not be hashable"
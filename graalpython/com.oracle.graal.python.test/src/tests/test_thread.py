@@ -0,0 +1,207 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import _thread
+import threading
+import time
+
+
+def test_start_new_thread():
+    lock = _thread.allocate_lock()
+    lock.acquire()
+    result = []
+
+    def body(a, b=None):
+        result.append((a, b, _thread.get_ident()))
+        lock.release()
+
+    _thread.start_new_thread(body, (1,), {"b": 2})
+    assert lock.acquire(timeout=10)
+    assert result[0][:2] == (1, 2)
+    assert result[0][2] != _thread.get_ident()
+
+
+def test_start_new_thread_args():
+    try:
+        _thread.start_new_thread(print, [])
+    except TypeError:
+        pass
+    else:
+        assert False, "expected TypeError"
+
+
+def test_lock():
+    lock = _thread.allocate_lock()
+    assert isinstance(lock, _thread.LockType)
+    assert not lock.locked()
+    assert lock.acquire()
+    assert lock.locked()
+    assert not lock.acquire(False)
+    assert not lock.acquire(timeout=0.01)
+    lock.release()
+    assert not lock.locked()
+    try:
+        lock.release()
+    except RuntimeError:
+        pass
+    else:
+        assert False, "expected RuntimeError"
+    with lock:
+        assert lock.locked()
+    assert not lock.locked()
+    try:
+        lock.acquire(False, 1)
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_rlock():
+    lock = _thread.RLock()
+    assert lock.acquire()
+    assert lock.acquire()
+    assert lock._is_owned()
+    lock.release()
+    lock.release()
+    assert not lock._is_owned()
+    try:
+        lock.release()
+    except RuntimeError:
+        pass
+    else:
+        assert False, "expected RuntimeError"
+
+    released = []
+
+    def other():
+        released.append(lock.acquire(False))
+
+    with lock:
+        t = threading.Thread(target=other)
+        t.start()
+        t.join()
+    assert released == [False]
+
+
+def test_threading_join():
+    results = [None] * 4
+
+    def work(i):
+        time.sleep(0.01)
+        results[i] = i * i
+
+    threads = [threading.Thread(target=work, args=(i,)) for i in range(4)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    assert results == [0, 1, 4, 9]
+    assert not any(t.is_alive() for t in threads)
+
+
+def test_shared_list():
+    items = []
+
+    def append(n):
+        for i in range(n):
+            items.append(i)
+
+    threads = [threading.Thread(target=append, args=(10000,)) for i in range(4)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    assert len(items) == 40000
+    assert sorted(items) == sorted(list(range(10000)) * 4)
+
+
+def test_condition():
+    cond = threading.Condition()
+    items = []
+
+    def produce():
+        for i in range(10):
+            with cond:
+                items.append(i)
+                cond.notify()
+
+    consumed = []
+    t = threading.Thread(target=produce)
+    with cond:
+        t.start()
+        while len(consumed) < 10:
+            while not items:
+                cond.wait(10)
+            consumed.append(items.pop(0))
+    t.join()
+    assert consumed == list(range(10))
+
+
+def test_local():
+    local = threading.local()
+    local.x = 1
+    seen = []
+
+    def other():
+        seen.append(hasattr(local, "x"))
+        local.x = 2
+        seen.append(local.x)
+
+    t = threading.Thread(target=other)
+    t.start()
+    t.join()
+    assert seen == [False, 2]
+    assert local.x == 1
+    assert local.__dict__ == {"x": 1}
+
+
+def test_local_subclass():
+    class MyLocal(threading.local):
+        def __init__(self, value):
+            self.value = value
+
+    local = MyLocal(42)
+    local.value = 1
+    seen = []
+    t = threading.Thread(target=lambda: seen.append(local.value))
+    t.start()
+    t.join()
+    assert seen == [42]
+    assert local.value == 1
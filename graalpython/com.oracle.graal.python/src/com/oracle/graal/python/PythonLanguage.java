@@ -50,11 +50,13 @@ import com.oracle.graal.python.nodes.control.TopLevelExceptionHandler;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.parser.ParseTreeCache;
 import com.oracle.graal.python.parser.PythonParserImpl;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
@@ -100,6 +102,7 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     @CompilationFinal private boolean nativeBuildTime = TruffleOptions.AOT;
     private final NodeFactory nodeFactory;
     public final ConcurrentHashMap<Class<? extends PythonBuiltinBaseNode>, RootCallTarget> builtinCallTargetCache = new ConcurrentHashMap<>();
+    public final ParseTreeCache parseTreeCache = new ParseTreeCache();
 
     public PythonLanguage() {
         this.nodeFactory = NodeFactory.create(this);
@@ -111,10 +114,29 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
 
     @Override
     protected void finalizeContext(PythonContext context) {
-        context.runShutdownHooks();
+        PythonThreads threads = context.getThreads();
+        int holds = threads.enter();
+        try {
+            threads.joinNonDaemonThreads();
+            context.runShutdownHooks();
+        } finally {
+            threads.leave(holds);
+        }
+        threads.shutdown();
         super.finalizeContext(context);
     }
 
+    @Override
+    protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+        // every entry into Python code takes the GIL, see PythonThreads
+        return true;
+    }
+
+    @Override
+    protected void initializeMultiThreading(PythonContext context) {
+        context.getThreads().initializeMultiThreading();
+    }
+
     @Override
     protected boolean patchContext(PythonContext context, Env newEnv) {
         nativeBuildTime = false; // now we're running
@@ -265,13 +287,17 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
                     cachedCtx = context;
                 }
                 assert context != null;
-                Object result;
-                if (context == cachedCtx) {
-                    result = expression.execute(frame);
-                } else {
-                    result = parseAndEval(context, frame.materialize());
+                PythonThreads threads = context.getThreads();
+                int holds = threads.enter();
+                try {
+                    if (context == cachedCtx) {
+                        return expression.execute(frame);
+                    } else {
+                        return parseAndEval(context, frame.materialize());
+                    }
+                } finally {
+                    threads.leave(holds);
                 }
-                return result;
             }
 
             private void parseAndCache(PythonContext context) {
@@ -368,8 +394,14 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         Object[] userArgs = PArguments.create(2);
         PArguments.setArgument(userArgs, 0, PNone.NONE);
         PArguments.setArgument(userArgs, 1, value);
-        Object res = InvokeNode.create(reprMethod).execute(null, userArgs, PKeyword.EMPTY_KEYWORDS);
-        return res.toString();
+        PythonThreads threads = context.getThreads();
+        int holds = threads.enter();
+        try {
+            Object res = InvokeNode.create(reprMethod).execute(null, userArgs, PKeyword.EMPTY_KEYWORDS);
+            return res.toString();
+        } finally {
+            threads.leave(holds);
+        }
     }
 
     public static TruffleLogger getLogger() {
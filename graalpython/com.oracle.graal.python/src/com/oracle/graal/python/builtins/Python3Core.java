@@ -30,6 +30,7 @@ import static com.oracle.graal.python.nodes.BuiltinNames.MODULE;
 import static com.oracle.graal.python.nodes.BuiltinNames.OBJECT;
 import static com.oracle.graal.python.nodes.BuiltinNames.TYPE;
 import static com.oracle.graal.python.nodes.BuiltinNames.__BUILTINS_PATCHES__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__FILE__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__PACKAGE__;
 
 import java.io.IOException;
@@ -44,6 +45,7 @@ import java.util.Map.Entry;
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.modules.ArrayModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AstModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.AsyncioModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.AtexitModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.BuiltinConstructors;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
@@ -68,17 +70,23 @@ import com.oracle.graal.python.builtins.modules.SelectModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SignalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.StringModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SysModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.ThreadModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.TimeModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.TruffleCextBuiltins;
 import com.oracle.graal.python.builtins.modules.UnicodeDataModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.WeakRefModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.array.ArrayBuiltins;
+import com.oracle.graal.python.builtins.objects.asyncio.FutureBuiltins;
+import com.oracle.graal.python.builtins.objects.asyncio.FutureIterBuiltins;
+import com.oracle.graal.python.builtins.objects.asyncio.TaskBuiltins;
 import com.oracle.graal.python.builtins.objects.bool.BoolBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.ByteArrayBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
 import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictKeysIteratorBuiltins;
@@ -95,16 +103,30 @@ import com.oracle.graal.python.builtins.objects.frame.FrameBuiltins;
 import com.oracle.graal.python.builtins.objects.function.AbstractFunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.BuiltinFunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltins;
+import com.oracle.graal.python.builtins.objects.function.PartialBuiltins;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
+import com.oracle.graal.python.builtins.objects.generator.CoroutineBuiltins;
 import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedReaderBuiltins;
+import com.oracle.graal.python.builtins.objects.io.BufferedWriterBuiltins;
+import com.oracle.graal.python.builtins.objects.io.TextIOWrapperBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.ForeignIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.FilterBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.IteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.MapBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PZipBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.SentinelIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CountBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.PermutationsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ProductBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.RepeatBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.TeeBuiltins;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.MappingproxyBuiltins;
@@ -120,11 +142,17 @@ import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.reversed.ReversedBuiltins;
+import com.oracle.graal.python.builtins.objects.select.EpollBuiltins;
+import com.oracle.graal.python.builtins.objects.select.PollBuiltins;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins;
 import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
 import com.oracle.graal.python.builtins.objects.slice.SliceBuiltins;
+import com.oracle.graal.python.builtins.objects.sre.SREMatchBuiltins;
 import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
 import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.LockBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.RLockBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.ThreadLocalBuiltins;
 import com.oracle.graal.python.builtins.objects.traceback.TracebackBuiltins;
 import com.oracle.graal.python.builtins.objects.tuple.TupleBuiltins;
 import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
@@ -161,7 +189,6 @@ public final class Python3Core implements PythonCore {
                     "type",
                     "_imp",
                     "function",
-                    "_functools",
                     "method",
                     "code",
                     "_warnings",
@@ -186,6 +213,8 @@ public final class Python3Core implements PythonCore {
                     "unicodedata",
                     "_locale",
                     "_sre",
+                    "_thread",
+                    "_asyncio",
     };
 
     private final PythonBuiltins[] BUILTINS = new PythonBuiltins[]{
@@ -218,13 +247,17 @@ public final class Python3Core implements PythonCore {
                     new IteratorBuiltins(),
                     new ReversedBuiltins(),
                     new PZipBuiltins(),
+                    new MapBuiltins(),
+                    new FilterBuiltins(),
                     new EnumerateBuiltins(),
                     new SentinelIteratorBuiltins(),
                     new ForeignIteratorBuiltins(),
                     new GeneratorBuiltins(),
+                    new CoroutineBuiltins(),
                     new AbstractFunctionBuiltins(),
                     new FunctionBuiltins(),
                     new BuiltinFunctionBuiltins(),
+                    new PartialBuiltins(),
                     new AbstractMethodBuiltins(),
                     new MethodBuiltins(),
                     new BuiltinMethodBuiltins(),
@@ -246,16 +279,39 @@ public final class Python3Core implements PythonCore {
                     new WeakRefModuleBuiltins(),
                     new ReferenceTypeBuiltins(),
                     new IOModuleBuiltins(),
+                    new BufferedIOBuiltins(),
+                    new BufferedReaderBuiltins(),
+                    new BufferedWriterBuiltins(),
+                    new TextIOWrapperBuiltins(),
                     new StringModuleBuiltins(),
                     new ItertoolsModuleBuiltins(),
+                    new ItertoolsBuiltins(),
+                    new CountBuiltins(),
+                    new RepeatBuiltins(),
+                    new PermutationsBuiltins(),
+                    new ProductBuiltins(),
+                    new TeeBuiltins(),
                     new FunctoolsModuleBuiltins(),
                     new ErrnoModuleBuiltins(),
                     new CodecsModuleBuiltins(),
                     new CollectionsModuleBuiltins(),
+                    new DequeBuiltins(),
+                    new DequeIteratorBuiltins(),
                     new JavaModuleBuiltins(),
                     new SREModuleBuiltins(),
+                    new SREMatchBuiltins(),
                     new AstModuleBuiltins(),
                     new SelectModuleBuiltins(),
+                    new PollBuiltins(),
+                    new EpollBuiltins(),
+                    new ThreadModuleBuiltins(),
+                    new LockBuiltins(),
+                    new RLockBuiltins(),
+                    new ThreadLocalBuiltins(),
+                    new AsyncioModuleBuiltins(),
+                    new FutureBuiltins(),
+                    new FutureIterBuiltins(),
+                    new TaskBuiltins(),
                     new SignalModuleBuiltins(),
                     new TracebackBuiltins(),
                     new GcModuleBuiltins(),
@@ -288,6 +344,10 @@ public final class Python3Core implements PythonCore {
     @CompilationFinal private boolean initialized;
     @CompilationFinal private PythonContext singletonContext;
 
+    private boolean builtinsPatchesLoaded;
+    /** The standard library location the modules in {@code sys.modules} were loaded from. */
+    private String loadedStdlibHome;
+
     private final PythonObjectFactory factory = PythonObjectFactory.create();
 
     public Python3Core(PythonParser parser) {
@@ -340,19 +400,72 @@ public final class Python3Core implements PythonCore {
         initialized = true;
     }
 
+    /**
+     * Finishes the initialization of the core. For a pre-initialized context this runs twice: once
+     * at image build time, where everything that does not depend on the environment is set up,
+     * and again when the context is patched, where only the environment-dependent state is
+     * rebound.
+     */
     @Override
     public void postInitialize() {
-        if (!getLanguage().isNativeBuildTime()) {
-            initialized = false;
+        initialized = false;
 
+        if (!builtinsPatchesLoaded && canLoadBuiltinsPatches()) {
             loadFile(__BUILTINS_PATCHES__, PythonCore.getCoreHomeOrFail());
+            builtinsPatchesLoaded = true;
+        }
 
+        if (!getLanguage().isNativeBuildTime()) {
             PythonModule os = lookupBuiltinModule("posix");
             Object environAttr = os.getAttribute("environ");
             ((PDict) environAttr).setDictStorage(createEnvironDict().getDictStorage());
+        }
+        rebindModulePaths();
+
+        initialized = true;
+    }
+
+    @TruffleBoundary
+    private boolean canLoadBuiltinsPatches() {
+        if (!getLanguage().isNativeBuildTime()) {
+            return true;
+        }
+        // the patches import modules from the standard library, which may not be available at
+        // image build time
+        Env env = getContext().getEnv();
+        try {
+            return env.getTruffleFile(PythonCore.getStdlibHome(env)).isDirectory();
+        } catch (SecurityException e) {
+            return false;
+        }
+    }
 
-            initialized = true;
+    /**
+     * Modules imported before the context was patched may refer to a standard library location
+     * that differs from the one of the new environment, so their {@code __file__} is rebased and
+     * the path importer cache is dropped.
+     */
+    @TruffleBoundary
+    private void rebindModulePaths() {
+        String stdlibHome = PythonCore.getStdlibHome(getContext().getEnv());
+        if (loadedStdlibHome == null) {
+            loadedStdlibHome = stdlibHome;
+            return;
+        }
+        PythonModule sys = lookupBuiltinModule("sys");
+        if (!loadedStdlibHome.equals(stdlibHome)) {
+            PDict sysModules = (PDict) sys.getAttribute("modules");
+            for (Object module : sysModules.getDictStorage().values()) {
+                if (module instanceof PythonModule) {
+                    Object file = ((PythonModule) module).getAttribute(__FILE__);
+                    if (file instanceof String && ((String) file).startsWith(loadedStdlibHome)) {
+                        ((PythonModule) module).setAttribute(__FILE__, stdlibHome + ((String) file).substring(loadedStdlibHome.length()));
+                    }
+                }
+            }
+            loadedStdlibHome = stdlibHome;
         }
+        sys.setAttribute("path_importer_cache", factory().createDict());
     }
 
     public PythonModule initializeSysModule() {
@@ -32,6 +32,7 @@ public enum PythonBuiltinClassType {
     TruffleObject(com.oracle.truffle.api.interop.TruffleObject.class, "truffle_object"),
     Boolean(java.lang.Boolean.class, "bool"),
     GetSetDescriptor(com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor.class, "get_set_desc"),
+    PAccumulate(com.oracle.graal.python.builtins.objects.itertools.PAccumulate.class, "accumulate"),
     PArray(com.oracle.graal.python.builtins.objects.array.PArray.class, "array"),
     PArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PArrayIterator.class, "arrayiterator"),
     PBaseException(com.oracle.graal.python.builtins.objects.exception.PBaseException.class, "BaseException"),
@@ -40,8 +41,21 @@ public enum PythonBuiltinClassType {
     PBuiltinMethod(com.oracle.graal.python.builtins.objects.method.PBuiltinMethod.class, "builtin_function_or_method"),
     PByteArray(com.oracle.graal.python.builtins.objects.bytes.PByteArray.class, "bytearray"),
     PBytes(com.oracle.graal.python.builtins.objects.bytes.PBytes.class, "bytes"),
+    PBufferedReader(com.oracle.graal.python.builtins.objects.io.PBuffered.class, "BufferedReader"),
+    PBufferedWriter(com.oracle.graal.python.builtins.objects.io.PBuffered.class, "BufferedWriter"),
+    PBufferedRandom(com.oracle.graal.python.builtins.objects.io.PBuffered.class, "BufferedRandom"),
     PCell(com.oracle.graal.python.builtins.objects.cell.PCell.class, "cell"),
+    PChain(com.oracle.graal.python.builtins.objects.itertools.PChain.class, "chain"),
+    PCombinations(com.oracle.graal.python.builtins.objects.itertools.PCombinations.class, "combinations"),
+    PCombinationsWithReplacement(com.oracle.graal.python.builtins.objects.itertools.PCombinations.class, "combinations_with_replacement"),
+    PCompress(com.oracle.graal.python.builtins.objects.itertools.PCompress.class, "compress"),
+    PCoroutine(com.oracle.graal.python.builtins.objects.generator.PGenerator.class, "coroutine"),
     PComplex(com.oracle.graal.python.builtins.objects.complex.PComplex.class, "complex"),
+    PCount(com.oracle.graal.python.builtins.objects.itertools.PCount.class, "count"),
+    PCycle(com.oracle.graal.python.builtins.objects.itertools.PCycle.class, "cycle"),
+    PDeque(com.oracle.graal.python.builtins.objects.deque.PDeque.class, "deque"),
+    PDequeIterator(com.oracle.graal.python.builtins.objects.deque.PDequeIterator.class, "_deque_iterator"),
+    PDequeReverseIterator(com.oracle.graal.python.builtins.objects.deque.PDequeIterator.class, "_deque_reverse_iterator"),
     PDict(com.oracle.graal.python.builtins.objects.dict.PDict.class, "dict"),
     PDictKeysView(com.oracle.graal.python.builtins.objects.dict.PDictView.PDictKeysView.class, "dict_keys"),
     PDictItemsIterator(com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsIterator.class, "dict_itemsiterator"),
@@ -50,39 +64,64 @@ public enum PythonBuiltinClassType {
     PDictValuesIterator(com.oracle.graal.python.builtins.objects.dict.PDictView.PDictValuesIterator.class, "dict_valuesiterator"),
     PDictValuesView(com.oracle.graal.python.builtins.objects.dict.PDictView.PDictValuesView.class, "dict_values"),
     PDoubleSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator.class, "iterator"),
+    PDropwhile(com.oracle.graal.python.builtins.objects.itertools.PDropwhile.class, "dropwhile"),
     PEllipsis(com.oracle.graal.python.builtins.objects.PEllipsis.class, "ellipsis"),
     PEnumerate(com.oracle.graal.python.builtins.objects.enumerate.PEnumerate.class, "enumerate"),
+    PEpoll(com.oracle.graal.python.builtins.objects.select.PPoll.class, "epoll"),
+    PFilterfalse(com.oracle.graal.python.builtins.objects.itertools.PFilterfalse.class, "filterfalse"),
     PFloat(com.oracle.graal.python.builtins.objects.floats.PFloat.class, "float"),
+    PFilter(com.oracle.graal.python.builtins.objects.iterator.PFilter.class, "filter"),
     PFrame(com.oracle.graal.python.builtins.objects.frame.PFrame.class, "frame"),
+    PFuture(com.oracle.graal.python.builtins.objects.asyncio.PFuture.class, "Future"),
+    PFutureIter(com.oracle.graal.python.builtins.objects.asyncio.PFutureIter.class, "FutureIter"),
     PFrozenSet(com.oracle.graal.python.builtins.objects.set.PFrozenSet.class, "frozenset"),
     PFunction(com.oracle.graal.python.builtins.objects.function.PFunction.class, "function"),
     PGenerator(com.oracle.graal.python.builtins.objects.generator.PGenerator.class, "generator"),
     PGeneratorFunction(com.oracle.graal.python.builtins.objects.function.PGeneratorFunction.class, "function"),
+    PGroupBy(com.oracle.graal.python.builtins.objects.itertools.PGroupBy.class, "groupby"),
+    PGrouper(com.oracle.graal.python.builtins.objects.itertools.PGrouper.class, "_grouper"),
     PInt(com.oracle.graal.python.builtins.objects.ints.PInt.class, "int"),
     PIntegerSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator.class, "iterator"),
+    PIslice(com.oracle.graal.python.builtins.objects.itertools.PIslice.class, "islice"),
     PList(com.oracle.graal.python.builtins.objects.list.PList.class, "list"),
+    PLock(com.oracle.graal.python.builtins.objects.thread.PLock.class, "lock"),
     PLongSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator.class, "iterator"),
+    PMap(com.oracle.graal.python.builtins.objects.iterator.PMap.class, "map"),
     PMappingproxy(com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy.class, "mappingproxy"),
     PMemoryView(com.oracle.graal.python.builtins.objects.memoryview.PMemoryView.class, "memoryview"),
     PMethod(com.oracle.graal.python.builtins.objects.method.PMethod.class, "method"),
     PNone(com.oracle.graal.python.builtins.objects.PNone.class, "NoneType"),
     PNotImplemented(com.oracle.graal.python.builtins.objects.PNotImplemented.class, "NotImplementedType"),
+    PPartial(com.oracle.graal.python.builtins.objects.function.PPartial.class, "partial"),
+    PPermutations(com.oracle.graal.python.builtins.objects.itertools.PPermutations.class, "permutations"),
+    PPoll(com.oracle.graal.python.builtins.objects.select.PPoll.class, "poll"),
+    PProduct(com.oracle.graal.python.builtins.objects.itertools.PProduct.class, "product"),
     PRandom(com.oracle.graal.python.builtins.objects.random.PRandom.class, "random"),
     PRange(com.oracle.graal.python.builtins.objects.range.PRange.class, "range"),
     PRangeIterator(com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.class, "iterator"),
     PRangeReverseIterator(com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator.class, "iterator"),
+    PRLock(com.oracle.graal.python.builtins.objects.thread.PRLock.class, "RLock"),
     PReferenceType(com.oracle.graal.python.builtins.objects.referencetype.PReferenceType.class, "ReferenceType"),
+    PRepeat(com.oracle.graal.python.builtins.objects.itertools.PRepeat.class, "repeat"),
+    PSREMatch(com.oracle.graal.python.builtins.objects.sre.PSREMatch.class, "SRE_Match"),
     PSentinelIterator(com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator.class, "callable_iterator"),
     PSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator.class, "iterator"),
     PForeignArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator.class, "foreign_iterator"),
     PSequenceReverseIterator(com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator.class, "reversed"),
     PSet(com.oracle.graal.python.builtins.objects.set.PSet.class, "set"),
     PSlice(com.oracle.graal.python.builtins.objects.slice.PSlice.class, "slice"),
+    PStarmap(com.oracle.graal.python.builtins.objects.itertools.PStarmap.class, "starmap"),
     PString(com.oracle.graal.python.builtins.objects.str.PString.class, "str"),
     PStringIterator(com.oracle.graal.python.builtins.objects.iterator.PStringIterator.class, "iterator"),
     PStringReverseIterator(com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator.class, "reversed"),
+    PTakewhile(com.oracle.graal.python.builtins.objects.itertools.PTakewhile.class, "takewhile"),
+    PTee(com.oracle.graal.python.builtins.objects.itertools.PTee.class, "_tee"),
+    PTask(com.oracle.graal.python.builtins.objects.asyncio.PTask.class, "Task"),
+    PTextIOWrapper(com.oracle.graal.python.builtins.objects.io.PTextIO.class, "TextIOWrapper"),
+    PThreadLocal(com.oracle.graal.python.builtins.objects.thread.PThreadLocal.class, "_local"),
     PTraceback(com.oracle.graal.python.builtins.objects.traceback.PTraceback.class, "traceback"),
     PTuple(com.oracle.graal.python.builtins.objects.tuple.PTuple.class, "tuple"),
+    PZipLongest(com.oracle.graal.python.builtins.objects.itertools.PZipLongest.class, "zip_longest"),
     PythonBuiltinClass(com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass.class, "type"),
     PythonClass(com.oracle.graal.python.builtins.objects.type.PythonClass.class, "type"),
     PythonNativeClass(com.oracle.graal.python.builtins.objects.cext.PythonNativeClass.class, "type"),
@@ -32,10 +32,12 @@ import static com.oracle.graal.python.nodes.BuiltinNames.BYTES;
 import static com.oracle.graal.python.nodes.BuiltinNames.COMPLEX;
 import static com.oracle.graal.python.nodes.BuiltinNames.DICT;
 import static com.oracle.graal.python.nodes.BuiltinNames.ENUMERATE;
+import static com.oracle.graal.python.nodes.BuiltinNames.FILTER;
 import static com.oracle.graal.python.nodes.BuiltinNames.FLOAT;
 import static com.oracle.graal.python.nodes.BuiltinNames.FROZENSET;
 import static com.oracle.graal.python.nodes.BuiltinNames.INT;
 import static com.oracle.graal.python.nodes.BuiltinNames.LIST;
+import static com.oracle.graal.python.nodes.BuiltinNames.MAP;
 import static com.oracle.graal.python.nodes.BuiltinNames.MEMORYVIEW;
 import static com.oracle.graal.python.nodes.BuiltinNames.MODULE;
 import static com.oracle.graal.python.nodes.BuiltinNames.OBJECT;
@@ -66,14 +68,17 @@ import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PEllipsis;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.array.PArray;
 import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.cell.PCell;
 import com.oracle.graal.python.builtins.objects.cext.CExtNodes;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.code.PCode;
-import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
@@ -88,8 +93,11 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.ToJavaBytesNode;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
@@ -131,6 +139,11 @@ import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -190,6 +203,15 @@ public final class BuiltinConstructors extends PythonBuiltins {
             throw raise(PythonErrorType.TypeError, "string argument without an encoding");
         }
 
+        @Specialization(guards = {"!source.isNative()", "isNoValue(encoding)", "isNoValue(errors)"})
+        public Object fromMemoryView(PythonClass cls, PMemoryView source, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
+                        @Cached("create()") ToJavaBytesNode toJavaBytesNode) {
+            if (source.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            }
+            return create(cls, toJavaBytesNode.execute(source));
+        }
+
         @Specialization(guards = {"!isInt(iterable)", "!isNoValue(iterable)", "isNoValue(encoding)", "isNoValue(errors)"})
         public Object bytearray(PythonClass cls, Object iterable, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
                         @Cached("create()") GetIteratorNode getIteratorNode,
@@ -728,7 +750,7 @@ public final class BuiltinConstructors extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class FrozenSetNode extends PythonBuiltinNode {
 
-        @Child private HashingCollectionNodes.SetItemNode setItemNode;
+        @Child private HashingStorageNodes.SetItemNode setItemNode;
 
         @Specialization(guards = "isNoValue(arg)")
         public PFrozenSet frozensetEmpty(PythonClass cls, @SuppressWarnings("unused") PNone arg) {
@@ -738,11 +760,12 @@ public final class BuiltinConstructors extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         public PFrozenSet frozenset(PythonClass cls, String arg) {
-            PFrozenSet frozenSet = factory().createFrozenSet(cls);
+            // the storage is complete before the frozen set is created, since that cannot change it
+            HashingStorage storage = EconomicMapStorage.create(true);
             for (int i = 0; i < arg.length(); i++) {
-                getSetItemNode().execute(frozenSet, String.valueOf(arg.charAt(i)), PNone.NO_VALUE);
+                storage = getSetItemNode().execute(storage, String.valueOf(arg.charAt(i)), PNone.NO_VALUE);
             }
-            return frozenSet;
+            return factory().createFrozenSet(cls, storage);
         }
 
         @Specialization(guards = "!isNoValue(iterable)")
@@ -753,21 +776,21 @@ public final class BuiltinConstructors extends PythonBuiltins {
                         @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
 
             Object iterator = getIterator.executeWith(iterable);
-            PFrozenSet frozenSet = factory().createFrozenSet(cls);
+            HashingStorage storage = EconomicMapStorage.create(true);
             while (true) {
                 try {
-                    getSetItemNode().execute(frozenSet, next.execute(iterator), PNone.NO_VALUE);
+                    storage = getSetItemNode().execute(storage, next.execute(iterator), PNone.NO_VALUE);
                 } catch (PException e) {
                     e.expectStopIteration(getCore(), errorProfile);
-                    return frozenSet;
+                    return factory().createFrozenSet(cls, storage);
                 }
             }
         }
 
-        private HashingCollectionNodes.SetItemNode getSetItemNode() {
+        private HashingStorageNodes.SetItemNode getSetItemNode() {
             if (setItemNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                setItemNode = insert(HashingCollectionNodes.SetItemNode.create());
+                setItemNode = insert(HashingStorageNodes.SetItemNode.create());
             }
             return setItemNode;
         }
@@ -1478,6 +1501,33 @@ public final class BuiltinConstructors extends PythonBuiltins {
         }
     }
 
+    // map(function, iterable, ...)
+    @Builtin(name = MAP, minNumOfPositionalArgs = 3, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PMap)
+    @GenerateNodeFactory
+    public abstract static class MapNode extends PythonBuiltinNode {
+        @Specialization
+        public PMap map(PythonClass cls, Object function, Object iterable, Object[] iterables,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object[] iterators = new Object[iterables.length + 1];
+            iterators[0] = getIterator.executeWith(iterable);
+            for (int i = 0; i < iterables.length; i++) {
+                iterators[i + 1] = getIterator.executeWith(iterables[i]);
+            }
+            return factory().createMap(cls, function, iterators);
+        }
+    }
+
+    // filter(function or None, iterable)
+    @Builtin(name = FILTER, fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PFilter)
+    @GenerateNodeFactory
+    public abstract static class FilterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        public PFilter filter(PythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createFilter(cls, function, getIterator.executeWith(iterable));
+        }
+    }
+
     // function(code, globals[, name[, argdefs[, closure]]])
     @Builtin(name = "function", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 6, constructsClass = {PythonBuiltinClassType.PFunction,
                     PythonBuiltinClassType.PGeneratorFunction}, isPublic = false)
@@ -1799,6 +1849,16 @@ public final class BuiltinConstructors extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "coroutine", takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = {PythonBuiltinClassType.PCoroutine}, isPublic = false)
+    @GenerateNodeFactory
+    public abstract static class CoroutineTypeNode extends PythonBuiltinNode {
+        @SuppressWarnings("unused")
+        @Specialization
+        public Object coroutine(Object args, Object kwargs) {
+            throw raise(TypeError, "cannot create 'coroutine' instances");
+        }
+    }
+
     @Builtin(name = "method", fixedNumOfPositionalArgs = 3, constructsClass = {PythonBuiltinClassType.PMethod}, isPublic = false)
     @GenerateNodeFactory
     public abstract static class MethodTypeNode extends PythonTernaryBuiltinNode {
@@ -2067,9 +2127,49 @@ public final class BuiltinConstructors extends PythonBuiltins {
     @Builtin(name = MEMORYVIEW, fixedNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PMemoryView)
     @GenerateNodeFactory
     public abstract static class MemoryViewNode extends PythonBuiltinNode {
+
+        @Specialization
+        public PMemoryView doBytes(PythonClass cls, PBytes value) {
+            return factory().createMemoryView(cls, value, 0, value.getSequenceStorage().length(), 1, 1, "B", true);
+        }
+
         @Specialization
-        public PMemoryView doGeneric(PythonClass cls, Object value) {
-            return factory().createMemoryView(cls, value);
+        public PMemoryView doByteArray(PythonClass cls, PByteArray value) {
+            return factory().createMemoryView(cls, value, 0, value.getSequenceStorage().length(), 1, 1, "B", false);
+        }
+
+        @Specialization(guards = "getArrayFormat(value) != null")
+        public PMemoryView doArray(PythonClass cls, PArray value) {
+            String format = getArrayFormat(value);
+            return factory().createMemoryView(cls, value, 0, value.getSequenceStorage().length(), 1, getItemSize(format), format, false);
+        }
+
+        @Specialization(guards = "!value.isNative()")
+        public PMemoryView doMemoryView(PythonClass cls, PMemoryView value) {
+            return factory().createMemoryView(cls, value.getOwner(), value.getOffset(), value.getLength(), value.getStep(), value.getItemSize(), value.getFormat(), value.isReadOnly());
+        }
+
+        @Fallback
+        public PMemoryView doGeneric(Object cls, Object value) {
+            return factory().createMemoryView((PythonClass) cls, value);
+        }
+
+        protected static String getArrayFormat(PArray array) {
+            SequenceStorage storage = array.getSequenceStorage();
+            if (storage instanceof ByteSequenceStorage) {
+                return "b";
+            } else if (storage instanceof IntSequenceStorage) {
+                return "i";
+            } else if (storage instanceof LongSequenceStorage) {
+                return "l";
+            } else if (storage instanceof DoubleSequenceStorage) {
+                return "d";
+            }
+            return null;
+        }
+
+        private static int getItemSize(String format) {
+            return format.equals("b") ? 1 : format.equals("i") ? 4 : 8;
         }
     }
 
@@ -28,6 +28,8 @@ package com.oracle.graal.python.builtins.modules;
 import static com.oracle.graal.python.builtins.objects.PNone.NO_VALUE;
 import static com.oracle.graal.python.builtins.objects.PNotImplemented.NOT_IMPLEMENTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.ABS;
+import static com.oracle.graal.python.nodes.BuiltinNames.ALL;
+import static com.oracle.graal.python.nodes.BuiltinNames.ANY;
 import static com.oracle.graal.python.nodes.BuiltinNames.BIN;
 import static com.oracle.graal.python.nodes.BuiltinNames.CALLABLE;
 import static com.oracle.graal.python.nodes.BuiltinNames.CHR;
@@ -37,12 +39,15 @@ import static com.oracle.graal.python.nodes.BuiltinNames.DIR;
 import static com.oracle.graal.python.nodes.BuiltinNames.DIVMOD;
 import static com.oracle.graal.python.nodes.BuiltinNames.EVAL;
 import static com.oracle.graal.python.nodes.BuiltinNames.GETATTR;
+import static com.oracle.graal.python.nodes.BuiltinNames.GLOBALS;
+import static com.oracle.graal.python.nodes.BuiltinNames.HASATTR;
 import static com.oracle.graal.python.nodes.BuiltinNames.HASH;
 import static com.oracle.graal.python.nodes.BuiltinNames.ID;
 import static com.oracle.graal.python.nodes.BuiltinNames.ISINSTANCE;
 import static com.oracle.graal.python.nodes.BuiltinNames.ISSUBCLASS;
 import static com.oracle.graal.python.nodes.BuiltinNames.ITER;
 import static com.oracle.graal.python.nodes.BuiltinNames.LEN;
+import static com.oracle.graal.python.nodes.BuiltinNames.LOCALS;
 import static com.oracle.graal.python.nodes.BuiltinNames.MAX;
 import static com.oracle.graal.python.nodes.BuiltinNames.MIN;
 import static com.oracle.graal.python.nodes.BuiltinNames.NEXT;
@@ -85,17 +90,21 @@ import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.cell.PCell;
 import com.oracle.graal.python.builtins.objects.code.PCode;
+import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.frame.FrameNodes.GetPFrameNode;
 import com.oracle.graal.python.builtins.objects.function.Arity;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListAppendNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
@@ -138,6 +147,7 @@ import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.GetDictNode;
 import com.oracle.graal.python.nodes.subscript.GetItemNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.nodes.util.CastToIntegerFromIndexNode;
@@ -149,7 +159,6 @@ import com.oracle.graal.python.runtime.PythonParser.ParserMode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
-import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
@@ -222,6 +231,50 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // all(iterable)
+    @Builtin(name = ALL, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class AllNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        public boolean all(Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            Object iterator = getIterator.executeWith(iterable);
+            while (true) {
+                Object item = next.executeOrExhausted(iterator);
+                if (item == IteratorNodes.EXHAUSTED) {
+                    return true;
+                } else if (!isTrue.executeWith(item)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    // any(iterable)
+    @Builtin(name = ANY, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class AnyNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        public boolean any(Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            Object iterator = getIterator.executeWith(iterable);
+            while (true) {
+                Object item = next.executeOrExhausted(iterator);
+                if (item == IteratorNodes.EXHAUSTED) {
+                    return false;
+                } else if (isTrue.executeWith(item)) {
+                    return true;
+                }
+            }
+        }
+    }
+
     // bin(object)
     @Builtin(name = BIN, fixedNumOfPositionalArgs = 1)
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -542,12 +595,27 @@ public final class BuiltinFunctions extends PythonBuiltins {
         @TruffleBoundary
         private static Object evalNode(RootNode root, PythonObject globals, PythonObject locals, PCell[] closure) {
             Object[] args = PArguments.create();
-            PArguments.setGlobals(args, globals);
+            PArguments.setGlobals(args, unwrapModuleGlobals(globals));
             PArguments.setClosure(args, closure);
             // TODO: cache code and CallTargets and use Direct/IndirectCallNode
             RootCallTarget callTarget = Truffle.getRuntime().createCallTarget(root);
             return callTarget.call(args);
         }
+
+        /**
+         * A dict over the storage of a module (e.g. the {@code module.__dict__} importlib executes
+         * the module code in) is that module's namespace, so the code runs with the module itself
+         * as globals and can read its globals through the module's assumptions.
+         */
+        private static PythonObject unwrapModuleGlobals(PythonObject globals) {
+            if (globals instanceof PDict) {
+                HashingStorage storage = ((PDict) globals).getDictStorage();
+                if (storage instanceof DynamicObjectStorage && ((DynamicObjectStorage) storage).getModule() != null) {
+                    return ((DynamicObjectStorage) storage).getModule();
+                }
+            }
+            return globals;
+        }
     }
 
     // compile(source, filename, mode, flags=0, dont_inherit=False, optimize=-1)
@@ -670,6 +738,49 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // hasattr(object, name)
+    @Builtin(name = HASATTR, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class HasAttrNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        public boolean hasattr(Object object, Object name,
+                        @Cached("create(__GETATTRIBUTE__)") LookupAndCallBinaryNode getter,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            if (!PGuards.isString(name)) {
+                throw raise(TypeError, "hasattr(): attribute name must be string");
+            }
+            try {
+                getter.executeObject(object, name);
+                return true;
+            } catch (PException e) {
+                e.expect(AttributeError, getCore(), errorProfile);
+                return false;
+            }
+        }
+    }
+
+    // globals()
+    @Builtin(name = GLOBALS, fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    public abstract static class GlobalsNode extends PythonBuiltinNode {
+        @Child private ReadCallerFrameNode readCallerFrameNode = ReadCallerFrameNode.create();
+        @Child private GetDictNode getDictNode;
+
+        @Specialization
+        public Object globals(VirtualFrame frame) {
+            PythonObject globals = PArguments.getGlobals(readCallerFrameNode.executeWith(frame));
+            if (globals instanceof PythonModule) {
+                if (getDictNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getDictNode = insert(GetDictNode.create());
+                }
+                return getDictNode.execute(globals);
+            }
+            return globals;
+        }
+    }
+
     // id(object)
     @Builtin(name = ID, fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
@@ -1091,6 +1202,19 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // locals()
+    @Builtin(name = LOCALS, fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    public abstract static class LocalsNode extends PythonBuiltinNode {
+        @Child private ReadCallerFrameNode readCallerFrameNode = ReadCallerFrameNode.create();
+        @Child private GetPFrameNode getPFrameNode = GetPFrameNode.create();
+
+        @Specialization
+        public Object locals(VirtualFrame frame) {
+            return getPFrameNode.execute(readCallerFrameNode.executeWith(frame)).getLocals(factory());
+        }
+    }
+
     // max(iterable, *[, key])
     // max(arg1, arg2, *args[, key])
     @Builtin(name = MAX, minNumOfPositionalArgs = 1, takesVarArgs = true, keywordArguments = {"key"})
@@ -1153,46 +1277,100 @@ public final class BuiltinFunctions extends PythonBuiltins {
     }
 
     // print(*objects, sep=' ', end='\n', file=sys.stdout, flush=False)
-    @Builtin(name = PRINT, fixedNumOfPositionalArgs = 5)
+    @Builtin(name = PRINT, takesVarArgs = true, keywordArguments = {"sep", "end", "file", "flush"})
     @GenerateNodeFactory
     public abstract static class PrintNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        private static final String DEFAULT_SEPARATOR = " ";
+        private static final String DEFAULT_END = "\n";
+
+        @Child private LookupAndCallUnaryNode callStrNode = LookupAndCallUnaryNode.create(SpecialMethodNames.__STR__);
+        @Child private CastToBooleanNode castToBooleanNode;
+
         @Specialization
-        public Object print(PTuple values, String sep, String end, Object file, boolean flush,
-                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
-                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode,
-                        @Cached("create(__STR__)") LookupAndCallUnaryNode callStr) {
+        public PNone printStdout(Object[] values, Object sep, Object end, @SuppressWarnings("unused") PNone file, Object flush) {
             try {
                 PythonContext context = getContext();
-                if (lenNode.execute(values.getSequenceStorage()) == 0) {
-                    write(context, end);
-                } else {
-                    SequenceStorage store = values.getSequenceStorage();
-                    StringBuilder sb = new StringBuilder();
-                    for (int i = 0; i < store.length() - 1; i++) {
-                        append(sb, callStr.executeObject(getItemNode.execute(store, i)));
-                        append(sb, " ");
-                    }
-                    append(sb, callStr.executeObject(getItemNode.execute(store, store.length() - 1)));
-                    sb.append(end);
-                    write(context, sb.toString());
+                write(context, buildOutput(values, sep, end));
+                if (isTrue(flush)) {
+                    flush(context);
                 }
             } catch (IOException e) {
                 // pass through
             }
+            return PNone.NONE;
+        }
 
+        @Specialization(guards = "!isPNone(file)")
+        public PNone printFile(Object[] values, Object sep, Object end, Object file, Object flush,
+                        @Cached("create()") GetAttrNode getWriteNode,
+                        @Cached("create()") CallNode callWriteNode,
+                        @Cached("create()") GetAttrNode getFlushNode,
+                        @Cached("create()") CallNode callFlushNode) {
+            String output = buildOutput(values, sep, end);
+            Object write = getWriteNode.executeWithArgs(file, "write", NO_VALUE);
+            callWriteNode.execute(null, write, new Object[]{output}, PKeyword.EMPTY_KEYWORDS);
+            if (isTrue(flush)) {
+                Object flushMethod = getFlushNode.executeWithArgs(file, "flush", NO_VALUE);
+                callFlushNode.execute(null, flushMethod, new Object[0], PKeyword.EMPTY_KEYWORDS);
+            }
             return PNone.NONE;
         }
 
+        private String buildOutput(Object[] values, Object sep, Object end) {
+            String sepString = castSeparator(sep, DEFAULT_SEPARATOR, "sep");
+            String endString = castSeparator(end, DEFAULT_END, "end");
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    append(sb, sepString);
+                }
+                append(sb, callStrNode.executeObject(values[i]));
+            }
+            append(sb, endString);
+            return toString(sb);
+        }
+
+        private String castSeparator(Object value, String defaultValue, String name) {
+            if (value instanceof String) {
+                return (String) value;
+            } else if (value instanceof PString) {
+                return ((PString) value).getValue();
+            } else if (PGuards.isPNone(value)) {
+                return defaultValue;
+            }
+            throw raise(TypeError, "%s must be None or a string, not %p", name, value);
+        }
+
+        private boolean isTrue(Object flush) {
+            if (PGuards.isPNone(flush)) {
+                return false;
+            }
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(flush);
+        }
+
         @TruffleBoundary(transferToInterpreterOnException = false)
         private static void append(StringBuilder sb, Object o) {
             sb.append(o);
         }
 
+        @TruffleBoundary
+        private static String toString(StringBuilder sb) {
+            return sb.toString();
+        }
+
         @TruffleBoundary
         private static void write(PythonContext context, String string) throws IOException {
             context.getStandardOut().write(string.getBytes());
         }
+
+        @TruffleBoundary
+        private static void flush(PythonContext context) throws IOException {
+            context.getStandardOut().flush();
+        }
     }
 
     // repr(object)
@@ -1429,7 +1607,7 @@ public final class BuiltinFunctions extends PythonBuiltins {
 
                 String name = func.getName();
                 builtinFunc = factory().createFunction(name, func.getEnclosingClassName(), arity.createWithSelf(name), Truffle.getRuntime().createCallTarget(func.getFunctionRootNode()),
-                                func.getFrameDescriptor(), func.getGlobals(), func.getClosure());
+                                func.getFrameDescriptor(), func.getGlobals(), func.getDefaults(), func.getClosure());
             }
 
             PythonObject globals = func.getGlobals();
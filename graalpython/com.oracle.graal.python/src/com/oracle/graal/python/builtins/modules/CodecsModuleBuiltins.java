@@ -47,9 +47,13 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeE
 
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,8 +65,10 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -208,7 +214,25 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     }
 
     @TruffleBoundary
-    static Charset getCharset(String encoding) {
+    public static CodingErrorAction getErrorAction(String errors) {
+        switch (errors) {
+            // TODO: see [GR-10256] to implement the correct handling mechanics
+            case "ignore":
+            case "surrogatepass":
+                return CodingErrorAction.IGNORE;
+            case "replace":
+            case "surrogateescape":
+            case "namereplace":
+            case "backslashreplace":
+            case "xmlcharrefreplace":
+                return CodingErrorAction.REPLACE;
+            default:
+                return CodingErrorAction.REPORT;
+        }
+    }
+
+    @TruffleBoundary
+    public static Charset getCharset(String encoding) {
         if (encoding == null) {
             return Charset.forName(DEFAULT_ENCODING);
         } else {
@@ -220,6 +244,27 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    private static final ThreadLocal<Map<Charset, CharsetEncoder>> ENCODERS = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Returns a reset encoder for the charset that is reused by the current thread.
+     */
+    @TruffleBoundary
+    static CharsetEncoder getEncoder(Charset charset) {
+        CharsetEncoder encoder = ENCODERS.get().computeIfAbsent(charset, Charset::newEncoder);
+        return encoder.reset().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    /**
+     * Returns a reset decoder for the charset that is reused by the current thread.
+     */
+    @TruffleBoundary
+    static CharsetDecoder getDecoder(Charset charset) {
+        CharsetDecoder decoder = DECODERS.get().computeIfAbsent(charset, Charset::newDecoder);
+        return decoder.reset().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return CodecsModuleBuiltinsFactory.getFactories();
@@ -229,14 +274,14 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     @Builtin(name = "__truffle_encode", fixedNumOfPositionalArgs = 1, keywordArguments = {"encoding", "errors"})
     @GenerateNodeFactory
     public abstract static class CodecsEncodeNode extends PythonBuiltinNode {
-        @Child private SequenceStorageNodes.LenNode lenNode;
 
         @Specialization(guards = "isString(str)")
         Object encode(Object str, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
                         @Cached("createClassProfile()") ValueProfile strTypeProfile) {
             Object profiledStr = strTypeProfile.profile(str);
-            PBytes bytes = encodeString(profiledStr.toString(), "utf-8", "strict");
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            String self = profiledStr.toString();
+            PBytes bytes = encodeString(self, "utf-8", "strict");
+            return factory().createTuple(new Object[]{bytes, self.length()});
         }
 
         @Specialization(guards = {"isString(str)", "isString(encoding)"})
@@ -245,8 +290,9 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
                         @Cached("createClassProfile()") ValueProfile encodingTypeProfile) {
             Object profiledStr = strTypeProfile.profile(str);
             Object profiledEncoding = encodingTypeProfile.profile(encoding);
-            PBytes bytes = encodeString(profiledStr.toString(), profiledEncoding.toString(), "strict");
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            String self = profiledStr.toString();
+            PBytes bytes = encodeString(self, profiledEncoding.toString(), "strict");
+            return factory().createTuple(new Object[]{bytes, self.length()});
         }
 
         @Specialization(guards = {"isString(str)", "isString(errors)"})
@@ -255,8 +301,9 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
                         @Cached("createClassProfile()") ValueProfile errorsTypeProfile) {
             Object profiledStr = strTypeProfile.profile(str);
             Object profiledErrors = errorsTypeProfile.profile(errors);
-            PBytes bytes = encodeString(profiledStr.toString(), "utf-8", profiledErrors.toString());
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            String self = profiledStr.toString();
+            PBytes bytes = encodeString(self, "utf-8", profiledErrors.toString());
+            return factory().createTuple(new Object[]{bytes, self.length()});
         }
 
         @Specialization(guards = {"isString(str)", "isString(encoding)", "isString(errors)"})
@@ -267,8 +314,9 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
             Object profiledStr = strTypeProfile.profile(str);
             Object profiledEncoding = encodingTypeProfile.profile(encoding);
             Object profiledErrors = errorsTypeProfile.profile(errors);
-            PBytes bytes = encodeString(profiledStr.toString(), profiledEncoding.toString(), profiledErrors.toString());
-            return factory().createTuple(new Object[]{bytes, getLength(bytes)});
+            String self = profiledStr.toString();
+            PBytes bytes = encodeString(self, profiledEncoding.toString(), profiledErrors.toString());
+            return factory().createTuple(new Object[]{bytes, self.length()});
         }
 
         @Fallback
@@ -278,130 +326,494 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
 
         @TruffleBoundary
         private PBytes encodeString(String self, String encoding, String errors) {
-            CodingErrorAction errorAction;
+            Charset charset;
+            try {
+                charset = getCharset(encoding);
+            } catch (IllegalArgumentException e) {
+                throw raise(LookupError, "unknown encoding: %s", encoding);
+            }
+            byte[] data;
+            if (charset.equals(StandardCharsets.UTF_8)) {
+                data = encodeUTF8(self);
+            } else if (charset.equals(StandardCharsets.ISO_8859_1)) {
+                data = encodeSingleByte(self, 0xFF);
+            } else if (charset.equals(StandardCharsets.US_ASCII)) {
+                data = encodeSingleByte(self, 0x7F);
+            } else {
+                data = null;
+            }
+            if (data == null) {
+                data = encodeWithErrors(self, charset, encoding, errors);
+            }
+            return factory().createBytes(data);
+        }
+
+        /**
+         * Returns {@code null} if the string has a character above {@code maxChar}.
+         */
+        private static byte[] encodeSingleByte(String self, int maxChar) {
+            int length = self.length();
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                char c = self.charAt(i);
+                if (c > maxChar) {
+                    return null;
+                }
+                data[i] = (byte) c;
+            }
+            return data;
+        }
+
+        /**
+         * Returns {@code null} if the string has a lone surrogate.
+         */
+        private static byte[] encodeUTF8(String self) {
+            int length = self.length();
+            int size = 0;
+            for (int i = 0; i < length; i++) {
+                char c = self.charAt(i);
+                if (c < 0x80) {
+                    size++;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(self.charAt(i + 1))) {
+                        size += 4;
+                        i++;
+                    } else {
+                        return null;
+                    }
+                } else {
+                    size += 3;
+                }
+            }
+            if (size == length) {
+                return encodeSingleByte(self, 0x7F);
+            }
+            byte[] data = new byte[size];
+            int j = 0;
+            for (int i = 0; i < length; i++) {
+                char c = self.charAt(i);
+                if (c < 0x80) {
+                    data[j++] = (byte) c;
+                } else if (c < 0x800) {
+                    data[j++] = (byte) (0xC0 | (c >> 6));
+                    data[j++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(c, self.charAt(++i));
+                    data[j++] = (byte) (0xF0 | (codePoint >> 18));
+                    data[j++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    data[j++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    data[j++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    data[j++] = (byte) (0xE0 | (c >> 12));
+                    data[j++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    data[j++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return data;
+        }
+
+        private byte[] encodeWithErrors(String self, Charset charset, String encoding, String errors) {
+            CharsetEncoder encoder = getEncoder(charset);
+            CharBuffer in = CharBuffer.wrap(self);
+            ByteBuffer out = ByteBuffer.allocate((int) (self.length() * encoder.averageBytesPerChar()) + 16);
+            while (true) {
+                CoderResult result = encoder.encode(in, out, true);
+                if (result.isOverflow()) {
+                    out = grow(out);
+                } else if (result.isError()) {
+                    int start = in.position();
+                    int end = start + result.length();
+                    String replacement = getReplacement(self, start, end, charset, encoding, errors);
+                    if (replacement == null) {
+                        out = writeSurrogates(out, self, start, end, charset, encoding, errors);
+                    } else {
+                        CharBuffer replacementBuffer = CharBuffer.wrap(replacement);
+                        while (encoder.encode(replacementBuffer, out, true).isOverflow()) {
+                            out = grow(out);
+                        }
+                    }
+                    in.position(end);
+                } else {
+                    break;
+                }
+            }
+            while (encoder.flush(out).isOverflow()) {
+                out = grow(out);
+            }
+            return Arrays.copyOf(out.array(), out.position());
+        }
+
+        /**
+         * Returns the string that replaces the unencodable characters, or {@code null} if the
+         * handler writes the bytes itself.
+         */
+        private String getReplacement(String self, int start, int end, Charset charset, String encoding, String errors) {
             switch (errors) {
-                // TODO: see [GR-10256] to implement the correct handling mechanics
                 case "ignore":
-                case "surrogatepass":
-                    errorAction = CodingErrorAction.IGNORE;
-                    break;
+                    return "";
                 case "replace":
-                case "surrogateescape":
-                case "namereplace":
+                    return "?";
                 case "backslashreplace":
                 case "xmlcharrefreplace":
-                    errorAction = CodingErrorAction.REPLACE;
-                    break;
+                case "namereplace":
+                    StringBuilder sb = new StringBuilder();
+                    for (int i = start; i < end;) {
+                        int codePoint = self.codePointAt(i);
+                        if (errors.equals("xmlcharrefreplace")) {
+                            sb.append("&#").append(codePoint).append(';');
+                        } else if (errors.equals("namereplace") && Character.getName(codePoint) != null) {
+                            sb.append("\\N{").append(Character.getName(codePoint)).append('}');
+                        } else {
+                            appendEscaped(sb, codePoint);
+                        }
+                        i += Character.charCount(codePoint);
+                    }
+                    return sb.toString();
+                case "surrogateescape":
+                case "surrogatepass":
+                    return null;
                 default:
-                    errorAction = CodingErrorAction.REPORT;
-                    break;
+                    throw encodeError(self, start, end, charset, encoding);
             }
+        }
 
-            try {
-                Charset charset = getCharset(encoding);
-                ByteBuffer encoded = charset.newEncoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction).encode(CharBuffer.wrap(self));
-                int n = encoded.remaining();
-                byte[] data = new byte[n];
-                encoded.get(data);
-                return factory().createBytes(data);
-            } catch (IllegalArgumentException e) {
-                throw raise(LookupError, "unknown encoding: %s", encoding);
-            } catch (CharacterCodingException e) {
-                throw raise(UnicodeEncodeError, "%s", e.getMessage());
+        private ByteBuffer writeSurrogates(ByteBuffer buffer, String self, int start, int end, Charset charset, String encoding, String errors) {
+            ByteBuffer out = buffer;
+            for (int i = start; i < end; i++) {
+                char c = self.charAt(i);
+                if (out.remaining() < 3) {
+                    out = grow(out);
+                }
+                if (errors.equals("surrogateescape") && c >= 0xDC80 && c <= 0xDCFF) {
+                    out.put((byte) (c - 0xDC00));
+                } else if (errors.equals("surrogatepass") && Character.isSurrogate(c) && charset.equals(StandardCharsets.UTF_8)) {
+                    out.put((byte) (0xE0 | (c >> 12)));
+                    out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                } else {
+                    throw encodeError(self, i, i + 1, charset, encoding);
+                }
             }
+            return out;
         }
 
-        private int getLength(PBytes b) {
-            if (lenNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                lenNode = insert(SequenceStorageNodes.LenNode.create());
+        private PException encodeError(String self, int start, int end, Charset charset, String encoding) {
+            String reason;
+            if (charset.equals(StandardCharsets.US_ASCII)) {
+                reason = "ordinal not in range(128)";
+            } else if (charset.equals(StandardCharsets.ISO_8859_1)) {
+                reason = "ordinal not in range(256)";
+            } else if (charset.name().startsWith("UTF")) {
+                reason = "surrogates not allowed";
+            } else {
+                reason = "character maps to <undefined>";
             }
-            return lenNode.execute(b.getSequenceStorage());
+            if (end - start == 1) {
+                StringBuilder sb = new StringBuilder();
+                appendEscaped(sb, self.charAt(start));
+                return raise(UnicodeEncodeError, "'%s' codec can't encode character '%s' in position %d: %s", encoding, sb.toString(), start, reason);
+            }
+            return raise(UnicodeEncodeError, "'%s' codec can't encode characters in position %d-%d: %s", encoding, start, end - 1, reason);
+        }
+
+        private static void appendEscaped(StringBuilder sb, int codePoint) {
+            if (codePoint < 0x100) {
+                sb.append(String.format("\\x%02x", codePoint));
+            } else if (codePoint < 0x10000) {
+                sb.append(String.format("\\u%04x", codePoint));
+            } else {
+                sb.append(String.format("\\U%08x", codePoint));
+            }
+        }
+
+        private static ByteBuffer grow(ByteBuffer buffer) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(buffer.capacity() * 2 + 16);
+            buffer.flip();
+            newBuffer.put(buffer);
+            return newBuffer;
         }
     }
 
-    // _codecs.decode(obj, encoding='utf-8', errors='strict')
-    @Builtin(name = "__truffle_decode", fixedNumOfPositionalArgs = 1, keywordArguments = {"encoding", "errors"})
+    // _codecs.decode(obj, encoding='utf-8', errors='strict', final=True)
+    @Builtin(name = "__truffle_decode", fixedNumOfPositionalArgs = 1, keywordArguments = {"encoding", "errors", "final"})
     @GenerateNodeFactory
     abstract static class CodecsDecodeNode extends PythonBuiltinNode {
         @Child private SequenceStorageNodes.ToByteArrayNode toByteArrayNode;
+        @Child private SequenceStorageNodes.LenNode lenNode;
+        @Child private CastToBooleanNode castToBooleanNode;
 
         @Specialization
-        Object decode(PIBytesLike bytes, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors) {
-            String string = decodeBytes(getBytesBuffer(bytes), "utf-8", "strict");
-            return factory().createTuple(new Object[]{string, string.length()});
+        Object decode(PIBytesLike bytes, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors, Object finalData) {
+            return decodeBytes(bytes, "utf-8", "strict", isFinal(finalData));
         }
 
         @Specialization(guards = {"isString(encoding)"})
-        Object decode(PIBytesLike bytes, Object encoding, @SuppressWarnings("unused") PNone errors,
+        Object decode(PIBytesLike bytes, Object encoding, @SuppressWarnings("unused") PNone errors, Object finalData,
                         @Cached("createClassProfile()") ValueProfile encodingTypeProfile) {
             Object profiledEncoding = encodingTypeProfile.profile(encoding);
-            String string = decodeBytes(getBytesBuffer(bytes), profiledEncoding.toString(), "strict");
-            return factory().createTuple(new Object[]{string, string.length()});
+            return decodeBytes(bytes, profiledEncoding.toString(), "strict", isFinal(finalData));
         }
 
         @Specialization(guards = {"isString(errors)"})
-        Object decode(PIBytesLike bytes, @SuppressWarnings("unused") PNone encoding, Object errors,
+        Object decode(PIBytesLike bytes, @SuppressWarnings("unused") PNone encoding, Object errors, Object finalData,
                         @Cached("createClassProfile()") ValueProfile errorsTypeProfile) {
             Object profiledErrors = errorsTypeProfile.profile(errors);
-            String string = decodeBytes(getBytesBuffer(bytes), "utf-8", profiledErrors.toString());
-            return factory().createTuple(new Object[]{string, string.length()});
+            return decodeBytes(bytes, "utf-8", profiledErrors.toString(), isFinal(finalData));
         }
 
         @Specialization(guards = {"isString(encoding)", "isString(errors)"})
-        Object decode(PIBytesLike bytes, Object encoding, Object errors,
+        Object decode(PIBytesLike bytes, Object encoding, Object errors, Object finalData,
                         @Cached("createClassProfile()") ValueProfile encodingTypeProfile,
                         @Cached("createClassProfile()") ValueProfile errorsTypeProfile) {
             Object profiledEncoding = encodingTypeProfile.profile(encoding);
             Object profiledErrors = errorsTypeProfile.profile(errors);
-            String string = decodeBytes(getBytesBuffer(bytes), profiledEncoding.toString(), profiledErrors.toString());
-            return factory().createTuple(new Object[]{string, string.length()});
+            return decodeBytes(bytes, profiledEncoding.toString(), profiledErrors.toString(), isFinal(finalData));
         }
 
         @Fallback
-        Object decode(Object bytes, @SuppressWarnings("unused") Object encoding, @SuppressWarnings("unused") Object errors) {
+        Object decode(Object bytes, @SuppressWarnings("unused") Object encoding, @SuppressWarnings("unused") Object errors, @SuppressWarnings("unused") Object finalData) {
             throw raise(TypeError, "a bytes-like object is required, not '%p'", bytes);
         }
 
-        private ByteBuffer getBytesBuffer(PIBytesLike bytesLike) {
+        private boolean isFinal(Object finalData) {
+            if (finalData instanceof PNone) {
+                return true;
+            }
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(finalData);
+        }
+
+        private Object decodeBytes(PIBytesLike bytesLike, String encoding, String errors, boolean isFinal) {
             if (toByteArrayNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 toByteArrayNode = insert(SequenceStorageNodes.ToByteArrayNode.create(false));
             }
+            if (lenNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lenNode = insert(SequenceStorageNodes.LenNode.create());
+            }
+            // the internal array may be longer than the bytes object, but is not copied
             byte[] barr = toByteArrayNode.execute(bytesLike.getSequenceStorage());
-            return ByteBuffer.wrap(barr, 0, barr.length);
+            int length = lenNode.execute(bytesLike.getSequenceStorage());
+            return decodeBytes(barr, length, encoding, errors, isFinal);
         }
 
         @TruffleBoundary
-        String decodeBytes(ByteBuffer bytes, String encoding, String errors) {
-            CodingErrorAction errorAction;
+        private Object decodeBytes(byte[] bytes, int length, String encoding, String errors, boolean isFinal) {
+            Charset charset;
+            try {
+                charset = getCharset(encoding);
+            } catch (IllegalArgumentException e) {
+                throw raise(LookupError, "unknown encoding: %s", encoding);
+            }
+            String string;
+            if (charset.equals(StandardCharsets.ISO_8859_1) || (isAsciiCompatible(charset) && isAscii(bytes, length))) {
+                // Latin-1 strings are stored compactly, so this does not need to inflate to chars
+                string = new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+                return factory().createTuple(new Object[]{string, length});
+            }
+            if (charset.equals(StandardCharsets.UTF_8)) {
+                return decodeUtf8(bytes, length, encoding, errors, isFinal);
+            }
+            CharsetDecoder decoder = getDecoder(charset);
+            ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+            CharBuffer out = CharBuffer.allocate((int) (length * decoder.averageCharsPerByte()) + 16);
+            while (true) {
+                CoderResult result = decoder.decode(in, out, isFinal);
+                if (result.isOverflow()) {
+                    out = grow(out);
+                } else if (result.isError()) {
+                    int start = in.position();
+                    int end = start + result.length();
+                    while (out.remaining() < 4 * result.length()) {
+                        out = grow(out);
+                    }
+                    in.position(handleDecodeError(out, bytes, length, start, end, charset, encoding, errors));
+                } else {
+                    break;
+                }
+            }
+            if (isFinal) {
+                while (decoder.flush(out).isOverflow()) {
+                    out = grow(out);
+                }
+            }
+            out.flip();
+            // with final=False an incomplete sequence at the end stays in the input
+            return factory().createTuple(new Object[]{out.toString(), in.position()});
+        }
+
+        /**
+         * Decodes UTF-8 without a {@link CharsetDecoder}. Malformed input is reported with the same
+         * maximal invalid subsequences as the JDK decoder and CPython use.
+         */
+        private Object decodeUtf8(byte[] bytes, int length, String encoding, String errors, boolean isFinal) {
+            // valid input never decodes to more chars than it has bytes
+            CharBuffer out = CharBuffer.allocate(length + 16);
+            int i = 0;
+            while (i < length) {
+                int lead = bytes[i] & 0xFF;
+                if (lead < 0x80) {
+                    if (!out.hasRemaining()) {
+                        out = grow(out);
+                    }
+                    out.put((char) lead);
+                    i++;
+                    continue;
+                }
+                int needed;
+                int codePoint;
+                if (lead >= 0xC2 && lead <= 0xDF) {
+                    needed = 1;
+                    codePoint = lead & 0x1F;
+                } else if (lead >= 0xE0 && lead <= 0xEF) {
+                    needed = 2;
+                    codePoint = lead & 0x0F;
+                } else if (lead >= 0xF0 && lead <= 0xF4) {
+                    needed = 3;
+                    codePoint = lead & 0x07;
+                } else {
+                    needed = 0;
+                    codePoint = -1;
+                }
+                int valid = 0;
+                while (valid < needed && i + valid + 1 < length) {
+                    int b = bytes[i + valid + 1] & 0xFF;
+                    int low = 0x80;
+                    int high = 0xBF;
+                    if (valid == 0) {
+                        // reject overlong forms, surrogates and code points above U+10FFFF
+                        if (lead == 0xE0) {
+                            low = 0xA0;
+                        } else if (lead == 0xED) {
+                            high = 0x9F;
+                        } else if (lead == 0xF0) {
+                            low = 0x90;
+                        } else if (lead == 0xF4) {
+                            high = 0x8F;
+                        }
+                    }
+                    if (b < low || b > high) {
+                        break;
+                    }
+                    codePoint = (codePoint << 6) | (b & 0x3F);
+                    valid++;
+                }
+                if (codePoint >= 0 && valid == needed) {
+                    if (out.remaining() < 2) {
+                        out = grow(out);
+                    }
+                    if (codePoint < 0x10000) {
+                        out.put((char) codePoint);
+                    } else {
+                        out.put(Character.highSurrogate(codePoint));
+                        out.put(Character.lowSurrogate(codePoint));
+                    }
+                    i += needed + 1;
+                } else if (!isFinal && ((codePoint >= 0 && i + valid + 1 == length) || isTruncatedSurrogate(bytes, length, i))) {
+                    // with final=False an incomplete sequence at the end stays in the input
+                    break;
+                } else {
+                    int end = i + valid + 1;
+                    while (out.remaining() < 4 * (end - i)) {
+                        out = grow(out);
+                    }
+                    i = handleDecodeError(out, bytes, length, i, end, StandardCharsets.UTF_8, encoding, errors);
+                }
+            }
+            out.flip();
+            return factory().createTuple(new Object[]{out.toString(), i});
+        }
+
+        /**
+         * Like CPython, keep the start of an encoded surrogate at the end of the input, so that
+         * 'surrogatepass' can decode it once the rest arrives.
+         */
+        private static boolean isTruncatedSurrogate(byte[] bytes, int length, int i) {
+            return i + 2 == length && (bytes[i] & 0xFF) == 0xED && (bytes[i + 1] & 0xE0) == 0xA0;
+        }
+
+        private static boolean isAsciiCompatible(Charset charset) {
+            return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII);
+        }
+
+        private static boolean isAscii(byte[] bytes, int length) {
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Writes the replacement for the malformed input to {@code out} and returns the position
+         * where decoding continues.
+         */
+        private int handleDecodeError(CharBuffer out, byte[] bytes, int length, int start, int end, Charset charset, String encoding, String errors) {
             switch (errors) {
-                // TODO: see [GR-10256] to implement the correct handling mechanics
                 case "ignore":
-                case "surrogatepass":
-                    errorAction = CodingErrorAction.IGNORE;
                     break;
                 case "replace":
-                case "surrogateescape":
-                case "namereplace":
+                    out.put('\uFFFD');
+                    break;
                 case "backslashreplace":
-                case "xmlcharrefreplace":
-                    errorAction = CodingErrorAction.REPLACE;
+                    for (int i = start; i < end; i++) {
+                        out.put(String.format("\\x%02x", bytes[i] & 0xFF));
+                    }
                     break;
-                default:
-                    errorAction = CodingErrorAction.REPORT;
+                case "surrogateescape":
+                    for (int i = start; i < end; i++) {
+                        if ((bytes[i] & 0xFF) < 0x80) {
+                            throw decodeError(bytes, length, start, end, charset, encoding);
+                        }
+                        out.put((char) (0xDC00 + (bytes[i] & 0xFF)));
+                    }
                     break;
+                case "surrogatepass":
+                    // a UTF-8 encoded surrogate is reported as malformed with its first byte
+                    if (charset.equals(StandardCharsets.UTF_8) && start + 3 <= length && (bytes[start] & 0xFF) == 0xED && (bytes[start + 1] & 0xE0) == 0xA0 &&
+                                    (bytes[start + 2] & 0xC0) == 0x80) {
+                        out.put((char) (0xD000 | ((bytes[start + 1] & 0x3F) << 6) | (bytes[start + 2] & 0x3F)));
+                        return start + 3;
+                    }
+                    throw decodeError(bytes, length, start, end, charset, encoding);
+                default:
+                    throw decodeError(bytes, length, start, end, charset, encoding);
             }
+            return end;
+        }
 
-            try {
-                Charset charset = getCharset(encoding);
-                CharBuffer decoded = charset.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction).decode(bytes);
-                return String.valueOf(decoded);
-            } catch (IllegalArgumentException e) {
-                throw this.getCore().raise(LookupError, "unknown encoding: %s", encoding);
-            } catch (CharacterCodingException e) {
-                throw raise(UnicodeDecodeError, "%s", e.getMessage());
+        private PException decodeError(byte[] bytes, int length, int start, int end, Charset charset, String encoding) {
+            String reason;
+            int lead = bytes[start] & 0xFF;
+            if (charset.equals(StandardCharsets.US_ASCII)) {
+                reason = "ordinal not in range(128)";
+            } else if (!charset.equals(StandardCharsets.UTF_8)) {
+                reason = "illegal encoding";
+            } else if (end == length && lead >= 0xC2 && lead <= 0xF4) {
+                reason = "unexpected end of data";
+            } else if (lead >= 0xC2 && lead <= 0xF4) {
+                reason = "invalid continuation byte";
+            } else {
+                reason = "invalid start byte";
             }
+            if (end - start == 1) {
+                return raise(UnicodeDecodeError, "'%s' codec can't decode byte 0x%02x in position %d: %s", encoding, lead, start, reason);
+            }
+            return raise(UnicodeDecodeError, "'%s' codec can't decode bytes in position %d-%d: %s", encoding, start, end - 1, reason);
+        }
+
+        private static CharBuffer grow(CharBuffer buffer) {
+            CharBuffer newBuffer = CharBuffer.allocate(buffer.capacity() * 2 + 16);
+            buffer.flip();
+            newBuffer.put(buffer);
+            return newBuffer;
         }
     }
 
@@ -40,18 +40,88 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.function.PPartial;
+import com.oracle.graal.python.builtins.objects.function.PartialBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.datamodel.IsCallableNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    // reduce(function, iterable[, initializer])
+    @Builtin(name = "reduce", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object reduce(Object function, Object iterable, Object initializer,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile noInitializerProfile) {
+            Object iterator = getIterator.executeWith(iterable);
+            Object value = initializer;
+            if (noInitializerProfile.profile(initializer == PNone.NO_VALUE)) {
+                value = next.executeOrExhausted(iterator);
+                if (value == IteratorNodes.EXHAUSTED) {
+                    throw raise(TypeError, "reduce() of empty sequence with no initial value");
+                }
+            }
+            while (true) {
+                Object element = next.executeOrExhausted(iterator);
+                if (element == IteratorNodes.EXHAUSTED) {
+                    return value;
+                }
+                value = callNode.execute(null, function, new Object[]{value, element}, PKeyword.EMPTY_KEYWORDS);
+            }
+        }
+    }
+
+    // partial(func, *args, **keywords)
+    @Builtin(name = "partial", minNumOfPositionalArgs = 2, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PPartial)
+    @GenerateNodeFactory
+    public abstract static class PartialNode extends PythonBuiltinNode {
+
+        @Specialization
+        PPartial partial(PythonClass cls, Object function, Object[] arguments, PKeyword[] keywords,
+                        @Cached("create()") IsCallableNode isCallableNode,
+                        @Cached("createBinaryProfile()") ConditionProfile nestedProfile) {
+            if (!isCallableNode.execute(function)) {
+                throw raise(TypeError, "the first argument must be callable");
+            }
+            if (nestedProfile.profile(function instanceof PPartial && cls.isBuiltin() && ((PPartial) function).getPythonClass().isBuiltin())) {
+                // partial(partial(f, a), b) is flattened to partial(f, a, b)
+                PPartial inner = (PPartial) function;
+                return factory().createPartial(cls, inner.getFunction(), PartialBuiltins.concatArguments(inner.getArguments(), arguments),
+                                PartialBuiltins.mergeKeywords(inner.getKeywords(), keywords));
+            }
+            return factory().createPartial(cls, function, arguments, keywords);
+        }
     }
 }
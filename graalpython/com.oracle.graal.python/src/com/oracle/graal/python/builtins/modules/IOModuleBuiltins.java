@@ -40,18 +40,71 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_io")
 public class IOModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return IOModuleBuiltinsFactory.getFactories();
+    }
+
+    // BufferedReader(raw, buffer_size=DEFAULT_BUFFER_SIZE)
+    @Builtin(name = "BufferedReader", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PBufferedReader)
+    @GenerateNodeFactory
+    public abstract static class BufferedReaderNode extends PythonBuiltinNode {
+
+        @Specialization
+        PBuffered create(PythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createBuffered(cls, true, false);
+        }
+    }
+
+    // BufferedWriter(raw, buffer_size=DEFAULT_BUFFER_SIZE)
+    @Builtin(name = "BufferedWriter", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PBufferedWriter)
+    @GenerateNodeFactory
+    public abstract static class BufferedWriterNode extends PythonBuiltinNode {
+
+        @Specialization
+        PBuffered create(PythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createBuffered(cls, false, true);
+        }
+    }
+
+    // BufferedRandom(raw, buffer_size=DEFAULT_BUFFER_SIZE)
+    @Builtin(name = "BufferedRandom", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PBufferedRandom)
+    @GenerateNodeFactory
+    public abstract static class BufferedRandomNode extends PythonBuiltinNode {
+
+        @Specialization
+        PBuffered create(PythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createBuffered(cls, true, true);
+        }
+    }
+
+    // TextIOWrapper(buffer, encoding=None, errors=None, newline=None, line_buffering=False,
+    // write_through=False)
+    @Builtin(name = "TextIOWrapper", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PTextIOWrapper)
+    @GenerateNodeFactory
+    public abstract static class TextIOWrapperNode extends PythonBuiltinNode {
+
+        @Specialization
+        PTextIO create(PythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createTextIO(cls);
+        }
     }
 }
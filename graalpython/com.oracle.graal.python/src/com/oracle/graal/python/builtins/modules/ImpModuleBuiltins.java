@@ -72,6 +72,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CallTarget;
@@ -109,7 +110,17 @@ public class ImpModuleBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         public Object run() {
-            getContext().getImportLock().lock();
+            ReentrantLock importLock = getContext().getImportLock();
+            if (!importLock.tryLock()) {
+                // the thread holding the import lock may need the GIL to finish its import
+                PythonThreads threads = getContext().getThreads();
+                boolean released = threads.release();
+                try {
+                    importLock.lock();
+                } finally {
+                    threads.reacquire(released);
+                }
+            }
             return PNone.NONE;
         }
     }
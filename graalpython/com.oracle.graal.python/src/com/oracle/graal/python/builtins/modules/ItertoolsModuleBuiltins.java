@@ -25,19 +25,59 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INDEX__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCompress;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PTee;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.range.PRange;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "itertools")
 public final class ItertoolsModuleBuiltins extends PythonBuiltins {
@@ -47,14 +87,433 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         return ItertoolsModuleBuiltinsFactory.getFactories();
     }
 
+    /**
+     * Materializes an iterable argument into a fresh array that the iterator object may keep.
+     */
+    private static Object[] toArray(ExecutePositionalStarargsNode toArrayNode, Object iterable) {
+        Object[] items = toArrayNode.executeWith(iterable);
+        return Arrays.copyOf(items, items.length);
+    }
+
+    // count(start=0, step=1)
+    @Builtin(name = "count", fixedNumOfPositionalArgs = 1, keywordArguments = {"start", "step"}, constructsClass = PythonBuiltinClassType.PCount)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends PythonBuiltinNode {
+
+        @Specialization
+        PCount count(PythonClass cls, Object start, Object step,
+                        @Cached("create(__INDEX__)") LookupInheritedAttributeNode getIndexNode,
+                        @Cached("create(__INT__)") LookupInheritedAttributeNode getIntNode,
+                        @Cached("create(__FLOAT__)") LookupInheritedAttributeNode getFloatNode,
+                        @Cached("createBinaryProfile()") ConditionProfile primitiveProfile) {
+            Object startValue = PGuards.isNoValue(start) ? 0 : start;
+            Object stepValue = PGuards.isNoValue(step) ? 1 : step;
+            if (primitiveProfile.profile(isIntOrLong(startValue) && isIntOrLong(stepValue))) {
+                return factory().createCount(cls, ((Number) startValue).longValue(), ((Number) stepValue).longValue());
+            }
+            if (!isNumber(startValue, getIndexNode, getIntNode, getFloatNode) || !isNumber(stepValue, getIndexNode, getIntNode, getFloatNode)) {
+                throw raise(TypeError, "a number is required");
+            }
+            return factory().createCount(cls, startValue, stepValue);
+        }
+
+        private static boolean isIntOrLong(Object value) {
+            return value instanceof Integer || value instanceof Long;
+        }
+
+        private static boolean isNumber(Object value, LookupInheritedAttributeNode getIndexNode, LookupInheritedAttributeNode getIntNode, LookupInheritedAttributeNode getFloatNode) {
+            if (value instanceof Number || value instanceof Boolean || value instanceof PInt || value instanceof PFloat || value instanceof PComplex) {
+                return true;
+            }
+            return getIndexNode.execute(value) != PNone.NO_VALUE || getIntNode.execute(value) != PNone.NO_VALUE || getFloatNode.execute(value) != PNone.NO_VALUE;
+        }
+    }
+
+    // repeat(object[, times])
+    @Builtin(name = "repeat", fixedNumOfPositionalArgs = 2, keywordArguments = {"times"}, constructsClass = PythonBuiltinClassType.PRepeat)
+    @GenerateNodeFactory
+    public abstract static class RepeatNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "isNoValue(times)")
+        PRepeat repeat(PythonClass cls, Object object, @SuppressWarnings("unused") PNone times) {
+            return factory().createRepeat(cls, object, -1);
+        }
+
+        @Specialization(guards = "!isNoValue(times)")
+        PRepeat repeat(PythonClass cls, Object object, Object times,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            return factory().createRepeat(cls, object, Math.max(castToIndex.execute(times), 0));
+        }
+    }
+
+    // chain(*iterables)
+    @Builtin(name = "chain", minNumOfPositionalArgs = 1, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PChain)
+    @GenerateNodeFactory
+    public abstract static class ChainNode extends PythonBuiltinNode {
+
+        @Specialization
+        PChain chain(PythonClass cls, Object[] iterables,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createChain(cls, getIterator.executeWith(factory().createTuple(iterables)));
+        }
+    }
+
+    // chain.from_iterable(iterable), installed as a classmethod by itertools.py
+    @Builtin(name = "_chain_from_iterable", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ChainFromIterableNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PChain fromIterable(PythonClass cls, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createChain(cls, getIterator.executeWith(iterable));
+        }
+    }
+
+    // starmap(function, iterable)
+    @Builtin(name = "starmap", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PStarmap)
+    @GenerateNodeFactory
+    public abstract static class StarmapNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PStarmap starmap(PythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createStarmap(cls, function, getIterator.executeWith(iterable));
+        }
+    }
+
+    // islice(iterable, stop), islice(iterable, start, stop[, step])
+    @Builtin(name = "islice", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 5, constructsClass = PythonBuiltinClassType.PIslice)
+    @GenerateNodeFactory
+    public abstract static class IsliceNode extends PythonBuiltinNode {
+        private static final String INDEX_ERROR = "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String STOP_ERROR = "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String STEP_ERROR = "Step for islice() must be a positive integer or None.";
+
+        @Child private LookupAndCallUnaryNode callIndexNode;
+
+        @Specialization
+        PIslice islice(PythonClass cls, Object iterable, Object arg1, Object arg2, Object arg3,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("createBinaryProfile()") ConditionProfile listProfile) {
+            long start = 0;
+            long stop;
+            long step = 1;
+            if (PGuards.isNoValue(arg2)) {
+                stop = toIndex(arg1, -1, STOP_ERROR);
+            } else {
+                start = toIndex(arg1, 0, INDEX_ERROR);
+                stop = toIndex(arg2, -1, STOP_ERROR);
+                if (!PGuards.isNoValue(arg3)) {
+                    step = toIndex(arg3, 1, STEP_ERROR);
+                    if (step == 0) {
+                        throw raise(ValueError, STEP_ERROR);
+                    }
+                }
+            }
+            if (listProfile.profile(iterable instanceof PList && ((PList) iterable).getPythonClass().isBuiltin())) {
+                return factory().createIslice(cls, (PList) iterable, start, stop, step);
+            }
+            return factory().createIslice(cls, getIterator.executeWith(iterable), start, stop, step);
+        }
+
+        private long toIndex(Object value, long defaultValue, String message) {
+            if (PGuards.isNone(value)) {
+                return defaultValue;
+            }
+            long index = toLong(value, message);
+            if (index < 0) {
+                throw raise(ValueError, message);
+            }
+            return index;
+        }
+
+        private long toLong(Object value, String message) {
+            if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return PInt.intValue((boolean) value);
+            } else if (value instanceof PInt) {
+                try {
+                    return ((PInt) value).longValueExact();
+                } catch (ArithmeticException e) {
+                    throw raise(ValueError, message);
+                }
+            }
+            if (callIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callIndexNode = insert(LookupAndCallUnaryNode.create(__INDEX__));
+            }
+            Object index = callIndexNode.executeObject(value);
+            if (index == PNone.NO_VALUE || !(index instanceof Integer || index instanceof Long || index instanceof Boolean || index instanceof PInt)) {
+                throw raise(ValueError, message);
+            }
+            return toLong(index, message);
+        }
+    }
+
+    // permutations(iterable, r=None)
+    @Builtin(name = "permutations", fixedNumOfPositionalArgs = 2, keywordArguments = {"r"}, constructsClass = PythonBuiltinClassType.PPermutations)
+    @GenerateNodeFactory
+    public abstract static class PermutationsNode extends PythonBuiltinNode {
+
+        @Specialization
+        PPermutations permutations(PythonClass cls, Object iterable, Object r,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            Object[] pool = toArray(toArrayNode, iterable);
+            int length = pool.length;
+            if (!PGuards.isPNone(r)) {
+                length = castToIndex.execute(r);
+                if (length < 0) {
+                    throw raise(ValueError, "r must be non-negative");
+                }
+            }
+            return factory().createPermutations(cls, pool, length);
+        }
+    }
+
+    // combinations(iterable, r)
+    @Builtin(name = "combinations", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PCombinations)
+    @GenerateNodeFactory
+    public abstract static class CombinationsNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCombinations combinations(PythonClass cls, Object iterable, Object r,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            int length = castToIndex.execute(r);
+            if (length < 0) {
+                throw raise(ValueError, "r must be non-negative");
+            }
+            return factory().createCombinations(cls, toArray(toArrayNode, iterable), length, false);
+        }
+    }
+
+    // combinations_with_replacement(iterable, r)
+    @Builtin(name = "combinations_with_replacement", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PCombinationsWithReplacement)
+    @GenerateNodeFactory
+    public abstract static class CombinationsWithReplacementNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCombinations combinations(PythonClass cls, Object iterable, Object r,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            int length = castToIndex.execute(r);
+            if (length < 0) {
+                throw raise(ValueError, "r must be non-negative");
+            }
+            return factory().createCombinations(cls, toArray(toArrayNode, iterable), length, true);
+        }
+    }
+
+    // product(*iterables, repeat=1)
+    @Builtin(name = "product", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordArguments = {"repeat"}, constructsClass = PythonBuiltinClassType.PProduct)
+    @GenerateNodeFactory
+    public abstract static class ProductNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "isRanges(iterables)")
+        PProduct productOfRanges(PythonClass cls, Object[] iterables, Object repeat,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            int count = getRepeat(repeat, castToIndex);
+            int n = iterables.length;
+            int[] starts = new int[n * count];
+            int[] steps = new int[n * count];
+            int[] lengths = new int[n * count];
+            for (int i = 0; i < n; i++) {
+                PRange range = (PRange) iterables[i];
+                for (int j = 0; j < count; j++) {
+                    starts[j * n + i] = range.getStart();
+                    steps[j * n + i] = range.getStep();
+                    lengths[j * n + i] = range.len();
+                }
+            }
+            return factory().createProduct(cls, starts, steps, lengths);
+        }
+
+        @Specialization(guards = "!isRanges(iterables)")
+        PProduct product(PythonClass cls, Object[] iterables, Object repeat,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            int count = getRepeat(repeat, castToIndex);
+            int n = iterables.length;
+            Object[][] gears = new Object[n * count][];
+            for (int i = 0; i < n; i++) {
+                Object[] pool = toArray(toArrayNode, iterables[i]);
+                for (int j = 0; j < count; j++) {
+                    gears[j * n + i] = pool;
+                }
+            }
+            return factory().createProduct(cls, gears);
+        }
+
+        private int getRepeat(Object repeat, CastToIndexNode castToIndex) {
+            if (PGuards.isNoValue(repeat)) {
+                return 1;
+            }
+            int count = castToIndex.execute(repeat);
+            if (count < 0) {
+                throw raise(ValueError, "repeat argument cannot be negative");
+            }
+            return count;
+        }
+
+        protected static boolean isRanges(Object[] iterables) {
+            for (Object iterable : iterables) {
+                if (!(iterable instanceof PRange)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // accumulate(iterable, func=None)
+    @Builtin(name = "accumulate", fixedNumOfPositionalArgs = 2, keywordArguments = {"func"}, constructsClass = PythonBuiltinClassType.PAccumulate)
+    @GenerateNodeFactory
+    public abstract static class AccumulateNode extends PythonBuiltinNode {
+
+        @Specialization
+        PAccumulate accumulate(PythonClass cls, Object iterable, Object func,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createAccumulate(cls, getIterator.executeWith(iterable), PGuards.isNoValue(func) ? PNone.NONE : func);
+        }
+    }
+
+    // groupby(iterable, key=None)
+    @Builtin(name = "groupby", fixedNumOfPositionalArgs = 2, keywordArguments = {"key"}, constructsClass = PythonBuiltinClassType.PGroupBy)
+    @GenerateNodeFactory
+    public abstract static class GroupByNode extends PythonBuiltinNode {
+
+        @Specialization
+        PGroupBy groupBy(PythonClass cls, Object iterable, Object key,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createGroupBy(cls, getIterator.executeWith(iterable), PGuards.isNoValue(key) ? PNone.NONE : key);
+        }
+    }
+
+    // _grouper(parent, tgtkey)
+    @Builtin(name = "_grouper", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PGrouper, isPublic = false)
+    @GenerateNodeFactory
+    public abstract static class GrouperNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PGrouper grouper(PythonClass cls, PGroupBy parent, Object targetKey) {
+            return factory().createGrouper(cls, parent, targetKey);
+        }
+    }
+
+    // zip_longest(*iterables, fillvalue=None)
+    @Builtin(name = "zip_longest", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordArguments = {"fillvalue"}, constructsClass = PythonBuiltinClassType.PZipLongest)
+    @GenerateNodeFactory
+    public abstract static class ZipLongestNode extends PythonBuiltinNode {
+
+        @Specialization
+        PZipLongest zipLongest(PythonClass cls, Object[] iterables, Object fillValue,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object[] iterators = new Object[iterables.length];
+            for (int i = 0; i < iterables.length; i++) {
+                iterators[i] = getIterator.executeWith(iterables[i]);
+            }
+            return factory().createZipLongest(cls, iterators, PGuards.isNoValue(fillValue) ? PNone.NONE : fillValue);
+        }
+    }
+
+    // cycle(iterable)
+    @Builtin(name = "cycle", fixedNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PCycle)
+    @GenerateNodeFactory
+    public abstract static class CycleNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PCycle cycle(PythonClass cls, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createCycle(cls, getIterator.executeWith(iterable));
+        }
+    }
+
+    // takewhile(predicate, iterable)
+    @Builtin(name = "takewhile", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PTakewhile)
+    @GenerateNodeFactory
+    public abstract static class TakewhileNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PTakewhile takewhile(PythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createTakewhile(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // dropwhile(predicate, iterable)
+    @Builtin(name = "dropwhile", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDropwhile)
+    @GenerateNodeFactory
+    public abstract static class DropwhileNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PDropwhile dropwhile(PythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createDropwhile(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // filterfalse(function or None, iterable)
+    @Builtin(name = "filterfalse", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PFilterfalse)
+    @GenerateNodeFactory
+    public abstract static class FilterfalseNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PFilterfalse filterfalse(PythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createFilterfalse(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // compress(data, selectors)
+    @Builtin(name = "compress", fixedNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PCompress)
+    @GenerateNodeFactory
+    public abstract static class CompressNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PCompress compress(PythonClass cls, Object data, Object selectors,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createCompress(cls, getIterator.executeWith(data), getIterator.executeWith(selectors));
+        }
+    }
+
     // tee(iterable, n=2)
     @Builtin(name = "tee", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     public abstract static class TeeNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
-        @Specialization(guards = "isNoValue(n)")
-        Object tee(Object iterable, PNone n) {
-            throw raise(NotImplementedError, "tee");
+
+        @Specialization
+        Object tee(Object iterable, Object n,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create(__COPY__)") LookupInheritedAttributeNode getCopyNode,
+                        @Cached("create()") CallUnaryMethodNode callCopyNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            int count = PGuards.isNoValue(n) ? 2 : castToIndex.execute(n);
+            if (count < 0) {
+                throw raise(ValueError, "n must be >= 0");
+            }
+            Object[] result = new Object[count];
+            if (count == 0) {
+                return factory().createTuple(result);
+            }
+            Object iterator = getIterator.executeWith(iterable);
+            Object copy = getCopyNode.execute(iterator);
+            if (copy == PNone.NO_VALUE) {
+                iterator = factory().createTee(new PTee.Data(iterator), 0);
+            }
+            result[0] = iterator;
+            for (int i = 1; i < count; i++) {
+                if (iterator instanceof PTee) {
+                    result[i] = factory().createTee(((PTee) iterator).getData(), ((PTee) iterator).getIndex());
+                } else {
+                    result[i] = callCopyNode.executeObject(copy, result[i - 1]);
+                }
+            }
+            return factory().createTuple(result);
         }
     }
 
@@ -25,63 +25,509 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.EOFError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PEllipsis;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
+import com.oracle.graal.python.builtins.objects.set.PSet;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "marshal")
 public final class MarshalModuleBuiltins extends PythonBuiltins {
+    static final int CURRENT_VERSION = 4;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return MarshalModuleBuiltinsFactory.getFactories();
     }
 
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("version", CURRENT_VERSION);
+    }
+
     @Builtin(name = "dump", minNumOfPositionalArgs = 2, keywordArguments = {"version"})
     @GenerateNodeFactory
     abstract static class DumpNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private MarshallerNode marshaller = new MarshallerNode();
+        @Child private LookupAndCallBinaryNode writeNode = LookupAndCallBinaryNode.create("write");
+
         @Specialization
-        Object doit(Object value, Object file, Object version) {
-            throw raise(NotImplementedError, "marshal.dump");
+        Object doit(Object value, Object file, @SuppressWarnings("unused") Object version) {
+            return writeNode.executeObject(file, factory().createBytes(marshaller.dump(value)));
         }
     }
 
     @Builtin(name = "dumps", minNumOfPositionalArgs = 1, keywordArguments = {"version"})
     @GenerateNodeFactory
     abstract static class DumpsNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private MarshallerNode marshaller = new MarshallerNode();
+
         @Specialization
-        Object doit(Object value, Object version) {
-            throw raise(NotImplementedError, "marshal.dumps");
+        Object doit(Object value, @SuppressWarnings("unused") Object version) {
+            return factory().createBytes(marshaller.dump(value));
         }
     }
 
     @Builtin(name = "load", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class LoadNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private UnmarshallerNode unmarshaller = new UnmarshallerNode();
+        @Child private LookupAndCallUnaryNode readNode = LookupAndCallUnaryNode.create("read");
+
         @Specialization
-        Object doit(Object file) {
-            throw raise(NotImplementedError, "marshal.load");
+        Object doit(Object file,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            return unmarshaller.load(toBytesNode.execute(readNode.executeObject(file)));
         }
     }
 
     @Builtin(name = "loads", fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class LoadsNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+        @Child private UnmarshallerNode unmarshaller = new UnmarshallerNode();
+
         @Specialization
-        Object doit(Object bytes) {
-            throw raise(NotImplementedError, "marshal.loads");
+        Object doit(Object bytes,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            return unmarshaller.load(toBytesNode.execute(bytes));
+        }
+    }
+
+    // the type codes of CPython's marshal format
+    private static final int TYPE_NULL = '0';
+    private static final int TYPE_NONE = 'N';
+    private static final int TYPE_FALSE = 'F';
+    private static final int TYPE_TRUE = 'T';
+    private static final int TYPE_STOPITER = 'S';
+    private static final int TYPE_ELLIPSIS = '.';
+    private static final int TYPE_INT = 'i';
+    private static final int TYPE_INT64 = 'I';
+    private static final int TYPE_FLOAT = 'f';
+    private static final int TYPE_BINARY_FLOAT = 'g';
+    private static final int TYPE_COMPLEX = 'x';
+    private static final int TYPE_BINARY_COMPLEX = 'y';
+    private static final int TYPE_LONG = 'l';
+    private static final int TYPE_STRING = 's';
+    private static final int TYPE_INTERNED = 't';
+    private static final int TYPE_REF = 'r';
+    private static final int TYPE_TUPLE = '(';
+    private static final int TYPE_LIST = '[';
+    private static final int TYPE_DICT = '{';
+    private static final int TYPE_CODE = 'c';
+    private static final int TYPE_UNICODE = 'u';
+    private static final int TYPE_SET = '<';
+    private static final int TYPE_FROZENSET = '>';
+    private static final int TYPE_ASCII = 'a';
+    private static final int TYPE_ASCII_INTERNED = 'A';
+    private static final int TYPE_SMALL_TUPLE = ')';
+    private static final int TYPE_SHORT_ASCII = 'z';
+    private static final int TYPE_SHORT_ASCII_INTERNED = 'Z';
+    private static final int FLAG_REF = 0x80;
+
+    private static final int MAX_MARSHAL_STACK_DEPTH = 2000;
+    private static final int PYLONG_SHIFT = 15;
+    private static final BigInteger PYLONG_MASK = BigInteger.valueOf((1 << PYLONG_SHIFT) - 1);
+
+    /**
+     * Writes objects in the marshal format. Code objects have no bytecode in this implementation,
+     * so they cannot be marshalled.
+     */
+    static final class MarshallerNode extends PNodeWithContext {
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        @TruffleBoundary
+        byte[] dump(Object value) {
+            Marshaller marshaller = new Marshaller();
+            marshaller.writeObject(value);
+            return marshaller.out.toByteArray();
+        }
+
+        /**
+         * The state of a single dump. Builtin call targets are shared, so a node may be used by
+         * several threads or re-entrantly at the same time.
+         */
+        private final class Marshaller {
+            private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            private int depth;
+
+            private void writeByte(int b) {
+                out.write(b);
+            }
+
+            private void writeInt(int v) {
+                out.write(v);
+                out.write(v >>> 8);
+                out.write(v >>> 16);
+                out.write(v >>> 24);
+            }
+
+            private void writeLong(long v) {
+                writeInt((int) v);
+                writeInt((int) (v >>> 32));
+            }
+
+            private void writeBytes(byte[] bytes) {
+                writeInt(bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+
+            private void writeBigInteger(BigInteger value) {
+                BigInteger abs = value.abs();
+                int digits = (abs.bitLength() + PYLONG_SHIFT - 1) / PYLONG_SHIFT;
+                writeByte(TYPE_LONG);
+                writeInt(value.signum() < 0 ? -digits : digits);
+                for (int i = 0; i < digits; i++) {
+                    int digit = abs.shiftRight(i * PYLONG_SHIFT).and(PYLONG_MASK).intValue();
+                    writeByte(digit);
+                    writeByte(digit >>> 8);
+                }
+            }
+
+            private void writeIntegral(long value) {
+                if (value == (int) value) {
+                    writeByte(TYPE_INT);
+                    writeInt((int) value);
+                } else {
+                    writeBigInteger(BigInteger.valueOf(value));
+                }
+            }
+
+            private void writeDouble(double value) {
+                writeLong(Double.doubleToRawLongBits(value));
+            }
+
+            private void writeString(String value) {
+                writeByte(TYPE_UNICODE);
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+
+            private void writeItems(Object[] items, int length) {
+                for (int i = 0; i < length; i++) {
+                    writeObject(items[i]);
+                }
+            }
+
+            private void writeObject(Object value) {
+                if (++depth > MAX_MARSHAL_STACK_DEPTH) {
+                    throw raise(ValueError, "object too deeply nested to marshal");
+                }
+                try {
+                    writeObjectInternal(value);
+                } finally {
+                    depth--;
+                }
+            }
+
+            private void writeObjectInternal(Object value) {
+                if (value == PNone.NONE) {
+                    writeByte(TYPE_NONE);
+                } else if (value instanceof Boolean) {
+                    writeByte((boolean) value ? TYPE_TRUE : TYPE_FALSE);
+                } else if (value == getCore().getTrue()) {
+                    writeByte(TYPE_TRUE);
+                } else if (value == getCore().getFalse()) {
+                    writeByte(TYPE_FALSE);
+                } else if (value == PEllipsis.INSTANCE) {
+                    writeByte(TYPE_ELLIPSIS);
+                } else if (value == getCore().getErrorClass(StopIteration)) {
+                    writeByte(TYPE_STOPITER);
+                } else if (value instanceof Integer) {
+                    writeIntegral((int) value);
+                } else if (value instanceof Long) {
+                    writeIntegral((long) value);
+                } else if (value instanceof PInt) {
+                    writeBigInteger(((PInt) value).getValue());
+                } else if (value instanceof Double) {
+                    writeByte(TYPE_BINARY_FLOAT);
+                    writeDouble((double) value);
+                } else if (value instanceof PFloat) {
+                    writeByte(TYPE_BINARY_FLOAT);
+                    writeDouble(((PFloat) value).getValue());
+                } else if (value instanceof PComplex) {
+                    writeByte(TYPE_BINARY_COMPLEX);
+                    writeDouble(((PComplex) value).getReal());
+                    writeDouble(((PComplex) value).getImag());
+                } else if (value instanceof String) {
+                    writeString((String) value);
+                } else if (value instanceof PString) {
+                    writeString(((PString) value).getValue());
+                } else if (value instanceof PBytes || value instanceof PByteArray) {
+                    writeByte(TYPE_STRING);
+                    writeBytes(getToBytesNode().execute(value));
+                } else if (value instanceof PTuple) {
+                    Object[] items = ((PTuple) value).getArray();
+                    if (items.length < 256) {
+                        writeByte(TYPE_SMALL_TUPLE);
+                        writeByte(items.length);
+                    } else {
+                        writeByte(TYPE_TUPLE);
+                        writeInt(items.length);
+                    }
+                    writeItems(items, items.length);
+                } else if (value instanceof PList) {
+                    Object[] items = ((PList) value).getSequenceStorage().getCopyOfInternalArray();
+                    writeByte(TYPE_LIST);
+                    writeInt(items.length);
+                    writeItems(items, items.length);
+                } else if (value instanceof PDict) {
+                    writeByte(TYPE_DICT);
+                    for (DictEntry entry : ((PDict) value).getDictStorage().entries()) {
+                        writeObject(entry.getKey());
+                        writeObject(entry.getValue());
+                    }
+                    writeByte(TYPE_NULL);
+                } else if (value instanceof PBaseSet) {
+                    HashingStorage storage = ((PBaseSet) value).getDictStorage();
+                    writeByte(value instanceof PSet ? TYPE_SET : TYPE_FROZENSET);
+                    writeInt(storage.length());
+                    for (Object key : storage.keys()) {
+                        writeObject(key);
+                    }
+                } else {
+                    throw raise(ValueError, "unmarshallable object");
+                }
+            }
+        }
+
+        private BytesNodes.ToBytesNode getToBytesNode() {
+            if (toBytesNode == null) {
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            return toBytesNode;
+        }
+    }
+
+    static final class UnmarshallerNode extends PNodeWithContext {
+        @TruffleBoundary
+        Object load(byte[] bytes) {
+            return new Unmarshaller(bytes).readObject();
+        }
+
+        /** The state of a single load, see {@link MarshallerNode.Marshaller}. */
+        private final class Unmarshaller {
+            private final byte[] data;
+            private final List<Object> refs = new ArrayList<>();
+            private int index;
+            private int depth;
+
+            Unmarshaller(byte[] data) {
+                this.data = data;
+            }
+
+            private int readByte() {
+                if (index >= data.length) {
+                    throw raise(EOFError, "EOF read where object expected");
+                }
+                return data[index++] & 0xff;
+            }
+
+            private int readInt() {
+                return readByte() | readByte() << 8 | readByte() << 16 | readByte() << 24;
+            }
+
+            private long readLong() {
+                return (readInt() & 0xffffffffL) | ((long) readInt() << 32);
+            }
+
+            private byte[] readBytes(int length) {
+                if (length < 0 || length > data.length - index) {
+                    throw raise(EOFError, "marshal data too short");
+                }
+                byte[] result = new byte[length];
+                System.arraycopy(data, index, result, 0, length);
+                index += length;
+                return result;
+            }
+
+            private double readDouble() {
+                return Double.longBitsToDouble(readLong());
+            }
+
+            private double readAsciiDouble() {
+                String repr = new String(readBytes(readByte()), StandardCharsets.US_ASCII);
+                try {
+                    return Double.parseDouble(repr);
+                } catch (NumberFormatException e) {
+                    throw raise(ValueError, "bad marshal data (invalid float)");
+                }
+            }
+
+            private Object readBigInteger() {
+                int n = readInt();
+                int digits = Math.abs(n);
+                BigInteger result = BigInteger.ZERO;
+                for (int i = 0; i < digits; i++) {
+                    int digit = readByte() | readByte() << 8;
+                    if (digit > PYLONG_MASK.intValue()) {
+                        throw raise(ValueError, "bad marshal data (digit out of range in long)");
+                    }
+                    result = result.or(BigInteger.valueOf(digit).shiftLeft(i * PYLONG_SHIFT));
+                }
+                if (n < 0) {
+                    result = result.negate();
+                }
+                if (result.bitLength() < Long.SIZE) {
+                    long value = result.longValue();
+                    return value == (int) value ? (Object) (int) value : (Object) value;
+                }
+                return factory().createInt(result);
+            }
+
+            private Object[] readItems(int length) {
+                if (length < 0 || length > data.length - index) {
+                    throw raise(EOFError, "marshal data too short");
+                }
+                Object[] items = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    items[i] = readObject();
+                }
+                return items;
+            }
+
+            private Object readObject() {
+                if (++depth > MAX_MARSHAL_STACK_DEPTH) {
+                    throw raise(ValueError, "recursion limit exceeded");
+                }
+                try {
+                    int code = readByte();
+                    boolean addRef = (code & FLAG_REF) != 0;
+                    int refIndex = refs.size();
+                    if (addRef) {
+                        refs.add(null);
+                    }
+                    Object result = readObjectInternal(code & ~FLAG_REF);
+                    if (addRef) {
+                        refs.set(refIndex, result);
+                    }
+                    return result;
+                } finally {
+                    depth--;
+                }
+            }
+
+            private Object readObjectInternal(int type) {
+                switch (type) {
+                    case TYPE_NONE:
+                        return PNone.NONE;
+                    case TYPE_TRUE:
+                        return true;
+                    case TYPE_FALSE:
+                        return false;
+                    case TYPE_ELLIPSIS:
+                        return PEllipsis.INSTANCE;
+                    case TYPE_STOPITER:
+                        return getCore().getErrorClass(StopIteration);
+                    case TYPE_INT:
+                        return readInt();
+                    case TYPE_INT64:
+                        return readLong();
+                    case TYPE_LONG:
+                        return readBigInteger();
+                    case TYPE_FLOAT:
+                        return readAsciiDouble();
+                    case TYPE_BINARY_FLOAT:
+                        return readDouble();
+                    case TYPE_COMPLEX: {
+                        double real = readAsciiDouble();
+                        return factory().createComplex(real, readAsciiDouble());
+                    }
+                    case TYPE_BINARY_COMPLEX: {
+                        double real = readDouble();
+                        return factory().createComplex(real, readDouble());
+                    }
+                    case TYPE_STRING:
+                        return factory().createBytes(readBytes(readInt()));
+                    case TYPE_UNICODE:
+                    case TYPE_INTERNED:
+                        return new String(readBytes(readInt()), StandardCharsets.UTF_8);
+                    case TYPE_ASCII:
+                    case TYPE_ASCII_INTERNED:
+                        return new String(readBytes(readInt()), StandardCharsets.ISO_8859_1);
+                    case TYPE_SHORT_ASCII:
+                    case TYPE_SHORT_ASCII_INTERNED:
+                        return new String(readBytes(readByte()), StandardCharsets.ISO_8859_1);
+                    case TYPE_SMALL_TUPLE:
+                        return factory().createTuple(readItems(readByte()));
+                    case TYPE_TUPLE:
+                        return factory().createTuple(readItems(readInt()));
+                    case TYPE_LIST: {
+                        Object[] items = readItems(readInt());
+                        return items.length == 0 ? factory().createList(EmptySequenceStorage.INSTANCE) : factory().createList(items);
+                    }
+                    case TYPE_DICT: {
+                        PDict dict = factory().createDict();
+                        while (true) {
+                            if (index < data.length && data[index] == TYPE_NULL) {
+                                index++;
+                                return dict;
+                            }
+                            Object key = readObject();
+                            dict.setItem(key, readObject());
+                        }
+                    }
+                    case TYPE_SET:
+                    case TYPE_FROZENSET: {
+                        Object[] items = readItems(readInt());
+                        HashingStorage storage = EconomicMapStorage.create(items.length, true);
+                        for (Object item : items) {
+                            storage.setItem(item, PNone.NO_VALUE, HashingStorage.getSlowPathEquivalence(item));
+                        }
+                        return type == TYPE_SET ? factory().createSet(storage) : factory().createFrozenSet(storage);
+                    }
+                    case TYPE_CODE:
+                        throw raise(ValueError, "bad marshal data (code objects are not supported)");
+                    case TYPE_REF: {
+                        int refIndex = readInt();
+                        if (refIndex < 0 || refIndex >= refs.size() || refs.get(refIndex) == null) {
+                            throw raise(ValueError, "bad marshal data (invalid reference)");
+                        }
+                        return refs.get(refIndex);
+                    }
+                    case TYPE_NULL:
+                        throw raise(TypeError, "NULL object in marshal data for object");
+                    default:
+                        throw raise(ValueError, "bad marshal data (unknown type code)");
+                }
+            }
         }
     }
 }
@@ -26,6 +26,7 @@
 package com.oracle.graal.python.builtins.modules;
 
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__FSPATH__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.BlockingIOError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.FileNotFoundError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
@@ -36,11 +37,21 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonReadableChannelException;
 import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.LinkOption;
@@ -51,7 +62,6 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileTime;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -77,18 +87,28 @@ import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ToBy
 import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.ToJavaBytesNode;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.runtime.PosixResources;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.exception.PythonExitException;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -99,6 +119,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 
 @CoreFunctions(defineModule = "posix")
@@ -126,10 +147,6 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     private static final int F_OK = 0;
     private static final int X_OK = 1;
 
-    // TODO(fa): should that live in the context ?
-    private static ArrayList<SeekableByteChannel> files = new ArrayList<>(Arrays.asList(new SeekableByteChannel[]{null, null, null}));
-    private static ArrayList<String> filePaths = new ArrayList<>(Arrays.asList(new String[]{"stdin", "stdout", "stderr"}));
-
     private static PosixFilePermission[][] otherBitsToPermission = new PosixFilePermission[][]{
                     new PosixFilePermission[]{},
                     new PosixFilePermission[]{PosixFilePermission.OTHERS_EXECUTE},
@@ -167,59 +184,130 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     private abstract static class PythonFileNode extends PythonBuiltinNode {
-        protected SeekableByteChannel getFileChannel(int fd) {
-            if (files.size() <= fd || fd < 3) {
-                throw raise(OSError, "Bad file descriptor");
-            }
-            SeekableByteChannel channel = files.get(fd);
+        private static final int READ_CHUNK_SIZE = 1 << 16;
+
+        protected PosixResources getResources() {
+            return getContext().getResources();
+        }
+
+        protected Channel getChannel(int fd) {
+            Channel channel = getResources().getFileChannel(fd);
             if (channel == null) {
                 throw raise(OSError, "Bad file descriptor");
             }
             return channel;
         }
 
-        protected String getFilePath(int fd) {
-            if (filePaths.size() <= fd || fd < 3) {
-                throw raise(OSError, "Bad file descriptor");
+        protected SeekableByteChannel getFileChannel(int fd) {
+            Channel channel = getChannel(fd);
+            if (!(channel instanceof SeekableByteChannel)) {
+                throw raise(OSError, "Illegal seek");
             }
-            String path = filePaths.get(fd);
-            if (path == null) {
-                throw raise(OSError, "Bad file descriptor");
+            return (SeekableByteChannel) channel;
+        }
+
+        /**
+         * Reads once from a pipe, socket or tty, which may block, without holding the GIL. Returns
+         * the number of bytes read, or 0 at the end of the stream.
+         */
+        protected int readBlocking(int fd, ReadableByteChannel channel, ByteBuffer dst) throws IOException {
+            // -1 is the end of the stream, which os.read reports as an empty result
+            return Math.max(0, transferBlocking(fd, channel, dst, SelectionKey.OP_READ));
+        }
+
+        /**
+         * Transfers once between {@code buffer} and a pipe, socket or tty without holding the GIL.
+         * A transfer of zero bytes on a non-blocking channel means it would block. That raises
+         * {@code BlockingIOError} if the descriptor is in non-blocking mode. Otherwise the channel
+         * is only non-blocking because it is or was registered with a poll object, and the
+         * transfer waits for it.
+         */
+        protected int transferBlocking(int fd, Channel channel, ByteBuffer buffer, int ops) throws IOException {
+            PosixResources resources = getResources();
+            PythonThreads threads = getContext().getThreads();
+            boolean released = threads.release();
+            int transferred;
+            boolean wouldBlock = false;
+            try {
+                while (true) {
+                    if (ops == SelectionKey.OP_READ) {
+                        transferred = ((ReadableByteChannel) channel).read(buffer);
+                    } else {
+                        transferred = ((WritableByteChannel) channel).write(buffer);
+                    }
+                    if (transferred != 0 || !buffer.hasRemaining() || !(channel instanceof SelectableChannel) || ((SelectableChannel) channel).isBlocking()) {
+                        break;
+                    } else if (!resources.isBlocking(fd)) {
+                        wouldBlock = true;
+                        break;
+                    }
+                    awaitReady((SelectableChannel) channel, ops);
+                }
+            } finally {
+                threads.reacquire(released);
+            }
+            if (wouldBlock) {
+                throw raise(BlockingIOError, "[Errno 11] Resource temporarily unavailable");
+            }
+            return transferred;
+        }
+
+        /**
+         * Waits until a non-blocking channel is ready for {@code ops} on a selector of its own. A
+         * channel that is not registered with any poll object any more is switched back to blocking
+         * mode instead, so the next transfer blocks by itself.
+         */
+        private static void awaitReady(SelectableChannel channel, int ops) throws IOException {
+            synchronized (channel.blockingLock()) {
+                if (!channel.isRegistered()) {
+                    channel.configureBlocking(true);
+                    return;
+                }
+            }
+            try (Selector selector = Selector.open()) {
+                channel.register(selector, ops);
+                if (selector.select() == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("interrupted while waiting for the descriptor");
+                }
             }
-            return path;
         }
 
-        protected void removeFile(int fd) {
-            files.set(fd, null);
-            filePaths.set(fd, null);
+        /**
+         * Reads from a regular file until the buffer is full or the end of the file is reached.
+         * Reads into a heap buffer go through a temporary direct buffer of the same size, so large
+         * reads are split into chunks of at most {@link #READ_CHUNK_SIZE} bytes.
+         */
+        protected static int readFully(FileChannel channel, ByteBuffer dst) throws IOException {
+            int total = 0;
+            int end = dst.limit();
+            while (dst.position() < end) {
+                dst.limit(Math.min(end, dst.position() + READ_CHUNK_SIZE));
+                int n = channel.read(dst);
+                if (n <= 0) {
+                    break;
+                }
+                total += n;
+            }
+            return total;
         }
 
-        private static int nextFreeFd() {
-            for (int i = 0; i < filePaths.size(); i++) {
-                String openPath = filePaths.get(i);
-                if (openPath == null) {
-                    assert files.get(i) == null;
-                    return i;
-                }
+        protected String getFilePath(int fd) {
+            String path = getResources().getFilePath(fd);
+            if (path == null) {
+                throw raise(OSError, "Bad file descriptor");
             }
-            files.add(null);
-            filePaths.add(null);
-            return filePaths.size() - 1;
+            return path;
         }
 
-        protected int addFile(TruffleFile path, SeekableByteChannel fc) {
-            int fd = nextFreeFd();
-            files.set(fd, fc);
-            filePaths.set(fd, path.getAbsoluteFile().getPath());
-            return fd;
+        protected int addFile(TruffleFile path, Channel fc) {
+            return getResources().open(path.getAbsoluteFile().getPath(), fc);
         }
 
         protected int dupFile(int fd) {
-            String filePath = getFilePath(fd);
-            SeekableByteChannel fileChannel = getFileChannel(fd);
-            int fd2 = nextFreeFd();
-            files.set(fd2, fileChannel);
-            filePaths.set(fd2, filePath);
+            int fd2 = getResources().dup(fd);
+            if (fd2 < 0) {
+                throw raise(OSError, "Bad file descriptor");
+            }
             return fd2;
         }
     }
@@ -549,6 +637,73 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "pipe", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PipeNode extends PythonFileNode {
+        @Specialization
+        @TruffleBoundary
+        PTuple pipe() {
+            Pipe pipe;
+            try {
+                pipe = Pipe.open();
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            int read = getResources().open("<pipe>", pipe.source());
+            int write = getResources().open("<pipe>", pipe.sink());
+            return factory().createTuple(new Object[]{read, write});
+        }
+    }
+
+    @Builtin(name = "get_blocking", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class GetBlockingNode extends PythonFileNode {
+        @Specialization
+        @TruffleBoundary
+        boolean getBlocking(int fd) {
+            if (PosixResources.isStandardStream(fd)) {
+                return true;
+            }
+            getChannel(fd);
+            return getResources().isBlocking(fd);
+        }
+    }
+
+    @Builtin(name = "set_blocking", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class SetBlockingNode extends PythonFileNode {
+        @Specialization
+        PNone setBlocking(int fd, Object blocking,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            return setBlocking(fd, castToBooleanNode.executeWith(blocking));
+        }
+
+        @TruffleBoundary
+        private PNone setBlocking(int fd, boolean blocking) {
+            if (PosixResources.isStandardStream(fd)) {
+                return PNone.NONE;
+            }
+            Channel channel = getChannel(fd);
+            getResources().setBlocking(fd, blocking);
+            if (channel instanceof SelectableChannel) {
+                SelectableChannel selectable = (SelectableChannel) channel;
+                try {
+                    synchronized (selectable.blockingLock()) {
+                        // a registered channel stays non-blocking, reads and writes wait for it
+                        if (!blocking || !selectable.isRegistered()) {
+                            selectable.configureBlocking(blocking);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw raise(OSError, e.getMessage());
+                }
+            }
+            return PNone.NONE;
+        }
+    }
+
     @Builtin(name = "open", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4, keywordArguments = {"mode", "dir_fd"})
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -645,11 +800,11 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         @TruffleBoundary
         Object close(int fd) {
             try {
-                getFileChannel(fd).close();
+                if (!getResources().close(fd)) {
+                    throw raise(OSError, "Bad file descriptor");
+                }
             } catch (IOException e) {
-                raise(OSError, e.getMessage());
-            } finally {
-                removeFile(fd);
+                throw raise(OSError, e.getMessage());
             }
             return PNone.NONE;
         }
@@ -707,19 +862,30 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class WriteNode extends PythonFileNode {
         @Child private SequenceStorageNodes.ToByteArrayNode toByteArrayNode;
+        @Child private ToJavaBytesNode toJavaBytesNode;
 
         public abstract Object executeWith(Object fd, Object data);
 
         @Specialization(guards = {"fd <= 2", "fd > 0"})
         @TruffleBoundary
         Object writeStd(int fd, byte[] data) {
+            return writeStd(fd, data, 0, data.length);
+        }
+
+        @Specialization(guards = "fd == 0 || fd > 2")
+        @TruffleBoundary
+        Object write(int fd, byte[] data) {
+            return write(fd, data, 0, data.length);
+        }
+
+        private Object writeStd(int fd, byte[] data, int offset, int length) {
             try {
                 switch (fd) {
                     case 1:
-                        getContext().getStandardOut().write(data);
+                        getContext().getStandardOut().write(data, offset, length);
                         break;
                     case 2:
-                        getContext().getStandardErr().write(data);
+                        getContext().getStandardErr().write(data, offset, length);
                         break;
                 }
             } catch (IOException e) {
@@ -728,11 +894,16 @@ public class PosixModuleBuiltins extends PythonBuiltins {
             return PNone.NONE;
         }
 
-        @Specialization(guards = "fd == 0 || fd > 2")
-        @TruffleBoundary
-        Object write(int fd, byte[] data) {
+        private Object write(int fd, byte[] data, int offset, int length) {
             try {
-                return getFileChannel(fd).write(ByteBuffer.wrap(data));
+                Channel channel = getChannel(fd);
+                if (!(channel instanceof WritableByteChannel)) {
+                    throw raise(OSError, "Bad file descriptor");
+                }
+                if (channel instanceof FileChannel) {
+                    return ((WritableByteChannel) channel).write(ByteBuffer.wrap(data, offset, length));
+                }
+                return transferBlocking(fd, channel, ByteBuffer.wrap(data, offset, length), SelectionKey.OP_WRITE);
             } catch (NonWritableChannelException | IOException e) {
                 throw raise(OSError, e.getMessage());
             }
@@ -752,25 +923,35 @@ public class PosixModuleBuiltins extends PythonBuiltins {
 
         @Specialization(guards = "fd == 0 || fd > 2")
         @TruffleBoundary
-        Object write(int fd, PBytes data) {
-            return write(fd, getByteArray(data));
+        Object write(int fd, PIBytesLike data) {
+            return write(fd, getByteArray(data), 0, data.getSequenceStorage().length());
         }
 
         @Specialization(guards = {"fd <= 2", "fd > 0"})
         @TruffleBoundary
-        Object writeStd(int fd, PBytes data) {
-            return writeStd(fd, getByteArray(data));
+        Object writeStd(int fd, PIBytesLike data) {
+            return writeStd(fd, getByteArray(data), 0, data.getSequenceStorage().length());
         }
 
-        @Specialization(guards = "fd == 0 || fd > 2")
+        @Specialization(guards = {"fd == 0 || fd > 2", "!data.isNative()"})
         @TruffleBoundary
-        Object write(int fd, PByteArray data) {
+        Object write(int fd, PMemoryView data) {
+            checkReleased(data);
+            if (isByteView(data)) {
+                byte[] array = ((ByteSequenceStorage) MemoryviewNodes.getCheckedStorage(this, data)).getInternalByteArray();
+                return write(fd, array, data.getOffset(), data.getLength());
+            }
             return write(fd, getByteArray(data));
         }
 
-        @Specialization(guards = {"fd <= 2", "fd > 0"})
+        @Specialization(guards = {"fd <= 2", "fd > 0", "!data.isNative()"})
         @TruffleBoundary
-        Object writeStd(int fd, PByteArray data) {
+        Object writeStd(int fd, PMemoryView data) {
+            checkReleased(data);
+            if (isByteView(data)) {
+                byte[] array = ((ByteSequenceStorage) MemoryviewNodes.getCheckedStorage(this, data)).getInternalByteArray();
+                return writeStd(fd, array, data.getOffset(), data.getLength());
+            }
             return writeStd(fd, getByteArray(data));
         }
 
@@ -780,14 +961,37 @@ public class PosixModuleBuiltins extends PythonBuiltins {
             return recursive.executeWith(fd.intValue(), data);
         }
 
+        /**
+         * Returns the internal array of the storage if possible; only the first
+         * {@code storage.length()} bytes are valid.
+         */
         private byte[] getByteArray(PIBytesLike pByteArray) {
             if (toByteArrayNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                toByteArrayNode = insert(ToByteArrayNode.create());
+                toByteArrayNode = insert(ToByteArrayNode.create(false));
             }
             return toByteArrayNode.execute(pByteArray.getSequenceStorage());
         }
 
+        private byte[] getByteArray(PMemoryView view) {
+            if (toJavaBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toJavaBytesNode = insert(ToJavaBytesNode.create());
+            }
+            return toJavaBytesNode.execute(view);
+        }
+
+        private void checkReleased(PMemoryView view) {
+            if (view.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            }
+        }
+
+        /** Views of a contiguous range of a byte storage can be written without copying. */
+        private static boolean isByteView(PMemoryView view) {
+            return view.isContiguous() && view.getItemSize() == 1 && view.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
         protected WriteNode create() {
             return PosixModuleBuiltinsFactory.WriteNodeFactory.create(null);
         }
@@ -800,16 +1004,82 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object read(int fd, long requestedSize) {
-            SeekableByteChannel channel = getFileChannel(fd);
+            Channel channel = getChannel(fd);
             try {
-                long size = Math.min(requestedSize, channel.size() - channel.position());
-                // cast below will always succeed, since requestedSize was an int,
-                // and must thus will always be smaller than a long that cannot be
-                // downcast
-                ByteBuffer dst = ByteBuffer.allocate((int) size);
-                getFileChannel(fd).read(dst);
-                return factory().createBytes(dst.array());
-            } catch (IOException e) {
+                if (channel instanceof FileChannel) {
+                    FileChannel fc = (FileChannel) channel;
+                    long position = fc.position();
+                    // cast below will always succeed, since requestedSize was an int,
+                    // and must thus will always be smaller than a long that cannot be
+                    // downcast
+                    int size = (int) Math.max(0, Math.min(requestedSize, fc.size() - position));
+                    byte[] result = new byte[size];
+                    return factory().createBytes(trim(result, readFully(fc, ByteBuffer.wrap(result))));
+                } else if (channel instanceof ReadableByteChannel) {
+                    byte[] result = new byte[(int) Math.max(0, requestedSize)];
+                    return factory().createBytes(trim(result, readBlocking(fd, (ReadableByteChannel) channel, ByteBuffer.wrap(result))));
+                }
+                throw raise(OSError, "Bad file descriptor");
+            } catch (NonReadableChannelException | IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+        }
+
+        private static byte[] trim(byte[] bytes, int length) {
+            return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+        }
+    }
+
+    @Builtin(name = "readv", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    public abstract static class ReadvNode extends PythonFileNode {
+        @Specialization
+        Object readv(int fd, Object buffers,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Channel channel = getChannel(fd);
+            if (!(channel instanceof ReadableByteChannel)) {
+                throw raise(OSError, "Bad file descriptor");
+            }
+            Object iterator = getIterator.executeWith(buffers);
+            long total = 0;
+            while (true) {
+                Object buffer;
+                try {
+                    buffer = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return total;
+                }
+                SequenceStorage storage = buffer instanceof PByteArray ? ((PByteArray) buffer).getSequenceStorage() : null;
+                if (storage == null || !(storage instanceof ByteSequenceStorage || storage.length() == 0)) {
+                    throw raise(TypeError, "readv() arg 2 must be a sequence of writable buffers");
+                }
+                int length = storage.length();
+                if (length > 0) {
+                    int n = readInto(fd, channel, (ByteSequenceStorage) storage, length);
+                    total += n;
+                    // only regular files are read until the buffers are full, anything else may
+                    // block on a second read
+                    if (n < length || !(channel instanceof FileChannel)) {
+                        return total;
+                    }
+                }
+            }
+        }
+
+        /** Reads straight into the storage of the bytearray. */
+        @TruffleBoundary
+        private int readInto(int fd, Channel channel, ByteSequenceStorage storage, int length) {
+            ByteBuffer dst = ByteBuffer.wrap(storage.getInternalByteArray(), 0, length);
+            try {
+                if (channel instanceof FileChannel) {
+                    return readFully((FileChannel) channel, dst);
+                }
+                return readBlocking(fd, (ReadableByteChannel) channel, dst);
+            } catch (NonReadableChannelException | IOException e) {
                 throw raise(OSError, e.getMessage());
             }
         }
@@ -44,21 +44,34 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeE
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListAppendNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.sre.PSREMatch;
+import com.oracle.graal.python.builtins.objects.sre.TRegexCache;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
-import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -69,13 +82,11 @@ import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.dsl.TypeSystemReference;
-import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
 import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
-import com.oracle.truffle.api.interop.UnsupportedMessageException;
-import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
 
@@ -165,6 +176,9 @@ public class SREModuleBuiltins extends PythonBuiltins {
          */
         @TruffleBoundary(transferToInterpreterOnException = false, allowInlining = true)
         private String replaceAll(String r) {
+            if (r.indexOf("?P<") < 0 && r.indexOf("\\Z") < 0) {
+                return r;
+            }
             Matcher matcher0 = namedCaptGroupPattern.matcher(r);
             StringBuffer sb = new StringBuffer();
             while (matcher0.find()) {
@@ -257,49 +271,520 @@ public class SREModuleBuiltins extends PythonBuiltins {
 
     }
 
-    @Builtin(name = "tregex_call_safe", fixedNumOfPositionalArgs = 3)
-    @TypeSystemReference(PythonArithmeticTypes.class)
+    @Builtin(name = "SRE_Match", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PSREMatch)
     @GenerateNodeFactory
-    abstract static class TRegexCallSafe extends PythonBuiltinNode {
+    abstract static class SREMatchTypeNode extends PythonBuiltinNode {
+
+        @Specialization
+        PSREMatch construct(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            throw raise(TypeError, "cannot create '_sre.SRE_Match' instances");
+        }
+    }
 
-        private Object doIt(TruffleObject callable, String arg1, Object arg2,
-                        BranchProfile runtimeError,
-                        BranchProfile typeError, Node invokeNode) {
+    /**
+     * Compiles a pattern with the TRegex engine, going through the context's {@link TRegexCache}.
+     * Patterns TRegex cannot handle raise {@code RuntimeError}.
+     */
+    @Builtin(name = "tregex_compile", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class TRegexCompileNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(guards = "isForeignObject(engine)")
+        Object compile(TruffleObject engine, String pattern, String flags,
+                        @Cached("create()") BranchProfile missProfile,
+                        @Cached("createExecute()") Node executeNode) {
+            TRegexCache cache = getContext().getRegexCache();
+            TruffleObject compiled = cache.get(pattern, flags);
+            if (compiled == null) {
+                missProfile.enter();
+                try {
+                    compiled = (TruffleObject) ForeignAccess.sendExecute(executeNode, engine, pattern, flags);
+                } catch (InteropException e) {
+                    throw raise(TypeError, "%s", e);
+                } catch (RuntimeException e) {
+                    throw raise(RuntimeError, "%s", e);
+                }
+                cache.put(pattern, flags, compiled);
+            }
+            return compiled;
+        }
+
+        @Specialization(guards = "isForeignObject(engine)")
+        Object compile(TruffleObject engine, PString pattern, String flags,
+                        @Cached("create()") BranchProfile missProfile,
+                        @Cached("createExecute()") Node executeNode) {
+            return compile(engine, pattern.getValue(), flags, missProfile, executeNode);
+        }
+
+        @SuppressWarnings("unused")
+        @Fallback
+        Object compile(Object engine, Object pattern, Object flags) {
+            throw raise(RuntimeError);
+        }
+
+        protected static Node createExecute() {
+            return Message.EXECUTE.createNode();
+        }
+    }
+
+    /**
+     * Executes a compiled TRegex regex and copies the spans of a successful match out of the
+     * result, so that the {@link PSREMatch} does not need interop anymore. Errors of the regex
+     * engine are raised as {@code RuntimeError}, which makes {@code _sre.py} fall back to the
+     * CPython implementation.
+     */
+    static final class TRegexExecNode extends PNodeWithContext {
+        @Child private Node readExecNode = Message.READ.createNode();
+        @Child private Node executeNode = Message.EXECUTE.createNode();
+        @Child private Node readResultNode = Message.READ.createNode();
+        @Child private Node readSpanNode = Message.READ.createNode();
+
+        /**
+         * Searches {@code string[:endpos]} starting at {@code pos} and returns the match or
+         * {@code null}.
+         */
+        PSREMatch execute(Object pattern, TruffleObject compiled, String string, int pos, int endpos) {
+            String input = endpos < string.length() ? substring(string, 0, endpos) : string;
+            int[] starts;
+            int[] ends;
             try {
-                return ForeignAccess.sendExecute(invokeNode, callable, new Object[]{arg1, arg2});
-            } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
-                typeError.enter();
-                throw raise(TypeError, "%s", e);
-            } catch (RuntimeException e) {
-                runtimeError.enter();
+                TruffleObject exec = (TruffleObject) ForeignAccess.sendRead(readExecNode, compiled, "exec");
+                TruffleObject result = (TruffleObject) ForeignAccess.sendExecute(executeNode, exec, input, pos);
+                if (!(boolean) ForeignAccess.sendRead(readResultNode, result, "isMatch")) {
+                    return null;
+                }
+                int groupCount = (int) ForeignAccess.sendRead(readResultNode, result, "groupCount");
+                TruffleObject startArray = (TruffleObject) ForeignAccess.sendRead(readResultNode, result, "start");
+                TruffleObject endArray = (TruffleObject) ForeignAccess.sendRead(readResultNode, result, "end");
+                starts = new int[groupCount];
+                ends = new int[groupCount];
+                for (int i = 0; i < groupCount; i++) {
+                    starts[i] = (int) ForeignAccess.sendRead(readSpanNode, startArray, i);
+                    ends[i] = (int) ForeignAccess.sendRead(readSpanNode, endArray, i);
+                }
+            } catch (InteropException | RuntimeException e) {
                 throw raise(RuntimeError, "%s", e);
             }
+            return factory().createSREMatch(pattern, string, pos, endpos, starts, ends);
         }
 
-        @Specialization(guards = "isForeignObject(callable)")
-        Object call(TruffleObject callable, String arg1, String arg2,
-                        @Cached("create()") BranchProfile runtimeError,
-                        @Cached("create()") BranchProfile typeError,
-                        @Cached("createExecute()") Node invokeNode) {
-            return doIt(callable, arg1, arg2, runtimeError, typeError, invokeNode);
+        public static TRegexExecNode create() {
+            return new TRegexExecNode();
+        }
+    }
+
+    /**
+     * Common argument handling of the matching loops. Only {@code str} subjects are supported,
+     * anything else raises {@code RuntimeError} so that the caller falls back to the CPython
+     * implementation, which also produces the right error messages.
+     */
+    abstract static class TRegexMatchingNode extends PythonBuiltinNode {
+        @Child private TRegexExecNode execNode;
+        @Child private CastToIndexNode castToIndexNode;
+        @Child private ListAppendNode appendNode;
+
+        protected final PSREMatch exec(Object pattern, TruffleObject compiled, String string, int pos, int endpos) {
+            if (execNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                execNode = insert(TRegexExecNode.create());
+            }
+            return execNode.execute(pattern, compiled, string, pos, endpos);
         }
 
-        @Specialization(guards = "isForeignObject(callable)")
-        Object call(TruffleObject callable, String arg1, int arg2,
-                        @Cached("create()") BranchProfile runtimeError,
-                        @Cached("create()") BranchProfile typeError,
-                        @Cached("createExecute()") Node invokeNode) {
-            return doIt(callable, arg1, arg2, runtimeError, typeError, invokeNode);
+        protected final String castToString(Object string) {
+            if (string instanceof String) {
+                return (String) string;
+            } else if (string instanceof PString) {
+                return ((PString) string).getValue();
+            }
+            throw raise(RuntimeError, "expected str, not %p", string);
+        }
+
+        protected final int castToIndex(Object value) {
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.create());
+            }
+            return castToIndexNode.execute(value);
+        }
+
+        protected final void appendItem(PList list, Object item) {
+            if (appendNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                appendNode = insert(ListAppendNode.create());
+            }
+            appendNode.execute(list, item);
+        }
+
+        /**
+         * Clamps a {@code pos} or {@code endpos} argument to the string like CPython does.
+         */
+        protected final int position(Object value, String string) {
+            if (value == PNone.NONE || value == PNone.NO_VALUE) {
+                return string.length();
+            }
+            return Math.max(0, Math.min(castToIndex(value), string.length()));
+        }
+    }
+
+    @Builtin(name = "tregex_search", fixedNumOfPositionalArgs = 5)
+    @GenerateNodeFactory
+    abstract static class TRegexSearchNode extends TRegexMatchingNode {
+
+        @Specialization(guards = "isForeignObject(compiled)")
+        Object search(Object pattern, TruffleObject compiled, Object stringObj, Object posObj, Object endposObj) {
+            String string = castToString(stringObj);
+            int pos = position(posObj, string);
+            int endpos = position(endposObj, string);
+            if (pos > endpos) {
+                return PNone.NONE;
+            }
+            PSREMatch match = exec(pattern, compiled, string, pos, endpos);
+            return match == null ? PNone.NONE : match;
         }
 
         @SuppressWarnings("unused")
         @Fallback
-        Object call(Object callable, Object arg1, Object arg2) {
+        Object search(Object pattern, Object compiled, Object string, Object pos, Object endpos) {
             throw raise(RuntimeError);
         }
+    }
 
-        protected static Node createExecute() {
-            return Message.EXECUTE.createNode();
+    @Builtin(name = "tregex_finditer", fixedNumOfPositionalArgs = 5)
+    @GenerateNodeFactory
+    abstract static class TRegexFinditerNode extends TRegexMatchingNode {
+
+        @Specialization(guards = "isForeignObject(compiled)")
+        Object finditer(Object pattern, TruffleObject compiled, Object stringObj, Object posObj, Object endposObj) {
+            String string = castToString(stringObj);
+            int pos = position(posObj, string);
+            int endpos = position(endposObj, string);
+            PList result = factory().createList();
+            while (pos <= endpos) {
+                PSREMatch match = exec(pattern, compiled, string, pos, endpos);
+                if (match == null) {
+                    break;
+                }
+                appendItem(result, match);
+                // an empty match must not be found again at the same position
+                pos = match.getEnd(0) == match.getStart(0) ? match.getEnd(0) + 1 : match.getEnd(0);
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unused")
+        @Fallback
+        Object finditer(Object pattern, Object compiled, Object string, Object pos, Object endpos) {
+            throw raise(RuntimeError);
+        }
+    }
+
+    @Builtin(name = "tregex_findall", fixedNumOfPositionalArgs = 5)
+    @GenerateNodeFactory
+    abstract static class TRegexFindallNode extends TRegexMatchingNode {
+
+        @Specialization(guards = "isForeignObject(compiled)")
+        Object findall(Object pattern, TruffleObject compiled, Object stringObj, Object posObj, Object endposObj) {
+            String string = castToString(stringObj);
+            int pos = position(posObj, string);
+            int endpos = position(endposObj, string);
+            PList result = factory().createList();
+            while (pos <= endpos) {
+                PSREMatch match = exec(pattern, compiled, string, pos, endpos);
+                if (match == null) {
+                    break;
+                }
+                appendItem(result, item(match));
+                pos = match.getEnd(0) == match.getStart(0) ? match.getEnd(0) + 1 : match.getEnd(0);
+            }
+            return result;
+        }
+
+        private Object item(PSREMatch match) {
+            int groupCount = match.getGroupCount();
+            if (groupCount == 1) {
+                return match.getGroup(0);
+            } else if (groupCount == 2) {
+                return groupOrEmpty(match, 1);
+            }
+            Object[] groups = new Object[groupCount - 1];
+            for (int i = 0; i < groups.length; i++) {
+                groups[i] = groupOrEmpty(match, i + 1);
+            }
+            return factory().createTuple(groups);
+        }
+
+        private static String groupOrEmpty(PSREMatch match, int group) {
+            String value = match.getGroup(group);
+            return value == null ? "" : value;
         }
+
+        @SuppressWarnings("unused")
+        @Fallback
+        Object findall(Object pattern, Object compiled, Object string, Object pos, Object endpos) {
+            throw raise(RuntimeError);
+        }
+    }
+
+    /**
+     * Implements {@code subn}. A {@code str} replacement is a template (with its escape sequences
+     * already processed by {@code _process_escape_sequences}), anything else is called with the
+     * match. Templates this node cannot expand raise {@code RuntimeError}, so the CPython
+     * implementation reports the error.
+     */
+    @Builtin(name = "tregex_subn", fixedNumOfPositionalArgs = 5)
+    @GenerateNodeFactory
+    abstract static class TRegexSubnNode extends TRegexMatchingNode {
+        @Child private CallNode callNode;
+        @Child private ReadAttributeFromObjectNode readGroupIndexNode;
+
+        @Specialization(guards = "isForeignObject(compiled)")
+        Object subn(VirtualFrame frame, Object pattern, TruffleObject compiled, Object repl, Object stringObj, Object countObj) {
+            String string = castToString(stringObj);
+            int count = castToIndex(countObj);
+            String template = repl instanceof String || repl instanceof PString ? castToString(repl) : null;
+            Object[] parts = null;
+            StringBuilder result = newStringBuilder();
+            int n = 0;
+            int i = 0;
+            int pos = 0;
+            while (count == 0 || n < count) {
+                PSREMatch match = exec(pattern, compiled, string, pos, string.length());
+                if (match == null) {
+                    break;
+                }
+                int start = match.getStart(0);
+                int end = match.getEnd(0);
+                if (i < start) {
+                    append(result, string, i, start);
+                }
+                // like CPython 3.6, an empty match adjacent to the previous match is skipped
+                if (!(i == start && i == end && n > 0)) {
+                    if (template != null) {
+                        if (parts == null) {
+                            parts = parseTemplate(template, match.getGroupCount(), pattern);
+                        }
+                        expandTemplate(result, parts, match);
+                    } else {
+                        appendReplacement(result, callReplacement(frame, repl, match));
+                    }
+                    n++;
+                }
+                i = end;
+                if (end == string.length()) {
+                    break;
+                }
+                pos = start == end ? end + 1 : end;
+            }
+            append(result, string, i, string.length());
+            return factory().createTuple(new Object[]{toString(result), n});
+        }
+
+        private Object callReplacement(VirtualFrame frame, Object repl, PSREMatch match) {
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            return callNode.execute(frame, repl, new Object[]{match}, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        private void appendReplacement(StringBuilder result, Object replacement) {
+            if (replacement instanceof String) {
+                append(result, (String) replacement);
+            } else if (replacement instanceof PString) {
+                append(result, ((PString) replacement).getValue());
+            } else if (replacement != PNone.NONE) {
+                throw raise(TypeError, "expected str instance, %p found", replacement);
+            }
+        }
+
+        private Object[] parseTemplate(String template, int groupCount, Object pattern) {
+            if (readGroupIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                readGroupIndexNode = insert(ReadAttributeFromObjectNode.create());
+            }
+            Object groupIndex = readGroupIndexNode.execute(pattern, "groupindex");
+            Object[] parts = parseTemplate(template, groupCount, groupIndex instanceof PDict ? (PDict) groupIndex : null);
+            if (parts == null) {
+                throw raise(RuntimeError, "invalid replacement template");
+            }
+            return parts;
+        }
+
+        /**
+         * Splits a template into literal {@code String}s and {@code Integer} group references.
+         * Returns {@code null} if the template is invalid.
+         */
+        @TruffleBoundary
+        private static Object[] parseTemplate(String template, int groupCount, PDict groupIndex) {
+            ArrayList<Object> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int length = template.length();
+            int i = 0;
+            while (i < length) {
+                char c = template.charAt(i++);
+                if (c != '\\' || i == length) {
+                    literal.append(c);
+                    continue;
+                }
+                c = template.charAt(i++);
+                int group;
+                if (c == 'g') {
+                    int close = template.indexOf('>', i);
+                    if (i == length || template.charAt(i) != '<' || close < 0) {
+                        return null;
+                    }
+                    String name = template.substring(i + 1, close);
+                    i = close + 1;
+                    group = groupNumber(name, groupIndex);
+                } else if (c == '0' || (isOctal(c) && i + 1 < length && isOctal(template.charAt(i)) && isOctal(template.charAt(i + 1)))) {
+                    // octal escape of up to three digits
+                    int code = c - '0';
+                    for (int j = 0; j < 2 && i < length && isOctal(template.charAt(i)); j++) {
+                        code = code * 8 + template.charAt(i++) - '0';
+                    }
+                    if (code > 0377) {
+                        return null;
+                    }
+                    literal.append((char) code);
+                    continue;
+                } else if (c >= '1' && c <= '9') {
+                    group = c - '0';
+                    if (i < length && Character.isDigit(template.charAt(i))) {
+                        group = group * 10 + template.charAt(i++) - '0';
+                    }
+                } else if (c == '\\') {
+                    literal.append('\\');
+                    continue;
+                } else {
+                    literal.append('\\').append(c);
+                    continue;
+                }
+                if (group < 0 || group >= groupCount) {
+                    return null;
+                }
+                if (literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+                parts.add(group);
+            }
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+            }
+            return parts.toArray();
+        }
+
+        private static boolean isOctal(char c) {
+            return c >= '0' && c <= '7';
+        }
+
+        private static int groupNumber(String name, PDict groupIndex) {
+            if (!name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+                try {
+                    return Integer.parseInt(name);
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            if (groupIndex != null) {
+                Object index = groupIndex.getItem(name);
+                if (index instanceof Integer) {
+                    return (int) index;
+                }
+            }
+            return -1;
+        }
+
+        @TruffleBoundary
+        private static void expandTemplate(StringBuilder result, Object[] parts, PSREMatch match) {
+            for (Object part : parts) {
+                if (part instanceof String) {
+                    appendItem(result, (String) part);
+                } else {
+                    String group = match.getGroup((int) part);
+                    if (group != null) {
+                        appendItem(result, group);
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unused")
+        @Fallback
+        Object subn(Object pattern, Object compiled, Object repl, Object string, Object count) {
+            throw raise(RuntimeError);
+        }
+    }
+
+    @Builtin(name = "tregex_split", fixedNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class TRegexSplitNode extends TRegexMatchingNode {
+
+        @Specialization(guards = "isForeignObject(compiled)")
+        Object split(Object pattern, TruffleObject compiled, Object stringObj, Object maxsplitObj) {
+            String string = castToString(stringObj);
+            int maxsplit = castToIndex(maxsplitObj);
+            PList result = factory().createList();
+            int n = 0;
+            int last = 0;
+            int pos = 0;
+            while ((maxsplit == 0 || n < maxsplit) && pos <= string.length()) {
+                PSREMatch match = exec(pattern, compiled, string, pos, string.length());
+                if (match == null) {
+                    break;
+                }
+                int start = match.getStart(0);
+                int end = match.getEnd(0);
+                if (start == end) {
+                    // like CPython 3.6, empty matches do not split
+                    if (end == string.length()) {
+                        break;
+                    }
+                    pos = end + 1;
+                    continue;
+                }
+                appendItem(result, substring(string, last, start));
+                for (int i = 1; i < match.getGroupCount(); i++) {
+                    String group = match.getGroup(i);
+                    appendItem(result, group == null ? PNone.NONE : group);
+                }
+                n++;
+                last = pos = end;
+            }
+            appendItem(result, substring(string, last, string.length()));
+            return result;
+        }
+
+        @SuppressWarnings("unused")
+        @Fallback
+        Object split(Object pattern, Object compiled, Object string, Object maxsplit) {
+            throw raise(RuntimeError);
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static String substring(String string, int start, int end) {
+        return string.substring(start, end);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static StringBuilder newStringBuilder() {
+        return new StringBuilder();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void append(StringBuilder sb, String string) {
+        sb.append(string);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void append(StringBuilder sb, String string, int start, int end) {
+        sb.append(string, start, end);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static String toString(StringBuilder sb) {
+        return sb.toString();
     }
 }
@@ -40,18 +40,214 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.select.FileDescriptorNode;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
+import com.oracle.graal.python.builtins.objects.select.PollBuiltins;
+import com.oracle.graal.python.builtins.objects.select.Poller;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.PythonThreads;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "select")
 public class SelectModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return SelectModuleBuiltinsFactory.getFactories();
+    }
+
+    public SelectModuleBuiltins() {
+        super();
+        builtinConstants.put("POLLIN", Poller.POLLIN);
+        builtinConstants.put("POLLPRI", Poller.POLLPRI);
+        builtinConstants.put("POLLOUT", Poller.POLLOUT);
+        builtinConstants.put("POLLERR", Poller.POLLERR);
+        builtinConstants.put("POLLHUP", Poller.POLLHUP);
+        builtinConstants.put("POLLNVAL", Poller.POLLNVAL);
+        builtinConstants.put("POLLRDNORM", Poller.POLLRDNORM);
+        builtinConstants.put("POLLRDBAND", Poller.POLLRDBAND);
+        builtinConstants.put("POLLWRNORM", Poller.POLLWRNORM);
+        builtinConstants.put("POLLWRBAND", Poller.POLLWRBAND);
+        builtinConstants.put("POLLMSG", Poller.POLLMSG);
+        builtinConstants.put("POLLRDHUP", Poller.POLLRDHUP);
+
+        builtinConstants.put("EPOLLIN", Poller.POLLIN);
+        builtinConstants.put("EPOLLPRI", Poller.POLLPRI);
+        builtinConstants.put("EPOLLOUT", Poller.POLLOUT);
+        builtinConstants.put("EPOLLERR", Poller.POLLERR);
+        builtinConstants.put("EPOLLHUP", Poller.POLLHUP);
+        builtinConstants.put("EPOLLRDNORM", Poller.POLLRDNORM);
+        builtinConstants.put("EPOLLRDBAND", Poller.POLLRDBAND);
+        builtinConstants.put("EPOLLWRNORM", Poller.POLLWRNORM);
+        builtinConstants.put("EPOLLWRBAND", Poller.POLLWRBAND);
+        builtinConstants.put("EPOLLMSG", Poller.POLLMSG);
+        builtinConstants.put("EPOLLRDHUP", Poller.POLLRDHUP);
+        builtinConstants.put("EPOLLEXCLUSIVE", Poller.EPOLLEXCLUSIVE);
+        builtinConstants.put("EPOLLONESHOT", Poller.EPOLLONESHOT);
+        builtinConstants.put("EPOLLET", Integer.toUnsignedLong(Poller.EPOLLET));
+        builtinConstants.put("EPOLL_CLOEXEC", 0x80000);
+    }
+
+    // select(rlist, wlist, xlist[, timeout])
+    @Builtin(name = "select", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class SelectNode extends PythonBuiltinNode {
+        private static final int[] EVENTS = {Poller.POLLIN, Poller.POLLOUT, Poller.POLLPRI};
+
+        @Specialization
+        PTuple select(Object rlist, Object wlist, Object xlist, Object timeout,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            long millis = -1;
+            if (!PGuards.isPNone(timeout)) {
+                millis = PollBuiltins.toTimeoutMillis(this, timeout, 1000);
+                if (millis < 0) {
+                    throw raise(ValueError, "timeout must be non-negative");
+                }
+            }
+            Object[][] objects = new Object[3][];
+            int[][] fds = new int[3][];
+            Object[] lists = {rlist, wlist, xlist};
+            for (int i = 0; i < 3; i++) {
+                objects[i] = toArray(lists[i], getIterator, next, errorProfile);
+                fds[i] = new int[objects[i].length];
+                for (int j = 0; j < fds[i].length; j++) {
+                    fds[i][j] = fileDescriptorNode.execute(objects[i][j]);
+                }
+            }
+            Object[][] ready = select(objects, fds, millis);
+            return factory().createTuple(new Object[]{factory().createList(ready[0]), factory().createList(ready[1]), factory().createList(ready[2])});
+        }
+
+        private Object[] toArray(Object iterable, GetIteratorNode getIterator, GetNextNode next, ConditionProfile errorProfile) {
+            Object iterator = getIterator.executeWith(iterable);
+            List<Object> result = new ArrayList<>();
+            while (true) {
+                try {
+                    add(result, next.execute(iterator));
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return toArray(result);
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static void add(List<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(List<Object> list) {
+            return list.toArray();
+        }
+
+        /**
+         * Waits on a fresh {@link Poller}, which switches the channels back to blocking mode when
+         * it is closed, and returns the ready objects of each list in their original order.
+         */
+        @TruffleBoundary
+        private Object[][] select(Object[][] objects, int[][] fds, long millis) {
+            PosixResources resources = getContext().getResources();
+            Poller poller = new Poller();
+            Map<Integer, Integer> readyEvents = new HashMap<>();
+            try {
+                for (int i = 0; i < 3; i++) {
+                    for (int fd : fds[i]) {
+                        if (!PPoll.isOpen(resources, fd)) {
+                            throw raise(OSError, "[Errno 9] Bad file descriptor");
+                        }
+                        poller.register(fd, resources.getFileChannel(fd), true, poller.getEvents(fd) | EVENTS[i]);
+                    }
+                }
+                PythonThreads threads = getContext().getThreads();
+                boolean released = threads.release();
+                int[] ready;
+                try {
+                    ready = poller.poll(millis, -1);
+                } finally {
+                    threads.reacquire(released);
+                }
+                for (int i = 0; i < ready.length; i += 2) {
+                    readyEvents.put(ready[i], ready[i + 1]);
+                }
+                poller.close();
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            } finally {
+                if (!poller.isClosed()) {
+                    closeQuietly(poller);
+                }
+            }
+            Object[][] result = new Object[3][];
+            for (int i = 0; i < 3; i++) {
+                List<Object> readyObjects = new ArrayList<>();
+                for (int j = 0; j < fds[i].length; j++) {
+                    if ((readyEvents.getOrDefault(fds[i][j], 0) & EVENTS[i]) != 0) {
+                        readyObjects.add(objects[i][j]);
+                    }
+                }
+                result[i] = readyObjects.toArray();
+            }
+            return result;
+        }
+
+        private static void closeQuietly(Poller poller) {
+            try {
+                poller.close();
+            } catch (IOException e) {
+                // already failing with another exception
+            }
+        }
+    }
+
+    // poll()
+    @Builtin(name = "poll", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBuiltinNode {
+
+        @Specialization
+        PPoll poll() {
+            return factory().createPoll();
+        }
+    }
+
+    // epoll(sizehint=-1, flags=0)
+    @Builtin(name = "epoll", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PEpoll)
+    @GenerateNodeFactory
+    abstract static class EpollNode extends PythonBuiltinNode {
+
+        @Specialization
+        PPoll epoll(PythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createEpoll(cls);
+        }
     }
 }
@@ -47,6 +47,7 @@ import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
@@ -199,13 +200,17 @@ public class SignalModuleBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object signal(int signum, PMethod handler) {
-            return installSignalHandler(signum, handler, handler.getCallTarget(), createArgs.executeWithSelf(handler.getSelf(), new Object[]{signum, PNone.NONE}));
+            Object[] arguments = createArgs.executeWithSelf(handler.getSelf(), new Object[]{signum, PNone.NONE});
+            PArguments.setDefaults(arguments, handler.getDefaults());
+            return installSignalHandler(signum, handler, handler.getCallTarget(), arguments);
         }
 
         @Specialization
         @TruffleBoundary
         Object signal(int signum, PFunction handler) {
-            return installSignalHandler(signum, handler, handler.getCallTarget(), createArgs.execute(new Object[]{signum, PNone.NONE}));
+            Object[] arguments = createArgs.execute(new Object[]{signum, PNone.NONE});
+            PArguments.setDefaults(arguments, handler.getDefaults());
+            return installSignalHandler(signum, handler, handler.getCallTarget(), arguments);
         }
     }
 }
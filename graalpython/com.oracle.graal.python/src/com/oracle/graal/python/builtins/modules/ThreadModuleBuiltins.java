@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemExit;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PFunction;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.thread.AbstractPythonLock;
+import com.oracle.graal.python.builtins.objects.thread.PLock;
+import com.oracle.graal.python.builtins.objects.thread.PRLock;
+import com.oracle.graal.python.builtins.objects.thread.PThreadLocal;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.BuiltinNames;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode;
+import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonThreads;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+@CoreFunctions(defineModule = "_thread")
+public class ThreadModuleBuiltins extends PythonBuiltins {
+    /** The smallest stack size {@code stack_size} accepts, as in CPython. */
+    private static final int MIN_STACK_SIZE = 32768;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ThreadModuleBuiltinsFactory.getFactories();
+    }
+
+    public ThreadModuleBuiltins() {
+        super();
+        builtinConstants.put("TIMEOUT_MAX", AbstractPythonLock.TIMEOUT_MAX);
+    }
+
+    /**
+     * Runs the function of a started thread, which receives it and its arguments as frame
+     * arguments.
+     */
+    private static final class ThreadRootNode extends RootNode {
+        @Child private CallNode callNode = CallNode.create();
+        @Child private CallNode callExceptHookNode;
+        private final ContextReference<PythonContext> contextRef;
+
+        ThreadRootNode(PythonLanguage language) {
+            super(language);
+            this.contextRef = language.getContextReference();
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] arguments = frame.getArguments();
+            try {
+                callNode.execute(frame, arguments[0], (Object[]) arguments[1], (PKeyword[]) arguments[2]);
+            } catch (PException e) {
+                handleException(e, arguments[0]);
+            }
+            return PNone.NONE;
+        }
+
+        /** A {@code SystemExit} ends the thread silently, anything else is reported. */
+        private void handleException(PException e, Object function) {
+            CompilerDirectives.transferToInterpreter();
+            PythonContext context = contextRef.get();
+            PythonCore core = context.getCore();
+            if (core.getErrorClass(SystemExit) == e.getType()) {
+                return;
+            }
+            if (callExceptHookNode == null) {
+                callExceptHookNode = insert(CallNode.create());
+            }
+            PBaseException value = e.getExceptionObject();
+            PythonModule sys = core.lookupBuiltinModule("sys");
+            Object hook = sys.getAttribute(BuiltinNames.EXCEPTHOOK);
+            try {
+                context.getEnv().err().write(String.format("Unhandled exception in thread started by %s%n", function).getBytes());
+                if (hook != PNone.NO_VALUE) {
+                    callExceptHookNode.execute(null, hook, new Object[]{value.getPythonClass(), value, value.getTraceback(core.factory())}, PKeyword.EMPTY_KEYWORDS);
+                }
+            } catch (IOException | PException ignored) {
+                // nothing left to report to
+            }
+        }
+    }
+
+    // start_new_thread(function, args, kwargs=None)
+    @Builtin(name = "start_new_thread", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class StartNewThreadNode extends PythonBuiltinNode {
+        @CompilationFinal private RootCallTarget threadCallTarget;
+
+        @Specialization
+        long start(Object function, PTuple args, Object kwargs,
+                        @Cached("create()") ExecuteKeywordStarargsNode expandKeywordsNode) {
+            PKeyword[] keywords;
+            if (PGuards.isNoValue(kwargs)) {
+                keywords = PKeyword.EMPTY_KEYWORDS;
+            } else if (kwargs instanceof PDict) {
+                keywords = expandKeywordsNode.executeWith(kwargs);
+            } else {
+                throw raise(TypeError, "optional 3rd arg must be a dictionary");
+            }
+            if (threadCallTarget == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                threadCallTarget = Truffle.getRuntime().createCallTarget(new ThreadRootNode(getRootNode().getLanguage(PythonLanguage.class)));
+            }
+            return startThread(getContext().getThreads(), threadCallTarget, function, args.getArray(), keywords);
+        }
+
+        @Specialization(guards = "!isPTuple(args)")
+        long start(@SuppressWarnings("unused") Object function, @SuppressWarnings("unused") Object args, @SuppressWarnings("unused") Object kwargs) {
+            throw raise(TypeError, "2nd arg must be a tuple");
+        }
+
+        @TruffleBoundary
+        private static long startThread(PythonThreads threads, RootCallTarget callTarget, Object function, Object[] arguments, PKeyword[] keywords) {
+            return threads.startThread(() -> callTarget.call(function, arguments, keywords));
+        }
+
+        protected static boolean isPTuple(Object value) {
+            return value instanceof PTuple;
+        }
+    }
+
+    @Builtin(name = "allocate_lock", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class AllocateLockNode extends PythonBuiltinNode {
+
+        @Specialization
+        PLock allocate() {
+            return factory().createLock();
+        }
+    }
+
+    @Builtin(name = "lock", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PLock, isPublic = false)
+    @GenerateNodeFactory
+    abstract static class LockTypeNode extends PythonBuiltinNode {
+
+        @Specialization
+        PLock construct(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            throw raise(TypeError, "cannot create '_thread.lock' instances");
+        }
+    }
+
+    @Builtin(name = "RLock", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PRLock)
+    @GenerateNodeFactory
+    abstract static class RLockNode extends PythonBuiltinNode {
+
+        @Specialization
+        PRLock construct(PythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createRLock(cls);
+        }
+    }
+
+    @Builtin(name = "_local", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PThreadLocal)
+    @GenerateNodeFactory
+    abstract static class LocalNode extends PythonBuiltinNode {
+
+        @Specialization
+        PThreadLocal construct(PythonClass cls, Object[] args, PKeyword[] kwargs,
+                        @Cached("create(__INIT__)") LookupAttributeInMRONode lookupInitNode) {
+            if ((args.length > 0 || kwargs.length > 0) && !(lookupInitNode.execute(cls) instanceof PFunction)) {
+                throw raise(TypeError, "Initialization arguments are not supported");
+            }
+            PThreadLocal local = factory().createThreadLocal(cls, args, kwargs);
+            // the creating thread is initialized by the call of the class
+            local.setThreadDict(factory().createDict());
+            return local;
+        }
+    }
+
+    @Builtin(name = "get_ident", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetIdentNode extends PythonBuiltinNode {
+
+        @Specialization
+        long getIdent() {
+            return PythonThreads.getCurrentThreadId();
+        }
+    }
+
+    @Builtin(name = "_count", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class CountNode extends PythonBuiltinNode {
+
+        @Specialization
+        int count() {
+            return getContext().getThreads().getThreadCount();
+        }
+    }
+
+    /**
+     * Returns a lock that is released when the current thread terminates, which
+     * {@code threading.Thread.join} waits for.
+     */
+    @Builtin(name = "_set_sentinel", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class SetSentinelNode extends PythonBuiltinNode {
+
+        @Specialization
+        PLock setSentinel() {
+            PLock lock = factory().createLock();
+            lock.tryAcquire();
+            addExitAction(getContext().getThreads(), lock);
+            return lock;
+        }
+
+        @TruffleBoundary
+        private static void addExitAction(PythonThreads threads, PLock lock) {
+            threads.addExitAction(lock::release);
+        }
+    }
+
+    // stack_size([size])
+    @Builtin(name = "stack_size", minNumOfPositionalArgs = 0, maxNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class StackSizeNode extends PythonBuiltinNode {
+
+        @Specialization
+        long stackSize(Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            PythonThreads threads = getContext().getThreads();
+            long previous = threads.getStackSize();
+            if (!PGuards.isNoValue(size)) {
+                int newSize = castToIndexNode.execute(size);
+                if (newSize != 0 && newSize < MIN_STACK_SIZE) {
+                    throw raise(ValueError, "size not valid: %d bytes", newSize);
+                }
+                threads.setStackSize(newSize);
+            }
+            return previous;
+        }
+    }
+
+    @Builtin(name = "exit", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+
+        @Specialization
+        Object exit() {
+            throw raise(SystemExit);
+        }
+    }
+}
@@ -38,6 +38,7 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -166,24 +167,8 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
         // see: https://github.com/python/cpython/blob/master/Modules/timemodule.c#L1741
 
         @Specialization
-        @TruffleBoundary
         Object sleep(long seconds) {
-            long secs = seconds;
-
-            long deadline = (long) timeSeconds() + secs;
-            do {
-                try {
-                    Thread.sleep(seconds * 1000);
-                } catch (InterruptedException ignored) {
-                }
-
-                secs = deadline - (long) timeSeconds();
-                if (secs < 0) {
-                    break;
-                }
-            } while (true);
-
-            return PNone.NONE;
+            return sleep((double) seconds);
         }
 
         @Specialization
@@ -192,20 +177,37 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
             double secs = seconds;
 
             double deadline = timeSeconds() + secs;
-            do {
-                double milliseconds = secs * 1000;
-                long millis = Math.round(Math.floor(milliseconds));
-                int nanos = ((Long) Math.round((milliseconds - millis) * 1000)).intValue();
-                nanos = (millis == 0 && nanos == 0) ? DELAY_NANOS : nanos;
-                try {
-                    Thread.sleep(millis, nanos);
-                } catch (InterruptedException ignored) {
-                }
-                secs = deadline - timeSeconds();
-                if (secs < 0) {
-                    break;
+            PythonThreads threads = getContext().getThreads();
+            boolean released = threads.release();
+            boolean interrupted = false;
+            try {
+                do {
+                    double milliseconds = secs * 1000;
+                    long millis = Math.round(Math.floor(milliseconds));
+                    int nanos = ((Long) Math.round((milliseconds - millis) * 1000)).intValue();
+                    nanos = (millis == 0 && nanos == 0) ? DELAY_NANOS : nanos;
+                    try {
+                        Thread.sleep(millis, nanos);
+                    } catch (InterruptedException e) {
+                        if (threads.isKilled()) {
+                            // the context is shutting down, taking the GIL again ends the thread
+                            break;
+                        }
+                        // any other interrupt must not cut the sleep short; signal handlers run
+                        // on their own thread and do not interrupt the sleeping one
+                        interrupted = true;
+                    }
+                    secs = deadline - timeSeconds();
+                    if (secs < 0) {
+                        break;
+                    }
+                } while (true);
+            } finally {
+                threads.reacquire(released);
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
                 }
-            } while (true);
+            }
 
             return PNone.NONE;
         }
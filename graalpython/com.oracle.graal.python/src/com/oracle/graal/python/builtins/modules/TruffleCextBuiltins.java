@@ -40,6 +40,7 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
@@ -86,9 +87,14 @@ import com.oracle.graal.python.builtins.objects.cext.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeNull;
 import com.oracle.graal.python.builtins.objects.cext.UnicodeObjectNodes.UnicodeAsWideCharNode;
 import com.oracle.graal.python.builtins.objects.code.PCode;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.LongKeyStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
@@ -102,6 +108,7 @@ import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
@@ -115,12 +122,14 @@ import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
 import com.oracle.graal.python.nodes.argument.ReadIndexedArgumentNode;
 import com.oracle.graal.python.nodes.argument.ReadVarArgsNode;
 import com.oracle.graal.python.nodes.argument.ReadVarKeywordsNode;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.call.PythonCallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
 import com.oracle.graal.python.nodes.function.BuiltinFunctionRootNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -137,6 +146,7 @@ import com.oracle.graal.python.runtime.exception.ExceptionUtils;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -252,6 +262,153 @@ public class TruffleCextBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "PyList_GetItem", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PyList_GetItem extends NativeBuiltin {
+        @Specialization
+        Object doPList(PList list, long position,
+                        @Cached("createGetItem()") SequenceStorageNodes.GetItemNode getItemNode) {
+            if (position < 0) {
+                return raiseNative(getNativeNull(), PythonErrorType.IndexError, NormalizeIndexNode.LIST_OUT_OF_BOUNDS);
+            }
+            try {
+                return getItemNode.execute(list.getSequenceStorage(), position);
+            } catch (PException e) {
+                transformToNative(e);
+                return getNativeNull();
+            }
+        }
+
+        @Fallback
+        Object doGeneric(Object list, @SuppressWarnings("unused") Object position) {
+            return raiseNative(getNativeNull(), SystemError, "bad argument to internal function, was '%p'", list);
+        }
+
+        protected static SequenceStorageNodes.GetItemNode createGetItem() {
+            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.forList());
+        }
+    }
+
+    @Builtin(name = "PyList_SetItem", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class PyList_SetItem extends NativeBuiltin {
+        @Specialization
+        int doPList(PList list, long position, Object element,
+                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached("createBinaryProfile()") ConditionProfile generalizedProfile) {
+            if (position < 0) {
+                return raiseNative(-1, PythonErrorType.IndexError, NormalizeIndexNode.LIST_ASSIGN_OUT_OF_BOUNDS);
+            }
+            try {
+                SequenceStorage newStorage = setItemNode.executeLong(list.getSequenceStorage(), position, element);
+                if (generalizedProfile.profile(list.getSequenceStorage() != newStorage)) {
+                    list.setSequenceStorage(newStorage);
+                }
+                return 0;
+            } catch (PException e) {
+                transformToNative(e);
+                return -1;
+            }
+        }
+
+        @Fallback
+        int doGeneric(Object list, @SuppressWarnings("unused") Object position, @SuppressWarnings("unused") Object element) {
+            return raiseNative(-1, SystemError, "bad argument to internal function, was '%p'", list);
+        }
+
+        protected static SequenceStorageNodes.SetItemNode createSetItem() {
+            return SequenceStorageNodes.SetItemNode.create(NormalizeIndexNode.forListAssign(), () -> ListGeneralizationNode.create());
+        }
+    }
+
+    @Builtin(name = "PyDict_GetItem", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PyDict_GetItem extends NativeBuiltin {
+        @Specialization
+        Object doPDict(PDict dict, Object key,
+                        @Cached("create()") HashingStorageNodes.GetItemNode getItemNode) {
+            try {
+                Object value = getItemNode.execute(dict.getDictStorage(), key);
+                return value != null ? value : getNativeNull();
+            } catch (PException e) {
+                transformToNative(e);
+                return getNativeNull();
+            }
+        }
+
+        @Fallback
+        Object doGeneric(Object dict, @SuppressWarnings("unused") Object key) {
+            return raiseNative(getNativeNull(), TypeError, "expected dict, %p found", dict);
+        }
+    }
+
+    @Builtin(name = "PyDict_SetItem", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class PyDict_SetItem extends NativeBuiltin {
+        @Specialization
+        int doPDict(PDict dict, Object key, Object value,
+                        @Cached("create()") HashingStorageNodes.SetItemNode setItemNode,
+                        @Cached("createBinaryProfile()") ConditionProfile generalizedProfile) {
+            try {
+                HashingStorage newStorage = setItemNode.execute(dict.getDictStorage(), key, value);
+                if (generalizedProfile.profile(dict.getDictStorage() != newStorage)) {
+                    dict.setDictStorage(newStorage);
+                }
+                return 0;
+            } catch (PException e) {
+                transformToNative(e);
+                return -1;
+            }
+        }
+
+        @Fallback
+        int doGeneric(Object dict, @SuppressWarnings("unused") Object key, @SuppressWarnings("unused") Object value) {
+            return raiseNative(-1, TypeError, "expected dict, %p found", dict);
+        }
+    }
+
+    @Builtin(name = "PyDict_Next", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PyDict_Next extends NativeBuiltin {
+        @Specialization
+        Object doPDict(PDict dict, long position) {
+            Object[] next = getNext(dict, position);
+            if (next == null) {
+                return getNativeNull();
+            }
+            return factory().createTuple(next);
+        }
+
+        @Fallback
+        Object doGeneric(@SuppressWarnings("unused") Object dict, @SuppressWarnings("unused") Object position) {
+            return getNativeNull();
+        }
+
+        /**
+         * Returns the key and value of the entry at {@code position} and the position of the next
+         * entry. For storages with entry indices, the position is the index after the entry, so
+         * removed entries are skipped without counting the entries before.
+         */
+        @TruffleBoundary
+        private static Object[] getNext(PDict dict, long position) {
+            HashingStorage storage = dict.getDictStorage();
+            if (position < 0 || position > Integer.MAX_VALUE) {
+                return null;
+            }
+            if (storage instanceof EconomicMapStorage) {
+                EconomicMapStorage map = (EconomicMapStorage) storage;
+                int index = map.nextEntryIndex((int) position);
+                return index == -1 ? null : new Object[]{map.getKeyAt(index), map.getValueAt(index), index + 1};
+            } else if (storage instanceof LongKeyStorage) {
+                LongKeyStorage map = (LongKeyStorage) storage;
+                int index = map.nextEntryIndex((int) position);
+                return index == -1 ? null : new Object[]{map.getKeyAt(index), map.getValueAt(index), index + 1};
+            }
+            DictEntry entry = dict.getEntry(position);
+            return entry == null ? null : new Object[]{entry.getKey(), entry.getValue(), (int) position + 1};
+        }
+    }
+
     @Builtin(name = "CreateBuiltinMethod", fixedNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -448,6 +605,9 @@ public class TruffleCextBuiltins extends PythonBuiltins {
         @Specialization(guards = {"!isPythonBuiltinClass(object)"})
         @TruffleBoundary
         Object setattr(PythonObject object, String key, Object value) {
+            if (object instanceof PythonModule) {
+                ((PythonModule) object).invalidateAttributeFinalAssumption(key);
+            }
             object.getStorage().define(key, value);
             return PNone.NONE;
         }
@@ -716,6 +876,9 @@ public class TruffleCextBuiltins extends PythonBuiltins {
         @Child private Node isBoxedNode;
         @Child private Node unboxNode;
         @Child private GetByteArrayNode getByteArrayNode;
+        @Child private ReadAttributeFromObjectNode readNativeNullNode;
+
+        @CompilationFinal private PythonModule cextModule;
 
         protected void transformToNative(PException p) {
             p.getExceptionObject().reifyException();
@@ -731,6 +894,15 @@ public class TruffleCextBuiltins extends PythonBuiltins {
             }
         }
 
+        protected Object getNativeNull() {
+            if (readNativeNullNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                readNativeNullNode = insert(ReadAttributeFromObjectNode.create());
+                cextModule = getCore().lookupBuiltinModule("python_cext");
+            }
+            return readNativeNullNode.execute(cextModule, NATIVE_NULL);
+        }
+
         protected boolean isByteArray(TruffleObject o) {
             return o instanceof PySequenceArrayWrapper || o instanceof CByteArrayWrapper || ForeignAccess.sendHasSize(getHasSizeNode(), o);
         }
@@ -836,6 +1008,8 @@ public class TruffleCextBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class TrufflePInt_AsPrimitive extends NativeBuiltin {
 
+        public abstract Object executeWith(Object obj, Object signed, Object targetTypeSize, Object targetTypeName);
+
         @Specialization(guards = "targetTypeSize == 4")
         int doInt4(int obj, @SuppressWarnings("unused") int signed, @SuppressWarnings("unused") long targetTypeSize, @SuppressWarnings("unused") String targetTypeName) {
             return obj;
@@ -915,6 +1089,55 @@ public class TruffleCextBuiltins extends PythonBuiltins {
         int doGeneric(Object obj, boolean signed, int targetTypeSize, String targetTypeName) {
             return raiseNative(-1, PythonErrorType.TypeError, "an integer is required", obj);
         }
+
+        static TrufflePInt_AsPrimitive create() {
+            return TruffleCextBuiltinsFactory.TrufflePInt_AsPrimitiveFactory.create(new ReadArgumentNode[0]);
+        }
+    }
+
+    @Builtin(name = "PyLong_AsPrimitive", fixedNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class PyLong_AsPrimitive extends NativeBuiltin {
+        @Child private TrufflePInt_AsPrimitive asPrimitiveNode = TrufflePInt_AsPrimitive.create();
+
+        @Specialization(guards = "isIntegerOrPInt(obj)")
+        Object doInteger(Object obj, Object signed, Object targetTypeSize, Object targetTypeName) {
+            return asPrimitiveNode.executeWith(obj, signed, targetTypeSize, targetTypeName);
+        }
+
+        @Specialization(guards = "!isIntegerOrPInt(obj)")
+        Object doGeneric(Object obj, Object signed, Object targetTypeSize, Object targetTypeName,
+                        @Cached("create(__INT__)") LookupAndCallUnaryNode callIntNode) {
+            Object result;
+            try {
+                result = callIntNode.executeObject(obj);
+            } catch (PException e) {
+                transformToNative(e);
+                return -1;
+            }
+            if (result == PNone.NO_VALUE) {
+                return raiseNative(-1, TypeError, "an integer is required (got type %p)", obj);
+            }
+            return asPrimitiveNode.executeWith(result, signed, targetTypeSize, targetTypeName);
+        }
+
+        protected static boolean isIntegerOrPInt(Object obj) {
+            return obj instanceof Integer || obj instanceof Long || obj instanceof PInt;
+        }
+    }
+
+    @Builtin(name = "PyFloat_FromDouble", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class PyFloat_FromDouble extends NativeBuiltin {
+        @Specialization
+        double doDouble(double value) {
+            return value;
+        }
+
+        @Specialization
+        double doLong(long value) {
+            return value;
+        }
     }
 
     @Builtin(name = "PyTruffle_Unicode_FromWchar", fixedNumOfPositionalArgs = 3)
@@ -1860,7 +2083,25 @@ public class TruffleCextBuiltins extends PythonBuiltins {
     abstract static class PyTruffleHandleCacheCreate extends PythonUnaryBuiltinNode {
         @Specialization
         Object createCache(TruffleObject ptrToResolveHandle) {
-            return new HandleCache(ptrToResolveHandle);
+            HandleCache cache = new HandleCache(ptrToResolveHandle);
+            getContext().setHandleCache(cache);
+            return cache;
+        }
+    }
+
+    /**
+     * Returns the number of entries, the capacity, and the hit and miss counts of the handle table.
+     */
+    @Builtin(name = "PyTruffle_HandleCache_Stats", fixedNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PyTruffleHandleCacheStats extends PythonBuiltinNode {
+        @Specialization
+        Object stats() {
+            HandleCache cache = getContext().getHandleCache();
+            if (cache == null) {
+                return factory().createTuple(new Object[]{0, 0, 0L, 0L});
+            }
+            return factory().createTuple(new Object[]{cache.size(), cache.capacity(), cache.getHits(), cache.getMisses()});
         }
     }
 }
@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.asyncio;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__AWAIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETATTRIBUTE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * The {@code _asyncio.Future} type. The state transitions and the callback bookkeeping are done in
+ * Java; the parts that depend on the rest of {@code asyncio} (the exception types, the default
+ * event loop) are delegated to the helpers in {@code _asyncio.py}.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PFuture)
+public class FutureBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return FutureBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Base of the future and task builtins. It calls back into Python for the event loop and for
+     * the helpers of the {@code _asyncio} module.
+     */
+    abstract static class FutureBaseNode extends PythonBuiltinNode {
+        @Child private CallNode callNode;
+        @Child private LookupAndCallBinaryNode getAttributeNode;
+        @Child private CastToBooleanNode castToBooleanNode;
+        @CompilationFinal private PythonModule asyncioModule;
+
+        protected final Object callHelper(String name, Object... args) {
+            if (asyncioModule == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                asyncioModule = getCore().lookupBuiltinModule("_asyncio");
+            }
+            return call(readHelper(asyncioModule, name), args);
+        }
+
+        @TruffleBoundary
+        private static Object readHelper(PythonModule module, String name) {
+            return module.getAttribute(name);
+        }
+
+        /** Calls a helper that returns the exception to raise. */
+        protected final PException raiseHelperError(String name, Object... args) {
+            throw raise((PBaseException) callHelper(name, args));
+        }
+
+        protected final Object getAttribute(Object receiver, String name) {
+            if (getAttributeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getAttributeNode = insert(LookupAndCallBinaryNode.create(__GETATTRIBUTE__));
+            }
+            return getAttributeNode.executeObject(receiver, name);
+        }
+
+        protected final Object callMethod(Object receiver, String name, Object... args) {
+            return call(getAttribute(receiver, name), args);
+        }
+
+        protected final Object call(Object callable, Object... args) {
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            return callNode.execute(null, callable, args, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        protected final boolean isTrue(Object value) {
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(value);
+        }
+
+        protected final void initFuture(PFuture self, Object loop) {
+            Object eventLoop = loop;
+            if (PGuards.isNoValue(eventLoop) || eventLoop == PNone.NONE) {
+                eventLoop = callHelper("_get_event_loop");
+            }
+            self.setLoop(eventLoop);
+            if (isTrue(callMethod(eventLoop, "get_debug"))) {
+                self.setSourceTraceback(callHelper("_extract_stack"));
+            }
+        }
+
+        /** Hands all registered callbacks of a finished future to {@code loop.call_soon}. */
+        protected final void scheduleCallbacks(PFuture future) {
+            for (Object callback : future.takeCallbacks()) {
+                callMethod(future.getLoop(), "call_soon", callback, future);
+            }
+        }
+
+        protected final void addDoneCallback(PFuture future, Object callback) {
+            if (future.isDone()) {
+                callMethod(future.getLoop(), "call_soon", callback, future);
+            } else {
+                future.addCallback(callback);
+            }
+        }
+
+        protected final boolean cancel(PFuture future) {
+            future.setLogTraceback(false);
+            if (future.isDone()) {
+                return false;
+            }
+            future.setCancelled();
+            scheduleCallbacks(future);
+            return true;
+        }
+
+        protected final void setResult(PFuture future, Object result) {
+            if (future.isDone()) {
+                throw raiseHelperError("_already_done_error", future);
+            }
+            future.setResult(result);
+            scheduleCallbacks(future);
+        }
+
+        protected final void setException(PFuture future, Object exception) {
+            if (future.isDone()) {
+                throw raiseHelperError("_already_done_error", future);
+            }
+            Object exc = exception;
+            if (exc instanceof PythonClass) {
+                exc = call(exc);
+            }
+            if (!(exc instanceof PBaseException)) {
+                throw raise(TypeError, "invalid exception object");
+            }
+            PBaseException baseException = (PBaseException) exc;
+            if (baseException.getPythonClass() == getCore().getErrorClass(StopIteration)) {
+                throw raise(TypeError, "StopIteration interacts badly with generators and cannot be raised into a Future");
+            }
+            future.setException(baseException);
+            future.setLogTraceback(true);
+            scheduleCallbacks(future);
+        }
+    }
+
+    @Builtin(name = __INIT__, fixedNumOfPositionalArgs = 1, keywordArguments = {"loop"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends FutureBaseNode {
+        @Specialization
+        Object init(PFuture self, Object loop) {
+            initFuture(self, loop);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "cancel", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CancelNode extends FutureBaseNode {
+        @Specialization
+        boolean doCancel(PFuture self) {
+            return cancel(self);
+        }
+    }
+
+    @Builtin(name = "cancelled", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CancelledNode extends PythonBuiltinNode {
+        @Specialization
+        boolean cancelled(PFuture self) {
+            return self.getState() == PFuture.CANCELLED;
+        }
+    }
+
+    @Builtin(name = "done", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DoneNode extends PythonBuiltinNode {
+        @Specialization
+        boolean done(PFuture self) {
+            return self.isDone();
+        }
+    }
+
+    @Builtin(name = "result", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ResultNode extends FutureBaseNode {
+        @Specialization
+        Object result(PFuture self) {
+            if (self.getState() == PFuture.CANCELLED) {
+                throw raiseHelperError("_cancelled_error");
+            } else if (self.getState() != PFuture.FINISHED) {
+                throw raiseHelperError("_invalid_state_error", "Result is not ready.");
+            }
+            self.setLogTraceback(false);
+            if (self.getException() != null) {
+                throw raise(self.getException());
+            }
+            return self.getResult();
+        }
+    }
+
+    @Builtin(name = "exception", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ExceptionNode extends FutureBaseNode {
+        @Specialization
+        Object exception(PFuture self) {
+            if (self.getState() == PFuture.CANCELLED) {
+                throw raiseHelperError("_cancelled_error");
+            } else if (self.getState() != PFuture.FINISHED) {
+                throw raiseHelperError("_invalid_state_error", "Exception is not set.");
+            }
+            self.setLogTraceback(false);
+            return self.getException() != null ? self.getException() : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "set_result", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SetResultNode extends FutureBaseNode {
+        @Specialization
+        Object doSetResult(PFuture self, Object result) {
+            setResult(self, result);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "set_exception", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SetExceptionNode extends FutureBaseNode {
+        @Specialization
+        Object doSetException(PFuture self, Object exception) {
+            setException(self, exception);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "add_done_callback", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AddDoneCallbackNode extends FutureBaseNode {
+        @Specialization
+        Object doAdd(PFuture self, Object callback) {
+            addDoneCallback(self, callback);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "remove_done_callback", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class RemoveDoneCallbackNode extends PythonBuiltinNode {
+        @Specialization
+        int doRemove(PFuture self, Object callback,
+                        @Cached("create(__EQ__, __EQ__, \"==\")") BinaryComparisonNode eqNode) {
+            Object[] callbacks = self.getCallbacks();
+            Object[] remaining = new Object[callbacks.length];
+            int count = 0;
+            for (Object cb : callbacks) {
+                if (!eqNode.executeBool(cb, callback)) {
+                    remaining[count++] = cb;
+                }
+            }
+            if (count != callbacks.length) {
+                Object[] newCallbacks = new Object[count];
+                System.arraycopy(remaining, 0, newCallbacks, 0, count);
+                self.setCallbacks(newCallbacks);
+            }
+            return callbacks.length - count;
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonBuiltinNode {
+        @Specialization
+        PFutureIter iter(PFuture self) {
+            return factory().createFutureIter(self);
+        }
+    }
+
+    @Builtin(name = __AWAIT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class AwaitNode extends PythonBuiltinNode {
+        @Specialization
+        PFutureIter await(PFuture self) {
+            return factory().createFutureIter(self);
+        }
+    }
+
+    @Builtin(name = "_state", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class StateNode extends PythonBuiltinNode {
+        @Specialization
+        String state(PFuture self) {
+            return self.getStateName();
+        }
+    }
+
+    @Builtin(name = "_result", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ResultAttributeNode extends PythonBuiltinNode {
+        @Specialization
+        Object result(PFuture self) {
+            return self.getResult();
+        }
+    }
+
+    @Builtin(name = "_exception", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ExceptionAttributeNode extends PythonBuiltinNode {
+        @Specialization
+        Object exception(PFuture self) {
+            return self.getException() != null ? self.getException() : PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_loop", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LoopNode extends PythonBuiltinNode {
+        @Specialization
+        Object loop(PFuture self) {
+            return self.getLoop();
+        }
+    }
+
+    @Builtin(name = "_callbacks", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class CallbacksNode extends PythonBuiltinNode {
+        @Specialization
+        Object callbacks(PFuture self) {
+            Object[] callbacks = self.getCallbacks();
+            return callbacks.length == 0 ? PNone.NONE : factory().createList(callbacks);
+        }
+    }
+
+    @Builtin(name = "_source_traceback", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SourceTracebackNode extends PythonBuiltinNode {
+        @Specialization
+        Object sourceTraceback(PFuture self) {
+            return self.getSourceTraceback();
+        }
+    }
+
+    @Builtin(name = "_asyncio_future_blocking", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class BlockingNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        boolean get(PFuture self, @SuppressWarnings("unused") PNone value) {
+            return self.isAsyncioFutureBlocking();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        Object set(PFuture self, Object value,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            self.setAsyncioFutureBlocking(castToBooleanNode.executeWith(value));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_log_traceback", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class LogTracebackNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        boolean get(PFuture self, @SuppressWarnings("unused") PNone value) {
+            return self.isLogTraceback();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        Object set(PFuture self, Object value,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            self.setLogTraceback(castToBooleanNode.executeWith(value));
+            return PNone.NONE;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.asyncio;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AssertionError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.asyncio.FutureBuiltins.FutureBaseNode;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PFutureIter)
+public class FutureIterBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return FutureIterBuiltinsFactory.getFactories();
+    }
+
+    abstract static class FutureIterNextNode extends FutureBaseNode {
+        protected final Object next(PFutureIter self) {
+            PFuture future = self.getFuture();
+            if (future.getState() == PFuture.PENDING) {
+                if (!future.isAsyncioFutureBlocking()) {
+                    future.setAsyncioFutureBlocking(true);
+                    return future;
+                }
+                throw raise(AssertionError, "yield from wasn't used with future");
+            }
+            Object result = callMethod(future, "result");
+            throw raise(factory().createBaseException(getCore().getErrorClass(StopIteration), factory().createTuple(new Object[]{result})));
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonBuiltinNode {
+        @Specialization
+        PFutureIter iter(PFutureIter self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends FutureIterNextNode {
+        @Specialization
+        Object doNext(PFutureIter self) {
+            return next(self);
+        }
+    }
+
+    @Builtin(name = "send", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SendNode extends FutureIterNextNode {
+        @Specialization
+        Object send(PFutureIter self, @SuppressWarnings("unused") Object value) {
+            return next(self);
+        }
+    }
+
+    @Builtin(name = "throw", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ThrowNode extends FutureBaseNode {
+        @Specialization
+        Object doThrow(@SuppressWarnings("unused") PFutureIter self, Object type, Object value, @SuppressWarnings("unused") Object traceback) {
+            Object exception = type;
+            if (type instanceof PythonClass) {
+                exception = PGuards.isNoValue(value) || value == PNone.NONE ? call(type) : call(type, value);
+            }
+            if (!(exception instanceof PBaseException)) {
+                throw raise(TypeError, "exceptions must be classes deriving BaseException or instances of such a class");
+            }
+            throw raise((PBaseException) exception);
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonBuiltinNode {
+        @Specialization
+        Object close(@SuppressWarnings("unused") PFutureIter self) {
+            return PNone.NONE;
+        }
+    }
+}
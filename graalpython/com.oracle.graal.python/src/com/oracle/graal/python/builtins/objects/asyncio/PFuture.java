@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.asyncio;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The state of an {@code asyncio} future. The callbacks are only kept here; scheduling them on the
+ * event loop is done by the builtins.
+ */
+public class PFuture extends PythonBuiltinObject {
+    public static final int PENDING = 0;
+    public static final int CANCELLED = 1;
+    public static final int FINISHED = 2;
+
+    private static final String[] STATE_NAMES = {"PENDING", "CANCELLED", "FINISHED"};
+    private static final Object[] NO_CALLBACKS = new Object[0];
+
+    private int state = PENDING;
+    private Object result = PNone.NONE;
+    private PBaseException exception;
+    private Object loop = PNone.NONE;
+    private ArrayList<Object> callbacks;
+    private boolean asyncioFutureBlocking;
+    private boolean logTraceback;
+    private Object sourceTraceback = PNone.NONE;
+
+    public PFuture(PythonClass cls) {
+        super(cls);
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public String getStateName() {
+        return STATE_NAMES[state];
+    }
+
+    public boolean isDone() {
+        return state != PENDING;
+    }
+
+    public void setCancelled() {
+        state = CANCELLED;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public void setResult(Object result) {
+        this.result = result;
+        this.state = FINISHED;
+    }
+
+    public PBaseException getException() {
+        return exception;
+    }
+
+    public void setException(PBaseException exception) {
+        this.exception = exception;
+        this.state = FINISHED;
+    }
+
+    public Object getLoop() {
+        return loop;
+    }
+
+    public void setLoop(Object loop) {
+        this.loop = loop;
+    }
+
+    public boolean isAsyncioFutureBlocking() {
+        return asyncioFutureBlocking;
+    }
+
+    public void setAsyncioFutureBlocking(boolean asyncioFutureBlocking) {
+        this.asyncioFutureBlocking = asyncioFutureBlocking;
+    }
+
+    public boolean isLogTraceback() {
+        return logTraceback;
+    }
+
+    public void setLogTraceback(boolean logTraceback) {
+        this.logTraceback = logTraceback;
+    }
+
+    public Object getSourceTraceback() {
+        return sourceTraceback;
+    }
+
+    public void setSourceTraceback(Object sourceTraceback) {
+        this.sourceTraceback = sourceTraceback;
+    }
+
+    @TruffleBoundary
+    public void addCallback(Object callback) {
+        if (callbacks == null) {
+            callbacks = new ArrayList<>(2);
+        }
+        callbacks.add(callback);
+    }
+
+    @TruffleBoundary
+    public Object[] getCallbacks() {
+        return callbacks == null ? NO_CALLBACKS : callbacks.toArray();
+    }
+
+    @TruffleBoundary
+    public void setCallbacks(Object[] newCallbacks) {
+        callbacks = null;
+        for (Object callback : newCallbacks) {
+            addCallback(callback);
+        }
+    }
+
+    /**
+     * Removes and returns all registered callbacks.
+     */
+    @TruffleBoundary
+    public Object[] takeCallbacks() {
+        if (callbacks == null || callbacks.isEmpty()) {
+            return NO_CALLBACKS;
+        }
+        Object[] result = callbacks.toArray();
+        callbacks.clear();
+        return result;
+    }
+}
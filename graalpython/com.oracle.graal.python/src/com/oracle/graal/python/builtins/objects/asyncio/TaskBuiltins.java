@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.asyncio;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AssertionError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.Exception;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.asyncio.FutureBuiltins.FutureBaseNode;
+import com.oracle.graal.python.builtins.objects.generator.PGenerator;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.classes.IsSubtypeNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.generator.YieldFromNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * The {@code _asyncio.Task} type. {@code _step} drives the wrapped coroutine and handles the common
+ * results (a bare yield and a pending future of the same loop) directly; everything else goes
+ * through the {@code _asyncio.py} helpers, as in the pure Python implementation.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTask)
+public class TaskBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TaskBuiltinsFactory.getFactories();
+    }
+
+    abstract static class TaskBaseNode extends FutureBaseNode {
+        @Child private LookupAndCallBinaryNode callSendNode;
+        @Child private LookupAndCallBinaryNode callThrowNode;
+        @Child private IsSubtypeNode isSubtypeNode;
+        private final ConditionProfile futureResultProfile = ConditionProfile.createBinaryProfile();
+
+        protected final void scheduleStep(PTask task) {
+            callMethod(task.getLoop(), "call_soon", getAttribute(task, "_step"));
+        }
+
+        protected final Object step(PTask task, Object exc) {
+            if (task.isDone()) {
+                throw raise(AssertionError, "_step(): already done");
+            }
+            Object error = PGuards.isNoValue(exc) ? PNone.NONE : exc;
+            if (task.isMustCancel()) {
+                error = callHelper("_as_cancelled_error", error);
+                task.setMustCancel(false);
+            }
+            task.setFutWaiter(PNone.NONE);
+            Object loop = task.getLoop();
+            callHelper("_enter_task", loop, task);
+            try {
+                Object result;
+                try {
+                    result = resumeCoroutine(task.getCoro(), error);
+                } catch (PException e) {
+                    handleException(task, e);
+                    return PNone.NONE;
+                }
+                handleResult(task, result);
+            } finally {
+                callHelper("_leave_task", loop, task);
+            }
+            return PNone.NONE;
+        }
+
+        private Object resumeCoroutine(Object coro, Object error) {
+            Object result;
+            if (error == PNone.NONE) {
+                if (callSendNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callSendNode = insert(LookupAndCallBinaryNode.create("send"));
+                }
+                result = callSendNode.executeObject(coro, PNone.NONE);
+            } else {
+                if (callThrowNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callThrowNode = insert(LookupAndCallBinaryNode.create("throw"));
+                }
+                result = callThrowNode.executeObject(coro, error);
+            }
+            if (result == PNotImplemented.NOT_IMPLEMENTED) {
+                throw raise(AttributeError, "'%p' object has no attribute '%s'", coro, error == PNone.NONE ? "send" : "throw");
+            }
+            return result;
+        }
+
+        private void handleException(PTask task, PException e) {
+            if (isSubtype(e.getType(), StopIteration)) {
+                if (task.isMustCancel()) {
+                    task.setMustCancel(false);
+                    setException(task, callHelper("_cancelled_error"));
+                } else {
+                    setResult(task, YieldFromNode.getStopIterationValue(e));
+                }
+            } else if (isTrue(callHelper("_task_step_exception", task, e.getExceptionObject()))) {
+                throw e;
+            }
+        }
+
+        private void handleResult(PTask task, Object result) {
+            if (result == PNone.NONE) {
+                // a bare yield relinquishes control for one event loop iteration
+                scheduleStep(task);
+                return;
+            }
+            if (futureResultProfile.profile(result instanceof PFuture)) {
+                PFuture future = (PFuture) result;
+                if (future.isAsyncioFutureBlocking() && future != task && future.getLoop() == task.getLoop()) {
+                    future.setAsyncioFutureBlocking(false);
+                    addDoneCallback(future, getAttribute(task, "_wakeup"));
+                    task.setFutWaiter(future);
+                    if (task.isMustCancel() && isTrue(callMethod(future, "cancel"))) {
+                        task.setMustCancel(false);
+                    }
+                    return;
+                }
+            }
+            callHelper("_task_handle_result", task, result);
+        }
+
+        protected final boolean isSubtype(Object type, PythonErrorType errorType) {
+            if (isSubtypeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                isSubtypeNode = insert(IsSubtypeNode.create());
+            }
+            return isSubtypeNode.execute(type, getCore().getErrorClass(errorType));
+        }
+    }
+
+    @Builtin(name = __INIT__, fixedNumOfPositionalArgs = 2, keywordArguments = {"loop"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends TaskBaseNode {
+        @Specialization
+        Object init(PTask self, Object coro, Object loop) {
+            initFuture(self, loop);
+            if (!(coro instanceof PGenerator)) {
+                callHelper("_check_coroutine", coro);
+            }
+            self.setCoro(coro);
+            scheduleStep(self);
+            callHelper("_register_task", self);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_step", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class StepNode extends TaskBaseNode {
+        @Specialization
+        Object doStep(PTask self, Object exc) {
+            return step(self, exc);
+        }
+    }
+
+    @Builtin(name = "_wakeup", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WakeupNode extends TaskBaseNode {
+        @Specialization
+        Object wakeup(PTask self, Object future) {
+            if (future instanceof PFuture && ((PFuture) future).getState() == PFuture.FINISHED && ((PFuture) future).getException() == null) {
+                return step(self, PNone.NONE);
+            }
+            try {
+                callMethod(future, "result");
+            } catch (PException e) {
+                if (!isSubtype(e.getType(), Exception)) {
+                    throw e;
+                }
+                // this may also be a cancellation
+                return step(self, e.getExceptionObject());
+            }
+            return step(self, PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "cancel", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CancelNode extends TaskBaseNode {
+        @Specialization
+        boolean doCancel(PTask self) {
+            self.setLogTraceback(false);
+            if (self.isDone()) {
+                return false;
+            }
+            Object waiter = self.getFutWaiter();
+            if (waiter != PNone.NONE && isTrue(callMethod(waiter, "cancel"))) {
+                // keep the waiter, it may be a task that ignores the cancellation
+                return true;
+            }
+            self.setMustCancel(true);
+            return true;
+        }
+    }
+
+    @Builtin(name = "_coro", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class CoroNode extends PythonBuiltinNode {
+        @Specialization
+        Object coro(PTask self) {
+            return self.getCoro();
+        }
+    }
+
+    @Builtin(name = "_fut_waiter", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class FutWaiterNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        Object get(PTask self, @SuppressWarnings("unused") PNone value) {
+            return self.getFutWaiter();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        Object set(PTask self, Object value) {
+            self.setFutWaiter(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_must_cancel", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class MustCancelNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        boolean get(PTask self, @SuppressWarnings("unused") PNone value) {
+            return self.isMustCancel();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        Object set(PTask self, Object value,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            self.setMustCancel(castToBooleanNode.executeWith(value));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_log_destroy_pending", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class LogDestroyPendingNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(value)")
+        boolean get(PTask self, @SuppressWarnings("unused") PNone value) {
+            return self.isLogDestroyPending();
+        }
+
+        @Specialization(guards = "!isNoValue(value)")
+        Object set(PTask self, Object value,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            self.setLogDestroyPending(castToBooleanNode.executeWith(value));
+            return PNone.NONE;
+        }
+    }
+}
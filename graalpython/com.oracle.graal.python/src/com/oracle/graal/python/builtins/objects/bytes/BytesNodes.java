@@ -41,6 +41,7 @@
 package com.oracle.graal.python.builtins.objects.bytes;
 
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.ArrayList;
 
@@ -50,6 +51,7 @@ import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.ToBytesN
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.ToJavaBytesNode;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PGuards;
@@ -151,7 +153,16 @@ public abstract class BytesNodes {
             }
         }
 
-        @Specialization(guards = "allowRecursive")
+        @Specialization(guards = "!memoryView.isNative()")
+        byte[] doJavaMemoryView(PMemoryView memoryView,
+                        @Cached("create()") ToJavaBytesNode toJavaBytesNode) {
+            if (memoryView.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            }
+            return toJavaBytesNode.execute(memoryView);
+        }
+
+        @Specialization(guards = {"allowRecursive", "memoryView.isNative()"})
         byte[] doMemoryView(PMemoryView memoryView,
                         @Cached("createRecursive()") ToBytesNode recursive,
                         @Cached("create(TOBYTES)") LookupAndCallUnaryNode callToBytesNode) {
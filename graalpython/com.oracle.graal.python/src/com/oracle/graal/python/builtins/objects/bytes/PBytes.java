@@ -25,8 +25,6 @@
  */
 package com.oracle.graal.python.builtins.objects.bytes;
 
-import java.util.Arrays;
-
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.PImmutableSequence;
@@ -97,7 +95,14 @@ public final class PBytes extends PImmutableSequence implements PIBytesLike {
     public final int hashCode() {
         // TODO(fa) really required ?
         if (store instanceof ByteSequenceStorage) {
-            return Arrays.hashCode(((ByteSequenceStorage) store).getInternalByteArray());
+            // the internal array may be longer than the bytes object
+            ByteSequenceStorage byteStore = (ByteSequenceStorage) store;
+            byte[] bytes = byteStore.getInternalByteArray();
+            int hash = 1;
+            for (int i = 0; i < byteStore.length(); i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            return hash;
         }
         return store.hashCode();
     }
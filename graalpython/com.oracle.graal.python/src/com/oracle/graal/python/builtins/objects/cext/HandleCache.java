@@ -40,30 +40,113 @@
  */
 package com.oracle.graal.python.builtins.objects.cext;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.interop.TruffleObject;
 
+/**
+ * Maps native handles back to the managed objects they were created for. There is one table per
+ * context, shared by all code that resolves handles. It is an open addressing hash table with
+ * linear probing that grows when it is 3/4 full, so lookups stay constant time no matter how many
+ * objects an extension keeps around. Entries live as long as the native handles, which are never
+ * released.
+ */
 public final class HandleCache implements TruffleObject {
-    public static final int CACHE_SIZE = 10;
+    private static final int INITIAL_CAPACITY = 1024;
 
-    final long[] keys;
-    final Object[] values;
-    private final TruffleObject ptrToResolveHandle;
+    /** {@code 0} marks a free slot; the null pointer is never a handle. */
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    private long hits;
+    private long misses;
 
-    int pos = 0;
+    private final TruffleObject ptrToResolveHandle;
 
     public HandleCache(TruffleObject ptrToResolveHandle) {
-        keys = new long[CACHE_SIZE];
-        values = new Object[CACHE_SIZE];
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
         this.ptrToResolveHandle = ptrToResolveHandle;
     }
 
-    protected int len() {
+    protected TruffleObject getPtrToResolveHandle() {
+        return ptrToResolveHandle;
+    }
+
+    private static int mix(long handle) {
+        long h = handle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the object for the handle or {@code null} if the handle is not in the table. Updates
+     * the hit and miss counters.
+     */
+    public Object get(long handle) {
+        long[] k = keys;
+        int mask = k.length - 1;
+        int i = mix(handle) & mask;
+        while (true) {
+            long key = k[i];
+            if (key == handle) {
+                hits++;
+                return values[i];
+            } else if (key == 0) {
+                misses++;
+                return null;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public void put(long handle, Object value) {
+        assert handle != 0 && value != null;
+        int mask = keys.length - 1;
+        int i = mix(handle) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == handle) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = handle;
+        values[i] = value;
+        size++;
+        if (size * 4L >= keys.length * 3L) {
+            grow();
+        }
+    }
+
+    @TruffleBoundary
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
         return keys.length;
     }
 
-    protected TruffleObject getPtrToResolveHandle() {
-        return ptrToResolveHandle;
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
     }
 
     public ForeignAccess getForeignAccess() {
@@ -43,20 +43,15 @@ package com.oracle.graal.python.builtins.objects.cext;
 import com.oracle.graal.python.builtins.objects.cext.HandleCacheMRFactory.GetOrInsertNodeGen;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.ForeignAccess;
 import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.MessageResolution;
 import com.oracle.truffle.api.interop.Resolve;
-import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
-import com.oracle.truffle.api.nodes.ControlFlowException;
-import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
 
@@ -79,91 +74,49 @@ public class HandleCacheMR {
 
     }
 
-    static class InvalidCacheEntryException extends ControlFlowException {
-        private static final long serialVersionUID = 1L;
-        public static final HandleCacheMR.InvalidCacheEntryException INSTANCE = new InvalidCacheEntryException();
-    }
-
-    @ImportStatic(HandleCache.class)
     abstract static class GetOrInsertNode extends PNodeWithContext {
         @Child private Node executeNode;
 
+        private final BranchProfile missProfile = BranchProfile.create();
         private final BranchProfile errorProfile = BranchProfile.create();
-        @CompilationFinal private TruffleObject resolveHandleFunction;
 
         public abstract Object execute(HandleCache cache, long handle);
 
-        @Specialization(limit = "CACHE_SIZE", guards = {"cache.len() == cachedLen",
-                        "handle == cachedHandle"}, rewriteOn = HandleCacheMR.InvalidCacheEntryException.class, assumptions = "singleContextAssumption()")
-        Object doCachedSingleContext(HandleCache cache, @SuppressWarnings("unused") long handle,
-                        @Cached("handle") long cachedHandle,
-                        @Cached("cache.len()") @SuppressWarnings("unused") int cachedLen,
-                        @Cached("lookupPosition(cache, handle, cachedLen, getResolveHandleFunction(cache))") int cachedPosition) throws HandleCacheMR.InvalidCacheEntryException {
-            if (cache.keys[cachedPosition] == cachedHandle) {
-                return cache.values[cachedPosition];
-            }
-            throw InvalidCacheEntryException.INSTANCE;
+        /*
+         * Native handles are never released or reused for another object, so the resolved object
+         * can be cached as long as there is only one context.
+         */
+        @Specialization(limit = "3", guards = "handle == cachedHandle", assumptions = "singleContextAssumption()")
+        Object doCachedSingleContext(@SuppressWarnings("unused") HandleCache cache, @SuppressWarnings("unused") long handle,
+                        @Cached("handle") @SuppressWarnings("unused") long cachedHandle,
+                        @Cached("lookup(cache, handle)") Object cachedValue) {
+            return cachedValue;
         }
 
-        @Specialization(guards = {"cache.len() == cachedLen"}, replaces = "doCachedSingleContext", assumptions = "singleContextAssumption()")
-        Object doFullLookupSingleContext(HandleCache cache, long handle,
-                        @Cached("cache.len()") int cachedLen) {
-            int pos = lookupPosition(cache, handle, cachedLen, getResolveHandleFunction(cache));
-            return cache.values[pos];
+        @Specialization(replaces = "doCachedSingleContext")
+        Object doLookup(HandleCache cache, long handle) {
+            return lookup(cache, handle);
         }
 
-        @Specialization(limit = "CACHE_SIZE", guards = {"cache.len() == cachedLen",
-                        "handle == cachedHandle", "cache.getPtrToResolveHandle() == cachedResolveHandleFunction"}, rewriteOn = HandleCacheMR.InvalidCacheEntryException.class)
-        Object doCached(HandleCache cache, @SuppressWarnings("unused") long handle,
-                        @Cached("handle") long cachedHandle,
-                        @Cached("cache.len()") @SuppressWarnings("unused") int cachedLen,
-                        @Cached("cache.getPtrToResolveHandle()") @SuppressWarnings("unused") TruffleObject cachedResolveHandleFunction,
-                        @Cached("lookupPosition(cache, handle, cachedLen, cachedResolveHandleFunction)") int cachedPosition) throws HandleCacheMR.InvalidCacheEntryException {
-            if (cache.keys[cachedPosition] == cachedHandle) {
-                return cache.values[cachedPosition];
+        protected Object lookup(HandleCache cache, long handle) {
+            Object value = cache.get(handle);
+            if (value == null) {
+                missProfile.enter();
+                value = resolve(cache, handle);
+                cache.put(handle, value);
             }
-            throw InvalidCacheEntryException.INSTANCE;
+            return value;
         }
 
-        @Specialization(guards = {"cache.len() == cachedLen", "cache.getPtrToResolveHandle() == cachedResolveHandleFunction"}, replaces = "doCached")
-        Object doFullLookup(HandleCache cache, long handle,
-                        @Cached("cache.len()") int cachedLen,
-                        @Cached("cache.getPtrToResolveHandle()") TruffleObject cachedResolveHandleFunction) {
-            int pos = lookupPosition(cache, handle, cachedLen, cachedResolveHandleFunction);
-            return cache.values[pos];
-        }
-
-        @ExplodeLoop
-        protected int lookupPosition(HandleCache cache, long handle, int cachedLen, TruffleObject ptrToResolveHandle) {
-            for (int i = 0; i < cachedLen; i++) {
-                if (cache.keys[i] == handle) {
-                    return i;
-                }
-            }
-
+        private Object resolve(HandleCache cache, long handle) {
             try {
-                Object resolved = ForeignAccess.sendExecute(getExecuteNode(), ptrToResolveHandle, handle);
-
-                int insertPos = cache.pos;
-                cache.keys[insertPos] = handle;
-                cache.values[insertPos] = resolved;
-                cache.pos = (insertPos + 1) % cache.len();
-
-                return insertPos;
+                return ForeignAccess.sendExecute(getExecuteNode(), cache.getPtrToResolveHandle(), handle);
             } catch (UnsupportedTypeException | ArityException | UnsupportedMessageException e) {
                 errorProfile.enter();
                 throw e.raise();
             }
         }
 
-        protected TruffleObject getResolveHandleFunction(HandleCache cache) {
-            if (resolveHandleFunction == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                resolveHandleFunction = cache.getPtrToResolveHandle();
-            }
-            return resolveHandleFunction;
-        }
-
         private Node getExecuteNode() {
             if (executeNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -78,6 +78,7 @@ import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.GetNativeMemoryviewNode;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
@@ -92,7 +93,6 @@ import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
 import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
-import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
@@ -526,10 +526,11 @@ public class PythonObjectNativeWrapperMR {
 
         @Specialization
         Object doMemoryview(PMemoryView object, String key,
-                        @Cached("create()") ReadAttributeFromObjectNode readAttrNode,
+                        @Cached("create()") GetNativeMemoryviewNode getNativeMemoryviewNode,
                         @Cached("createReadNode()") Node readNode,
                         @Cached("createBinaryProfile()") ConditionProfile isNativeObject) {
-            Object delegateObj = readAttrNode.execute(object, "__c_memoryview");
+            // views of Java storages create their native counterpart on first access
+            Object delegateObj = getNativeMemoryviewNode.execute(object);
             if (isNativeObject.profile(delegateObj instanceof PythonNativeObject)) {
                 try {
                     return ForeignAccess.sendRead(readNode, (TruffleObject) ((PythonNativeObject) delegateObj).object, key);
@@ -709,10 +710,10 @@ public class PythonObjectNativeWrapperMR {
 
         @Specialization
         Object doMemoryview(PMemoryView object, String key, Object value,
-                        @Cached("create()") ReadAttributeFromObjectNode readAttrNode,
+                        @Cached("create()") GetNativeMemoryviewNode getNativeMemoryviewNode,
                         @Cached("createWriteNode()") Node writeNode,
                         @Cached("createBinaryProfile()") ConditionProfile isNativeObject) {
-            Object delegateObj = readAttrNode.execute(object, "__c_memoryview");
+            Object delegateObj = getNativeMemoryviewNode.execute(object);
             if (isNativeObject.profile(delegateObj instanceof PythonNativeObject)) {
                 try {
                     return ForeignAccess.sendWrite(writeNode, (TruffleObject) ((PythonNativeObject) delegateObj).object, key, value);
@@ -42,6 +42,7 @@ package com.oracle.graal.python.builtins.objects.common;
 
 import java.util.ArrayList;
 
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Layout;
@@ -57,12 +58,23 @@ public abstract class DynamicObjectStorage extends HashingStorage {
 
     private final DynamicObject store;
 
+    /**
+     * The module whose attributes are held in {@link #store}, if any. Writes through this storage
+     * must invalidate the module's assumptions about the written names.
+     */
+    private final PythonModule module;
+
     private DynamicObjectStorage() {
-        store = LAYOUT.newInstance(EMPTY_SHAPE);
+        this(LAYOUT.newInstance(EMPTY_SHAPE));
     }
 
     private DynamicObjectStorage(DynamicObject store) {
+        this(store, null);
+    }
+
+    private DynamicObjectStorage(DynamicObject store, PythonModule module) {
         this.store = store;
+        this.module = module;
     }
 
     @Override
@@ -87,6 +99,7 @@ public abstract class DynamicObjectStorage extends HashingStorage {
     @TruffleBoundary
     public void setItem(Object key, Object value, Equivalence eq) {
         assert eq == HashingStorage.DEFAULT_EQIVALENCE;
+        invalidateAttribute(key);
         if (store.containsKey(key)) {
             store.set(key, value);
         } else {
@@ -99,6 +112,7 @@ public abstract class DynamicObjectStorage extends HashingStorage {
     @TruffleBoundary
     public boolean remove(Object key, Equivalence eq) {
         assert eq == HashingStorage.DEFAULT_EQIVALENCE;
+        invalidateAttribute(key);
         boolean result = store.delete(key);
         store.updateShape();
         return result;
@@ -134,6 +148,9 @@ public abstract class DynamicObjectStorage extends HashingStorage {
     @Override
     @TruffleBoundary
     public void clear() {
+        if (module != null) {
+            module.invalidateAllAttributeFinalAssumptions();
+        }
         store.setShapeAndResize(store.getShape(), EMPTY_SHAPE);
         store.updateShape();
     }
@@ -142,6 +159,16 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         return store;
     }
 
+    public PythonModule getModule() {
+        return module;
+    }
+
+    public void invalidateAttribute(Object key) {
+        if (module != null && key instanceof String) {
+            module.invalidateAttributeFinalAssumption((String) key);
+        }
+    }
+
     public static class FastDictStorage extends DynamicObjectStorage {
         public FastDictStorage() {
         }
@@ -163,6 +190,10 @@ public abstract class DynamicObjectStorage extends HashingStorage {
             super(store);
         }
 
+        public PythonObjectDictStorage(DynamicObject store, PythonModule module) {
+            super(store, module);
+        }
+
         @Override
         @TruffleBoundary
         public HashingStorage copy(Equivalence eq) {
@@ -175,7 +206,7 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         private final EconomicMapStorage nonAttributesStorage;
 
         public PythonObjectHybridDictStorage(PythonObjectDictStorage storage) {
-            this(storage.getStore());
+            this(storage.getStore(), storage.getModule(), EconomicMapStorage.create(false));
         }
 
         public PythonObjectHybridDictStorage(DynamicObject store) {
@@ -183,7 +214,11 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         }
 
         PythonObjectHybridDictStorage(DynamicObject store, EconomicMapStorage nonAttributesStorage) {
-            super(store);
+            this(store, null, nonAttributesStorage);
+        }
+
+        private PythonObjectHybridDictStorage(DynamicObject store, PythonModule module, EconomicMapStorage nonAttributesStorage) {
+            super(store, module);
             this.nonAttributesStorage = nonAttributesStorage;
         }
 
@@ -40,6 +40,7 @@
  */
 package com.oracle.graal.python.builtins.objects.common;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -65,9 +66,13 @@ import com.oracle.truffle.api.CompilerAsserts;
  * Hash collisions are handled by chaining a linked list of {@link CollisionLink} objects that take
  * the place of the values in the {@link #entries} array.
  *
+ * The hash code of every key is kept in the {@link #hashes} array, so that neither rebuilding the
+ * hash table nor copying entries to another map needs to call {@code __hash__} again, and so that
+ * lookups only call {@code __eq__} for keys with the same hash code.
+ *
  * Removing entries will put {@code null} into the {@link #entries} array. If the occupation of the
  * map falls below a specific threshold, the map will be compressed via the
- * {@link #maybeCompress(int, Equivalence)} method.
+ * {@link #maybeCompress(int)} method.
  */
 public class EconomicMapStorage extends HashingStorage implements Iterable<Object> {
 
@@ -121,6 +126,11 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
      */
     private Object[] entries;
 
+    /**
+     * Hash codes of the keys, indexed by entry number.
+     */
+    private int[] hashes;
+
     /**
      * Hash array that is interpreted either as byte or short or int array depending on number of
      * map entries.
@@ -164,6 +174,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             deletedEntries = otherMap.deletedEntries;
             if (otherMap.entries != null) {
                 entries = otherMap.entries.clone();
+                hashes = otherMap.hashes.clone();
             }
             if (otherMap.hashArray != null) {
                 hashArray = otherMap.hashArray.clone();
@@ -176,6 +187,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
     private void init(int size) {
         if (size > INITIAL_CAPACITY) {
             entries = new Object[size << 1];
+            hashes = new int[size];
         }
     }
 
@@ -202,25 +214,25 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
     public Object getItem(Object key, Equivalence eq) {
         Objects.requireNonNull(key);
 
-        int index = find(key, eq);
+        int index = find(key, getHashCode(key, eq), eq);
         if (index != -1) {
             return getValue(index);
         }
         return null;
     }
 
-    private int find(Object key, Equivalence eq) {
+    private int find(Object key, int hash, Equivalence eq) {
         if (hasHashArray()) {
-            return findHash(key, eq);
+            return findHash(key, hash, eq);
         } else {
-            return findLinear(key, eq);
+            return findLinear(key, hash, eq);
         }
     }
 
-    private int findLinear(Object key, Equivalence eq) {
+    private int findLinear(Object key, int hash, Equivalence eq) {
         for (int i = 0; i < totalEntries; i++) {
             Object entryKey = entries[i << 1];
-            if (entryKey != null && compareKeys(key, entryKey, eq)) {
+            if (entryKey != null && hashes[i] == hash && compareKeys(key, entryKey, eq)) {
                 return i;
             }
         }
@@ -237,16 +249,16 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return key.equals(entryKey);
     }
 
-    private int findHash(Object key, Equivalence eq) {
-        int index = getHashArray(getHashIndex(key, eq)) - 1;
+    private int findHash(Object key, int hash, Equivalence eq) {
+        int index = getHashArray(getHashIndex(hash)) - 1;
         if (index != -1) {
             Object entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
+            if (hashes[index] == hash && compareKeys(key, entryKey, eq)) {
                 return index;
             } else {
                 Object entryValue = getRawValue(index);
                 if (entryValue instanceof CollisionLink) {
-                    return findWithCollision(key, (CollisionLink) entryValue, eq);
+                    return findWithCollision(key, hash, (CollisionLink) entryValue, eq);
                 }
             }
         }
@@ -254,7 +266,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return -1;
     }
 
-    private int findWithCollision(Object key, CollisionLink initialEntryValue, Equivalence eq) {
+    private int findWithCollision(Object key, int hash, CollisionLink initialEntryValue, Equivalence eq) {
         int index;
         Object entryKey;
         CollisionLink entryValue = initialEntryValue;
@@ -262,7 +274,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             CollisionLink collisionLink = entryValue;
             index = collisionLink.next;
             entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
+            if (hashes[index] == hash && compareKeys(key, entryKey, eq)) {
                 return index;
             } else {
                 Object value = getRawValue(index);
@@ -303,12 +315,12 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
     }
 
-    private int findAndRemoveHash(Object key, Equivalence eq) {
-        int hashIndex = getHashIndex(key, eq);
+    private int findAndRemoveHash(Object key, int hash, Equivalence eq) {
+        int hashIndex = getHashIndex(hash);
         int index = getHashArray(hashIndex) - 1;
         if (index != -1) {
             Object entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
+            if (hashes[index] == hash && compareKeys(key, entryKey, eq)) {
                 Object value = getRawValue(index);
                 int nextIndex = -1;
                 if (value instanceof CollisionLink) {
@@ -320,7 +332,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             } else {
                 Object entryValue = getRawValue(index);
                 if (entryValue instanceof CollisionLink) {
-                    return findAndRemoveWithCollision(key, (CollisionLink) entryValue, index, eq);
+                    return findAndRemoveWithCollision(key, hash, (CollisionLink) entryValue, index, eq);
                 }
             }
         }
@@ -328,7 +340,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return -1;
     }
 
-    private int findAndRemoveWithCollision(Object key, CollisionLink initialEntryValue, int initialIndexValue, Equivalence eq) {
+    private int findAndRemoveWithCollision(Object key, int hash, CollisionLink initialEntryValue, int initialIndexValue, Equivalence eq) {
         int index;
         Object entryKey;
         CollisionLink entryValue = initialEntryValue;
@@ -337,7 +349,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             CollisionLink collisionLink = entryValue;
             index = collisionLink.next;
             entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
+            if (hashes[index] == hash && compareKeys(key, entryKey, eq)) {
                 Object value = getRawValue(index);
                 if (value instanceof CollisionLink) {
                     CollisionLink thisCollisionLink = (CollisionLink) value;
@@ -358,26 +370,60 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
     }
 
-    private int getHashIndex(Object key, Equivalence strategy) {
-        int hash;
+    private static int getHashCode(Object key, Equivalence strategy) {
         if (strategy != null) {
-            hash = strategy.hashCode(key);
+            return strategy.hashCode(key);
         } else {
-            hash = key.hashCode();
+            return key.hashCode();
         }
-        hash = hash ^ (hash >>> 16);
+    }
+
+    private int getHashIndex(int hashCode) {
+        int hash = hashCode ^ (hashCode >>> 16);
         return hash & (getHashTableSize() - 1);
     }
 
     /**
-     * Copies all of the mappings from {@code other} to this map.
+     * Copies all of the mappings from {@code other} to this map, reusing the hash codes of its
+     * keys.
      *
      * @since 1.0
      */
     public void putAll(EconomicMapStorage other, Equivalence eq) {
-        for (DictEntry entry : other.entries()) {
-            setItem(entry.getKey(), entry.getValue(), eq);
+        for (int i = 0; i < other.totalEntries; i++) {
+            Object key = other.getKey(i);
+            if (key != null) {
+                setItem(key, other.hashes[i], other.getValue(i), eq);
+            }
+        }
+    }
+
+    /**
+     * Adds all keys of {@code other} to this map with the given value, reusing their hash codes.
+     */
+    public void putAllKeys(EconomicMapStorage other, Object value, Equivalence eq) {
+        for (int i = 0; i < other.totalEntries; i++) {
+            Object key = other.getKey(i);
+            if (key != null) {
+                setItem(key, other.hashes[i], value, eq);
+            }
+        }
+    }
+
+    /**
+     * Creates a new map of the keys of this map that are (or, if {@code contained} is
+     * {@code false}, are not) keys of {@code other}, all mapped to the given value. The hash codes
+     * are reused for the lookups in {@code other} and for the new map.
+     */
+    public EconomicMapStorage filterKeys(EconomicMapStorage other, boolean contained, Object value, Equivalence eq) {
+        EconomicMapStorage result = new EconomicMapStorage(isSet);
+        for (int i = 0; i < totalEntries; i++) {
+            Object key = getKey(i);
+            if (key != null && (other.find(key, hashes[i], eq) != -1) == contained) {
+                result.setItem(key, hashes[i], value, eq);
+            }
         }
+        return result;
     }
 
     @Override
@@ -385,7 +431,11 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         if (key == null) {
             throw new UnsupportedOperationException("null not supported as key!");
         }
-        int index = find(key, eq);
+        setItem(key, getHashCode(key, eq), value, eq);
+    }
+
+    private void setItem(Object key, int hash, Object value, Equivalence eq) {
+        int index = find(key, hash, eq);
         if (index != -1) {
             setValue(index, value);
             return;
@@ -394,8 +444,9 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         int nextEntryIndex = totalEntries;
         if (entries == null) {
             entries = new Object[INITIAL_CAPACITY << 1];
+            hashes = new int[INITIAL_CAPACITY];
         } else if (entries.length == nextEntryIndex << 1) {
-            grow(eq);
+            grow();
 
             assert entries.length > totalEntries << 1;
             // Can change if grow is actually compressing.
@@ -403,15 +454,16 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
 
         setKey(nextEntryIndex, key);
+        hashes[nextEntryIndex] = hash;
         setValue(nextEntryIndex, value);
         totalEntries++;
 
         if (hasHashArray()) {
             // Rehash on collision if hash table is more than three quarters full.
             boolean rehashOnCollision = (getHashTableSize() < (length() + (length() >> 1)));
-            putHashEntry(key, nextEntryIndex, rehashOnCollision, eq);
+            putHashEntry(nextEntryIndex, rehashOnCollision);
         } else if (totalEntries > getHashThreshold()) {
-            createHash(eq);
+            createHash();
         }
 
     }
@@ -423,7 +475,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return HASH_THRESHOLD;
     }
 
-    private void grow(Equivalence eq) {
+    private void grow() {
         int entriesLength = entries.length;
         int newSize = (entriesLength >> 1) + Math.max(MIN_CAPACITY_INCREASE, entriesLength >> 2);
         if (newSize > MAX_ELEMENT_COUNT) {
@@ -432,10 +484,11 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         Object[] newEntries = new Object[newSize << 1];
         System.arraycopy(entries, 0, newEntries, 0, entriesLength);
         entries = newEntries;
+        hashes = Arrays.copyOf(hashes, newSize);
         if ((entriesLength < LARGE_HASH_THRESHOLD && newEntries.length >= LARGE_HASH_THRESHOLD) ||
                         (entriesLength < VERY_LARGE_HASH_THRESHOLD && newEntries.length > VERY_LARGE_HASH_THRESHOLD)) {
             // Rehash in order to change number of bits reserved for hash indices.
-            createHash(eq);
+            createHash();
         }
     }
 
@@ -443,9 +496,9 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
      * Compresses the graph if there is a large number of deleted entries and returns the translated
      * new next index.
      */
-    private int maybeCompress(int nextIndex, Equivalence eq) {
+    private int maybeCompress(int nextIndex) {
         if (entries.length != INITIAL_CAPACITY << 1 && deletedEntries >= (totalEntries >> 1) + (totalEntries >> 2)) {
-            return compressLarge(nextIndex, eq);
+            return compressLarge(nextIndex);
         }
         return nextIndex;
     }
@@ -453,7 +506,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
     /**
      * Compresses the graph and returns the translated new next index.
      */
-    private int compressLarge(int nextIndex, Equivalence eq) {
+    private int compressLarge(int nextIndex) {
         int size = INITIAL_CAPACITY;
         int remaining = totalEntries - deletedEntries;
 
@@ -462,6 +515,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
 
         Object[] newEntries = new Object[size << 1];
+        int[] newHashes = new int[size];
         int z = 0;
         int newNextIndex = remaining;
         for (int i = 0; i < totalEntries; ++i) {
@@ -472,17 +526,19 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             if (key != null) {
                 newEntries[z << 1] = key;
                 newEntries[(z << 1) + 1] = getValue(i);
+                newHashes[z] = hashes[i];
                 z++;
             }
         }
 
         this.entries = newEntries;
+        this.hashes = newHashes;
         totalEntries = z;
         deletedEntries = 0;
         if (z <= getHashThreshold()) {
             this.hashArray = null;
         } else {
-            createHash(eq);
+            createHash();
         }
         return newNextIndex;
     }
@@ -497,7 +553,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
     }
 
-    private void createHash(Equivalence eq) {
+    private void createHash() {
         int entryCount = length();
 
         // Calculate smallest 2^n that is greater number of entries.
@@ -524,16 +580,16 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         for (int i = 0; i < totalEntries; i++) {
             Object entryKey = getKey(i);
             if (entryKey != null) {
-                putHashEntry(entryKey, i, false, eq);
+                putHashEntry(i, false);
             }
         }
     }
 
-    private void putHashEntry(Object key, int entryIndex, boolean rehashOnCollision, Equivalence eq) {
-        int hashIndex = getHashIndex(key, eq);
+    private void putHashEntry(int entryIndex, boolean rehashOnCollision) {
+        int hashIndex = getHashIndex(hashes[entryIndex]);
         int oldIndex = getHashArray(hashIndex) - 1;
         if (oldIndex != -1 && rehashOnCollision) {
-            this.createHash(eq);
+            this.createHash();
             return;
         }
         setHashArray(hashIndex, entryIndex + 1);
@@ -562,6 +618,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
     @Override
     public void clear() {
         entries = null;
+        hashes = null;
         hashArray = null;
         totalEntries = deletedEntries = 0;
     }
@@ -574,7 +631,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
      * Removes the element at the specific index and returns the index of the next element. This can
      * be a different value if graph compression was triggered.
      */
-    private int remove(int indexToRemove, Equivalence eq) {
+    private int remove(int indexToRemove) {
         int index = indexToRemove;
         int entriesAfterIndex = totalEntries - index - 1;
         int result = index + 1;
@@ -583,6 +640,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         if (entriesAfterIndex <= COMPRESS_IMMEDIATE_CAPACITY && !hasHashArray()) {
             while (index < totalEntries - 1) {
                 setKey(index, getKey(index + 1));
+                hashes[index] = hashes[index + 1];
                 setRawValue(index, getRawValue(index + 1));
                 index++;
             }
@@ -601,7 +659,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             }
         } else {
             deletedEntries++;
-            result = maybeCompress(result, eq);
+            result = maybeCompress(result);
         }
 
         return result;
@@ -650,6 +708,28 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return object;
     }
 
+    /**
+     * Returns the index of the first entry at or after {@code index} that was not removed, or
+     * {@code -1} if there is none. The indices stay valid as long as no key is removed, which lets
+     * callers like {@code PyDict_Next} resume an iteration without an iterator.
+     */
+    public int nextEntryIndex(int index) {
+        for (int i = Math.max(index, 0); i < totalEntries; i++) {
+            if (getKey(i) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Object getKeyAt(int index) {
+        return getKey(index);
+    }
+
+    public Object getValueAt(int index) {
+        return getValue(index);
+    }
+
     private final boolean isSet;
 
     @Override
@@ -687,7 +767,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
 
     @Override
     public boolean hasKey(Object key, Equivalence eq) {
-        return find(key, eq) != -1;
+        return find(key, getHashCode(key, eq), eq) != -1;
     }
 
     @Override
@@ -695,15 +775,16 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         if (key == null) {
             throw new UnsupportedOperationException("null not supported as key!");
         }
+        int hash = getHashCode(key, eq);
         int index;
         if (hasHashArray()) {
-            index = this.findAndRemoveHash(key, eq);
+            index = this.findAndRemoveHash(key, hash, eq);
         } else {
-            index = this.findLinear(key, eq);
+            index = this.findLinear(key, hash, eq);
         }
 
         if (index != -1) {
-            remove(index, eq);
+            remove(index);
             return true;
         }
         return false;
@@ -47,6 +47,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 import java.util.Iterator;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
@@ -89,6 +90,14 @@ public abstract class HashingStorage {
     public abstract static class Equivalence extends PNodeWithContext {
         public abstract int hashCode(Object o);
 
+        /**
+         * The hash of {@code o} without truncating it to an {@code int}. Storages whose keys are
+         * ints use this to find the int that an object of another type may be equal to.
+         */
+        public long longHashCode(Object o) {
+            return hashCode(o);
+        }
+
         public abstract boolean equals(Object left, Object right);
 
     }
@@ -178,6 +187,20 @@ public abstract class HashingStorage {
             }
         }
 
+        @Override
+        public long longHashCode(Object o) {
+            Object result = hashRootNode.getCallTarget().call(o);
+            if (result instanceof Integer) {
+                return (int) result;
+            } else if (result instanceof Long) {
+                return (long) result;
+            } else if (result instanceof PInt) {
+                return ((PInt) result).longValue();
+            } else {
+                throw raise(TypeError, "__hash__ method should return an integer");
+            }
+        }
+
         @Override
         public boolean equals(Object a, Object b) {
             return (boolean) eqRootNode.getCallTarget().call(a, b);
@@ -224,10 +247,6 @@ public abstract class HashingStorage {
 
     public abstract int length();
 
-    public void addAll(HashingStorage other) {
-        addAll(other, DEFAULT_EQIVALENCE);
-    }
-
     public void addAll(HashingStorage other, Equivalence eq) {
         for (DictEntry e : other.entries()) {
             setItem(e.getKey(), e.getValue(), eq);
@@ -63,6 +63,7 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactor
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.EqualsNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.GetItemNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.InitNodeGen;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.IntersectNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.KeysEqualsNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.KeysIsSubsetNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.LenNodeGen;
@@ -87,6 +88,7 @@ import com.oracle.graal.python.nodes.datamodel.IsHashableNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
 import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.truffle.PythonTypes;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
@@ -99,6 +101,7 @@ import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -161,6 +164,20 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Override
+        public long longHashCode(Object o) {
+            Object hash = callHashNode.executeObject(o);
+            if (hash instanceof Integer) {
+                return (int) hash;
+            } else if (hash instanceof Long) {
+                return (long) hash;
+            } else if (hash instanceof PInt) {
+                return ((PInt) hash).longValue();
+            } else {
+                throw hashCodeTypeError();
+            }
+        }
+
         private PException hashCodeTypeError() {
             return raise(PythonErrorType.TypeError, "__hash__ method should return an integer");
         }
@@ -176,6 +193,7 @@ public abstract class HashingStorageNodes {
     }
 
     @ImportStatic(PGuards.class)
+    @TypeSystemReference(PythonTypes.class)
     abstract static class DictStorageBaseNode extends PNodeWithContext {
         @Child private GetClassNode getClassNode;
         @Child private IsHashableNode isHashableNode;
@@ -303,9 +321,11 @@ public abstract class HashingStorageNodes {
 
         @Specialization(guards = {"!isNoValue(iterable)", "!isEmpty(kwargs)"})
         public HashingStorage doPDictKwargs(PDict iterable, PKeyword[] kwargs) {
-            HashingStorage dictStorage = iterable.getDictStorage().copy(HashingStorage.DEFAULT_EQIVALENCE);
-            dictStorage.addAll(new KeywordsStorage(kwargs));
-            return dictStorage;
+            HashingStorage dictStorage = iterable.getDictStorage();
+            EconomicMapStorage newStorage = EconomicMapStorage.create(dictStorage.length() + kwargs.length, false);
+            newStorage.addAll(dictStorage, getEquivalence());
+            newStorage.addAll(new KeywordsStorage(kwargs), getEquivalence());
+            return newStorage;
         }
 
         @Specialization(guards = {"!isNoValue(mapping)", "!isPDict(mapping)", "hasKeysAttribute(mapping)"})
@@ -508,6 +528,16 @@ public abstract class HashingStorageNodes {
             return storage.hasKey(key, getEquivalence());
         }
 
+        @Specialization
+        protected boolean doLongKey(LongKeyStorage storage, long key) {
+            return storage.hasKey(key);
+        }
+
+        @Specialization(guards = "isHashable(key)")
+        protected boolean doLongKeyObject(LongKeyStorage storage, Object key) {
+            return storage.hasKey(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(key)")
         protected boolean contains(HashMapStorage storage, Object key) {
             return storage.hasKey(key, getEquivalence());
@@ -622,6 +652,12 @@ public abstract class HashingStorageNodes {
             return doDynamicObjectUpdateShape(switchToFastDictStorage(storage), key.getValue(), value);
         }
 
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, long key, Object value) {
+            // immediately replace storage since empty storage is immutable
+            return doLongKey(new LongKeyStorage(), key, value);
+        }
+
         @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
         protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, Object key, Object value) {
             // immediately replace storage since empty storage is immutable
@@ -646,9 +682,10 @@ public abstract class HashingStorageNodes {
                         })
         protected static HashingStorage doDynamicObjectExistingCached(DynamicObjectStorage storage, @SuppressWarnings("unused") String name,
                         Object value,
-                        @SuppressWarnings("unused") @Cached("name") String cachedName,
+                        @Cached("name") String cachedName,
                         @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, name, value)") Location location) {
+            storage.invalidateAttribute(cachedName);
             try {
                 location.set(storage.getStore(), value, shape);
                 return storage;
@@ -680,6 +717,7 @@ public abstract class HashingStorageNodes {
                         @Cached("lookupLocation(oldShape, name, value)") Location oldLocation,
                         @Cached("defineProperty(oldShape, name, value)") Shape newShape,
                         @Cached("lookupLocation(newShape, name)") Location newLocation) {
+            storage.invalidateAttribute(cachedName);
             try {
                 newLocation.set(storage.getStore(), value, oldShape, newShape);
                 return storage;
@@ -696,6 +734,7 @@ public abstract class HashingStorageNodes {
         @TruffleBoundary
         @Specialization(replaces = {"doDynamicObjectExistingCached", "doDynamicObjectNewCached"}, guards = {"storage.getStore().getShape().isValid()", "!exceedsLimit(storage)"})
         protected static HashingStorage doDynamicObjectUncached(DynamicObjectStorage storage, String name, Object value) {
+            storage.invalidateAttribute(name);
             storage.getStore().define(name, value);
             return storage;
         }
@@ -740,6 +779,7 @@ public abstract class HashingStorageNodes {
                         @Cached("name.getValue()") String cachedName,
                         @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, cachedName, value)") Location location) {
+            storage.invalidateAttribute(cachedName);
             try {
                 location.set(storage.getStore(), value, shape);
                 return storage;
@@ -771,6 +811,7 @@ public abstract class HashingStorageNodes {
                         @Cached("lookupLocation(oldShape, cachedName, value)") Location oldLocation,
                         @Cached("defineProperty(oldShape, cachedName, value)") Shape newShape,
                         @Cached("lookupLocation(newShape, cachedName)") Location newLocation) {
+            storage.invalidateAttribute(cachedName);
             try {
                 newLocation.set(storage.getStore(), value, oldShape, newShape);
                 return storage;
@@ -795,6 +836,7 @@ public abstract class HashingStorageNodes {
                                         "doDynamicObjectNewPStringCached"
                         })
         protected static HashingStorage doDynamicObjectPStringUncached(DynamicObjectStorage storage, PString name, Object value) {
+            storage.invalidateAttribute(name.getValue());
             storage.getStore().define(name.getValue(), value);
             return storage;
         }
@@ -860,6 +902,11 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        @Specialization(guards = "storage.length() == 0")
+        protected HashingStorage doDynamicObjectEmpty(@SuppressWarnings("unused") FastDictStorage storage, long key, Object value) {
+            return doLongKey(new LongKeyStorage(), key, value);
+        }
+
         @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
         protected HashingStorage doDynamicObjectGeneralize(FastDictStorage storage, Object key, Object value) {
             HashingStorage newStorage = switchToEconomicMap(storage);
@@ -876,12 +923,30 @@ public abstract class HashingStorageNodes {
             return storage;
         }
 
+        @Specialization(guards = "storage.length() == 0")
+        protected HashingStorage doEconomicMapEmpty(@SuppressWarnings("unused") EconomicMapStorage storage, long key, Object value) {
+            return doLongKey(new LongKeyStorage(), key, value);
+        }
+
         @Specialization(guards = "isHashable(key)")
         protected HashingStorage doHashMap(EconomicMapStorage storage, Object key, Object value) {
             storage.setItem(key, value, getEquivalence());
             return storage;
         }
 
+        @Specialization
+        protected HashingStorage doLongKey(LongKeyStorage storage, long key, Object value) {
+            storage.setItem(key, value);
+            return storage;
+        }
+
+        @Specialization(guards = {"!isInteger(key)", "isHashable(key)"})
+        protected HashingStorage doLongKeyGeneralize(LongKeyStorage storage, Object key, Object value) {
+            HashingStorage newStorage = switchToEconomicMap(storage);
+            newStorage.setItem(key, value, getEquivalence());
+            return newStorage;
+        }
+
         @Specialization(guards = "isHashable(key)")
         protected HashingStorage doHashMap(HashMapStorage storage, Object key, Object value) {
             storage.setItem(key, value, getEquivalence());
@@ -1046,6 +1111,16 @@ public abstract class HashingStorageNodes {
             return storage.getItem(key, getEquivalence());
         }
 
+        @Specialization
+        Object doLongKey(LongKeyStorage storage, long key) {
+            return storage.getItem(key);
+        }
+
+        @Specialization(guards = "isHashable(key)")
+        Object doLongKeyObject(LongKeyStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(key)")
         Object doGeneric(HashMapStorage storage, Object key) {
             return storage.getItem(key, getEquivalence());
@@ -1288,6 +1363,16 @@ public abstract class HashingStorageNodes {
             return storage.remove(key, getEquivalence());
         }
 
+        @Specialization
+        protected boolean doLongKey(@SuppressWarnings("unused") PHashingCollection container, LongKeyStorage storage, long key) {
+            return storage.remove(key);
+        }
+
+        @Specialization
+        protected boolean doLongKeyObject(@SuppressWarnings("unused") PHashingCollection container, LongKeyStorage storage, Object key) {
+            return storage.remove(key, getEquivalence());
+        }
+
         public static DelItemNode create() {
             return DelItemNodeGen.create();
         }
@@ -1330,23 +1415,26 @@ public abstract class HashingStorageNodes {
         }
     }
 
-    public static class IntersectNode extends Node {
+    public abstract static class IntersectNode extends DictStorageBaseNode {
 
-        @Child private ContainsKeyNode containsKeyNode;
-        @Child private SetItemNode setItemNode;
+        public abstract HashingStorage execute(HashingStorage left, HashingStorage right);
 
-        public HashingStorage execute(HashingStorage left, HashingStorage right) {
+        @Specialization
+        public HashingStorage doEconomicMap(EconomicMapStorage left, EconomicMapStorage right) {
+            return left.filterKeys(right, true, PNone.NO_VALUE, getEquivalence());
+        }
+
+        @Specialization
+        public HashingStorage doLongKey(LongKeyStorage left, LongKeyStorage right) {
+            return left.filterKeys(right, true, PNone.NO_VALUE);
+        }
+
+        @Specialization
+        public HashingStorage doGeneric(HashingStorage left, HashingStorage right,
+                        @Cached("create()") ContainsKeyNode containsKeyNode,
+                        @Cached("create()") SetItemNode setItemNode) {
             HashingStorage newStorage = EconomicMapStorage.create(false);
             if (left.length() != 0 && right.length() != 0) {
-                if (containsKeyNode == null) {
-                    CompilerDirectives.transferToInterpreterAndInvalidate();
-                    containsKeyNode = insert(ContainsKeyNode.create());
-                }
-                if (setItemNode == null) {
-                    CompilerDirectives.transferToInterpreterAndInvalidate();
-                    setItemNode = insert(SetItemNode.create());
-                }
-
                 for (Object leftKey : left.keys()) {
                     if (containsKeyNode.execute(right, leftKey)) {
                         newStorage = setItemNode.execute(newStorage, leftKey, PNone.NO_VALUE);
@@ -1357,7 +1445,7 @@ public abstract class HashingStorageNodes {
         }
 
         public static IntersectNode create() {
-            return new IntersectNode();
+            return IntersectNodeGen.create();
         }
     }
 
@@ -1371,6 +1459,37 @@ public abstract class HashingStorageNodes {
 
         public abstract HashingStorage execute(HashingStorage left, HashingStorage right);
 
+        @Specialization(guards = "setUnion")
+        public HashingStorage doEconomicMapSet(EconomicMapStorage left, EconomicMapStorage right) {
+            EconomicMapStorage newStorage = EconomicMapStorage.create(setUnion);
+            newStorage.putAllKeys(left, PNone.NO_VALUE, getEquivalence());
+            newStorage.putAllKeys(right, PNone.NO_VALUE, getEquivalence());
+            return newStorage;
+        }
+
+        @Specialization(guards = "!setUnion")
+        public HashingStorage doEconomicMap(EconomicMapStorage left, EconomicMapStorage right) {
+            EconomicMapStorage newStorage = EconomicMapStorage.create(left, setUnion, getEquivalence());
+            newStorage.putAll(right, getEquivalence());
+            return newStorage;
+        }
+
+        @Specialization(guards = "setUnion")
+        public HashingStorage doLongKeySet(LongKeyStorage left, LongKeyStorage right) {
+            LongKeyStorage newStorage = new LongKeyStorage();
+            newStorage.putAllKeys(left, PNone.NO_VALUE);
+            newStorage.putAllKeys(right, PNone.NO_VALUE);
+            return newStorage;
+        }
+
+        @Specialization(guards = "!setUnion")
+        public HashingStorage doLongKey(LongKeyStorage left, LongKeyStorage right) {
+            LongKeyStorage newStorage = new LongKeyStorage();
+            newStorage.putAll(left);
+            newStorage.putAll(right);
+            return newStorage;
+        }
+
         @Specialization(guards = "setUnion")
         public HashingStorage doGenericSet(HashingStorage left, HashingStorage right) {
             EconomicMapStorage newStorage = EconomicMapStorage.create(setUnion);
@@ -1386,8 +1505,8 @@ public abstract class HashingStorageNodes {
         @Specialization(guards = "!setUnion")
         public HashingStorage doGeneric(HashingStorage left, HashingStorage right) {
             EconomicMapStorage newStorage = EconomicMapStorage.create(setUnion);
-            newStorage.addAll(left);
-            newStorage.addAll(right);
+            newStorage.addAll(left, getEquivalence());
+            newStorage.addAll(right, getEquivalence());
             return newStorage;
         }
 
@@ -1492,6 +1611,16 @@ public abstract class HashingStorageNodes {
             return left.copy(getEquivalence());
         }
 
+        @Specialization(guards = {"left.length() != 0", "right.length() != 0"})
+        public HashingStorage doEconomicMap(EconomicMapStorage left, EconomicMapStorage right) {
+            return left.filterKeys(right, false, PNone.NO_VALUE, getEquivalence());
+        }
+
+        @Specialization(guards = {"left.length() != 0", "right.length() != 0"})
+        public HashingStorage doLongKey(LongKeyStorage left, LongKeyStorage right) {
+            return left.filterKeys(right, false, PNone.NO_VALUE);
+        }
+
         @Specialization(guards = {"left.length() != 0", "right.length() != 0"})
         public HashingStorage doNonEmpty(HashingStorage left, HashingStorage right,
                         @Cached("create()") ContainsKeyNode containsKeyNode,
@@ -1513,7 +1642,7 @@ public abstract class HashingStorageNodes {
 
     public abstract static class LenNode extends PNodeWithContext {
 
-        protected static final int MAX_STORAGES = 8;
+        protected static final int MAX_STORAGES = 9;
 
         public abstract int execute(HashingStorage s);
 
@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.truffle.api.CompilerAsserts;
+
+/**
+ * Storage for dicts and sets whose keys are all Python ints that fit into a Java {@code long}.
+ *
+ * The keys are kept unboxed in the {@link #keys} array and the values in the parallel
+ * {@link #values} array, both in insertion order. Removing an entry puts {@code null} into the
+ * {@link #values} array; removed entries are dropped the next time the table is rebuilt.
+ *
+ * The open addressing {@link #table} with linear probing maps the mixed bits of a key to the entry
+ * number plus one, where 0 denotes a free slot and {@link #REMOVED} the slot of a removed entry.
+ * Looking up an int key therefore neither boxes it nor calls {@code __hash__} or {@code __eq__}.
+ *
+ * Storing any other key throws {@link UnmodifiableStorageException}, and
+ * {@link HashingStorageNodes.SetItemNode} generalizes to an {@link EconomicMapStorage}.
+ */
+public final class LongKeyStorage extends HashingStorage {
+
+    /**
+     * Initial size of the hash table. Must be a power of two.
+     */
+    private static final int INITIAL_TABLE_SIZE = 8;
+
+    /**
+     * Table slot of an entry that was removed.
+     */
+    private static final int REMOVED = -1;
+
+    private long[] keys;
+    private Object[] values;
+    private int[] table;
+
+    /**
+     * Number of entries in use, including removed entries.
+     */
+    private int usedEntries;
+
+    /**
+     * Number of entries that were not removed.
+     */
+    private int size;
+
+    public LongKeyStorage() {
+        init(INITIAL_TABLE_SIZE);
+    }
+
+    private LongKeyStorage(LongKeyStorage other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.table = other.table.clone();
+        this.usedEntries = other.usedEntries;
+        this.size = other.size;
+    }
+
+    private void init(int tableSize) {
+        keys = new long[maxEntries(tableSize)];
+        values = new Object[maxEntries(tableSize)];
+        table = new int[tableSize];
+        usedEntries = 0;
+        size = 0;
+    }
+
+    /**
+     * The table is never filled more than three quarters, so probing always ends at a free slot.
+     */
+    private static int maxEntries(int tableSize) {
+        return tableSize - (tableSize >> 2);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static Object box(long key) {
+        int intKey = (int) key;
+        if (intKey == key) {
+            return intKey;
+        }
+        return key;
+    }
+
+    private int find(long key) {
+        int mask = table.length - 1;
+        int i = mix(key) & mask;
+        while (true) {
+            int slot = table[i];
+            if (slot == 0) {
+                return -1;
+            } else if (slot != REMOVED && keys[slot - 1] == key) {
+                return slot - 1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Finds a key that is not necessarily a Java integer. Bools and integral floats are equal to
+     * the corresponding ints and strings never are. Any other key can only be equal to the int
+     * that is its hash, since ints hash to their own value, so that int is looked up and then
+     * compared with {@code eq}.
+     */
+    private int find(Object key, Equivalence eq) {
+        if (key instanceof Integer) {
+            return find((int) key);
+        } else if (key instanceof Long) {
+            return find((long) key);
+        } else if (key instanceof Boolean) {
+            return find((boolean) key ? 1 : 0);
+        } else if (key instanceof Double) {
+            double doubleKey = (double) key;
+            long longKey = (long) doubleKey;
+            // the cast saturates, but Long.MAX_VALUE itself is not representable as a double
+            if (longKey == doubleKey && longKey != Long.MAX_VALUE) {
+                return find(longKey);
+            }
+            return -1;
+        } else if (key instanceof String) {
+            return -1;
+        }
+        int index = find(eq.longHashCode(key));
+        if (index != -1 && eq.equals(box(keys[index]), key)) {
+            return index;
+        }
+        return -1;
+    }
+
+    private void insertSlot(long key, int entry) {
+        int mask = table.length - 1;
+        int i = mix(key) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry + 1;
+    }
+
+    /**
+     * Drops the removed entries and rebuilds the table, doubling its size until it is at most half
+     * full with {@code minSize} entries.
+     */
+    private void rehash(int minSize) {
+        int tableSize = table.length;
+        while (minSize * 2 > maxEntries(tableSize)) {
+            tableSize <<= 1;
+        }
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldUsedEntries = usedEntries;
+        init(tableSize);
+        for (int i = 0; i < oldUsedEntries; i++) {
+            if (oldValues[i] != null) {
+                keys[usedEntries] = oldKeys[i];
+                values[usedEntries] = oldValues[i];
+                insertSlot(oldKeys[i], usedEntries);
+                usedEntries++;
+            }
+        }
+        size = usedEntries;
+    }
+
+    public boolean hasKey(long key) {
+        return find(key) != -1;
+    }
+
+    public Object getItem(long key) {
+        int index = find(key);
+        return index == -1 ? null : values[index];
+    }
+
+    public void setItem(long key, Object value) {
+        assert value != null;
+        int index = find(key);
+        if (index != -1) {
+            values[index] = value;
+            return;
+        }
+        if (usedEntries == keys.length) {
+            rehash(size + 1);
+        }
+        keys[usedEntries] = key;
+        values[usedEntries] = value;
+        insertSlot(key, usedEntries);
+        usedEntries++;
+        size++;
+    }
+
+    public boolean remove(long key) {
+        int mask = table.length - 1;
+        int i = mix(key) & mask;
+        while (true) {
+            int slot = table[i];
+            if (slot == 0) {
+                return false;
+            } else if (slot != REMOVED && keys[slot - 1] == key) {
+                table[i] = REMOVED;
+                values[slot - 1] = null;
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        return find(key, eq) != -1;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        int index = find(key, eq);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (key instanceof Integer) {
+            setItem((int) key, value);
+        } else if (key instanceof Long) {
+            setItem((long) key, value);
+        } else {
+            throw UnmodifiableStorageException.INSTANCE;
+        }
+    }
+
+    @Override
+    public void addAll(HashingStorage other, Equivalence eq) {
+        // check all keys first, so that a failed generalization leaves this storage untouched
+        for (Object key : other.keys()) {
+            if (!(key instanceof Integer || key instanceof Long)) {
+                throw UnmodifiableStorageException.INSTANCE;
+            }
+        }
+        super.addAll(other, eq);
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        int index = find(key, eq);
+        if (index != -1) {
+            return remove(keys[index]);
+        }
+        return false;
+    }
+
+    /**
+     * Adds the entries of {@code other}, replacing the values of keys that already exist.
+     */
+    public void putAll(LongKeyStorage other) {
+        for (int i = 0; i < other.usedEntries; i++) {
+            if (other.values[i] != null) {
+                setItem(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the keys of {@code other} with the given value.
+     */
+    public void putAllKeys(LongKeyStorage other, Object value) {
+        for (int i = 0; i < other.usedEntries; i++) {
+            if (other.values[i] != null) {
+                setItem(other.keys[i], value);
+            }
+        }
+    }
+
+    /**
+     * Creates a new storage with the keys of this storage that are (or are not) contained in
+     * {@code other}, all mapped to the given value.
+     */
+    public LongKeyStorage filterKeys(LongKeyStorage other, boolean contained, Object value) {
+        LongKeyStorage result = new LongKeyStorage();
+        for (int i = 0; i < usedEntries; i++) {
+            if (values[i] != null && other.hasKey(keys[i]) == contained) {
+                result.setItem(keys[i], value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first entry at or after {@code index} that was not removed, or
+     * {@code -1} if there is none. The indices stay valid until the table is rebuilt on insertion.
+     */
+    public int nextEntryIndex(int index) {
+        int i = skipRemoved(Math.max(index, 0));
+        return i < usedEntries ? i : -1;
+    }
+
+    public Object getKeyAt(int index) {
+        return box(keys[index]);
+    }
+
+    public Object getValueAt(int index) {
+        return values[index];
+    }
+
+    private abstract class EntryIterator<T> implements Iterator<T> {
+
+        private int current = skipRemoved(0);
+
+        public boolean hasNext() {
+            return current < usedEntries;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = current;
+            current = skipRemoved(index + 1);
+            return get(index);
+        }
+
+        protected abstract T get(int index);
+    }
+
+    private int skipRemoved(int start) {
+        int i = start;
+        while (i < usedEntries && values[i] == null) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public Iterable<Object> keys() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntryIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return box(keys[index]);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntryIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return values[index];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<DictEntry> entries() {
+        return new Iterable<DictEntry>() {
+            public Iterator<DictEntry> iterator() {
+                return new EntryIterator<DictEntry>() {
+                    @Override
+                    protected DictEntry get(int index) {
+                        return new DictEntry(box(keys[index]), values[index]);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        init(INITIAL_TABLE_SIZE);
+    }
+
+    @Override
+    public HashingStorage copy(Equivalence eq) {
+        return new LongKeyStorage(this);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        StringBuilder builder = new StringBuilder("long(size=").append(size).append(", {");
+        String sep = "";
+        for (int i = 0; i < usedEntries; i++) {
+            if (values[i] != null) {
+                builder.append(sep).append("(").append(keys[i]).append(",").append(values[i]).append(")");
+                sep = ",";
+            }
+        }
+        return builder.append("})").toString();
+    }
+}
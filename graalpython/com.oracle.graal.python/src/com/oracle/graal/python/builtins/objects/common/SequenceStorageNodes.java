@@ -459,7 +459,7 @@ public abstract class SequenceStorageNodes {
 
     }
 
-    abstract static class GetItemScalarNode extends SequenceStorageBaseNode {
+    public abstract static class GetItemScalarNode extends SequenceStorageBaseNode {
 
         @Child private Node readNode;
         @Child private VerifyNativeItemNode verifyNativeItemNode;
@@ -799,7 +799,7 @@ public abstract class SequenceStorageNodes {
 
     }
 
-    abstract static class SetItemScalarNode extends SequenceStorageBaseNode {
+    public abstract static class SetItemScalarNode extends SequenceStorageBaseNode {
 
         @Child private Node writeNode;
         @Child private VerifyNativeItemNode verifyNativeItemNode;
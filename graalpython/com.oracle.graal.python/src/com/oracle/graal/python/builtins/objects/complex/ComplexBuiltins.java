@@ -69,6 +69,7 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -367,12 +368,28 @@ public class ComplexBuiltins extends PythonBuiltins {
 
     @GenerateNodeFactory
     @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     static abstract class EqNode extends PythonBinaryBuiltinNode {
         @Specialization
         boolean doComplex(PComplex left, PComplex right) {
             return left.equals(right);
         }
 
+        @Specialization
+        boolean doComplexDouble(PComplex left, double right) {
+            return left.getImag() == 0 && left.getReal() == right;
+        }
+
+        @Specialization
+        boolean doComplexLong(PComplex left, long right) {
+            return left.getImag() == 0 && left.getReal() == right;
+        }
+
+        @Specialization
+        boolean doComplexPInt(PComplex left, PInt right) {
+            return left.getImag() == 0 && left.getReal() == right.doubleValue();
+        }
+
         @SuppressWarnings("unused")
         @Fallback
         PNotImplemented doGeneric(Object left, Object right) {
@@ -442,12 +459,28 @@ public class ComplexBuiltins extends PythonBuiltins {
 
     @GenerateNodeFactory
     @Builtin(name = __NE__, fixedNumOfPositionalArgs = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     static abstract class NeNode extends PythonBinaryBuiltinNode {
         @Specialization
         boolean doComplex(PComplex left, PComplex right) {
             return left.notEqual(right);
         }
 
+        @Specialization
+        boolean doComplexDouble(PComplex left, double right) {
+            return left.getImag() != 0 || left.getReal() != right;
+        }
+
+        @Specialization
+        boolean doComplexLong(PComplex left, long right) {
+            return left.getImag() != 0 || left.getReal() != right;
+        }
+
+        @Specialization
+        boolean doComplexPInt(PComplex left, PInt right) {
+            return left.getImag() != 0 || left.getReal() != right.doubleValue();
+        }
+
         @SuppressWarnings("unused")
         @Fallback
         PNotImplemented doGeneric(Object left, Object right) {
@@ -532,11 +565,11 @@ public class ComplexBuiltins extends PythonBuiltins {
     @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
     static abstract class HashNode extends PythonUnaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        int hash(PComplex self) {
-            // just like CPython
-            int realHash = Double.hashCode(self.getReal());
-            int imagHash = Double.hashCode(self.getImag());
+        long hash(PComplex self) {
+            // just like CPython; since 0.0 hashes to 0, a complex with no imaginary part hashes
+            // like its real part, and thus like an equal float or int
+            long realHash = PFloat.hash(self.getReal());
+            long imagHash = PFloat.hash(self.getImag());
             return realHash + PComplex.IMAG_MULTIPLIER * imagHash;
         }
     }
@@ -0,0 +1,671 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REVERSED__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDeque)
+public class DequeBuiltins extends PythonBuiltins {
+
+    private static final String MUTATED_DURING_ITERATION = "deque mutated during iteration";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DequeBuiltinsFactory.getFactories();
+    }
+
+    @TruffleBoundary
+    private static DequeStorage generalize(PDeque deque, DequeStorage storage, Object value) {
+        DequeStorage generalized = storage.generalizeFor(value);
+        deque.setStorage(generalized);
+        return generalized;
+    }
+
+    /**
+     * Raises a {@code MemoryError} if the storage cannot take another element.
+     */
+    private static void checkCanGrow(PNodeWithContext node, DequeStorage storage) {
+        if (storage.length() >= DequeStorage.MAX_LENGTH) {
+            throw node.raise(MemoryError);
+        }
+    }
+
+    /**
+     * Appends a value on one end of a deque, generalizing its storage if necessary and discarding
+     * items from the other end if the deque is bounded and full.
+     */
+    static final class AppendNode extends PNodeWithContext {
+        private final boolean left;
+        private final ValueProfile storageProfile = ValueProfile.createClassProfile();
+        private final BranchProfile generalizeProfile = BranchProfile.create();
+        private final ConditionProfile fullProfile = ConditionProfile.createBinaryProfile();
+        private final BranchProfile outOfMemProfile = BranchProfile.create();
+
+        private AppendNode(boolean left) {
+            this.left = left;
+        }
+
+        void execute(PDeque deque, Object value) {
+            int maxLength = deque.getMaxLength();
+            if (maxLength == 0) {
+                return;
+            }
+            DequeStorage storage = storageProfile.profile(deque.getStorage());
+            if (!storage.canStore(value)) {
+                generalizeProfile.enter();
+                storage = storageProfile.profile(generalize(deque, storage, value));
+            }
+            if (fullProfile.profile(storage.length() == maxLength)) {
+                if (left) {
+                    storage.pop();
+                } else {
+                    storage.popLeft();
+                }
+            } else {
+                checkCanGrow(this, storage);
+            }
+            try {
+                if (left) {
+                    storage.appendLeft(value);
+                } else {
+                    storage.append(value);
+                }
+            } catch (OutOfMemoryError e) {
+                outOfMemProfile.enter();
+                throw raise(MemoryError);
+            }
+            deque.modified();
+        }
+
+        static AppendNode create(boolean left) {
+            return new AppendNode(left);
+        }
+    }
+
+    static final class ExtendNode extends PNodeWithContext {
+        @Child private GetIteratorNode getIterator = GetIteratorNode.create();
+        @Child private GetNextNode next = GetNextNode.create();
+        @Child private AppendNode append;
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+
+        private ExtendNode(boolean left) {
+            this.append = AppendNode.create(left);
+        }
+
+        void execute(PDeque deque, Object iterable) {
+            Object source = iterable;
+            if (source == deque) {
+                // iterate over a snapshot, the deque changes while we extend it
+                source = factory().createList(toArray(deque));
+            }
+            Object iterator = getIterator.executeWith(source);
+            while (true) {
+                Object value;
+                try {
+                    value = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return;
+                }
+                append.execute(deque, value);
+            }
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(PDeque deque) {
+            return deque.getStorage().toArray();
+        }
+
+        static ExtendNode create(boolean left) {
+            return new ExtendNode(left);
+        }
+    }
+
+    static final class ItemEqualsNode extends PNodeWithContext {
+        @Child private BinaryComparisonNode eqNode = BinaryComparisonNode.create(__EQ__, __EQ__, "==");
+        @Child private CastToBooleanNode castToBoolean = CastToBooleanNode.createIfTrueNode();
+
+        boolean execute(Object item, Object value) {
+            return item == value || castToBoolean.executeWith(eqNode.executeWith(item, value));
+        }
+
+        static ItemEqualsNode create() {
+            return new ItemEqualsNode();
+        }
+    }
+
+    static int normalizeIndex(PDeque deque, int index) {
+        return index < 0 ? index + deque.length() : index;
+    }
+
+    static int clampIndex(int index, int length) {
+        if (index < 0) {
+            return Math.max(0, index + length);
+        }
+        return Math.min(index, length);
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, keywordArguments = {"iterable", "maxlen"})
+    @GenerateNodeFactory
+    public abstract static class DequeInitNode extends PythonTernaryBuiltinNode {
+        @Child private ExtendNode extendNode;
+
+        @Specialization
+        PNone init(PDeque self, Object iterable, Object maxlen,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            int maxLength = -1;
+            if (!PGuards.isPNone(maxlen)) {
+                maxLength = castToIndex.execute(maxlen);
+                if (maxLength < 0) {
+                    throw raise(ValueError, "maxlen must be non-negative");
+                }
+            }
+            self.setMaxLength(maxLength);
+            if (self.length() > 0) {
+                self.clear();
+            }
+            if (!PGuards.isPNone(iterable)) {
+                if (extendNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    extendNode = insert(ExtendNode.create(false));
+                }
+                extendNode.execute(self, iterable);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // deque.append(x)
+    @Builtin(name = "append", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeAppendNode extends PythonBinaryBuiltinNode {
+        @Child private AppendNode appendNode = AppendNode.create(false);
+
+        @Specialization
+        PNone append(PDeque self, Object value) {
+            appendNode.execute(self, value);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.appendleft(x)
+    @Builtin(name = "appendleft", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeAppendLeftNode extends PythonBinaryBuiltinNode {
+        @Child private AppendNode appendNode = AppendNode.create(true);
+
+        @Specialization
+        PNone appendLeft(PDeque self, Object value) {
+            appendNode.execute(self, value);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.extend(iterable)
+    @Builtin(name = "extend", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeExtendNode extends PythonBinaryBuiltinNode {
+        @Child private ExtendNode extendNode = ExtendNode.create(false);
+
+        @Specialization
+        PNone extend(PDeque self, Object iterable) {
+            extendNode.execute(self, iterable);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.extendleft(iterable)
+    @Builtin(name = "extendleft", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeExtendLeftNode extends PythonBinaryBuiltinNode {
+        @Child private ExtendNode extendNode = ExtendNode.create(true);
+
+        @Specialization
+        PNone extendLeft(PDeque self, Object iterable) {
+            extendNode.execute(self, iterable);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.pop()
+    @Builtin(name = "pop", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequePopNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object pop(PDeque self,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            if (storage.length() == 0) {
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            Object value = storage.pop();
+            self.modified();
+            return value;
+        }
+    }
+
+    // deque.popleft()
+    @Builtin(name = "popleft", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequePopLeftNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object popLeft(PDeque self,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            if (storage.length() == 0) {
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            Object value = storage.popLeft();
+            self.modified();
+            return value;
+        }
+    }
+
+    // deque.clear()
+    @Builtin(name = "clear", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeClearNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone clear(PDeque self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    // deque.copy()
+    @Builtin(name = "copy", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeCopyNode extends PythonUnaryBuiltinNode {
+
+        @Specialization(guards = "isBuiltinDeque(self)")
+        PDeque copy(PDeque self) {
+            PDeque copy = factory().createDeque(self.getPythonClass());
+            copy.setMaxLength(self.getMaxLength());
+            copy.setStorage(copyStorage(self.getStorage()));
+            return copy;
+        }
+
+        @Specialization(guards = "!isBuiltinDeque(self)")
+        Object copySubclass(PDeque self,
+                        @Cached("create()") CallNode callNode) {
+            Object maxlen = self.getMaxLength() < 0 ? PNone.NONE : self.getMaxLength();
+            return callNode.execute(null, self.getPythonClass(), new Object[]{self, maxlen}, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        protected boolean isBuiltinDeque(PDeque self) {
+            return self.getPythonClass() == getCore().lookupType(PythonBuiltinClassType.PDeque);
+        }
+
+        @TruffleBoundary
+        private static DequeStorage copyStorage(DequeStorage storage) {
+            return storage.copy();
+        }
+    }
+
+    // deque.count(x)
+    @Builtin(name = "count", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeCountNode extends PythonBinaryBuiltinNode {
+        @Child private ItemEqualsNode equalsNode = ItemEqualsNode.create();
+
+        @Specialization
+        int count(PDeque self, Object value,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            int state = self.getState();
+            int length = self.length();
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                Object item = storageProfile.profile(self.getStorage()).getItem(i);
+                if (equalsNode.execute(item, value)) {
+                    count++;
+                }
+                if (self.getState() != state) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            return count;
+        }
+    }
+
+    // deque.__contains__(x)
+    @Builtin(name = __CONTAINS__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeContainsNode extends PythonBinaryBuiltinNode {
+        @Child private ItemEqualsNode equalsNode = ItemEqualsNode.create();
+
+        @Specialization
+        boolean contains(PDeque self, Object value,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            int state = self.getState();
+            int length = self.length();
+            for (int i = 0; i < length; i++) {
+                Object item = storageProfile.profile(self.getStorage()).getItem(i);
+                boolean equal = equalsNode.execute(item, value);
+                if (self.getState() != state) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+                if (equal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // deque.index(x, [start, [stop]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class DequeIndexNode extends PythonBuiltinNode {
+        @Child private ItemEqualsNode equalsNode = ItemEqualsNode.create();
+
+        @Specialization
+        int index(PDeque self, Object value, Object start, Object stop,
+                        @Cached("create()") CastToIndexNode castStart,
+                        @Cached("create()") CastToIndexNode castStop,
+                        @Cached("createClassProfile()") ValueProfile storageProfile,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            int length = self.length();
+            int from = PGuards.isPNone(start) ? 0 : clampIndex(castStart.execute(start), length);
+            int to = PGuards.isPNone(stop) ? length : clampIndex(castStop.execute(stop), length);
+            int state = self.getState();
+            for (int i = from; i < to; i++) {
+                Object item = storageProfile.profile(self.getStorage()).getItem(i);
+                boolean equal = equalsNode.execute(item, value);
+                if (self.getState() != state) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+                if (equal) {
+                    return i;
+                }
+            }
+            throw raise(ValueError, "%s is not in deque", reprNode.executeObject(value));
+        }
+    }
+
+    // deque.remove(x)
+    @Builtin(name = "remove", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeRemoveNode extends PythonBinaryBuiltinNode {
+        @Child private ItemEqualsNode equalsNode = ItemEqualsNode.create();
+
+        @Specialization
+        PNone remove(PDeque self, Object value,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            int length = self.length();
+            for (int i = 0; i < length; i++) {
+                Object item = storageProfile.profile(self.getStorage()).getItem(i);
+                boolean equal = equalsNode.execute(item, value);
+                if (self.length() != length) {
+                    throw raise(IndexError, "deque mutated during remove().");
+                }
+                if (equal) {
+                    storageProfile.profile(self.getStorage()).delItem(i);
+                    self.modified();
+                    return PNone.NONE;
+                }
+            }
+            throw raise(ValueError, "deque.remove(x): x not in deque");
+        }
+    }
+
+    // deque.insert(i, x)
+    @Builtin(name = "insert", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class DequeInsertNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone insert(PDeque self, Object index, Object value,
+                        @Cached("create()") CastToIndexNode castToIndex,
+                        @Cached("createClassProfile()") ValueProfile storageProfile,
+                        @Cached("create()") BranchProfile generalizeProfile,
+                        @Cached("create()") BranchProfile outOfMemProfile) {
+            int i = castToIndex.execute(index);
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            if (self.getMaxLength() == storage.length()) {
+                throw raise(IndexError, "deque already at its maximum size");
+            }
+            checkCanGrow(this, storage);
+            if (!storage.canStore(value)) {
+                generalizeProfile.enter();
+                storage = storageProfile.profile(generalize(self, storage, value));
+            }
+            try {
+                storage.insert(clampIndex(i, storage.length()), value);
+            } catch (OutOfMemoryError e) {
+                outOfMemProfile.enter();
+                throw raise(MemoryError);
+            }
+            self.modified();
+            return PNone.NONE;
+        }
+    }
+
+    // deque.reverse()
+    @Builtin(name = "reverse", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeReverseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone reverse(PDeque self,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            storageProfile.profile(self.getStorage()).reverse();
+            self.modified();
+            return PNone.NONE;
+        }
+    }
+
+    // deque.rotate(n=1)
+    @Builtin(name = "rotate", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeRotateNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone rotate(PDeque self, Object n,
+                        @Cached("createOverflow()") CastToIndexNode castToIndex,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            int steps = PGuards.isNoValue(n) ? 1 : castToIndex.execute(n);
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            int length = storage.length();
+            if (length <= 1) {
+                return PNone.NONE;
+            }
+            int halfLength = length >> 1;
+            if (steps > halfLength || steps < -halfLength) {
+                steps = Math.floorMod(steps, length);
+                if (steps > halfLength) {
+                    steps -= length;
+                }
+            }
+            storage.rotate(steps);
+            self.modified();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __LEN__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeLenNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        int len(PDeque self) {
+            return self.length();
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeGetItemNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object getItem(PDeque self, Object index,
+                        @Cached("create()") CastToIndexNode castToIndex,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            int i = normalizeIndex(self, castToIndex.execute(index));
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            if (i < 0 || i >= storage.length()) {
+                throw raise(IndexError, "deque index out of range");
+            }
+            return storage.getItem(i);
+        }
+    }
+
+    @Builtin(name = __SETITEM__, fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class DequeSetItemNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone setItem(PDeque self, Object index, Object value,
+                        @Cached("create()") CastToIndexNode castToIndex,
+                        @Cached("createClassProfile()") ValueProfile storageProfile,
+                        @Cached("create()") BranchProfile generalizeProfile) {
+            int i = normalizeIndex(self, castToIndex.execute(index));
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            if (i < 0 || i >= storage.length()) {
+                throw raise(IndexError, "deque index out of range");
+            }
+            if (!storage.canStore(value)) {
+                generalizeProfile.enter();
+                storage = storageProfile.profile(generalize(self, storage, value));
+            }
+            storage.setItem(i, value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DequeDelItemNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone delItem(PDeque self, Object index,
+                        @Cached("create()") CastToIndexNode castToIndex,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            int i = normalizeIndex(self, castToIndex.execute(index));
+            DequeStorage storage = storageProfile.profile(self.getStorage());
+            if (i < 0 || i >= storage.length()) {
+                throw raise(IndexError, "deque index out of range");
+            }
+            storage.delItem(i);
+            self.modified();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeIterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PDequeIterator iter(PDeque self) {
+            return factory().createDequeIterator(self);
+        }
+    }
+
+    @Builtin(name = __REVERSED__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DequeReversedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PDequeIterator reversed(PDeque self) {
+            return factory().createDequeReverseIterator(self);
+        }
+    }
+
+    @Builtin(name = "maxlen", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class DequeMaxLenNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object maxlen(PDeque self) {
+            int maxLength = self.getMaxLength();
+            return maxLength < 0 ? PNone.NONE : maxLength;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+/**
+ * Storage of a {@code collections.deque}. Elements are kept in fixed-size blocks which are
+ * arranged in a ring, so that appending and popping on both ends never moves elements around.
+ * Positions in the ring are virtual indices masked with the ring capacity; a block is allocated
+ * when the first element is written into it and dropped as soon as the last element leaves it.
+ * Subclasses decide how a block is represented (e.g. as {@code long[]} for deques of ints).
+ */
+public abstract class DequeStorage {
+
+    protected static final int BLOCK_SHIFT = 6;
+    protected static final int BLOCK_LENGTH = 1 << BLOCK_SHIFT;
+    protected static final int BLOCK_MASK = BLOCK_LENGTH - 1;
+
+    /* keeps the ring capacity (blocks.length * BLOCK_LENGTH) within the int range */
+    private static final int MAX_BLOCKS = 1 << (30 - BLOCK_SHIFT);
+
+    /**
+     * The maximum number of elements. The ring only grows when its blocks hold more than
+     * {@code (blocks.length - 1) * BLOCK_LENGTH} elements, so callers that refuse to add elements
+     * beyond this length never make it grow past {@link #MAX_BLOCKS}.
+     */
+    public static final int MAX_LENGTH = (MAX_BLOCKS - 1) << BLOCK_SHIFT;
+
+    /** The ring of blocks. Its length is always a power of two, unused slots are {@code null}. */
+    private Object[] blocks;
+    /** Ring position of the leftmost element. */
+    private int head;
+    private int length;
+
+    protected DequeStorage() {
+        this.blocks = new Object[1];
+        // start in the middle of the first block so that both ends have room to grow
+        this.head = BLOCK_LENGTH / 2;
+    }
+
+    protected abstract Object createBlock();
+
+    protected abstract Object getInBlock(Object block, int offset);
+
+    protected abstract void setInBlock(Object block, int offset, Object value);
+
+    /**
+     * Drops the value at the given offset so that it can be collected. Only needed for blocks that
+     * hold references.
+     */
+    protected void clearInBlock(@SuppressWarnings("unused") Object block, @SuppressWarnings("unused") int offset) {
+    }
+
+    /**
+     * Creates a new, empty storage of the same kind.
+     */
+    protected abstract DequeStorage createEmpty();
+
+    public abstract boolean canStore(Object value);
+
+    /**
+     * Returns a storage with the same contents as this one that is also able to store
+     * {@code value}.
+     */
+    public DequeStorage generalizeFor(@SuppressWarnings("unused") Object value) {
+        return copyInto(new ObjectDequeStorage());
+    }
+
+    public final int length() {
+        return length;
+    }
+
+    private int capacityMask() {
+        return (blocks.length << BLOCK_SHIFT) - 1;
+    }
+
+    private int position(int index) {
+        return (head + index) & capacityMask();
+    }
+
+    private Object blockAt(int position) {
+        return blocks[position >>> BLOCK_SHIFT];
+    }
+
+    private static boolean sameBlock(int position1, int position2) {
+        return (position1 >>> BLOCK_SHIFT) == (position2 >>> BLOCK_SHIFT);
+    }
+
+    private void ensureBlock(int position) {
+        int blockIndex = position >>> BLOCK_SHIFT;
+        if (blocks[blockIndex] == null) {
+            blocks[blockIndex] = createBlock();
+        }
+    }
+
+    /**
+     * Doubles the ring, unrolling it such that the block holding the head becomes the first block.
+     */
+    private void grow() {
+        int n = blocks.length;
+        assert n < MAX_BLOCKS : "callers must not exceed MAX_LENGTH";
+        Object[] newBlocks = new Object[n << 1];
+        int first = head >>> BLOCK_SHIFT;
+        for (int i = 0; i < n; i++) {
+            newBlocks[i] = blocks[(first + i) & (n - 1)];
+        }
+        blocks = newBlocks;
+        head &= BLOCK_MASK;
+    }
+
+    /**
+     * Returns the item at {@code index}, which must be in range {@code [0, length)}.
+     */
+    public final Object getItem(int index) {
+        assert 0 <= index && index < length;
+        int pos = position(index);
+        return getInBlock(blockAt(pos), pos & BLOCK_MASK);
+    }
+
+    /**
+     * Replaces the item at {@code index}. The caller must ensure that {@link #canStore} holds.
+     */
+    public final void setItem(int index, Object value) {
+        assert 0 <= index && index < length;
+        int pos = position(index);
+        setInBlock(blockAt(pos), pos & BLOCK_MASK, value);
+    }
+
+    public final void append(Object value) {
+        int pos = position(length);
+        if (length > 0 && (pos & BLOCK_MASK) == 0 && sameBlock(pos, head)) {
+            // the tail would run into the block holding the head
+            grow();
+            pos = position(length);
+        }
+        ensureBlock(pos);
+        setInBlock(blockAt(pos), pos & BLOCK_MASK, value);
+        length++;
+    }
+
+    public final void appendLeft(Object value) {
+        int pos = (head - 1) & capacityMask();
+        if (length > 0 && (pos & BLOCK_MASK) == BLOCK_MASK && sameBlock(pos, position(length - 1))) {
+            // the head would run into the block holding the tail
+            grow();
+            pos = (head - 1) & capacityMask();
+        }
+        ensureBlock(pos);
+        setInBlock(blockAt(pos), pos & BLOCK_MASK, value);
+        head = pos;
+        length++;
+    }
+
+    public final Object pop() {
+        assert length > 0;
+        int pos = position(length - 1);
+        Object block = blockAt(pos);
+        Object value = getInBlock(block, pos & BLOCK_MASK);
+        clearInBlock(block, pos & BLOCK_MASK);
+        length--;
+        if ((pos & BLOCK_MASK) == 0 && length > 0 && !sameBlock(pos, head)) {
+            blocks[pos >>> BLOCK_SHIFT] = null;
+        }
+        return value;
+    }
+
+    public final Object popLeft() {
+        assert length > 0;
+        int pos = head;
+        Object block = blockAt(pos);
+        Object value = getInBlock(block, pos & BLOCK_MASK);
+        clearInBlock(block, pos & BLOCK_MASK);
+        length--;
+        head = (pos + 1) & capacityMask();
+        if ((head & BLOCK_MASK) == 0 && length > 0 && !sameBlock(pos, head)) {
+            blocks[pos >>> BLOCK_SHIFT] = null;
+        }
+        return value;
+    }
+
+    public final void reverse() {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            Object tmp = getItem(i);
+            setItem(i, getItem(j));
+            setItem(j, tmp);
+        }
+    }
+
+    /**
+     * Rotates {@code n} steps to the right, or to the left if {@code n} is negative. The caller is
+     * expected to have reduced {@code n} to at most half of the length.
+     */
+    public final void rotate(int n) {
+        for (int i = 0; i < n; i++) {
+            appendLeft(pop());
+        }
+        for (int i = 0; i > n; i--) {
+            append(popLeft());
+        }
+    }
+
+    /**
+     * Removes the item at {@code index}, shifting the shorter side of the deque.
+     */
+    public final void delItem(int index) {
+        assert 0 <= index && index < length;
+        if (index < length >> 1) {
+            for (int i = index; i > 0; i--) {
+                setItem(i, getItem(i - 1));
+            }
+            popLeft();
+        } else {
+            for (int i = index; i < length - 1; i++) {
+                setItem(i, getItem(i + 1));
+            }
+            pop();
+        }
+    }
+
+    /**
+     * Inserts {@code value} before {@code index}, shifting the shorter side of the deque. The
+     * caller must ensure that {@link #canStore} holds.
+     */
+    public final void insert(int index, Object value) {
+        assert 0 <= index && index <= length;
+        if (index < length >> 1) {
+            appendLeft(value);
+            for (int i = 0; i < index; i++) {
+                setItem(i, getItem(i + 1));
+            }
+        } else {
+            append(value);
+            for (int i = length - 1; i > index; i--) {
+                setItem(i, getItem(i - 1));
+            }
+        }
+        setItem(index, value);
+    }
+
+    public final DequeStorage copy() {
+        return copyInto(createEmpty());
+    }
+
+    public final Object[] toArray() {
+        Object[] result = new Object[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = getItem(i);
+        }
+        return result;
+    }
+
+    protected final DequeStorage copyInto(DequeStorage target) {
+        for (int i = 0; i < length; i++) {
+            target.append(getItem(i));
+        }
+        return target;
+    }
+}
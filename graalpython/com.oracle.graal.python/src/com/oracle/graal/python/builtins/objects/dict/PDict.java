@@ -25,6 +25,9 @@
  */
 package com.oracle.graal.python.builtins.objects.dict;
 
+import java.util.Iterator;
+
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.FastDictStorage;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
@@ -37,11 +40,21 @@ import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public final class PDict extends PHashingCollection {
 
     private HashingStorage dictStorage;
 
+    /**
+     * The entry iterator of the last {@link #getEntry} call, the storage and length it was created
+     * for, and the position of the entry it returns next.
+     */
+    private Iterator<DictEntry> entryIterator;
+    private HashingStorage entryIteratorStorage;
+    private int entryIteratorLength;
+    private long entryIteratorPosition;
+
     public PDict(PythonClass cls, HashingStorage dictStorage) {
         super(cls);
         this.dictStorage = dictStorage;
@@ -65,7 +78,14 @@ public final class PDict extends PHashingCollection {
         try {
             dictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
         } catch (UnmodifiableStorageException e) {
-            HashingStorage newDictStorage = createNewStorage(key instanceof String, size() + 1);
+            HashingStorage newDictStorage;
+            if (dictStorage.length() == 0) {
+                newDictStorage = createNewStorage(key instanceof String, 1);
+            } else {
+                // keep the existing entries, e.g. the int keys of a LongKeyStorage
+                newDictStorage = EconomicMapStorage.create(size() + 1, false);
+                newDictStorage.addAll(dictStorage, PythonLanguage.getContextRef().get().getSlowPathEquivalence());
+            }
             newDictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
             dictStorage = newDictStorage;
         }
@@ -89,6 +109,30 @@ public final class PDict extends PHashingCollection {
         }
     }
 
+    /**
+     * Returns the entry at {@code position} in iteration order, or {@code null} if there is none.
+     * Consecutive positions continue the previous iteration, so that a C loop over
+     * {@code PyDict_Next} stays linear for storages that cannot be indexed directly.
+     */
+    @TruffleBoundary
+    public DictEntry getEntry(long position) {
+        if (position < 0 || position >= dictStorage.length()) {
+            return null;
+        }
+        if (entryIterator == null || entryIteratorStorage != dictStorage || entryIteratorLength != dictStorage.length() || entryIteratorPosition > position) {
+            entryIterator = dictStorage.entries().iterator();
+            entryIteratorStorage = dictStorage;
+            entryIteratorLength = dictStorage.length();
+            entryIteratorPosition = 0;
+        }
+        while (entryIteratorPosition < position) {
+            entryIterator.next();
+            entryIteratorPosition++;
+        }
+        entryIteratorPosition++;
+        return entryIterator.next();
+    }
+
     @Override
     public void setDictStorage(HashingStorage newStorage) {
         dictStorage = newStorage;
@@ -35,6 +35,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETFORMAT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
@@ -219,6 +220,40 @@ public final class FloatBuiltins extends PythonBuiltins {
         }
     }
 
+    /**
+     * Integral floats hash like the int they are equal to, so that they find the same dict entries.
+     */
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+
+        @Specialization(guards = {"fitLongExactly(self)", "isIntegral(self)"})
+        long doIntegral(double self) {
+            return (long) self;
+        }
+
+        @Specialization(guards = {"!fitLongExactly(self)", "isIntegral(self)"})
+        @TruffleBoundary
+        long doLargeIntegral(double self) {
+            return new BigDecimal(self).toBigInteger().longValue();
+        }
+
+        @Specialization(guards = "!isIntegral(self)")
+        int doFraction(double self) {
+            return Double.hashCode(self);
+        }
+
+        protected static boolean isIntegral(double value) {
+            return !Double.isInfinite(value) && Math.rint(value) == value;
+        }
+
+        protected static boolean fitLongExactly(double value) {
+            // 2 ** 63 is not a long, but would be cast to Long.MAX_VALUE
+            return -0x1p63 <= value && value < 0x1p63;
+        }
+    }
+
     @Builtin(name = __INT__, fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @ImportStatic(MathGuards.class)
@@ -25,6 +25,8 @@
  */
 package com.oracle.graal.python.builtins.objects.floats;
 
+import java.math.BigDecimal;
+
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -67,6 +69,25 @@ public class PFloat extends PythonBuiltinObject {
         return new PFloat(cls, value);
     }
 
+    /**
+     * The Python hash of a float. Integral values hash like the equal int, i.e., to their value or
+     * its lowest 64 bits, so that equal ints, floats and complex numbers find each other in dicts
+     * and sets.
+     */
+    public static long hash(double value) {
+        if (Double.isInfinite(value) || Math.rint(value) != value) {
+            return Double.hashCode(value);
+        } else if (-0x1p63 <= value && value < 0x1p63) {
+            return (long) value;
+        }
+        return hashLargeIntegral(value);
+    }
+
+    @TruffleBoundary
+    private static long hashLargeIntegral(double value) {
+        return new BigDecimal(value).toBigInteger().longValue();
+    }
+
     @TruffleBoundary
     public static String doubleToString(double item) {
         String d = Double.toString(item);
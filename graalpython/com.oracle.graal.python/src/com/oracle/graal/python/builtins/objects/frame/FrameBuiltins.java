@@ -39,6 +39,8 @@ import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetDictNode;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -58,12 +60,13 @@ public final class FrameBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class GetGlobalsNode extends PythonBuiltinNode {
         @Specialization
-        Object get(PFrame self) {
+        Object get(PFrame self,
+                        @Cached("create()") GetDictNode getDictNode) {
             Frame frame = self.getFrame();
             if (frame != null) {
                 PythonObject globals = PArguments.getGlobals(frame);
                 if (globals instanceof PythonModule) {
-                    return factory().createDictFixedStorage(globals);
+                    return getDictNode.execute(globals);
                 } else {
                     return globals;
                 }
@@ -104,6 +107,9 @@ public final class FrameBuiltins extends PythonBuiltins {
     public abstract static class GetTraceNode extends PythonBuiltinNode {
         @Specialization
         Object get(PFrame self) {
+            if (self.getException() == null) {
+                return PNone.NONE;
+            }
             PTraceback traceback = self.getException().getTraceback(factory(), self.getIndex());
             if (traceback == null) {
                 return PNone.NONE;
@@ -144,6 +150,10 @@ public final class FrameBuiltins extends PythonBuiltins {
     public abstract static class GetBackrefNode extends PythonBuiltinNode {
         @Specialization
         Object get(PFrame self) {
+            if (self.getException() == null) {
+                PFrame back = self.getBack();
+                return back == null ? PNone.NONE : back;
+            }
             PTraceback traceback = self.getException().getTraceback(factory(), self.getIndex() + 1);
             if (traceback == null) {
                 return PNone.NONE;
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.frame;
+
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PRootNode;
+import com.oracle.graal.python.nodes.function.BuiltinFunctionRootNode;
+import com.oracle.graal.python.nodes.function.ClassBodyRootNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public abstract class FrameNodes {
+
+    /**
+     * Only frames of Python code are visible as {@code frame} objects. Builtin functions and
+     * top-level handlers are skipped, just like they are left out of tracebacks.
+     */
+    static boolean isPythonFrame(FrameInstance frameInstance) {
+        RootNode rootNode = ((RootCallTarget) frameInstance.getCallTarget()).getRootNode();
+        return rootNode instanceof PRootNode && !(rootNode instanceof BuiltinFunctionRootNode);
+    }
+
+    static PFrame getOrCreatePFrame(PythonObjectFactory factory, FrameInstance frameInstance, Frame frame) {
+        PFrame pFrame = PArguments.getPFrame(frame);
+        if (pFrame == null) {
+            RootNode rootNode = ((RootCallTarget) frameInstance.getCallTarget()).getRootNode();
+            Node location = frameInstance.getCallNode();
+            pFrame = factory.createPFrame(frame, location != null ? location : rootNode, rootNode instanceof ClassBodyRootNode);
+            PArguments.setPFrame(frame, pFrame);
+        }
+        return pFrame;
+    }
+
+    /**
+     * Returns the {@link PFrame} for the Python frame {@code depth} levels up the stack, where 0
+     * is the Python code calling the builtin this node belongs to. The frames are found by walking
+     * the Truffle stack, so no exception has to be thrown and reified for that. Frames from the
+     * requested one downwards are linked through {@link PFrame#getBack()} until a frame is reached
+     * that was already linked before. Returns {@code null} if the stack is not deep enough.
+     */
+    public static final class GetFrameAtDepthNode extends PNodeWithContext {
+
+        public static GetFrameAtDepthNode create() {
+            return new GetFrameAtDepthNode();
+        }
+
+        @TruffleBoundary
+        public PFrame execute(int depth) {
+            PythonObjectFactory factory = factory();
+            PFrame[] result = new PFrame[1];
+            PFrame last = Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<PFrame>() {
+                int level = 0;
+                PFrame previous = null;
+
+                public PFrame visitFrame(FrameInstance frameInstance) {
+                    if (!isPythonFrame(frameInstance) || level++ < depth) {
+                        return null;
+                    }
+                    Frame frame = frameInstance.getFrame(FrameAccess.MATERIALIZE);
+                    PFrame pFrame = getOrCreatePFrame(factory, frameInstance, frame);
+                    if (previous == null) {
+                        result[0] = pFrame;
+                    } else {
+                        previous.setBack(pFrame);
+                    }
+                    if (pFrame.isBackLinked() || pFrame.getException() != null) {
+                        // the rest of the chain is already known
+                        return pFrame;
+                    }
+                    previous = pFrame;
+                    return null;
+                }
+            });
+            if (last == null && result[0] != null) {
+                // we reached the bottom of the stack, mark the outermost frame as linked
+                PFrame bottom = result[0];
+                while (bottom.getBack() != null) {
+                    bottom = bottom.getBack();
+                }
+                bottom.setBack(null);
+            }
+            return result[0];
+        }
+    }
+
+    /**
+     * Returns the {@link PFrame} for a frame that is currently on the stack, for example the
+     * caller frame of a builtin as obtained by a
+     * {@link com.oracle.graal.python.nodes.frame.ReadCallerFrameNode}. A frame object that was
+     * created before is read directly from the {@link PArguments} of the frame, only a frame
+     * without one has to be looked up on the stack to find its code.
+     */
+    public static final class GetPFrameNode extends PNodeWithContext {
+
+        public static GetPFrameNode create() {
+            return new GetPFrameNode();
+        }
+
+        public PFrame execute(Frame frame) {
+            PFrame pFrame = PArguments.getPFrame(frame);
+            if (pFrame == null) {
+                return createPFrame(frame);
+            }
+            return pFrame;
+        }
+
+        @TruffleBoundary
+        private PFrame createPFrame(Frame frame) {
+            PythonObjectFactory factory = factory();
+            Object[] arguments = frame.getArguments();
+            PFrame pFrame = Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<PFrame>() {
+                public PFrame visitFrame(FrameInstance frameInstance) {
+                    if (isPythonFrame(frameInstance) && frameInstance.getFrame(FrameAccess.READ_ONLY).getArguments() == arguments) {
+                        return getOrCreatePFrame(factory, frameInstance, frame);
+                    }
+                    return null;
+                }
+            });
+            if (pFrame == null) {
+                pFrame = factory.createPFrame(frame, null, false);
+                PArguments.setPFrame(frame, pFrame);
+            }
+            return pFrame;
+        }
+    }
+}
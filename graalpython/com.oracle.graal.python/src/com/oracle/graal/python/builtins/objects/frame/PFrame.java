@@ -67,6 +67,13 @@ public final class PFrame extends PythonBuiltinObject {
     private final Node location;
     private int line = -2;
 
+    /**
+     * The calling frame of a frame obtained by walking the stack (see {@link FrameNodes}). Frames
+     * that belong to an exception find their caller through the exception's stack trace instead.
+     */
+    private PFrame back;
+    private boolean backLinked;
+
     public PFrame(PythonClass cls, PBaseException exception, int index) {
         super(cls);
         this.exception = exception;
@@ -78,6 +85,15 @@ public final class PFrame extends PythonBuiltinObject {
         this.inClassScope = truffleStackTraceElement.getTarget().getRootNode() instanceof ClassBodyRootNode;
     }
 
+    public PFrame(PythonClass cls, Frame frame, Node location, boolean inClassScope) {
+        super(cls);
+        this.exception = null;
+        this.index = -1;
+        this.frame = frame;
+        this.location = location;
+        this.inClassScope = inClassScope;
+    }
+
     public PFrame(PythonClass cls, @SuppressWarnings("unused") Object threadState, PCode code, PythonObject globals, Object locals) {
         super(cls);
         this.exception = null;
@@ -107,6 +123,23 @@ public final class PFrame extends PythonBuiltinObject {
         return frame;
     }
 
+    public PFrame getBack() {
+        return back;
+    }
+
+    /**
+     * Whether the calling frame is known. Only the bottom-most frame of the stack is linked to a
+     * {@code null} back frame.
+     */
+    public boolean isBackLinked() {
+        return backLinked;
+    }
+
+    public void setBack(PFrame back) {
+        this.back = back;
+        this.backLinked = true;
+    }
+
     public PDict getLocalsDict() {
         return localsDict;
     }
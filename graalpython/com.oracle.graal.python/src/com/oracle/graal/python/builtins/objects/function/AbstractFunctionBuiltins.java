@@ -61,6 +61,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetDictNode;
 import com.oracle.graal.python.nodes.subscript.GetItemNode;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
@@ -154,9 +155,13 @@ public class AbstractFunctionBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class GetGlobalsNode extends PythonBuiltinNode {
         @Specialization(guards = "!isBuiltinFunction(self)")
-        Object getGlobals(PFunction self) {
-            // see the make_globals_function from lib-graalpython/functions.py
-            return self.getGlobals();
+        Object getGlobals(PFunction self,
+                        @Cached("create()") GetDictNode getDictNode) {
+            PythonObject globals = self.getGlobals();
+            if (globals instanceof PythonModule) {
+                return getDictNode.execute(globals);
+            }
+            return globals;
         }
 
         @SuppressWarnings("unused")
@@ -30,7 +30,6 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DEFAULTS__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__NAME__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -41,7 +40,6 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltinsFactory.GetFunctionDefaultsNodeFactory;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
-import com.oracle.graal.python.nodes.argument.ReadKeywordNode;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -57,7 +55,6 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
-import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PFunction)
@@ -140,27 +137,12 @@ public class FunctionBuiltins extends PythonBuiltins {
     public abstract static class GetFunctionDefaultsNode extends PythonBinaryBuiltinNode {
         protected final ConditionProfile nullDefaultsProfile = ConditionProfile.createBinaryProfile();
 
-        @TruffleBoundary
-        private static Object[] extractDefaults(PFunction function) {
-            List<Object> defaultValues = new ArrayList<>();
-            List<ReadKeywordNode> readKeywordNodes = NodeUtil.findAllNodeInstances(function.getFunctionRootNode(), ReadKeywordNode.class);
-            for (ReadKeywordNode readKeywordNode : readKeywordNodes) {
-                Object defaultValue = readKeywordNode.getDefaultValue();
-                if (defaultValue != null) {
-                    defaultValues.add(defaultValue);
-                }
-            }
-            return defaultValues.toArray();
-        }
-
         private Object getDefaults(PFunction function) {
             Object[] defaults = function.getDefaults();
-            if (nullDefaultsProfile.profile(defaults == null)) {
-                defaults = extractDefaults(function);
+            if (nullDefaultsProfile.profile(defaults == null || defaults.length == 0)) {
+                return PNone.NONE;
             }
-
-            assert defaults != null;
-            return (defaults.length == 0) ? PNone.NONE : factory().createTuple(defaults);
+            return factory().createTuple(defaults);
         }
 
         @Specialization
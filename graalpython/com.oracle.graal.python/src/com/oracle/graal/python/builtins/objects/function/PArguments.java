@@ -52,6 +52,8 @@ import com.oracle.truffle.api.frame.VirtualFrame;
  *                            +-------------------+
  * INDEX_CLOSURE           -> | PCell[]           |
  *                            +-------------------+
+ * INDEX_DEFAULTS          -> | Object[]          |
+ *                            +-------------------+
  * USER_ARGUMENTS          -> | arg_0             |
  *                            | arg_1             |
  *                            | ...               |
@@ -81,7 +83,8 @@ public final class PArguments {
     public static final int INDEX_GLOBALS_ARGUMENT = 4;
     public static final int INDEX_PFRAME_ARGUMENT = 5;
     public static final int INDEX_CLOSURE = 6;
-    public static final int USER_ARGUMENTS_OFFSET = 7;
+    public static final int INDEX_DEFAULTS = 7;
+    public static final int USER_ARGUMENTS_OFFSET = 8;
 
     private static PFrame[] getPFrameWrapper() {
         // this is needed to bypass the fact that PFrame instances get a READONLY frame which will
@@ -91,7 +94,7 @@ public final class PArguments {
     }
 
     private static Object[] iInitArguments() {
-        return new Object[]{PKeyword.EMPTY_KEYWORDS, null, null, null, null, getPFrameWrapper(), null};
+        return new Object[]{PKeyword.EMPTY_KEYWORDS, null, null, null, null, getPFrameWrapper(), null, null};
     }
 
     public static Object[] withGlobals(PythonObject globals) {
@@ -163,6 +166,14 @@ public final class PArguments {
         return (PCell[]) frame.getArguments()[INDEX_CLOSURE];
     }
 
+    public static void setDefaults(Object[] arguments, Object[] defaults) {
+        arguments[INDEX_DEFAULTS] = defaults;
+    }
+
+    public static Object[] getDefaults(Frame frame) {
+        return (Object[]) frame.getArguments()[INDEX_DEFAULTS];
+    }
+
     public static void setArgument(Object[] arguments, int index, Object value) {
         arguments[USER_ARGUMENTS_OFFSET + index] = value;
     }
@@ -138,6 +138,7 @@ public class PFunction extends PythonObject implements PythonCallable {
         return enclosingClassName;
     }
 
+    @Override
     public Object[] getDefaults() {
         return defaults;
     }
@@ -34,13 +34,13 @@ import com.oracle.truffle.api.frame.FrameDescriptor;
 public final class PGeneratorFunction extends PFunction {
 
     public static PGeneratorFunction create(PythonClass clazz, String name, String enclosingClassName, Arity arity, RootCallTarget callTarget,
-                    FrameDescriptor frameDescriptor, PythonObject globals, PCell[] closure) {
-        return new PGeneratorFunction(clazz, name, enclosingClassName, arity, callTarget, frameDescriptor, globals, closure);
+                    FrameDescriptor frameDescriptor, PythonObject globals, Object[] defaults, PCell[] closure) {
+        return new PGeneratorFunction(clazz, name, enclosingClassName, arity, callTarget, frameDescriptor, globals, defaults, closure);
     }
 
     public PGeneratorFunction(PythonClass clazz, String name, String enclosingClassName, Arity arity, RootCallTarget callTarget,
-                    FrameDescriptor frameDescriptor, PythonObject globals, PCell[] closure) {
-        super(clazz, name, enclosingClassName, arity, callTarget, frameDescriptor, globals, closure);
+                    FrameDescriptor frameDescriptor, PythonObject globals, Object[] defaults, PCell[] closure) {
+        super(clazz, name, enclosingClassName, arity, callTarget, frameDescriptor, globals, defaults, closure);
     }
 
     @Override
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.function;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPartial)
+public class PartialBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PartialBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Returns the frozen keywords updated with the given ones, without going through a dict. A
+     * given keyword replaces a frozen keyword of the same name.
+     */
+    @TruffleBoundary
+    public static PKeyword[] mergeKeywords(PKeyword[] frozen, PKeyword[] given) {
+        PKeyword[] result = new PKeyword[frozen.length + given.length];
+        int length = 0;
+        outer: for (PKeyword keyword : frozen) {
+            for (PKeyword replacement : given) {
+                if (keyword.getName().equals(replacement.getName())) {
+                    continue outer;
+                }
+            }
+            result[length++] = keyword;
+        }
+        System.arraycopy(given, 0, result, length, given.length);
+        length += given.length;
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    public static Object[] concatArguments(Object[] frozen, Object[] given) {
+        Object[] result = new Object[frozen.length + given.length];
+        System.arraycopy(frozen, 0, result, 0, frozen.length);
+        System.arraycopy(given, 0, result, frozen.length, given.length);
+        return result;
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class PartialCallNode extends PythonVarargsBuiltinNode {
+        @Child private CallNode callNode = CallNode.create();
+
+        private final ConditionProfile noArgumentsProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile noFrozenKeywordsProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile noKeywordsProfile = ConditionProfile.createBinaryProfile();
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            if (arguments.length == 0) {
+                throw new VarargsBuiltinDirectInvocationNotSupported();
+            }
+            return execute(frame, arguments[0], Arrays.copyOfRange(arguments, 1, arguments.length), keywords);
+        }
+
+        @Specialization
+        protected Object call(VirtualFrame frame, PPartial self, Object[] arguments, PKeyword[] keywords) {
+            Object[] frozenArguments = self.getArguments();
+            Object[] callArguments = noArgumentsProfile.profile(arguments.length == 0) ? frozenArguments : concatArguments(frozenArguments, arguments);
+            PKeyword[] frozenKeywords = self.getKeywords();
+            PKeyword[] callKeywords;
+            if (noFrozenKeywordsProfile.profile(frozenKeywords.length == 0)) {
+                callKeywords = keywords;
+            } else if (noKeywordsProfile.profile(keywords.length == 0)) {
+                callKeywords = frozenKeywords;
+            } else {
+                callKeywords = mergeKeywords(frozenKeywords, keywords);
+            }
+            return callNode.execute(frame, self.getFunction(), callArguments, callKeywords);
+        }
+    }
+
+    @Builtin(name = "func", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class FuncNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object func(PPartial self) {
+            return self.getFunction();
+        }
+    }
+
+    @Builtin(name = "args", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple args(PPartial self) {
+            return factory().createTuple(self.getArguments());
+        }
+    }
+
+    @Builtin(name = "keywords", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class KeywordsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDict keywords(PPartial self) {
+            return factory().createDict(self.getKeywords());
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object repr(PPartial self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            StringBuilder sb = new StringBuilder();
+            append(sb, "functools.partial(");
+            append(sb, reprNode.executeObject(self.getFunction()));
+            for (Object argument : self.getArguments()) {
+                append(sb, ", ");
+                append(sb, reprNode.executeObject(argument));
+            }
+            for (PKeyword keyword : self.getKeywords()) {
+                append(sb, ", ");
+                append(sb, keyword.getName());
+                append(sb, "=");
+                append(sb, reprNode.executeObject(keyword.getValue()));
+            }
+            append(sb, ")");
+            return toString(sb);
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static void append(StringBuilder sb, Object o) {
+            sb.append(o);
+        }
+
+        @TruffleBoundary
+        private static String toString(StringBuilder sb) {
+            return sb.toString();
+        }
+    }
+}
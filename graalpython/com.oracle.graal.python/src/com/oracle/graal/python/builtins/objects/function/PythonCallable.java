@@ -53,6 +53,10 @@ public interface PythonCallable {
         return null;
     }
 
+    default Object[] getDefaults() {
+        return null;
+    }
+
     default boolean isGeneratorFunction() {
         return false;
     }
@@ -27,6 +27,8 @@ package com.oracle.graal.python.builtins.objects.generator;
 
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.GeneratorExit;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
@@ -40,6 +42,8 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.generator.GeneratorNodes.GeneratorNextNode;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
@@ -48,24 +52,35 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.exception.PException;
-import com.oracle.truffle.api.CallTarget;
-import com.oracle.truffle.api.RootCallTarget;
-import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.DirectCallNode;
-import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
-@CoreFunctions(extendClasses = PythonBuiltinClassType.PGenerator)
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PGenerator, PythonBuiltinClassType.PCoroutine})
 public class GeneratorBuiltins extends PythonBuiltins {
 
-    private static Object resumeGenerator(PGenerator self) {
+    private static Object resumeGenerator(PythonBuiltinBaseNode node, PGenerator self) {
+        if (self.isFinished()) {
+            Object specialArgument = PArguments.getSpecialArgument(self.getArguments());
+            PArguments.setSpecialArgument(self.getArguments(), null);
+            if (specialArgument instanceof PException) {
+                throw (PException) specialArgument;
+            }
+            throw node.raise(StopIteration);
+        }
         try {
-            return self.getCallTarget().call(self.getArguments());
+            Object result = self.getCallTarget().call(self.getArguments());
+            if (result == IteratorNodes.EXHAUSTED) {
+                self.markAsFinished();
+                throw node.raise(StopIteration);
+            }
+            return result;
+        } catch (PException e) {
+            self.markAsFinished();
+            throw e;
         } finally {
             PArguments.setSpecialArgument(self.getArguments(), null);
         }
@@ -90,48 +105,16 @@ public class GeneratorBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class NextNode extends PythonUnaryBuiltinNode {
 
-        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
-
-        protected static DirectCallNode createDirectCall(CallTarget target) {
-            return Truffle.getRuntime().createDirectCallNode(target);
-        }
-
-        protected static IndirectCallNode createIndirectCall() {
-            return Truffle.getRuntime().createIndirectCallNode();
-        }
-
-        protected static boolean sameCallTarget(RootCallTarget target1, CallTarget target2) {
-            return target1 == target2;
-        }
+        private final ConditionProfile exhaustedProfile = ConditionProfile.createBinaryProfile();
 
-        @Specialization(guards = "sameCallTarget(self.getCallTarget(), call.getCallTarget())", limit = "getCallSiteInlineCacheMaxDepth()")
-        public Object nextCached(PGenerator self,
-                        @Cached("createDirectCall(self.getCallTarget())") DirectCallNode call) {
-            if (self.isFinished()) {
-                throw raise(StopIteration);
-            }
-            try {
-                return call.call(self.getArguments());
-            } catch (PException e) {
-                e.expectStopIteration(getCore(), errorProfile);
-                self.markAsFinished();
-                throw raise(StopIteration);
-            }
-        }
-
-        @Specialization(replaces = "nextCached")
+        @Specialization
         public Object next(PGenerator self,
-                        @Cached("createIndirectCall()") IndirectCallNode call) {
-            if (self.isFinished()) {
-                throw raise(StopIteration);
-            }
-            try {
-                return call.call(self.getCallTarget(), self.getArguments());
-            } catch (PException e) {
-                e.expectStopIteration(getCore(), errorProfile);
-                self.markAsFinished();
+                        @Cached("create()") GeneratorNextNode nextNode) {
+            Object result = nextNode.execute(self);
+            if (exhaustedProfile.profile(result == IteratorNodes.EXHAUSTED)) {
                 throw raise(StopIteration);
             }
+            return result;
         }
     }
 
@@ -142,7 +125,7 @@ public class GeneratorBuiltins extends PythonBuiltins {
         @Specialization
         public Object send(PGenerator self, Object value) {
             PArguments.setSpecialArgument(self.getArguments(), value);
-            return resumeGenerator(self);
+            return resumeGenerator(this, self);
         }
     }
 
@@ -161,7 +144,7 @@ public class GeneratorBuiltins extends PythonBuiltins {
             } else {
                 throw raise(TypeError, "exceptions must derive from BaseException");
             }
-            return resumeGenerator(self);
+            return resumeGenerator(this, self);
         }
 
         @Specialization
@@ -175,7 +158,7 @@ public class GeneratorBuiltins extends PythonBuiltins {
             } else {
                 throw raise(TypeError, "exceptions must derive from BaseException");
             }
-            return resumeGenerator(self);
+            return resumeGenerator(this, self);
         }
 
         @Specialization(guards = {"!isPNone(val)", "!isPTuple(val)"})
@@ -189,7 +172,7 @@ public class GeneratorBuiltins extends PythonBuiltins {
             } else {
                 throw raise(TypeError, "exceptions must derive from BaseException");
             }
-            return resumeGenerator(self);
+            return resumeGenerator(this, self);
         }
 
         @Specialization
@@ -197,7 +180,7 @@ public class GeneratorBuiltins extends PythonBuiltins {
             PException pException = new PException(instance, this);
             instance.setException(pException);
             PArguments.setSpecialArgument(self.getArguments(), pException);
-            return resumeGenerator(self);
+            return resumeGenerator(this, self);
         }
 
         @Specialization
@@ -206,7 +189,33 @@ public class GeneratorBuiltins extends PythonBuiltins {
             instance.setException(pException);
             instance.setTraceback(tb);
             PArguments.setSpecialArgument(self.getArguments(), pException);
-            return resumeGenerator(self);
+            return resumeGenerator(this, self);
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object close(PGenerator self) {
+            if (self.isFinished()) {
+                return PNone.NONE;
+            }
+            PBaseException generatorExit = factory().createBaseException(getCore().getErrorClass(GeneratorExit));
+            PException pException = new PException(generatorExit, this);
+            generatorExit.setException(pException);
+            PArguments.setSpecialArgument(self.getArguments(), pException);
+            try {
+                resumeGenerator(this, self);
+            } catch (PException e) {
+                PythonClass type = e.getType();
+                if (type == getCore().getErrorClass(GeneratorExit) || type == getCore().getErrorClass(StopIteration)) {
+                    return PNone.NONE;
+                }
+                throw e;
+            }
+            self.markAsFinished();
+            throw raise(RuntimeError, "generator ignored GeneratorExit");
         }
     }
 
@@ -36,6 +36,7 @@ public final class GeneratorControlData {
     private final int[] blockNodeIndices;       // See {@link GeneratorBlockNode}
     private final Object[] forNodeIterators; // See {@link GeneratorForNode}
     private PException activeException;
+    private boolean suspended; // See {@link YieldNode}
 
     public GeneratorControlData(int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode) {
         this.activeFlags = new boolean[numOfActiveFlags];
@@ -74,4 +75,12 @@ public final class GeneratorControlData {
     public void setActiveException(PException activeException) {
         this.activeException = activeException;
     }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
 }
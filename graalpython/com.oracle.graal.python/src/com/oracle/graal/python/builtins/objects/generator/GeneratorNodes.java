@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.generator;
+
+import com.oracle.graal.python.builtins.objects.generator.GeneratorNodesFactory.GeneratorNextNodeGen;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+public abstract class GeneratorNodes {
+
+    /**
+     * Resumes a generator until it yields the next value. A generator that ends without a return
+     * value yields {@link IteratorNodes#EXHAUSTED} instead of raising {@code StopIteration}; a
+     * return value is still passed on in a {@code StopIteration}.
+     */
+    @ImportStatic(PythonOptions.class)
+    public abstract static class GeneratorNextNode extends PNodeWithContext {
+
+        private final ConditionProfile exhaustedProfile = ConditionProfile.createBinaryProfile();
+
+        public abstract Object execute(PGenerator self);
+
+        protected static DirectCallNode createDirectCall(CallTarget target) {
+            return Truffle.getRuntime().createDirectCallNode(target);
+        }
+
+        protected static IndirectCallNode createIndirectCall() {
+            return Truffle.getRuntime().createIndirectCallNode();
+        }
+
+        protected static boolean sameCallTarget(RootCallTarget target1, CallTarget target2) {
+            return target1 == target2;
+        }
+
+        @Specialization(guards = "sameCallTarget(self.getCallTarget(), call.getCallTarget())", limit = "getCallSiteInlineCacheMaxDepth()")
+        Object nextCached(PGenerator self,
+                        @Cached("createDirectCall(self.getCallTarget())") DirectCallNode call) {
+            if (self.isFinished()) {
+                return IteratorNodes.EXHAUSTED;
+            }
+            try {
+                return checkExhausted(self, call.call(self.getArguments()));
+            } catch (PException e) {
+                self.markAsFinished();
+                // keep the exception, a StopIteration carries the return value of the generator
+                throw e;
+            }
+        }
+
+        @Specialization(replaces = "nextCached")
+        Object next(PGenerator self,
+                        @Cached("createIndirectCall()") IndirectCallNode call) {
+            if (self.isFinished()) {
+                return IteratorNodes.EXHAUSTED;
+            }
+            try {
+                return checkExhausted(self, call.call(self.getCallTarget(), self.getArguments()));
+            } catch (PException e) {
+                self.markAsFinished();
+                throw e;
+            }
+        }
+
+        private Object checkExhausted(PGenerator self, Object result) {
+            if (exhaustedProfile.profile(result == IteratorNodes.EXHAUSTED)) {
+                self.markAsFinished();
+            }
+            return result;
+        }
+
+        public static GeneratorNextNode create() {
+            return GeneratorNextNodeGen.create();
+        }
+    }
+}
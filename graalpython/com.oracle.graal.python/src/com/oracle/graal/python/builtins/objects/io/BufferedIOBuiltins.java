@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.DropReadAheadNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FlushNode;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * Methods shared by {@code BufferedReader}, {@code BufferedWriter} and {@code BufferedRandom}. The
+ * remaining, less frequently used methods are defined in {@code _io.py}.
+ */
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PBufferedReader, PythonBuiltinClassType.PBufferedWriter, PythonBuiltinClassType.PBufferedRandom})
+public class BufferedIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedIOBuiltinsFactory.getFactories();
+    }
+
+    // BufferedReader(raw, buffer_size=DEFAULT_BUFFER_SIZE)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, keywordArguments = {"buffer_size"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone init(PBuffered self, Object raw, Object bufferSize,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create(READABLE)") LookupAndCallUnaryNode readableNode,
+                        @Cached("create(WRITABLE)") LookupAndCallUnaryNode writableNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            if (self.isReadable() && !castToBooleanNode.executeWith(readableNode.executeObject(raw))) {
+                throw raise(OSError, "\"raw\" argument must be readable.");
+            }
+            if (self.isWritable() && !castToBooleanNode.executeWith(writableNode.executeObject(raw))) {
+                throw raise(OSError, "\"raw\" argument must be writable.");
+            }
+            int size = BufferedIONodes.DEFAULT_BUFFER_SIZE;
+            if (!PGuards.isNoValue(bufferSize)) {
+                size = castToIndexNode.execute(bufferSize);
+                if (size <= 0) {
+                    throw raise(ValueError, "invalid buffer size");
+                }
+            }
+            self.init(raw, size);
+            return PNone.NONE;
+        }
+
+        protected static final String READABLE = "readable";
+        protected static final String WRITABLE = "writable";
+    }
+
+    @Builtin(name = "raw", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class RawNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object raw(PBuffered self) {
+            Object raw = self.getRaw();
+            return raw == null ? PNone.NONE : raw;
+        }
+    }
+
+    @Builtin(name = "flush", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class BufferedFlushNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone flush(PBuffered self,
+                        @Cached("create()") FlushNode flushNode,
+                        @Cached("create()") DropReadAheadNode dropReadAheadNode) {
+            BufferedIONodes.checkState(this, self);
+            flushNode.execute(self);
+            if (self.isReadable() && self.isWritable()) {
+                dropReadAheadNode.execute(self);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CloseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone close(PBuffered self,
+                        @Cached("create()") FlushNode flushNode,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode closeNode) {
+            if (self.isClosed()) {
+                return PNone.NONE;
+            }
+            BufferedIONodes.checkState(this, self);
+            try {
+                flushNode.execute(self);
+            } finally {
+                self.setClosed();
+                closeNode.executeObject(self.getRaw());
+            }
+            return PNone.NONE;
+        }
+
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "detach", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DetachNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object detach(PBuffered self,
+                        @Cached("create()") FlushNode flushNode,
+                        @Cached("create()") DropReadAheadNode dropReadAheadNode) {
+            BufferedIONodes.checkState(this, self);
+            flushNode.execute(self);
+            dropReadAheadNode.execute(self);
+            return self.detach();
+        }
+    }
+
+    @Builtin(name = "tell", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class TellNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        long tell(PBuffered self,
+                        @Cached("create(TELL)") LookupAndCallUnaryNode tellNode) {
+            BufferedIONodes.checkState(this, self);
+            long position = BufferedIONodes.asPosition(this, tellNode.executeObject(self.getRaw()));
+            return Math.max(0, position - self.available() + self.getWriteEnd());
+        }
+
+        protected static final String TELL = "tell";
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, keywordArguments = {"whence"})
+    @GenerateNodeFactory
+    public abstract static class SeekNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object seek(PBuffered self, Object target, Object whence,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") FlushNode flushNode,
+                        @Cached("create(SEEK)") LookupAndCallTernaryNode seekNode) {
+            int how = PGuards.isNoValue(whence) ? 0 : castToIndexNode.execute(whence);
+            if (how < 0 || how > 2) {
+                throw raise(ValueError, "whence value %d unsupported", how);
+            }
+            BufferedIONodes.checkState(this, self);
+            long position = BufferedIONodes.asLong(this, target);
+            if (how == 0 && position < 0) {
+                throw raise(ValueError, "negative seek position %d", position);
+            }
+            flushNode.execute(self);
+            if (how == 1) {
+                position -= self.available();
+            }
+            self.resetRead();
+            return seekNode.execute(self.getRaw(), position, how);
+        }
+
+        protected static final String SEEK = "seek";
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.BlockingIOError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+public abstract class BufferedIONodes {
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final byte[] EMPTY_BYTES = new byte[0];
+    static final int EAGAIN = 11;
+
+    static void checkState(PNodeWithContext node, PBuffered self) {
+        if (!self.isInitialized()) {
+            if (self.isDetached()) {
+                throw node.raise(ValueError, "raw stream has been detached");
+            }
+            throw node.raise(ValueError, "I/O operation on uninitialized object");
+        }
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed file");
+        }
+    }
+
+    static long asLong(PNodeWithContext node, Object value) {
+        if (value instanceof Integer) {
+            return (int) value;
+        } else if (value instanceof Long) {
+            return (long) value;
+        } else if (value instanceof PInt) {
+            try {
+                return ((PInt) value).longValueExact();
+            } catch (ArithmeticException e) {
+                throw node.raise(OverflowError, "Python int too large to convert to C long");
+            }
+        } else if (value instanceof Boolean) {
+            return (boolean) value ? 1 : 0;
+        }
+        throw node.raise(TypeError, "an integer is required (got type %p)", value);
+    }
+
+    /** Converts a file position returned by a raw stream. */
+    static long asPosition(PNodeWithContext node, Object position) {
+        long result = asLong(node, position);
+        if (result < 0) {
+            throw node.raise(OSError, "Raw stream returned invalid position %d", result);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the {@code BlockingIOError(EAGAIN, message, written)} raised when a non-blocking raw
+     * stream cannot take all the data; {@code written} is the number of the caller's bytes that
+     * were written or buffered nonetheless.
+     */
+    static PBaseException createBlockingIOError(PythonObjectFactory factory, PythonCore core, int written) {
+        PBaseException exception = factory.createBaseException(core.getErrorClass(BlockingIOError),
+                        factory.createTuple(new Object[]{EAGAIN, "write could not complete without blocking", written}));
+        exception.setAttribute("characters_written", written);
+        return exception;
+    }
+
+    static int indexOfNewline(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the pending bytes of a buffered object to its raw stream.
+     */
+    public static final class FlushNode extends PNodeWithContext {
+        @Child private LookupAndCallBinaryNode writeNode = LookupAndCallBinaryNode.create("write");
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        private final ConditionProfile pendingProfile = ConditionProfile.createBinaryProfile();
+
+        public void execute(PBuffered self) {
+            if (!tryFlush(self)) {
+                // the pending bytes had already been accepted by earlier writes
+                throw raise(createBlockingIOError(factory(), getCore(), 0));
+            }
+        }
+
+        /**
+         * Like {@link #execute} but returns {@code false} instead of raising if the raw stream
+         * would block. The bytes it did not take stay at the start of the buffer.
+         */
+        public boolean tryFlush(PBuffered self) {
+            int end = self.getWriteEnd();
+            if (pendingProfile.profile(end > 0)) {
+                int written = writeRaw(self, self.getBuffer(), 0, end);
+                if (written < end) {
+                    byte[] buffer = self.getBuffer();
+                    System.arraycopy(buffer, written, buffer, 0, end - written);
+                    self.setWriteEnd(end - written);
+                    return false;
+                }
+                self.setWriteEnd(0);
+            }
+            return true;
+        }
+
+        /**
+         * Writes {@code length} bytes, retrying partial writes. Returns fewer bytes only if the
+         * raw stream would block.
+         */
+        public int writeRaw(PBuffered self, byte[] data, int offset, int length) {
+            int written = 0;
+            while (written < length) {
+                int remaining = length - written;
+                Object result = writeNode.executeObject(self.getRaw(), factory().createBytes(Arrays.copyOfRange(data, offset + written, offset + length)));
+                if (result == PNone.NONE) {
+                    break;
+                }
+                int n = castToIndexNode.execute(result);
+                if (n < 0 || n > remaining) {
+                    throw raise(OSError, "raw write() returned invalid length %d (should have been between 0 and %d)", n, remaining);
+                }
+                written += n;
+            }
+            return written;
+        }
+
+        public static FlushNode create() {
+            return new FlushNode();
+        }
+    }
+
+    /**
+     * Discards the read-ahead of a buffered object, moving the raw stream back to the logical
+     * position.
+     */
+    public static final class DropReadAheadNode extends PNodeWithContext {
+        @Child private LookupAndCallTernaryNode seekNode = LookupAndCallTernaryNode.create("seek");
+        private final ConditionProfile readAheadProfile = ConditionProfile.createBinaryProfile();
+
+        public void execute(PBuffered self) {
+            int available = self.available();
+            if (readAheadProfile.profile(available > 0)) {
+                seekNode.execute(self.getRaw(), (long) -available, 1);
+            }
+            self.resetRead();
+        }
+
+        public static DropReadAheadNode create() {
+            return new DropReadAheadNode();
+        }
+    }
+
+    /**
+     * Refills a drained buffer with a single call to the raw stream's {@code readinto}. The raw
+     * stream reads straight into the buffer array, which is wrapped in a bytearray.
+     */
+    public static final class FillNode extends PNodeWithContext {
+        @Child private LookupAndCallBinaryNode readIntoNode = LookupAndCallBinaryNode.create("readinto");
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        @Child private FlushNode flushNode;
+        @Child private SequenceStorageNodes.ToByteArrayNode toByteArrayNode;
+        private final BranchProfile replacedStorageProfile = BranchProfile.create();
+
+        /**
+         * Returns the number of bytes read, {@code 0} at the end of the stream or {@code -1} if
+         * the raw stream would block.
+         */
+        public int execute(PBuffered self) {
+            assert self.available() == 0;
+            if (self.getWriteEnd() > 0) {
+                getFlushNode().execute(self);
+            }
+            byte[] buffer = self.getBuffer();
+            PByteArray target = factory().createByteArray(new ByteSequenceStorage(buffer));
+            Object result = readIntoNode.executeObject(self.getRaw(), target);
+            self.resetRead();
+            if (result == PNone.NONE) {
+                return -1;
+            }
+            int n = castToIndexNode.execute(result);
+            if (n < 0 || n > buffer.length) {
+                throw raise(OSError, "raw readinto() returned invalid length %d (should have been between 0 and %d)", n, buffer.length);
+            }
+            SequenceStorage storage = target.getSequenceStorage();
+            if (!(storage instanceof ByteSequenceStorage) || ((ByteSequenceStorage) storage).getInternalByteArray() != buffer) {
+                // the raw stream assigned a new storage to the bytearray instead of filling it
+                replacedStorageProfile.enter();
+                System.arraycopy(getToByteArrayNode().execute(storage), 0, buffer, 0, n);
+            }
+            self.setReadWindow(0, n);
+            return n;
+        }
+
+        private FlushNode getFlushNode() {
+            if (flushNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                flushNode = insert(FlushNode.create());
+            }
+            return flushNode;
+        }
+
+        private SequenceStorageNodes.ToByteArrayNode getToByteArrayNode() {
+            if (toByteArrayNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toByteArrayNode = insert(SequenceStorageNodes.ToByteArrayNode.create());
+            }
+            return toByteArrayNode;
+        }
+
+        public static FillNode create() {
+            return new FillNode();
+        }
+    }
+
+    /**
+     * Reads up to {@code size} bytes with at most one call to the raw stream. Returns {@code null}
+     * if no data is buffered and the raw stream would block.
+     */
+    public static final class Read1Node extends PNodeWithContext {
+        @Child private FillNode fillNode = FillNode.create();
+        private final ConditionProfile emptyProfile = ConditionProfile.createBinaryProfile();
+
+        public byte[] execute(PBuffered self, int size) {
+            if (emptyProfile.profile(self.available() == 0) && size > 0) {
+                if (fillNode.execute(self) < 0) {
+                    return null;
+                }
+            }
+            int n = Math.min(size, self.available());
+            int pos = self.getReadPos();
+            byte[] result = Arrays.copyOfRange(self.getBuffer(), pos, pos + n);
+            self.consume(n);
+            return result;
+        }
+
+        public static Read1Node create() {
+            return new Read1Node();
+        }
+    }
+
+    /**
+     * Reads exactly {@code size} bytes unless the stream ends or would block first. Returns
+     * {@code null} if nothing could be read because the raw stream would block.
+     */
+    public static final class ReadNode extends PNodeWithContext {
+        @Child private FillNode fillNode = FillNode.create();
+        private final ConditionProfile bufferedProfile = ConditionProfile.createBinaryProfile();
+
+        public byte[] execute(PBuffered self, int size) {
+            byte[] buffer = self.getBuffer();
+            int pos = self.getReadPos();
+            int available = self.available();
+            if (bufferedProfile.profile(size <= available)) {
+                self.consume(size);
+                return Arrays.copyOfRange(buffer, pos, pos + size);
+            }
+            byte[] result = new byte[size];
+            System.arraycopy(buffer, pos, result, 0, available);
+            self.consume(available);
+            int n = available;
+            while (n < size) {
+                int read = fillNode.execute(self);
+                if (read <= 0) {
+                    if (read < 0 && n == 0) {
+                        return null;
+                    }
+                    break;
+                }
+                int chunk = Math.min(size - n, read);
+                System.arraycopy(buffer, 0, result, n, chunk);
+                self.consume(chunk);
+                n += chunk;
+            }
+            return n == size ? result : Arrays.copyOf(result, n);
+        }
+
+        public static ReadNode create() {
+            return new ReadNode();
+        }
+    }
+
+    /**
+     * Reads a line of at most {@code limit} bytes, scanning the buffer for the line end. Lines
+     * that lie within the buffer are copied out once.
+     */
+    public static final class ReadLineNode extends PNodeWithContext {
+        @Child private FillNode fillNode = FillNode.create();
+        private final ConditionProfile inBufferProfile = ConditionProfile.createBinaryProfile();
+
+        public byte[] execute(PBuffered self, int limit) {
+            byte[] buffer = self.getBuffer();
+            byte[] line = null;
+            int length = 0;
+            while (true) {
+                int pos = self.getReadPos();
+                int end = limit < 0 ? self.getReadEnd() : Math.min(self.getReadEnd(), pos + limit - length);
+                int newline = indexOfNewline(buffer, pos, end);
+                int n = (newline >= 0 ? newline + 1 : end) - pos;
+                boolean complete = newline >= 0 || (limit >= 0 && length + n >= limit);
+                if (inBufferProfile.profile(line == null && complete)) {
+                    self.consume(n);
+                    return Arrays.copyOfRange(buffer, pos, pos + n);
+                }
+                if (line == null) {
+                    line = new byte[Math.max(2 * n, 64)];
+                } else if (length + n > line.length) {
+                    line = Arrays.copyOf(line, Math.max(length + n, 2 * line.length));
+                }
+                System.arraycopy(buffer, pos, line, length, n);
+                length += n;
+                self.consume(n);
+                if (complete || fillNode.execute(self) <= 0) {
+                    return length == line.length ? line : Arrays.copyOf(line, length);
+                }
+            }
+        }
+
+        public static ReadLineNode create() {
+            return new ReadLineNode();
+        }
+    }
+
+    /**
+     * Appends bytes to the write buffer, flushing it to the raw stream when it is full. Writes
+     * that do not fit into an empty buffer go straight to the raw stream.
+     */
+    public static final class WriteNode extends PNodeWithContext {
+        @Child private FlushNode flushNode = FlushNode.create();
+        @Child private DropReadAheadNode dropReadAheadNode;
+        private final ConditionProfile fitsProfile = ConditionProfile.createBinaryProfile();
+
+        public void execute(PBuffered self, byte[] data, int length) {
+            if (self.getReadEnd() > 0) {
+                getDropReadAheadNode().execute(self);
+            }
+            byte[] buffer = self.getBuffer();
+            int end = self.getWriteEnd();
+            if (fitsProfile.profile(length <= buffer.length - end)) {
+                System.arraycopy(data, 0, buffer, end, length);
+                self.setWriteEnd(end + length);
+                return;
+            }
+            if (!flushNode.tryFlush(self)) {
+                // like CPython, buffer as much of the data as fits behind what is still pending
+                end = self.getWriteEnd();
+                int avail = buffer.length - end;
+                System.arraycopy(data, 0, buffer, end, Math.min(length, avail));
+                if (length <= avail) {
+                    self.setWriteEnd(end + length);
+                    return;
+                }
+                self.setWriteEnd(buffer.length);
+                throw raise(createBlockingIOError(factory(), getCore(), avail));
+            }
+            int written = 0;
+            if (length >= buffer.length) {
+                written = flushNode.writeRaw(self, data, 0, length);
+            }
+            int remaining = length - written;
+            if (remaining > 0) {
+                // the buffer is empty now
+                int buffered = Math.min(remaining, buffer.length);
+                System.arraycopy(data, written, buffer, 0, buffered);
+                self.setWriteEnd(buffered);
+                if (buffered < remaining) {
+                    throw raise(createBlockingIOError(factory(), getCore(), written + buffered));
+                }
+            }
+        }
+
+        private DropReadAheadNode getDropReadAheadNode() {
+            if (dropReadAheadNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                dropReadAheadNode = insert(DropReadAheadNode.create());
+            }
+            return dropReadAheadNode;
+        }
+
+        public static WriteNode create() {
+            return new WriteNode();
+        }
+    }
+}
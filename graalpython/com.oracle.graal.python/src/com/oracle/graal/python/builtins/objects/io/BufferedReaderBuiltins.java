@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.Read1Node;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadLineNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.ReadNode;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PBufferedReader, PythonBuiltinClassType.PBufferedRandom})
+public class BufferedReaderBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedReaderBuiltinsFactory.getFactories();
+    }
+
+    /** Converts an optional size argument, where {@code None} and a missing value mean -1. */
+    static int asSize(CastToIndexNode castToIndexNode, Object size) {
+        return PGuards.isPNone(size) ? -1 : castToIndexNode.execute(size);
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ReadBuiltinNode extends PythonBinaryBuiltinNode {
+        @Child private LookupAndCallUnaryNode readAllNode;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        @Specialization
+        Object read(PBuffered self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") ReadNode readNode,
+                        @Cached("createBinaryProfile()") ConditionProfile readAllProfile) {
+            BufferedIONodes.checkState(this, self);
+            int n = asSize(castToIndexNode, size);
+            if (readAllProfile.profile(n < 0)) {
+                return readAll(self);
+            }
+            byte[] data = readNode.execute(self, n);
+            return data == null ? PNone.NONE : factory().createBytes(data);
+        }
+
+        private Object readAll(PBuffered self) {
+            if (readAllNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                readAllNode = insert(LookupAndCallUnaryNode.create("readall"));
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            int available = self.available();
+            byte[] buffered = Arrays.copyOfRange(self.getBuffer(), self.getReadPos(), self.getReadEnd());
+            self.consume(available);
+            Object rest = readAllNode.executeObject(self.getRaw());
+            if (rest == PNone.NONE) {
+                return available == 0 ? PNone.NONE : factory().createBytes(buffered);
+            }
+            byte[] data = toBytesNode.execute(rest);
+            if (available == 0) {
+                return factory().createBytes(data);
+            }
+            byte[] result = Arrays.copyOf(buffered, available + data.length);
+            System.arraycopy(data, 0, result, available, data.length);
+            return factory().createBytes(result);
+        }
+    }
+
+    @Builtin(name = "read1", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class Read1BuiltinNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object read1(PBuffered self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") Read1Node read1Node) {
+            BufferedIONodes.checkState(this, self);
+            int n = asSize(castToIndexNode, size);
+            byte[] data = read1Node.execute(self, n < 0 ? self.getBuffer().length : n);
+            return data == null ? PNone.NONE : factory().createBytes(data);
+        }
+    }
+
+    @Builtin(name = "peek", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class PeekNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object peek(PBuffered self, @SuppressWarnings("unused") Object size,
+                        @Cached("create()") BufferedIONodes.FillNode fillNode) {
+            BufferedIONodes.checkState(this, self);
+            if (self.available() == 0 && fillNode.execute(self) < 0) {
+                return PNone.NONE;
+            }
+            return factory().createBytes(Arrays.copyOfRange(self.getBuffer(), self.getReadPos(), self.getReadEnd()));
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ReadLineBuiltinNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object readline(PBuffered self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            BufferedIONodes.checkState(this, self);
+            return factory().createBytes(readLineNode.execute(self, asSize(castToIndexNode, size)));
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PBuffered iter(PBuffered self) {
+            BufferedIONodes.checkState(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object next(PBuffered self,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            BufferedIONodes.checkState(this, self);
+            byte[] line = readLineNode.execute(self, -1);
+            if (line.length == 0) {
+                throw raise(StopIteration);
+            }
+            return factory().createBytes(line);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+
+/**
+ * State of a {@code BufferedReader}, {@code BufferedWriter} or {@code BufferedRandom}. A single
+ * fixed-size byte array holds either read-ahead data in {@code [readPos, readEnd)} or pending
+ * writes in {@code [0, writeEnd)}, never both at the same time.
+ */
+public final class PBuffered extends PythonBuiltinObject {
+
+    private final boolean readable;
+    private final boolean writable;
+
+    private Object raw;
+    private byte[] buffer;
+    private int readPos;
+    private int readEnd;
+    private int writeEnd;
+    private boolean closed;
+    private boolean detached;
+
+    public PBuffered(PythonClass cls, boolean readable, boolean writable) {
+        super(cls);
+        this.readable = readable;
+        this.writable = writable;
+    }
+
+    public void init(Object rawStream, int bufferSize) {
+        this.raw = rawStream;
+        this.buffer = new byte[bufferSize];
+        this.readPos = 0;
+        this.readEnd = 0;
+        this.writeEnd = 0;
+        this.closed = false;
+        this.detached = false;
+    }
+
+    public boolean isReadable() {
+        return readable;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+
+    public Object getRaw() {
+        return raw;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public boolean isInitialized() {
+        return raw != null;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void setClosed() {
+        closed = true;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public Object detach() {
+        Object result = raw;
+        raw = null;
+        buffer = null;
+        detached = true;
+        return result;
+    }
+
+    /** The number of read-ahead bytes that have not been consumed yet. */
+    public int available() {
+        return readEnd - readPos;
+    }
+
+    public int getReadPos() {
+        return readPos;
+    }
+
+    public int getReadEnd() {
+        return readEnd;
+    }
+
+    public void setReadWindow(int pos, int end) {
+        assert writeEnd == 0;
+        readPos = pos;
+        readEnd = end;
+    }
+
+    public void consume(int n) {
+        assert n <= available();
+        readPos += n;
+    }
+
+    public void resetRead() {
+        readPos = 0;
+        readEnd = 0;
+    }
+
+    public int getWriteEnd() {
+        return writeEnd;
+    }
+
+    public void setWriteEnd(int end) {
+        assert readPos == readEnd;
+        writeEnd = end;
+    }
+
+    @Override
+    public String toString() {
+        return "<" + getPythonClass().getName() + " object at " + hashCode() + ">";
+    }
+}
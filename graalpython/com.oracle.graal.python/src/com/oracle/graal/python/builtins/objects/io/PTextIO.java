@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * State of a {@code TextIOWrapper}. Bytes read from the buffer are decoded incrementally into
+ * {@link #getDecoded() decoded} text, which is kept untranslated so that positions in it can be
+ * mapped back to byte offsets. The bytes that produced the decoded text are kept as a snapshot
+ * for {@code tell()}.
+ */
+public final class PTextIO extends PythonBuiltinObject {
+
+    public static final int SEEN_LF = 1;
+    public static final int SEEN_CR = 2;
+    public static final int SEEN_CRLF = 4;
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    private Object buffer;
+    /**
+     * The buffered object, if it is a builtin one whose read and write paths can be used directly.
+     */
+    private PBuffered builtinBuffer;
+    private boolean hasRead1;
+    private boolean seekable;
+
+    private String encoding;
+    private String errors;
+    private Charset charset;
+    private CodingErrorAction errorAction;
+    private CharsetDecoder decoder;
+    private CharsetEncoder encoder;
+
+    private boolean readUniversal;
+    private boolean readTranslate;
+    private String readNewline;
+    private boolean writeTranslate;
+    private String writeNewline;
+    private boolean lineBuffering;
+    private boolean writeThrough;
+
+    private String decoded = "";
+    private int decodedPos;
+    private byte[] snapshot = EMPTY_BYTES;
+    private int pendingLength;
+    private boolean eof;
+    private int seenNewlines;
+
+    private boolean closed;
+    private boolean detached;
+
+    public PTextIO(PythonClass cls) {
+        super(cls);
+    }
+
+    @TruffleBoundary
+    public void init(Object bufferObject, PBuffered builtinBufferObject, boolean bufferHasRead1, boolean bufferSeekable, String encodingName, Charset encodingCharset, String errorsName,
+                    CodingErrorAction action, String newline, boolean lineBuffered, boolean writesThrough) {
+        this.buffer = bufferObject;
+        this.builtinBuffer = builtinBufferObject;
+        this.hasRead1 = bufferHasRead1;
+        this.seekable = bufferSeekable;
+        this.encoding = encodingName;
+        this.errors = errorsName;
+        this.charset = encodingCharset;
+        this.errorAction = action;
+        this.decoder = encodingCharset.newDecoder().onMalformedInput(action).onUnmappableCharacter(action);
+        this.encoder = null;
+        this.readUniversal = newline == null || newline.isEmpty();
+        this.readTranslate = newline == null;
+        this.readNewline = newline;
+        this.writeTranslate = newline == null || !newline.isEmpty();
+        this.writeNewline = newline == null || newline.isEmpty() ? "\n" : newline;
+        this.lineBuffering = lineBuffered;
+        this.writeThrough = writesThrough;
+        this.closed = false;
+        this.detached = false;
+        this.seenNewlines = 0;
+        resetDecoded();
+    }
+
+    public Object getBuffer() {
+        return buffer;
+    }
+
+    public PBuffered getBuiltinBuffer() {
+        return builtinBuffer;
+    }
+
+    public boolean hasRead1() {
+        return hasRead1;
+    }
+
+    public boolean isSeekable() {
+        return seekable;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public boolean isLineBuffering() {
+        return lineBuffering;
+    }
+
+    public boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    public boolean isReadUniversal() {
+        return readUniversal;
+    }
+
+    public boolean isReadTranslate() {
+        return readTranslate;
+    }
+
+    public String getReadNewline() {
+        return readNewline;
+    }
+
+    public boolean isWriteTranslate() {
+        return writeTranslate;
+    }
+
+    public String getWriteNewline() {
+        return writeNewline;
+    }
+
+    public int getSeenNewlines() {
+        return seenNewlines;
+    }
+
+    public void addSeenNewline(int kind) {
+        seenNewlines |= kind;
+    }
+
+    public boolean isInitialized() {
+        return buffer != null;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void setClosed() {
+        closed = true;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public Object detach() {
+        Object result = buffer;
+        buffer = null;
+        builtinBuffer = null;
+        detached = true;
+        return result;
+    }
+
+    public String getDecoded() {
+        return decoded;
+    }
+
+    public int getDecodedPos() {
+        return decodedPos;
+    }
+
+    public void setDecodedPos(int pos) {
+        decodedPos = pos;
+    }
+
+    public int decodedAvailable() {
+        return decoded.length() - decodedPos;
+    }
+
+    public boolean isEof() {
+        return eof;
+    }
+
+    /** Forgets the decoded read-ahead, e.g. before writing or after seeking. */
+    @TruffleBoundary
+    public void resetDecoded() {
+        decoded = "";
+        decodedPos = 0;
+        snapshot = EMPTY_BYTES;
+        pendingLength = 0;
+        eof = false;
+        if (decoder != null) {
+            decoder.reset();
+        }
+    }
+
+    /**
+     * Decodes a chunk of input. If {@code append} is set, the text is appended to the current
+     * decoded text, otherwise it replaces the decoded text, which must have been consumed.
+     */
+    @TruffleBoundary
+    public void decodeChunk(byte[] input, boolean append) throws CharacterCodingException {
+        boolean last = input.length == 0;
+        byte[] all;
+        if (pendingLength == 0) {
+            all = input;
+        } else {
+            all = Arrays.copyOfRange(snapshot, snapshot.length - pendingLength, snapshot.length + input.length);
+            System.arraycopy(input, 0, all, pendingLength, input.length);
+        }
+        ByteBuffer in = ByteBuffer.wrap(all);
+        CharBuffer out = CharBuffer.allocate((int) (all.length * (double) decoder.maxCharsPerByte()) + 2);
+        CoderResult result = decoder.decode(in, out, last);
+        if (result.isError()) {
+            result.throwException();
+        }
+        if (last) {
+            result = decoder.flush(out);
+            if (result.isError()) {
+                result.throwException();
+            }
+            decoder.reset();
+            eof = true;
+        }
+        out.flip();
+        String text = out.toString();
+        if (append) {
+            decoded = decoded + text;
+            byte[] newSnapshot = Arrays.copyOf(snapshot, snapshot.length + input.length);
+            System.arraycopy(input, 0, newSnapshot, snapshot.length, input.length);
+            snapshot = newSnapshot;
+        } else {
+            assert decodedAvailable() == 0;
+            decoded = text;
+            decodedPos = 0;
+            snapshot = all;
+        }
+        pendingLength = in.remaining();
+    }
+
+    /**
+     * Returns the number of snapshot bytes that decode to the first {@code chars} characters of
+     * the decoded text, or {@code -1} if that cannot be reconstructed.
+     */
+    @TruffleBoundary
+    public int consumedBytes(int chars) {
+        if (chars == decoded.length()) {
+            return snapshot.length - pendingLength;
+        } else if (chars == 0) {
+            return 0;
+        } else if (errorAction == CodingErrorAction.REPORT && StandardCharsets.UTF_8.equals(charset)) {
+            return utf8Length(decoded, chars);
+        } else if (!isStateless()) {
+            return -1;
+        }
+        CharsetDecoder d = charset.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        ByteBuffer in = ByteBuffer.wrap(snapshot);
+        CharBuffer out = CharBuffer.allocate(decoded.length() + 2);
+        for (int i = 1; i <= snapshot.length; i++) {
+            in.limit(i);
+            d.decode(in, out, false);
+            if (out.position() >= chars) {
+                return i;
+            }
+        }
+        return snapshot.length - pendingLength;
+    }
+
+    public int getSnapshotLength() {
+        return snapshot.length;
+    }
+
+    private boolean isStateless() {
+        return StandardCharsets.UTF_8.equals(charset) || getEncoder().maxBytesPerChar() == 1.0f;
+    }
+
+    private static int utf8Length(String s, int end) {
+        int length = 0;
+        for (int i = 0; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    @TruffleBoundary
+    public byte[] encode(String text) throws CharacterCodingException {
+        ByteBuffer encoded = getEncoder().encode(CharBuffer.wrap(text));
+        byte[] data = new byte[encoded.remaining()];
+        encoded.get(data);
+        return data;
+    }
+
+    private CharsetEncoder getEncoder() {
+        if (encoder == null) {
+            encoder = charset.newEncoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        }
+        return encoder;
+    }
+
+    /**
+     * Returns the index after the first line terminator in the decoded text between
+     * {@link #getDecodedPos()} and {@code end}, or {@code -1}.
+     */
+    @TruffleBoundary
+    public int findLineEnd(int end) {
+        if (readUniversal) {
+            for (int i = decodedPos; i < end; i++) {
+                char c = decoded.charAt(i);
+                if (c == '\n') {
+                    return i + 1;
+                } else if (c == '\r') {
+                    return i + 1 < decoded.length() && decoded.charAt(i + 1) == '\n' ? Math.min(i + 2, end) : i + 1;
+                }
+            }
+            return -1;
+        }
+        int index = decoded.indexOf(readNewline, decodedPos);
+        if (index < 0 || index + readNewline.length() > end) {
+            return -1;
+        }
+        return index + readNewline.length();
+    }
+
+    /**
+     * Moves {@code end} past the {@code '\n'} of a {@code "\r\n"} that it would split, so that
+     * translating the taken text does not produce two line ends.
+     */
+    public int extendOverCRLF(int end) {
+        if (readTranslate && end > decodedPos && end < decoded.length() && decoded.charAt(end - 1) == '\r' && decoded.charAt(end) == '\n') {
+            return end + 1;
+        }
+        return end;
+    }
+
+    /**
+     * Whether the text up to {@code end} ends in a carriage return that might be the first half
+     * of a {@code "\r\n"} continued in the next chunk.
+     */
+    public boolean endsInCarriageReturn(int end) {
+        return !eof && end == decoded.length() && end > decodedPos && decoded.charAt(end - 1) == '\r' && (readUniversal || "\r\n".equals(readNewline));
+    }
+
+    /** Takes the decoded text up to {@code end}, translating and recording line terminators. */
+    @TruffleBoundary
+    public String take(int end) {
+        String text = decoded.substring(decodedPos, end);
+        decodedPos = end;
+        if (readUniversal) {
+            seenNewlines |= newlineKinds(text);
+            if (readTranslate && text.indexOf('\r') >= 0) {
+                return text.replace("\r\n", "\n").replace('\r', '\n');
+            }
+        }
+        return text;
+    }
+
+    private static int newlineKinds(String text) {
+        int kinds = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                kinds |= SEEN_LF;
+            } else if (c == '\r') {
+                if (i + 1 < length && text.charAt(i + 1) == '\n') {
+                    kinds |= SEEN_CRLF;
+                    i++;
+                } else {
+                    kinds |= SEEN_CR;
+                }
+            }
+        }
+        return kinds;
+    }
+
+    @Override
+    public String toString() {
+        return "<" + getPythonClass().getName() + " object at " + hashCode() + ">";
+    }
+}
@@ -0,0 +1,716 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.LookupError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeDecodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeEncodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.Read1Node;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteNode;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * The hot methods of {@code TextIOWrapper}. Reading decodes whole chunks of the buffer with a
+ * {@link java.nio.charset.CharsetDecoder} and scans the decoded string for line ends. The
+ * remaining methods are defined in {@code _io.py}.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTextIOWrapper)
+public class TextIOWrapperBuiltins extends PythonBuiltins {
+
+    static final int CHUNK_SIZE = 8192;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TextIOWrapperBuiltinsFactory.getFactories();
+    }
+
+    static void checkState(PNodeWithContext node, PTextIO self) {
+        if (!self.isInitialized()) {
+            if (self.isDetached()) {
+                throw node.raise(ValueError, "underlying buffer has been detached");
+            }
+            throw node.raise(ValueError, "I/O operation on uninitialized object");
+        }
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed file.");
+        }
+    }
+
+    static String asString(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        } else if (value instanceof PString) {
+            return ((PString) value).getValue();
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    private static String concat(String a, String b) {
+        return a + b;
+    }
+
+    /**
+     * Reads the next chunk from the buffer and decodes it. Returns {@code false} at the end of the
+     * stream.
+     */
+    static final class ReadChunkNode extends PNodeWithContext {
+        @Child private Read1Node read1Node;
+        @Child private LookupAndCallBinaryNode callRead1Node;
+        @Child private LookupAndCallBinaryNode callReadNode;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+        private final ConditionProfile builtinProfile = ConditionProfile.createBinaryProfile();
+
+        boolean execute(PTextIO self, boolean append) {
+            byte[] input;
+            PBuffered builtinBuffer = self.getBuiltinBuffer();
+            if (builtinProfile.profile(builtinBuffer != null && builtinBuffer.isReadable())) {
+                BufferedIONodes.checkState(this, builtinBuffer);
+                input = getRead1Node().execute(builtinBuffer, CHUNK_SIZE);
+                if (input == null) {
+                    throw raise(TypeError, "underlying read1() should have returned a bytes-like object, not 'NoneType'");
+                }
+            } else {
+                input = readGeneric(self);
+            }
+            try {
+                self.decodeChunk(input, append);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, "%s", e.getMessage());
+            }
+            return input.length > 0;
+        }
+
+        private byte[] readGeneric(PTextIO self) {
+            if (toBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            Object result;
+            if (self.hasRead1()) {
+                if (callRead1Node == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callRead1Node = insert(LookupAndCallBinaryNode.create("read1"));
+                }
+                result = callRead1Node.executeObject(self.getBuffer(), CHUNK_SIZE);
+            } else {
+                if (callReadNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callReadNode = insert(LookupAndCallBinaryNode.create("read"));
+                }
+                result = callReadNode.executeObject(self.getBuffer(), CHUNK_SIZE);
+            }
+            if (result == PNone.NONE) {
+                throw raise(TypeError, "underlying read should have returned a bytes-like object, not 'NoneType'");
+            }
+            return toBytesNode.execute(result);
+        }
+
+        private Read1Node getRead1Node() {
+            if (read1Node == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                read1Node = insert(Read1Node.create());
+            }
+            return read1Node;
+        }
+
+        static ReadChunkNode create() {
+            return new ReadChunkNode();
+        }
+    }
+
+    /**
+     * Reads a line of at most {@code limit} characters. Lines that lie within the decoded chunk
+     * are cut out of it with a single substring.
+     */
+    static final class ReadLineNode extends PNodeWithContext {
+        @Child private ReadChunkNode readChunkNode = ReadChunkNode.create();
+        private final ConditionProfile refillProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile foundProfile = ConditionProfile.createBinaryProfile();
+
+        String execute(PTextIO self, int limit) {
+            String line = null;
+            while (true) {
+                if (refillProfile.profile(self.decodedAvailable() == 0)) {
+                    boolean more = readChunkNode.execute(self, false);
+                    if (self.decodedAvailable() == 0) {
+                        if (!more) {
+                            break;
+                        }
+                        continue;
+                    }
+                }
+                int length = line == null ? 0 : line.length();
+                int decodedLength = self.getDecoded().length();
+                int end = limit < 0 ? decodedLength : Math.min(decodedLength, self.getDecodedPos() + limit - length);
+                int lineEnd = self.findLineEnd(end);
+                if ((lineEnd < 0 || lineEnd == end) && self.endsInCarriageReturn(end)) {
+                    // a "\r\n" may be split between this chunk and the next one
+                    readChunkNode.execute(self, true);
+                    continue;
+                }
+                if (foundProfile.profile(lineEnd >= 0)) {
+                    String piece = self.take(lineEnd);
+                    return line == null ? piece : concat(line, piece);
+                }
+                String piece = self.take(end);
+                line = line == null ? piece : concat(line, piece);
+                if (limit >= 0 && line.length() >= limit) {
+                    return line;
+                }
+            }
+            return line == null ? "" : line;
+        }
+
+        static ReadLineNode create() {
+            return new ReadLineNode();
+        }
+    }
+
+    // TextIOWrapper(buffer, encoding=None, errors=None, newline=None, line_buffering=False,
+    // write_through=False)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, keywordArguments = {"encoding", "errors", "newline", "line_buffering", "write_through"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone init(PTextIO self, Object buffer, Object encoding, Object errors, Object newline, Object lineBuffering, Object writeThrough,
+                        @Cached("create(SEEKABLE)") LookupAndCallUnaryNode seekableNode,
+                        @Cached("create(READ1)") LookupInheritedAttributeNode lookupRead1Node,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            String newlineString = null;
+            if (!PGuards.isPNone(newline)) {
+                newlineString = asString(newline);
+                if (newlineString == null) {
+                    throw raise(TypeError, "illegal newline type: %p", newline);
+                }
+                if (!isValidNewline(newlineString)) {
+                    throw raise(ValueError, "illegal newline value: %s", newlineString);
+                }
+            }
+            String encodingString = CodecsModuleBuiltins.DEFAULT_ENCODING;
+            if (!PGuards.isPNone(encoding)) {
+                encodingString = asString(encoding);
+                if (encodingString == null) {
+                    throw raise(TypeError, "TextIOWrapper() argument 'encoding' must be str or None, not %p", encoding);
+                }
+            }
+            String errorsString = "strict";
+            if (!PGuards.isPNone(errors)) {
+                errorsString = asString(errors);
+                if (errorsString == null) {
+                    throw raise(TypeError, "TextIOWrapper() argument 'errors' must be str or None, not %p", errors);
+                }
+            }
+            Charset charset;
+            try {
+                charset = CodecsModuleBuiltins.getCharset(encodingString);
+            } catch (IllegalArgumentException e) {
+                throw raise(LookupError, "unknown encoding: %s", encodingString);
+            }
+            boolean lineBuffered = !PGuards.isPNone(lineBuffering) && castToBooleanNode.executeWith(lineBuffering);
+            boolean writesThrough = !PGuards.isPNone(writeThrough) && castToBooleanNode.executeWith(writeThrough);
+            boolean seekable = castToBooleanNode.executeWith(seekableNode.executeObject(buffer));
+            boolean hasRead1 = lookupRead1Node.execute(buffer) != PNone.NO_VALUE;
+            PBuffered builtinBuffer = null;
+            if (buffer instanceof PBuffered && ((PBuffered) buffer).getPythonClass() instanceof PythonBuiltinClass) {
+                builtinBuffer = (PBuffered) buffer;
+            }
+            self.init(buffer, builtinBuffer, hasRead1, seekable, encodingString, charset, errorsString, CodecsModuleBuiltins.getErrorAction(errorsString), newlineString, lineBuffered,
+                            writesThrough);
+            return PNone.NONE;
+        }
+
+        private static boolean isValidNewline(String newline) {
+            switch (newline) {
+                case "":
+                case "\n":
+                case "\r":
+                case "\r\n":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        protected static final String SEEKABLE = "seekable";
+        protected static final String READ1 = "read1";
+    }
+
+    @Builtin(name = "buffer", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class BufferNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object buffer(PTextIO self) {
+            Object buffer = self.getBuffer();
+            return buffer == null ? PNone.NONE : buffer;
+        }
+    }
+
+    @Builtin(name = "encoding", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class EncodingNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object encoding(PTextIO self) {
+            String encoding = self.getEncoding();
+            return encoding == null ? PNone.NONE : encoding;
+        }
+    }
+
+    @Builtin(name = "errors", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ErrorsNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object errors(PTextIO self) {
+            String errors = self.getErrors();
+            return errors == null ? PNone.NONE : errors;
+        }
+    }
+
+    @Builtin(name = "line_buffering", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class LineBufferingNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean lineBuffering(PTextIO self) {
+            return self.isLineBuffering();
+        }
+    }
+
+    @Builtin(name = "write_through", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class WriteThroughNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean writeThrough(PTextIO self) {
+            return self.isWriteThrough();
+        }
+    }
+
+    @Builtin(name = "newlines", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class NewlinesNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object newlines(PTextIO self) {
+            int seen = self.getSeenNewlines();
+            switch (seen) {
+                case 0:
+                    return PNone.NONE;
+                case PTextIO.SEEN_LF:
+                    return "\n";
+                case PTextIO.SEEN_CR:
+                    return "\r";
+                case PTextIO.SEEN_CRLF:
+                    return "\r\n";
+                default:
+                    return factory().createTuple(seenNewlines(seen));
+            }
+        }
+
+        @TruffleBoundary
+        private static Object[] seenNewlines(int seen) {
+            Object[] kinds = new Object[Integer.bitCount(seen)];
+            int i = 0;
+            if ((seen & PTextIO.SEEN_CR) != 0) {
+                kinds[i++] = "\r";
+            }
+            if ((seen & PTextIO.SEEN_LF) != 0) {
+                kinds[i++] = "\n";
+            }
+            if ((seen & PTextIO.SEEN_CRLF) != 0) {
+                kinds[i++] = "\r\n";
+            }
+            return kinds;
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ReadNode extends PythonBinaryBuiltinNode {
+        @Child private ReadChunkNode readChunkNode = ReadChunkNode.create();
+        @Child private LookupAndCallUnaryNode readAllNode;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        @Specialization
+        Object read(PTextIO self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            checkState(this, self);
+            int n = BufferedReaderBuiltins.asSize(castToIndexNode, size);
+            if (n < 0) {
+                return readAll(self);
+            }
+            String result = null;
+            while (result == null || result.length() < n) {
+                if (self.decodedAvailable() == 0) {
+                    boolean more = readChunkNode.execute(self, false);
+                    if (self.decodedAvailable() == 0) {
+                        if (!more) {
+                            break;
+                        }
+                        continue;
+                    }
+                }
+                int length = result == null ? 0 : result.length();
+                int end = self.extendOverCRLF(Math.min(self.getDecoded().length(), self.getDecodedPos() + n - length));
+                if (self.isReadTranslate() && self.endsInCarriageReturn(end)) {
+                    readChunkNode.execute(self, true);
+                    continue;
+                }
+                String piece = self.take(end);
+                result = result == null ? piece : concat(result, piece);
+            }
+            return result == null ? "" : result;
+        }
+
+        private String readAll(PTextIO self) {
+            if (readAllNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                readAllNode = insert(LookupAndCallUnaryNode.create("read"));
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            String rest = self.take(self.getDecoded().length());
+            Object data = readAllNode.executeObject(self.getBuffer());
+            if (data == PNone.NONE) {
+                throw raise(TypeError, "underlying read should have returned a bytes-like object, not 'NoneType'");
+            }
+            try {
+                self.decodeChunk(toBytesNode.execute(data), false);
+                self.decodeChunk(BufferedIONodes.EMPTY_BYTES, true);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, "%s", e.getMessage());
+            }
+            return concat(rest, self.take(self.getDecoded().length()));
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ReadLineBuiltinNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        String readline(PTextIO self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            checkState(this, self);
+            return readLineNode.execute(self, BufferedReaderBuiltins.asSize(castToIndexNode, size));
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PTextIO iter(PTextIO self) {
+            checkState(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        String next(PTextIO self,
+                        @Cached("create()") ReadLineNode readLineNode) {
+            checkState(this, self);
+            String line = readLineNode.execute(self, -1);
+            if (line.isEmpty()) {
+                throw raise(StopIteration);
+            }
+            return line;
+        }
+    }
+
+    @Builtin(name = "write", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class WriteBuiltinNode extends PythonBinaryBuiltinNode {
+        @Child private WriteNode writeNode;
+        @Child private LookupAndCallBinaryNode callWriteNode;
+        @Child private LookupAndCallUnaryNode flushNode;
+        private final ConditionProfile builtinProfile = ConditionProfile.createBinaryProfile();
+
+        @Specialization
+        int write(PTextIO self, Object data) {
+            checkState(this, self);
+            String text = asString(data);
+            if (text == null) {
+                throw raise(TypeError, "write() argument must be str, not %p", data);
+            }
+            String translated = translate(self, text);
+            boolean flush = self.isWriteThrough() || self.isLineBuffering() && hasLineEnd(text);
+            byte[] bytes;
+            try {
+                bytes = self.encode(translated);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeEncodeError, "%s", e.getMessage());
+            }
+            if (self.decodedAvailable() > 0 || self.getSnapshotLength() > 0) {
+                self.resetDecoded();
+            }
+            PBuffered builtinBuffer = self.getBuiltinBuffer();
+            if (builtinProfile.profile(builtinBuffer != null && builtinBuffer.isWritable())) {
+                BufferedIONodes.checkState(this, builtinBuffer);
+                getWriteNode().execute(builtinBuffer, bytes, bytes.length);
+            } else {
+                getCallWriteNode().executeObject(self.getBuffer(), factory().createBytes(bytes));
+            }
+            if (flush) {
+                getFlushNode().executeObject(self.getBuffer());
+            }
+            return text.length();
+        }
+
+        @TruffleBoundary
+        private static String translate(PTextIO self, String text) {
+            if (self.isWriteTranslate() && !"\n".equals(self.getWriteNewline()) && text.indexOf('\n') >= 0) {
+                return text.replace("\n", self.getWriteNewline());
+            }
+            return text;
+        }
+
+        @TruffleBoundary
+        private static boolean hasLineEnd(String text) {
+            return text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        }
+
+        private WriteNode getWriteNode() {
+            if (writeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                writeNode = insert(WriteNode.create());
+            }
+            return writeNode;
+        }
+
+        private LookupAndCallBinaryNode getCallWriteNode() {
+            if (callWriteNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callWriteNode = insert(LookupAndCallBinaryNode.create("write"));
+            }
+            return callWriteNode;
+        }
+
+        private LookupAndCallUnaryNode getFlushNode() {
+            if (flushNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                flushNode = insert(LookupAndCallUnaryNode.create("flush"));
+            }
+            return flushNode;
+        }
+    }
+
+    @Builtin(name = "flush", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class FlushNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object flush(PTextIO self,
+                        @Cached("create(FLUSH)") LookupAndCallUnaryNode flushNode) {
+            checkState(this, self);
+            return flushNode.executeObject(self.getBuffer());
+        }
+
+        protected static final String FLUSH = "flush";
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CloseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone close(PTextIO self,
+                        @Cached("create(FLUSH)") LookupAndCallUnaryNode flushNode,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode closeNode) {
+            if (self.isClosed()) {
+                return PNone.NONE;
+            }
+            checkState(this, self);
+            try {
+                flushNode.executeObject(self.getBuffer());
+            } finally {
+                self.setClosed();
+                closeNode.executeObject(self.getBuffer());
+            }
+            return PNone.NONE;
+        }
+
+        protected static final String FLUSH = "flush";
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "detach", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DetachNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object detach(PTextIO self,
+                        @Cached("create(FLUSH)") LookupAndCallUnaryNode flushNode) {
+            checkState(this, self);
+            flushNode.executeObject(self.getBuffer());
+            return self.detach();
+        }
+
+        protected static final String FLUSH = "flush";
+    }
+
+    @Builtin(name = "tell", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class TellNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        long tell(PTextIO self,
+                        @Cached("create(FLUSH)") LookupAndCallUnaryNode flushNode,
+                        @Cached("create(TELL)") LookupAndCallUnaryNode tellNode) {
+            checkState(this, self);
+            if (!self.isSeekable()) {
+                throw raise(OSError, "underlying stream is not seekable");
+            }
+            flushNode.executeObject(self.getBuffer());
+            long position = BufferedIONodes.asPosition(this, tellNode.executeObject(self.getBuffer()));
+            int consumed = self.consumedBytes(self.getDecodedPos());
+            if (consumed < 0) {
+                throw raise(OSError, "can't reconstruct logical file position");
+            }
+            return position - self.getSnapshotLength() + consumed;
+        }
+
+        protected static final String FLUSH = "flush";
+        protected static final String TELL = "tell";
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, keywordArguments = {"whence"})
+    @GenerateNodeFactory
+    public abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Child private LookupAndCallUnaryNode tellNode;
+
+        @Specialization
+        Object seek(PTextIO self, Object cookie, Object whence,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create(FLUSH)") LookupAndCallUnaryNode flushNode,
+                        @Cached("create(SEEK)") LookupAndCallTernaryNode seekNode) {
+            checkState(this, self);
+            if (!self.isSeekable()) {
+                throw raise(OSError, "underlying stream is not seekable");
+            }
+            int how = PGuards.isNoValue(whence) ? 0 : castToIndexNode.execute(whence);
+            long position = BufferedIONodes.asLong(this, cookie);
+            switch (how) {
+                case 0:
+                    if (position < 0) {
+                        throw raise(ValueError, "negative seek position %d", position);
+                    }
+                    break;
+                case 1:
+                    if (position != 0) {
+                        throw raise(OSError, "can't do nonzero cur-relative seeks");
+                    }
+                    // a seek to the logical position is a no-op
+                    return tellNode().executeObject(self);
+                case 2:
+                    if (position != 0) {
+                        throw raise(OSError, "can't do nonzero end-relative seeks");
+                    }
+                    break;
+                default:
+                    throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", how);
+            }
+            flushNode.executeObject(self.getBuffer());
+            self.resetDecoded();
+            return seekNode.execute(self.getBuffer(), position, how);
+        }
+
+        private LookupAndCallUnaryNode tellNode() {
+            if (tellNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                tellNode = insert(LookupAndCallUnaryNode.create("tell"));
+            }
+            return tellNode;
+        }
+
+        protected static final String FLUSH = "flush";
+        protected static final String SEEK = "seek";
+    }
+}
@@ -37,23 +37,18 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes.BuiltinIteratorNextNode;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
-import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
-import com.oracle.graal.python.runtime.exception.PException;
-import com.oracle.graal.python.runtime.sequence.PSequence;
-import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.ValueProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PSequenceIterator)
 public class IteratorBuiltins extends PythonBuiltins {
@@ -73,116 +68,14 @@ public class IteratorBuiltins extends PythonBuiltins {
     public abstract static class NextNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        public Object next(PArrayIterator self,
-                        @Cached("createClassProfile()") ValueProfile itemTypeProfile,
-                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
-            if (self.index < self.array.len()) {
-                // TODO avoid boxing by getting the array's typecode and using primitive return
-                // types
-                return itemTypeProfile.profile(getItemNode.execute(self.array.getSequenceStorage(), self.index++));
-            }
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public int next(PIntegerSequenceIterator self) {
-            if (!self.isExhausted() && self.index < self.sequence.length()) {
-                return self.sequence.getIntItemNormalized(self.index++);
-            }
-            self.setExhausted();
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public int next(PRangeIterator self) {
-            if (self.index < self.stop) {
-                int value = self.index;
-                self.index += self.step;
-                return value;
-            }
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public int next(PRangeReverseIterator self) {
-            if (self.index > self.stop) {
-                int value = self.index;
-                self.index -= self.step;
-                return value;
-            }
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public double next(PDoubleSequenceIterator self) {
-            if (!self.isExhausted() && self.index < self.sequence.length()) {
-                return self.sequence.getDoubleItemNormalized(self.index++);
-            }
-            self.setExhausted();
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public long next(PLongSequenceIterator self) {
-            if (!self.isExhausted() && self.index < self.sequence.length()) {
-                return self.sequence.getLongItemNormalized(self.index++);
-            }
-            self.setExhausted();
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public Object next(PBaseSetIterator self) {
-            if (self.hasNext()) {
-                return self.next();
-            }
-            throw raise(StopIteration);
-        }
-
-        @Specialization(guards = "self.isPList()")
-        public Object nextList(PSequenceIterator self,
-                        @Cached("createClassProfile()") ValueProfile storageProfile) {
-            SequenceStorage storage = storageProfile.profile(((PList) self.getPSequence()).getSequenceStorage());
-            int length = storage.length();
-            if (!self.isExhausted() && self.index < length) {
-                return storage.getItemNormalized(self.index++);
-            }
-            self.setExhausted();
-            throw raise(StopIteration);
-        }
-
-        @Specialization(guards = "self.isPSequence()")
-        public Object next(PSequenceIterator self,
-                        @Cached("createClassProfile()") ValueProfile sequenceProfile,
-                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
-                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
-            PSequence sequence = sequenceProfile.profile(self.getPSequence());
-            SequenceStorage s = sequence.getSequenceStorage();
-            if (!self.isExhausted() && self.index < lenNode.execute(s)) {
-                return getItemNode.execute(s, self.index++);
-            }
-            self.setExhausted();
-            throw raise(StopIteration);
-        }
-
-        @Specialization
-        public Object next(PStringIterator self) {
-            if (self.index < self.value.length()) {
-                return Character.toString(self.value.charAt(self.index++));
-            }
-            throw raise(StopIteration);
-        }
-
-        @Specialization(guards = "!self.isPSequence()")
-        public Object next(PSequenceIterator self,
-                        @Cached("create(__GETITEM__)") LookupAndCallBinaryNode callGetItem,
-                        @Cached("createBinaryProfile()") ConditionProfile profile) {
-            try {
-                return callGetItem.executeObject(self.getObject(), self.index++);
-            } catch (PException e) {
-                e.expectIndexError(getCore(), profile);
+        public Object next(Object self,
+                        @Cached("create()") BuiltinIteratorNextNode nextNode,
+                        @Cached("createBinaryProfile()") ConditionProfile exhaustedProfile) {
+            Object result = nextNode.execute(self);
+            if (exhaustedProfile.profile(result == IteratorNodes.EXHAUSTED)) {
                 throw raise(StopIteration);
             }
+            return result;
         }
     }
 
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.iterator;
+
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.generator.GeneratorNodes.GeneratorNextNode;
+import com.oracle.graal.python.builtins.objects.generator.PGenerator;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodesFactory.BuiltinIteratorNextNodeGen;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodesFactory.FilterNextNodeGen;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodesFactory.MapNextNodeGen;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodesFactory.NextOrExhaustedNodeGen;
+import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsNodes.ItertoolsNextNode;
+import com.oracle.graal.python.builtins.objects.itertools.PItertoolsIterator;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+public abstract class IteratorNodes {
+
+    /**
+     * Returned instead of raising {@code StopIteration} when an iterator is exhausted. It never
+     * escapes to Python code: whoever passes the end of an iteration on to user code raises the
+     * {@code StopIteration} there.
+     */
+    public static final Object EXHAUSTED = new Object() {
+        @Override
+        public String toString() {
+            return "<exhausted>";
+        }
+    };
+
+    /**
+     * Advances an iterator and returns its next item or {@link #EXHAUSTED}. Builtin iterators and
+     * generators do not create a {@code StopIteration} at all; other iterators still raise one in
+     * their {@code __next__}, which is caught here.
+     */
+    public abstract static class NextOrExhaustedNode extends PNodeWithContext {
+
+        public abstract Object execute(Object iterator);
+
+        @Specialization(guards = "isBuiltinIterator(iterator)")
+        Object doBuiltin(Object iterator,
+                        @Cached("create()") BuiltinIteratorNextNode nextNode) {
+            return nextNode.execute(iterator);
+        }
+
+        @Specialization
+        Object doGenerator(PGenerator generator,
+                        @Cached("create()") GeneratorNextNode nextNode) {
+            return nextNode.execute(generator);
+        }
+
+        @Specialization(guards = "isBuiltinMap(map)")
+        Object doMap(PMap map,
+                        @Cached("create()") MapNextNode nextNode) {
+            return nextNode.execute(map);
+        }
+
+        @Specialization(guards = "isBuiltinFilter(filter)")
+        Object doFilter(PFilter filter,
+                        @Cached("create()") FilterNextNode nextNode) {
+            return nextNode.execute(filter);
+        }
+
+        @Specialization(guards = "isBuiltinItertools(iterator)")
+        Object doItertools(PItertoolsIterator iterator,
+                        @Cached("create()") ItertoolsNextNode nextNode) {
+            return nextNode.execute(iterator);
+        }
+
+        @Specialization(guards = {"!isBuiltinIterator(iterator)", "!isGenerator(iterator)", "!isBuiltinMap(iterator)", "!isBuiltinFilter(iterator)", "!isBuiltinItertools(iterator)"})
+        Object doGeneric(Object iterator,
+                        @Cached("create()") GetNextNode getNextNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            try {
+                return getNextNode.execute(iterator);
+            } catch (PException e) {
+                e.expectStopIteration(getCore(), errorProfile);
+                return EXHAUSTED;
+            }
+        }
+
+        protected static boolean isBuiltinIterator(Object iterator) {
+            return BuiltinIteratorNextNode.accepts(iterator);
+        }
+
+        protected static boolean isGenerator(Object iterator) {
+            return iterator instanceof PGenerator;
+        }
+
+        /*
+         * Subclasses of map, filter and the itertools may override __next__, so only the builtin
+         * classes themselves are advanced directly.
+         */
+        protected static boolean isBuiltinMap(Object iterator) {
+            return iterator instanceof PMap && ((PMap) iterator).getPythonClass().isBuiltin();
+        }
+
+        protected static boolean isBuiltinFilter(Object iterator) {
+            return iterator instanceof PFilter && ((PFilter) iterator).getPythonClass().isBuiltin();
+        }
+
+        protected static boolean isBuiltinItertools(Object iterator) {
+            return iterator instanceof PItertoolsIterator && ((PItertoolsIterator) iterator).getPythonClass().isBuiltin();
+        }
+
+        public static NextOrExhaustedNode create() {
+            return NextOrExhaustedNodeGen.create();
+        }
+    }
+
+    /**
+     * The {@code __next__} of the builtin iterator types, returning {@link #EXHAUSTED} at the end.
+     */
+    @ImportStatic(SpecialMethodNames.class)
+    public abstract static class BuiltinIteratorNextNode extends PNodeWithContext {
+
+        public abstract Object execute(Object iterator);
+
+        @Specialization
+        Object next(PArrayIterator self,
+                        @Cached("createClassProfile()") ValueProfile itemTypeProfile,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
+            if (self.index < self.array.len()) {
+                // TODO avoid boxing by getting the array's typecode and using primitive return
+                // types
+                return itemTypeProfile.profile(getItemNode.execute(self.array.getSequenceStorage(), self.index++));
+            }
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PIntegerSequenceIterator self) {
+            if (!self.isExhausted() && self.index < self.sequence.length()) {
+                return self.sequence.getIntItemNormalized(self.index++);
+            }
+            self.setExhausted();
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PRangeIterator self) {
+            if (self.index < self.stop) {
+                int value = self.index;
+                self.index += self.step;
+                return value;
+            }
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PRangeReverseIterator self) {
+            if (self.index > self.stop) {
+                int value = self.index;
+                self.index -= self.step;
+                return value;
+            }
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PDoubleSequenceIterator self) {
+            if (!self.isExhausted() && self.index < self.sequence.length()) {
+                return self.sequence.getDoubleItemNormalized(self.index++);
+            }
+            self.setExhausted();
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PLongSequenceIterator self) {
+            if (!self.isExhausted() && self.index < self.sequence.length()) {
+                return self.sequence.getLongItemNormalized(self.index++);
+            }
+            self.setExhausted();
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PBaseSetIterator self) {
+            if (self.hasNext()) {
+                return self.next();
+            }
+            return EXHAUSTED;
+        }
+
+        @Specialization(guards = "self.isPList()")
+        Object nextList(PSequenceIterator self,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            SequenceStorage storage = storageProfile.profile(((PList) self.getPSequence()).getSequenceStorage());
+            int length = storage.length();
+            if (!self.isExhausted() && self.index < length) {
+                return storage.getItemNormalized(self.index++);
+            }
+            self.setExhausted();
+            return EXHAUSTED;
+        }
+
+        @Specialization(guards = "self.isPSequence()")
+        Object next(PSequenceIterator self,
+                        @Cached("createClassProfile()") ValueProfile sequenceProfile,
+                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
+            PSequence sequence = sequenceProfile.profile(self.getPSequence());
+            SequenceStorage s = sequence.getSequenceStorage();
+            if (!self.isExhausted() && self.index < lenNode.execute(s)) {
+                return getItemNode.execute(s, self.index++);
+            }
+            self.setExhausted();
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object next(PStringIterator self) {
+            if (self.index < self.value.length()) {
+                return Character.toString(self.value.charAt(self.index++));
+            }
+            return EXHAUSTED;
+        }
+
+        @Specialization(guards = "!self.isPSequence()")
+        Object next(PSequenceIterator self,
+                        @Cached("create(__GETITEM__)") LookupAndCallBinaryNode callGetItem,
+                        @Cached("createBinaryProfile()") ConditionProfile profile) {
+            try {
+                return callGetItem.executeObject(self.getObject(), self.index++);
+            } catch (PException e) {
+                e.expectIndexError(getCore(), profile);
+                return EXHAUSTED;
+            }
+        }
+
+        /** Whether this node implements {@code __next__} for the given iterator. */
+        static boolean accepts(Object iterator) {
+            return iterator instanceof PIntegerIterator || iterator instanceof PLongIterator || iterator instanceof PDoubleIterator || iterator instanceof PArrayIterator ||
+                            iterator instanceof PSequenceIterator || iterator instanceof PStringIterator || iterator instanceof PBaseSetIterator;
+        }
+
+        public static BuiltinIteratorNextNode create() {
+            return BuiltinIteratorNextNodeGen.create();
+        }
+    }
+
+    /**
+     * The {@code __next__} of {@code map}. The function is called through a call-site cache, so
+     * mapping a single Python or builtin function does not go through a generic call.
+     */
+    public abstract static class MapNextNode extends PNodeWithContext {
+
+        public abstract Object execute(PMap map);
+
+        @Specialization(guards = "map.getIterators().length == 1")
+        Object doSingle(PMap map,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile exhaustedProfile) {
+            Object item = nextNode.execute(map.getIterators()[0]);
+            if (exhaustedProfile.profile(item == EXHAUSTED)) {
+                return EXHAUSTED;
+            }
+            return callNode.executeObject(map.getFunction(), item);
+        }
+
+        @Specialization(replaces = "doSingle")
+        Object doMultiple(PMap map,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile exhaustedProfile) {
+            Object[] iterators = map.getIterators();
+            Object[] arguments = new Object[iterators.length];
+            for (int i = 0; i < iterators.length; i++) {
+                Object item = nextNode.execute(iterators[i]);
+                if (exhaustedProfile.profile(item == EXHAUSTED)) {
+                    return EXHAUSTED;
+                }
+                arguments[i] = item;
+            }
+            return callNode.execute(null, map.getFunction(), arguments, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        public static MapNextNode create() {
+            return MapNextNodeGen.create();
+        }
+    }
+
+    /**
+     * The {@code __next__} of {@code filter}: skips items until the predicate, or the item itself
+     * if the predicate is {@code None}, is true.
+     */
+    @ImportStatic(PGuards.class)
+    public abstract static class FilterNextNode extends PNodeWithContext {
+
+        public abstract Object execute(PFilter filter);
+
+        @Specialization(guards = "isNone(filter.getFunction())")
+        Object doNone(PFilter filter,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            while (true) {
+                Object item = nextNode.execute(filter.getIterator());
+                if (item == EXHAUSTED || isTrueNode.executeWith(item)) {
+                    return item;
+                }
+            }
+        }
+
+        @Specialization(guards = "!isNone(filter.getFunction())")
+        Object doFunction(PFilter filter,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            while (true) {
+                Object item = nextNode.execute(filter.getIterator());
+                if (item == EXHAUSTED || isTrueNode.executeWith(callNode.executeObject(filter.getFunction(), item))) {
+                    return item;
+                }
+            }
+        }
+
+        public static FilterNextNode create() {
+            return FilterNextNodeGen.create();
+        }
+    }
+}
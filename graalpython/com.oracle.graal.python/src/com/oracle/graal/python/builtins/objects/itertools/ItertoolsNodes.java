@@ -0,0 +1,621 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.builtins.objects.iterator.IteratorNodes.EXHAUSTED;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes.NextOrExhaustedNode;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsNodesFactory.ItertoolsNextNodeGen;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+public abstract class ItertoolsNodes {
+
+    /**
+     * The {@code __next__} of the itertools iterators, returning {@code EXHAUSTED} at the end.
+     */
+    @ImportStatic(PGuards.class)
+    public abstract static class ItertoolsNextNode extends PNodeWithContext {
+
+        public abstract Object execute(PItertoolsIterator iterator);
+
+        @Specialization(guards = "self.isPrimitive()", rewriteOn = ArithmeticException.class)
+        Object count(PCount self) {
+            long value = self.longCount;
+            self.longCount = Math.addExact(value, self.longStep);
+            return value;
+        }
+
+        @Specialization(replaces = "count")
+        Object countGeneric(PCount self,
+                        @Cached("createAdd()") LookupAndCallBinaryNode addNode) {
+            if (self.isPrimitive()) {
+                long value = self.longCount;
+                try {
+                    self.longCount = Math.addExact(value, self.longStep);
+                    return value;
+                } catch (ArithmeticException e) {
+                    self.setGeneric(value, self.longStep);
+                }
+            }
+            Object value = self.count;
+            self.count = addNode.executeObject(value, self.step);
+            return value;
+        }
+
+        @Specialization
+        Object repeat(PRepeat self) {
+            if (self.remaining == 0) {
+                return EXHAUSTED;
+            } else if (self.remaining > 0) {
+                self.remaining--;
+            }
+            return self.element;
+        }
+
+        @Specialization
+        Object chain(PChain self,
+                        @Cached("create()") NextOrExhaustedNode sourceNextNode,
+                        @Cached("create()") NextOrExhaustedNode activeNextNode,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            while (self.source != null) {
+                if (self.active == null) {
+                    Object iterable = sourceNextNode.execute(self.source);
+                    if (iterable == EXHAUSTED) {
+                        self.source = null;
+                        break;
+                    }
+                    self.active = getIterator.executeWith(iterable);
+                }
+                Object item = activeNextNode.execute(self.active);
+                if (item != EXHAUSTED) {
+                    return item;
+                }
+                self.active = null;
+            }
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object starmap(PStarmap self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") ExecutePositionalStarargsNode starargsNode,
+                        @Cached("create()") CallNode callNode) {
+            Object item = nextNode.execute(self.iterator);
+            if (item == EXHAUSTED) {
+                return EXHAUSTED;
+            }
+            return callNode.execute(null, self.function, starargsNode.executeWith(item), PKeyword.EMPTY_KEYWORDS);
+        }
+
+        @Specialization(guards = "self.isListSlice()")
+        Object isliceList(PIslice self,
+                        @Cached("createClassProfile()") ValueProfile storageProfile) {
+            SequenceStorage storage = storageProfile.profile(self.list.getSequenceStorage());
+            long index = self.next;
+            if ((self.stop != -1 && index >= self.stop) || index >= storage.length()) {
+                self.setExhausted();
+                return EXHAUSTED;
+            }
+            self.advance();
+            // the index is below the list's length, so it fits into an int
+            return storage.getItemNormalized((int) index);
+        }
+
+        @Specialization(guards = "!self.isListSlice()")
+        Object islice(PIslice self,
+                        @Cached("create()") NextOrExhaustedNode nextNode) {
+            Object iterator = self.iterator;
+            if (iterator == null) {
+                return EXHAUSTED;
+            }
+            while (self.consumed < self.next) {
+                if (nextNode.execute(iterator) == EXHAUSTED) {
+                    self.setExhausted();
+                    return EXHAUSTED;
+                }
+                self.consumed++;
+            }
+            if (self.stop != -1 && self.consumed >= self.stop) {
+                self.setExhausted();
+                return EXHAUSTED;
+            }
+            Object item = nextNode.execute(iterator);
+            if (item == EXHAUSTED) {
+                self.setExhausted();
+                return EXHAUSTED;
+            }
+            self.consumed++;
+            self.advance();
+            return item;
+        }
+
+        @Specialization
+        Object permutations(PPermutations self) {
+            if (self.stopped) {
+                return EXHAUSTED;
+            }
+            Object[] pool = self.pool;
+            int[] indices = self.indices;
+            int[] cycles = self.cycles;
+            int n = pool.length;
+            int r = self.r;
+            if (self.first) {
+                self.first = false;
+            } else {
+                int i = r - 1;
+                for (; i >= 0; i--) {
+                    cycles[i]--;
+                    if (cycles[i] == 0) {
+                        // move indices[i] to the end
+                        int index = indices[i];
+                        System.arraycopy(indices, i + 1, indices, i, n - i - 1);
+                        indices[n - 1] = index;
+                        cycles[i] = n - i;
+                    } else {
+                        int j = n - cycles[i];
+                        int index = indices[i];
+                        indices[i] = indices[j];
+                        indices[j] = index;
+                        break;
+                    }
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+            }
+            Object[] result = new Object[r];
+            for (int k = 0; k < r; k++) {
+                result[k] = pool[indices[k]];
+            }
+            return factory().createTuple(result);
+        }
+
+        @Specialization
+        Object combinations(PCombinations self) {
+            if (self.stopped) {
+                return EXHAUSTED;
+            }
+            Object[] pool = self.pool;
+            int[] indices = self.indices;
+            int n = pool.length;
+            int r = indices.length;
+            if (self.first) {
+                self.first = false;
+            } else if (self.withReplacement) {
+                int i = r - 1;
+                while (i >= 0 && indices[i] == n - 1) {
+                    i--;
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+                int index = indices[i] + 1;
+                for (int j = i; j < r; j++) {
+                    indices[j] = index;
+                }
+            } else {
+                int i = r - 1;
+                while (i >= 0 && indices[i] == i + n - r) {
+                    i--;
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+                indices[i]++;
+                for (int j = i + 1; j < r; j++) {
+                    indices[j] = indices[j - 1] + 1;
+                }
+            }
+            Object[] result = new Object[r];
+            for (int k = 0; k < r; k++) {
+                result[k] = pool[indices[k]];
+            }
+            return factory().createTuple(result);
+        }
+
+        @Specialization(guards = "self.isRangeProduct()")
+        Object productOfRanges(PProduct self) {
+            if (self.stopped) {
+                return EXHAUSTED;
+            }
+            int[] starts = self.rangeStarts;
+            int[] steps = self.rangeSteps;
+            int[] lengths = self.lengths;
+            int[] indices = self.indices;
+            int n = lengths.length;
+            Object[] items;
+            if (self.items == null) {
+                if (isAnyEmpty(lengths)) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+                items = new Object[n];
+                for (int i = 0; i < n; i++) {
+                    items[i] = starts[i];
+                }
+            } else {
+                // the previous result tuple shares the array
+                items = Arrays.copyOf(self.items, n);
+                int i = n - 1;
+                for (; i >= 0; i--) {
+                    int index = indices[i] + 1;
+                    if (index == lengths[i]) {
+                        indices[i] = 0;
+                        items[i] = starts[i];
+                    } else {
+                        indices[i] = index;
+                        items[i] = starts[i] + index * steps[i];
+                        break;
+                    }
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+            }
+            self.items = items;
+            return factory().createTuple(items);
+        }
+
+        @Specialization(guards = "!self.isRangeProduct()")
+        Object product(PProduct self) {
+            if (self.stopped) {
+                return EXHAUSTED;
+            }
+            Object[][] gears = self.gears;
+            int[] lengths = self.lengths;
+            int[] indices = self.indices;
+            int n = lengths.length;
+            Object[] items;
+            if (self.items == null) {
+                if (isAnyEmpty(lengths)) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+                items = new Object[n];
+                for (int i = 0; i < n; i++) {
+                    items[i] = gears[i][0];
+                }
+            } else {
+                // the previous result tuple shares the array
+                items = Arrays.copyOf(self.items, n);
+                int i = n - 1;
+                for (; i >= 0; i--) {
+                    int index = indices[i] + 1;
+                    if (index == lengths[i]) {
+                        indices[i] = 0;
+                        items[i] = gears[i][0];
+                    } else {
+                        indices[i] = index;
+                        items[i] = gears[i][index];
+                        break;
+                    }
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    return EXHAUSTED;
+                }
+            }
+            self.items = items;
+            return factory().createTuple(items);
+        }
+
+        @Specialization
+        Object accumulate(PAccumulate self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("createAdd()") LookupAndCallBinaryNode addNode,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile addProfile) {
+            Object value = nextNode.execute(self.iterator);
+            if (value == EXHAUSTED) {
+                return EXHAUSTED;
+            }
+            Object total = self.total;
+            if (total == null) {
+                total = value;
+            } else if (addProfile.profile(PGuards.isPNone(self.function))) {
+                total = addNode.executeObject(total, value);
+            } else {
+                total = callNode.execute(null, self.function, new Object[]{total, value}, PKeyword.EMPTY_KEYWORDS);
+            }
+            self.total = total;
+            return total;
+        }
+
+        @Specialization
+        Object groupBy(PGroupBy self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode keyCallNode,
+                        @Cached("create()") KeyEqualsNode equalsNode) {
+            self.currentGrouper = null;
+            // skip the rest of the current group
+            while (self.currentKey == null || (self.targetKey != null && equalsNode.execute(self.targetKey, self.currentKey))) {
+                if (!step(self, nextNode, keyCallNode)) {
+                    return EXHAUSTED;
+                }
+            }
+            self.targetKey = self.currentKey;
+            PGrouper grouper = factory().createGrouper(self, self.targetKey);
+            self.currentGrouper = grouper;
+            return factory().createTuple(new Object[]{self.targetKey, grouper});
+        }
+
+        @Specialization
+        Object grouper(PGrouper self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode keyCallNode,
+                        @Cached("create()") KeyEqualsNode equalsNode) {
+            PGroupBy parent = self.parent;
+            if (parent.currentGrouper != self) {
+                return EXHAUSTED;
+            }
+            if (parent.currentValue == null && !step(parent, nextNode, keyCallNode)) {
+                return EXHAUSTED;
+            }
+            if (!equalsNode.execute(self.targetKey, parent.currentKey)) {
+                return EXHAUSTED;
+            }
+            Object value = parent.currentValue;
+            parent.currentValue = null;
+            parent.currentKey = null;
+            return value;
+        }
+
+        @Specialization
+        Object tee(PTee self,
+                        @Cached("create()") NextOrExhaustedNode nextNode) {
+            PTee.Data data = self.data;
+            if (self.index == PTee.Data.LINKCELLS) {
+                data = data.nextLink();
+                self.data = data;
+                self.index = 0;
+            }
+            Object value;
+            if (self.index < data.numRead) {
+                value = data.values[self.index];
+            } else {
+                if (data.running) {
+                    throw raise(RuntimeError, "cannot re-enter the tee iterator");
+                }
+                data.running = true;
+                try {
+                    value = nextNode.execute(data.iterator);
+                } finally {
+                    data.running = false;
+                }
+                if (value == EXHAUSTED) {
+                    return EXHAUSTED;
+                }
+                data.values[data.numRead++] = value;
+            }
+            self.index++;
+            return value;
+        }
+
+        @Specialization
+        Object zipLongest(PZipLongest self,
+                        @Cached("create()") NextOrExhaustedNode nextNode) {
+            Object[] iterators = self.iterators;
+            if (self.active == 0) {
+                return EXHAUSTED;
+            }
+            Object[] result = new Object[iterators.length];
+            for (int i = 0; i < iterators.length; i++) {
+                Object item = self.fillValue;
+                if (iterators[i] != null) {
+                    item = nextNode.execute(iterators[i]);
+                    if (item == EXHAUSTED) {
+                        self.active--;
+                        if (self.active == 0) {
+                            return EXHAUSTED;
+                        }
+                        iterators[i] = null;
+                        item = self.fillValue;
+                    }
+                }
+                result[i] = item;
+            }
+            return factory().createTuple(result);
+        }
+
+        @Specialization
+        Object cycle(PCycle self,
+                        @Cached("create()") NextOrExhaustedNode nextNode) {
+            if (self.iterator != null) {
+                Object item = nextNode.execute(self.iterator);
+                if (item != EXHAUSTED) {
+                    self.save(item);
+                    return item;
+                }
+                self.iterator = null;
+            }
+            if (self.savedLength == 0) {
+                return EXHAUSTED;
+            }
+            Object item = self.saved[self.index];
+            self.index = self.index + 1 == self.savedLength ? 0 : self.index + 1;
+            return item;
+        }
+
+        @Specialization
+        Object takewhile(PTakewhile self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            if (self.stopped) {
+                return EXHAUSTED;
+            }
+            Object item = nextNode.execute(self.iterator);
+            if (item == EXHAUSTED || isTrueNode.executeWith(callNode.executeObject(self.predicate, item))) {
+                return item;
+            }
+            self.stopped = true;
+            return EXHAUSTED;
+        }
+
+        @Specialization
+        Object dropwhile(PDropwhile self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            while (true) {
+                Object item = nextNode.execute(self.iterator);
+                if (item == EXHAUSTED || self.started) {
+                    return item;
+                } else if (!isTrueNode.executeWith(callNode.executeObject(self.predicate, item))) {
+                    self.started = true;
+                    return item;
+                }
+            }
+        }
+
+        @Specialization(guards = "isNone(self.predicate)")
+        Object filterfalseNone(PFilterfalse self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            while (true) {
+                Object item = nextNode.execute(self.iterator);
+                if (item == EXHAUSTED || !isTrueNode.executeWith(item)) {
+                    return item;
+                }
+            }
+        }
+
+        @Specialization(guards = "!isNone(self.predicate)")
+        Object filterfalse(PFilterfalse self,
+                        @Cached("create()") NextOrExhaustedNode nextNode,
+                        @Cached("create()") CallUnaryMethodNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            while (true) {
+                Object item = nextNode.execute(self.iterator);
+                if (item == EXHAUSTED || !isTrueNode.executeWith(callNode.executeObject(self.predicate, item))) {
+                    return item;
+                }
+            }
+        }
+
+        @Specialization
+        Object compress(PCompress self,
+                        @Cached("create()") NextOrExhaustedNode dataNextNode,
+                        @Cached("create()") NextOrExhaustedNode selectorsNextNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrueNode) {
+            while (true) {
+                Object item = dataNextNode.execute(self.data);
+                if (item == EXHAUSTED) {
+                    return EXHAUSTED;
+                }
+                Object selector = selectorsNextNode.execute(self.selectors);
+                if (selector == EXHAUSTED) {
+                    return EXHAUSTED;
+                } else if (isTrueNode.executeWith(selector)) {
+                    return item;
+                }
+            }
+        }
+
+        /**
+         * Reads the next item of a groupby and computes its key; returns {@code false} if the
+         * underlying iterator is exhausted.
+         */
+        private static boolean step(PGroupBy self, NextOrExhaustedNode nextNode, CallUnaryMethodNode keyCallNode) {
+            Object value = nextNode.execute(self.iterator);
+            if (value == EXHAUSTED) {
+                return false;
+            }
+            self.currentKey = PGuards.isPNone(self.keyFunction) ? value : keyCallNode.executeObject(self.keyFunction, value);
+            self.currentValue = value;
+            return true;
+        }
+
+        private static boolean isAnyEmpty(int[] lengths) {
+            for (int length : lengths) {
+                if (length == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static LookupAndCallBinaryNode createAdd() {
+            return BinaryArithmetic.Add.create();
+        }
+
+        public static ItertoolsNextNode create() {
+            return ItertoolsNextNodeGen.create();
+        }
+    }
+
+    static final class KeyEqualsNode extends PNodeWithContext {
+        @Child private BinaryComparisonNode eqNode = BinaryComparisonNode.create(__EQ__, __EQ__, "==");
+        @Child private CastToBooleanNode castToBoolean = CastToBooleanNode.createIfTrueNode();
+
+        boolean execute(Object left, Object right) {
+            return left == right || castToBoolean.executeWith(eqNode.executeWith(left, right));
+        }
+
+        static KeyEqualsNode create() {
+            return new KeyEqualsNode();
+        }
+    }
+}
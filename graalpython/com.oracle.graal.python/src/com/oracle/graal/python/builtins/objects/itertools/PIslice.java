@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+
+/**
+ * {@code itertools.islice}. Slicing a list does not go through a list iterator: the items are read
+ * from the list's storage at the requested indices, which skips the intermediate items for free.
+ */
+public final class PIslice extends PItertoolsIterator {
+
+    /** The sliced iterator, {@code null} if a list is sliced or once exhausted. */
+    Object iterator;
+    /** The sliced list, {@code null} if an iterator is sliced or once exhausted. */
+    PList list;
+    /** The index of the next item to return. */
+    long next;
+    /** The stop index or {@code -1} for none. */
+    final long stop;
+    final long step;
+    /** The number of items consumed from {@link #iterator}. */
+    long consumed;
+
+    public PIslice(PythonClass clazz, Object iterator, long start, long stop, long step) {
+        super(clazz);
+        this.iterator = iterator;
+        this.next = start;
+        this.stop = stop;
+        this.step = step;
+    }
+
+    public PIslice(PythonClass clazz, PList list, long start, long stop, long step) {
+        super(clazz);
+        this.list = list;
+        this.next = start;
+        this.stop = stop;
+        this.step = step;
+    }
+
+    public boolean isListSlice() {
+        return list != null;
+    }
+
+    void setExhausted() {
+        iterator = null;
+        list = null;
+        next = stop;
+    }
+
+    /**
+     * Advances {@link #next} by the step; clamps to the stop index when that is passed or when the
+     * index overflows.
+     */
+    void advance() {
+        long oldNext = next;
+        next += step;
+        if (next < oldNext) {
+            next = stop == -1 ? Long.MAX_VALUE : stop;
+        } else if (stop != -1 && next > stop) {
+            next = stop;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPermutations)
+public class PermutationsBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PermutationsBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object reduce(PPermutations self,
+                        @Cached("create()") GetClassNode getClass) {
+            Object type = getClass.execute(self);
+            if (self.first) {
+                return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{factory().createTuple(self.pool.clone()), self.r})});
+            } else if (self.stopped) {
+                return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{factory().createEmptyTuple(), self.r})});
+            }
+            Object[] indices = new Object[self.indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = self.indices[i];
+            }
+            Object[] cycles = new Object[self.cycles.length];
+            for (int i = 0; i < cycles.length; i++) {
+                cycles[i] = self.cycles[i];
+            }
+            Object arguments = factory().createTuple(new Object[]{factory().createTuple(self.pool.clone()), self.r});
+            Object state = factory().createTuple(new Object[]{factory().createTuple(indices), factory().createTuple(cycles)});
+            return factory().createTuple(new Object[]{type, arguments, state});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object setState(PPermutations self, Object state,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            Object[] items = toArrayNode.executeWith(state);
+            if (items.length != 2) {
+                throw raise(ValueError, "invalid arguments");
+            }
+            Object[] indices = toArrayNode.executeWith(items[0]);
+            Object[] cycles = toArrayNode.executeWith(items[1]);
+            int n = self.pool.length;
+            if (indices.length != n || cycles.length != self.cycles.length) {
+                throw raise(ValueError, "invalid arguments");
+            }
+            for (int i = 0; i < n; i++) {
+                self.indices[i] = Math.max(0, Math.min(castToIndex.execute(indices[i]), n - 1));
+            }
+            for (int i = 0; i < cycles.length; i++) {
+                self.cycles[i] = Math.max(1, Math.min(castToIndex.execute(cycles[i]), n - i));
+            }
+            self.first = false;
+            return PNone.NONE;
+        }
+    }
+}
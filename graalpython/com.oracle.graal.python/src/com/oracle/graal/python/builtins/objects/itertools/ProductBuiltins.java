@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PProduct)
+public class ProductBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ProductBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * The item at {@code index} of the gear {@code i}, also if the pools are ranges.
+     */
+    static Object getItem(PProduct self, int i, int index) {
+        if (self.isRangeProduct()) {
+            return self.rangeStarts[i] + index * self.rangeSteps[i];
+        }
+        return self.gears[i][index];
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        Object reduce(PProduct self,
+                        @Cached("create()") GetClassNode getClass) {
+            Object type = getClass.execute(self);
+            if (self.stopped) {
+                return factory().createTuple(new Object[]{type, factory().createTuple(new Object[]{factory().createEmptyTuple()})});
+            }
+            int n = self.lengths.length;
+            Object[] pools = new Object[n];
+            for (int i = 0; i < n; i++) {
+                Object[] pool = new Object[self.lengths[i]];
+                for (int j = 0; j < pool.length; j++) {
+                    pool[j] = getItem(self, i, j);
+                }
+                pools[i] = factory().createTuple(pool);
+            }
+            if (self.items == null) {
+                return factory().createTuple(new Object[]{type, factory().createTuple(pools)});
+            }
+            Object[] indices = new Object[n];
+            for (int i = 0; i < n; i++) {
+                indices[i] = self.indices[i];
+            }
+            return factory().createTuple(new Object[]{type, factory().createTuple(pools), factory().createTuple(indices)});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object setState(PProduct self, Object state,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode,
+                        @Cached("create()") CastToIndexNode castToIndex) {
+            Object[] indices = toArrayNode.executeWith(state);
+            int n = self.lengths.length;
+            if (indices.length != n) {
+                throw raise(ValueError, "invalid arguments");
+            }
+            Object[] items = new Object[n];
+            for (int i = 0; i < n; i++) {
+                int length = self.lengths[i];
+                if (length == 0) {
+                    self.stopped = true;
+                    return PNone.NONE;
+                }
+                int index = Math.max(0, Math.min(castToIndex.execute(indices[i]), length - 1));
+                self.indices[i] = index;
+                items[i] = getItem(self, i, index);
+            }
+            self.items = items;
+            return PNone.NONE;
+        }
+    }
+}
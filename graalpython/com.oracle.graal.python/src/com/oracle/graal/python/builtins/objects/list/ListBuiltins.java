@@ -47,8 +47,10 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -61,6 +63,7 @@ import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NormalizeIndexNode;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
@@ -73,6 +76,7 @@ import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.IndexNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
@@ -684,6 +688,224 @@ public class ListBuiltins extends PythonBuiltins {
         }
     }
 
+    // list.sort(key=None, reverse=False)
+    @Builtin(name = "sort", minNumOfPositionalArgs = 1, keywordArguments = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class ListSortNode extends PythonBuiltinNode {
+
+        @Child private CastToBooleanNode castToBooleanNode;
+
+        @Specialization(guards = "isIntStorage(list)")
+        PNone sortInt(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            boolean rev = isReverse(reverse);
+            IntSequenceStorage store = (IntSequenceStorage) list.getSequenceStorage();
+            sortInts(store.getInternalIntArray(), store.length());
+            if (rev) {
+                store.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isLongStorage(list)")
+        PNone sortLong(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            boolean rev = isReverse(reverse);
+            LongSequenceStorage store = (LongSequenceStorage) list.getSequenceStorage();
+            sortLongs(store.getInternalLongArray(), store.length());
+            if (rev) {
+                store.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(list)", "hasNaturalOrder(list)"})
+        PNone sortDouble(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            boolean rev = isReverse(reverse);
+            DoubleSequenceStorage store = (DoubleSequenceStorage) list.getSequenceStorage();
+            sortDoubles(store.getInternalDoubleArray(), store.length());
+            if (rev) {
+                store.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone sortGeneric(PList list, Object key, Object reverse,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode,
+                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
+                        @Cached("create()") CallNode keyCall,
+                        @Cached("createComparison()") BinaryComparisonNode ltNode) {
+            boolean rev = isReverse(reverse);
+            SequenceStorage store = list.getSequenceStorage();
+            int length = lenNode.execute(store);
+            Object[] items = new Object[length];
+            for (int i = 0; i < length; i++) {
+                items[i] = getItemNode.execute(store, i);
+            }
+
+            // just like in CPython, the list appears empty while it is being sorted
+            list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            boolean modified;
+            try {
+                if (key instanceof PNone) {
+                    sortItems(items, rev, ltNode);
+                } else {
+                    Object[] keys = new Object[length];
+                    for (int i = 0; i < length; i++) {
+                        keys[i] = keyCall.execute(null, key, new Object[]{items[i]}, PKeyword.EMPTY_KEYWORDS);
+                    }
+                    sortItemsWithKeys(items, keys, rev, ltNode);
+                }
+            } finally {
+                // even if a comparison failed, 'items' is a permutation of the original elements
+                modified = list.getSequenceStorage() != EmptySequenceStorage.INSTANCE;
+                for (int i = 0; i < length; i++) {
+                    store = setItemNode.executeInt(store, i, items[i]);
+                }
+                list.setSequenceStorage(store);
+            }
+            if (modified) {
+                throw raise(ValueError, "list modified during sort");
+            }
+            return PNone.NONE;
+        }
+
+        private boolean isReverse(Object reverse) {
+            if (reverse instanceof PNone) {
+                return false;
+            }
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(reverse);
+        }
+
+        /**
+         * Java's sort for doubles differs from Python's only in the placement of NaNs and in
+         * ordering -0.0 before 0.0, so we can use it if neither occurs.
+         */
+        protected static boolean hasNaturalOrder(PList list) {
+            DoubleSequenceStorage store = (DoubleSequenceStorage) list.getSequenceStorage();
+            double[] values = store.getInternalDoubleArray();
+            for (int i = 0; i < store.length(); i++) {
+                double d = values[i];
+                if (Double.isNaN(d) || (d == 0.0 && Double.doubleToRawLongBits(d) != 0L)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @TruffleBoundary
+        private static void sortInts(int[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        @TruffleBoundary
+        private static void sortLongs(long[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        @TruffleBoundary
+        private static void sortDoubles(double[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        @TruffleBoundary
+        private static void sortItems(Object[] items, boolean reverse, BinaryComparisonNode ltNode) {
+            // reversing before and after the sort keeps equal elements in their original order
+            if (reverse) {
+                reverseArray(items);
+            }
+            TimSort.sort(items, items.length, createLessThan(items, ltNode));
+            if (reverse) {
+                reverseArray(items);
+            }
+        }
+
+        @TruffleBoundary
+        private static void sortItemsWithKeys(Object[] items, Object[] keys, boolean reverse, BinaryComparisonNode ltNode) {
+            TimSort.LessThan keyLt = createLessThan(keys, ltNode);
+            Object[] decorated = new Object[items.length];
+            for (int i = 0; i < items.length; i++) {
+                decorated[i] = new KeyedItem(keys[i], items[i]);
+            }
+            if (reverse) {
+                reverseArray(decorated);
+            }
+            try {
+                TimSort.sort(decorated, decorated.length, (a, b) -> keyLt.lt(((KeyedItem) a).key, ((KeyedItem) b).key));
+            } finally {
+                if (reverse) {
+                    reverseArray(decorated);
+                }
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = ((KeyedItem) decorated[i]).item;
+                }
+            }
+        }
+
+        /**
+         * Homogeneous arrays of strings, integers or floats are compared directly; everything else
+         * goes through the {@code <} operator.
+         */
+        private static TimSort.LessThan createLessThan(Object[] keys, BinaryComparisonNode ltNode) {
+            if (allOfClass(keys, String.class)) {
+                return (a, b) -> ((String) a).compareTo((String) b) < 0;
+            } else if (allOfClass(keys, Double.class)) {
+                return (a, b) -> (double) a < (double) b;
+            } else if (allIntegers(keys)) {
+                return (a, b) -> ((Number) a).longValue() < ((Number) b).longValue();
+            }
+            return (a, b) -> ltNode.executeBool(a, b);
+        }
+
+        private static boolean allOfClass(Object[] keys, Class<?> clazz) {
+            for (Object key : keys) {
+                if (key == null || key.getClass() != clazz) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean allIntegers(Object[] keys) {
+            for (Object key : keys) {
+                if (!(key instanceof Integer || key instanceof Long)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void reverseArray(Object[] array) {
+            for (int head = 0, tail = array.length - 1; head < tail; head++, tail--) {
+                Object tmp = array[head];
+                array[head] = array[tail];
+                array[tail] = tmp;
+            }
+        }
+
+        protected static SequenceStorageNodes.SetItemNode createSetItem() {
+            return SequenceStorageNodes.SetItemNode.create(NormalizeIndexNode.forListAssign(), () -> ListGeneralizationNode.create());
+        }
+
+        protected static BinaryComparisonNode createComparison() {
+            return BinaryComparisonNode.create(__LT__, __GT__, "<");
+        }
+
+        private static final class KeyedItem {
+            private final Object key;
+            private final Object item;
+
+            KeyedItem(Object key, Object item) {
+                this.key = key;
+                this.item = item;
+            }
+        }
+    }
+
     @Builtin(name = __LEN__, fixedNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
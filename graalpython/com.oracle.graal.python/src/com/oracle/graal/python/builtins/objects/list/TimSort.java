@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ * Copyright (c) 2017, The PyPy Project
+ *
+ *     The MIT License
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL
+ * THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.list;
+
+import java.util.Arrays;
+
+/**
+ * An adaptive, stable, natural mergesort working directly on an {@code Object[]}. This is a port of
+ * PyPy's {@code timsort.py}, which implements CPython's {@code listsort} (see
+ * {@code lib-graalpython/listsort.txt} for the details of the algorithm). Just like in CPython, the
+ * only comparison ever used is "less than", so the sort is stable and behaves exactly like Python's
+ * {@code list.sort} for inconsistent comparisons.
+ */
+final class TimSort {
+
+    @FunctionalInterface
+    interface LessThan {
+        boolean lt(Object a, Object b);
+    }
+
+    /**
+     * When we get into galloping mode, we stay there until both runs win less often than
+     * MIN_GALLOP consecutive times.
+     */
+    private static final int MIN_GALLOP = 7;
+
+    /** Enough to sort arrays of up to 2**64 elements (see CPython's MAX_MERGE_PENDING). */
+    private static final int MAX_MERGE_PENDING = 85;
+
+    private final Object[] list;
+    private final LessThan cmp;
+
+    private int minGallop = MIN_GALLOP;
+
+    // the stack of pending runs yet to be merged
+    private final int[] runBase = new int[MAX_MERGE_PENDING];
+    private final int[] runLen = new int[MAX_MERGE_PENDING];
+    private int pending = 0;
+
+    private TimSort(Object[] list, LessThan cmp) {
+        this.list = list;
+        this.cmp = cmp;
+    }
+
+    /**
+     * Sorts the first {@code length} elements of {@code list} in-place. Exceptions thrown by the
+     * comparison are propagated, but even in that case the array is left in a permutation of the
+     * input.
+     */
+    static void sort(Object[] list, int length, LessThan lt) {
+        new TimSort(list, lt).sort(length);
+    }
+
+    private boolean lt(Object a, Object b) {
+        return cmp.lt(a, b);
+    }
+
+    private boolean lower(Object a, Object b, boolean rightmost) {
+        // "a <= b" is expressed as "not b < a"
+        return rightmost ? !cmp.lt(b, a) : cmp.lt(a, b);
+    }
+
+    private void sort(int length) {
+        if (length < 2) {
+            return;
+        }
+        // March over the array once, left to right, finding natural runs, and extending short
+        // natural runs to minrun elements.
+        int minrun = computeMinrun(length);
+        int lo = 0;
+        int remaining = length;
+        while (remaining > 0) {
+            int n = countRunAndMakeAscending(lo, lo + remaining);
+            // If short, extend to min(minrun, remaining).
+            if (n < minrun) {
+                int force = Math.min(minrun, remaining);
+                binarySort(lo, lo + force, lo + n);
+                n = force;
+            }
+            runBase[pending] = lo;
+            runLen[pending] = n;
+            pending++;
+            mergeCollapse();
+            lo += n;
+            remaining -= n;
+        }
+        mergeForceCollapse();
+        assert pending == 1 && runBase[0] == 0 && runLen[0] == length;
+    }
+
+    /**
+     * If n < 64, return n. Else if n is an exact power of 2, return 32. Else return an int k, 32
+     * <= k <= 64, such that n/k is close to, but strictly less than, an exact power of 2.
+     */
+    private static int computeMinrun(int length) {
+        int n = length;
+        int r = 0;
+        while (n >= 64) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /**
+     * Binary insertion sort of {@code list[lo:hi]} where the first {@code start - lo} elements are
+     * already sorted. This sort is stable.
+     */
+    private void binarySort(int lo, int hi, int start) {
+        for (int i = start; i < hi; i++) {
+            Object pivot = list[i];
+            int l = lo;
+            int r = i;
+            // Invariants: pivot >= all in [lo, l) and pivot < all in [r, i).
+            while (l < r) {
+                int p = l + ((r - l) >>> 1);
+                if (lt(pivot, list[p])) {
+                    r = p;
+                } else {
+                    l = p + 1;
+                }
+            }
+            // If there are elements equal to pivot, l points to the first slot after them --
+            // that's why this sort is stable.
+            System.arraycopy(list, l, list, l + 1, i - l);
+            list[l] = pivot;
+        }
+    }
+
+    /**
+     * Returns the length of the run beginning at {@code lo}. A run is either the longest ascending
+     * sequence {@code a[0] <= a[1] <= ...} or the longest strictly descending sequence
+     * {@code a[0] > a[1] > ...}. Descending runs are reversed in-place, which is safe with respect
+     * to stability because of the strictness.
+     */
+    private int countRunAndMakeAscending(int lo, int hi) {
+        if (hi - lo <= 1) {
+            return hi - lo;
+        }
+        int p = lo + 2;
+        if (lt(list[lo + 1], list[lo])) {
+            while (p < hi && lt(list[p], list[p - 1])) {
+                p++;
+            }
+            reverse(lo, p);
+        } else {
+            while (p < hi && !lt(list[p], list[p - 1])) {
+                p++;
+            }
+        }
+        return p - lo;
+    }
+
+    private void reverse(int lo, int hi) {
+        int l = lo;
+        int h = hi - 1;
+        while (l < h) {
+            Object tmp = list[l];
+            list[l++] = list[h];
+            list[h--] = tmp;
+        }
+    }
+
+    /**
+     * Locates the proper position of {@code key} in the sorted slice {@code a[base:base+len]}. If
+     * the slice contains elements equal to key, returns the position immediately to the left of
+     * the leftmost equal element, or to the right of the rightmost equal element if
+     * {@code rightmost} is set. The search starts at {@code hint} ({@code 0 <= hint < len}).
+     */
+    private int gallop(Object key, Object[] a, int base, int len, int hint, boolean rightmost) {
+        assert 0 <= hint && hint < len;
+        int p = base + hint;
+        int lastofs = 0;
+        int ofs = 1;
+        if (lower(a[p], key, rightmost)) {
+            // a[hint] < key -- gallop right, until a[hint + lastofs] < key <= a[hint + ofs]
+            int maxofs = len - hint;
+            while (ofs < maxofs && lower(a[p + ofs], key, rightmost)) {
+                lastofs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    // int overflow
+                    ofs = maxofs;
+                }
+            }
+            if (ofs > maxofs) {
+                ofs = maxofs;
+            }
+            // translate back to offsets relative to a[base]
+            lastofs += hint;
+            ofs += hint;
+        } else {
+            // key <= a[hint] -- gallop left, until a[hint - ofs] < key <= a[hint - lastofs]
+            int maxofs = hint + 1;
+            while (ofs < maxofs && !lower(a[p - ofs], key, rightmost)) {
+                lastofs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxofs;
+                }
+            }
+            if (ofs > maxofs) {
+                ofs = maxofs;
+            }
+            int tmp = lastofs;
+            lastofs = hint - ofs;
+            ofs = hint - tmp;
+        }
+        assert -1 <= lastofs && lastofs < ofs && ofs <= len;
+
+        // Now a[lastofs] < key <= a[ofs], so do a binary search with invariant
+        // a[lastofs - 1] < key <= a[ofs].
+        lastofs++;
+        while (lastofs < ofs) {
+            int m = lastofs + ((ofs - lastofs) >>> 1);
+            if (lower(a[base + m], key, rightmost)) {
+                lastofs = m + 1;
+            } else {
+                ofs = m;
+            }
+        }
+        return ofs;
+    }
+
+    /**
+     * Examines the stack of runs waiting to be merged, merging adjacent runs until the stack
+     * invariants are re-established: {@code len[-3] > len[-2] + len[-1]} and
+     * {@code len[-2] > len[-1]}.
+     */
+    private void mergeCollapse() {
+        while (pending > 1) {
+            int n = pending - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            } else if (runLen[n] <= runLen[n + 1]) {
+                mergeAt(n);
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void mergeForceCollapse() {
+        while (pending > 1) {
+            int n = pending - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    /**
+     * Merges the two runs at stack indices i and i+1.
+     */
+    private void mergeAt(int i) {
+        int baseA = runBase[i];
+        int lenA = runLen[i];
+        int baseB = runBase[i + 1];
+        int lenB = runLen[i + 1];
+        assert lenA > 0 && lenB > 0 && baseA + lenA == baseB;
+
+        // Record the length of the combined runs and remove run i+1.
+        runLen[i] = lenA + lenB;
+        if (i == pending - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        pending--;
+
+        // Where does b start in a? Elements in a before that are already in place.
+        int k = gallop(list[baseB], list, baseA, lenA, 0, true);
+        baseA += k;
+        lenA -= k;
+        if (lenA == 0) {
+            return;
+        }
+
+        // Where does a end in b? Elements in b after that are already in place.
+        lenB = gallop(list[baseA + lenA - 1], list, baseB, lenB, lenB - 1, false);
+        if (lenB == 0) {
+            return;
+        }
+
+        // Merge what remains of the runs, using the direction that needs less temp storage.
+        if (lenA <= lenB) {
+            mergeLo(baseA, lenA, baseB, lenB);
+        } else {
+            mergeHi(baseA, lenA, baseB, lenB);
+        }
+    }
+
+    /**
+     * Merges the adjacent runs {@code a} and {@code b} in a stable way, in-place. Must have that
+     * {@code b[0] < a[0]}, that {@code a[-1]} belongs at the end of the merge, and should have
+     * {@code lenA <= lenB}.
+     */
+    private void mergeLo(int baseA, int initialLenA, int baseB, int initialLenB) {
+        int lenA = initialLenA;
+        int lenB = initialLenB;
+        Object[] a = Arrays.copyOfRange(list, baseA, baseA + lenA);
+        int ca = 0;
+        int cb = baseB;
+        int dest = baseA;
+        int gallopThreshold = minGallop;
+        // Elements remaining in the copy of "a" are always reinserted into the list, also when
+        // the comparison throws.
+        try {
+            list[dest++] = list[cb++];
+            lenB--;
+            if (lenA == 1 || lenB == 0) {
+                return;
+            }
+            while (true) {
+                int acount = 0; // number of times A won in a row
+                int bcount = 0; // number of times B won in a row
+
+                // Do the straightforward thing until (if ever) one run appears to win
+                // consistently.
+                while (true) {
+                    if (lt(list[cb], a[ca])) {
+                        list[dest++] = list[cb++];
+                        lenB--;
+                        if (lenB == 0) {
+                            return;
+                        }
+                        bcount++;
+                        acount = 0;
+                        if (bcount >= gallopThreshold) {
+                            break;
+                        }
+                    } else {
+                        list[dest++] = a[ca++];
+                        lenA--;
+                        if (lenA == 1) {
+                            return;
+                        }
+                        acount++;
+                        bcount = 0;
+                        if (acount >= gallopThreshold) {
+                            break;
+                        }
+                    }
+                }
+
+                // One run is winning so consistently that galloping may be a huge win.
+                gallopThreshold++;
+                while (true) {
+                    if (gallopThreshold > 1) {
+                        gallopThreshold--;
+                    }
+                    minGallop = gallopThreshold;
+
+                    acount = gallop(list[cb], a, ca, lenA, 0, true);
+                    System.arraycopy(a, ca, list, dest, acount);
+                    dest += acount;
+                    ca += acount;
+                    lenA -= acount;
+                    // lenA == 0 is impossible now if the comparison is consistent, but we can't
+                    // assume that it is.
+                    if (lenA <= 1) {
+                        return;
+                    }
+
+                    list[dest++] = list[cb++];
+                    lenB--;
+                    if (lenB == 0) {
+                        return;
+                    }
+
+                    bcount = gallop(a[ca], list, cb, lenB, 0, false);
+                    System.arraycopy(list, cb, list, dest, bcount);
+                    dest += bcount;
+                    cb += bcount;
+                    lenB -= bcount;
+                    if (lenB == 0) {
+                        return;
+                    }
+
+                    list[dest++] = a[ca++];
+                    lenA--;
+                    if (lenA == 1) {
+                        return;
+                    }
+
+                    if (acount < MIN_GALLOP && bcount < MIN_GALLOP) {
+                        break;
+                    }
+                }
+                // penalize it for leaving galloping mode
+                gallopThreshold++;
+                minGallop = gallopThreshold;
+            }
+        } finally {
+            // The last element of a belongs at the end of the merge, so we copy the remaining
+            // elements of b before the remaining elements of a.
+            System.arraycopy(list, cb, list, dest, lenB);
+            System.arraycopy(a, ca, list, dest + lenB, lenA);
+        }
+    }
+
+    /**
+     * Same as {@link #mergeLo} but should have {@code lenA >= lenB}.
+     */
+    private void mergeHi(int baseA, int initialLenA, int baseB, int initialLenB) {
+        int lenA = initialLenA;
+        int lenB = initialLenB;
+        Object[] b = Arrays.copyOfRange(list, baseB, baseB + lenB);
+        int dest = baseB + lenB;
+        int gallopThreshold = minGallop;
+        try {
+            list[--dest] = list[baseA + --lenA];
+            if (lenA == 0 || lenB == 1) {
+                return;
+            }
+            while (true) {
+                int acount = 0;
+                int bcount = 0;
+
+                while (true) {
+                    Object nexta = list[baseA + lenA - 1];
+                    Object nextb = b[lenB - 1];
+                    if (lt(nextb, nexta)) {
+                        list[--dest] = nexta;
+                        lenA--;
+                        if (lenA == 0) {
+                            return;
+                        }
+                        acount++;
+                        bcount = 0;
+                        if (acount >= gallopThreshold) {
+                            break;
+                        }
+                    } else {
+                        list[--dest] = nextb;
+                        lenB--;
+                        if (lenB == 1) {
+                            return;
+                        }
+                        bcount++;
+                        acount = 0;
+                        if (bcount >= gallopThreshold) {
+                            break;
+                        }
+                    }
+                }
+
+                gallopThreshold++;
+                while (true) {
+                    if (gallopThreshold > 1) {
+                        gallopThreshold--;
+                    }
+                    minGallop = gallopThreshold;
+
+                    int k = gallop(b[lenB - 1], list, baseA, lenA, lenA - 1, true);
+                    acount = lenA - k;
+                    dest -= acount;
+                    System.arraycopy(list, baseA + k, list, dest, acount);
+                    lenA -= acount;
+                    if (lenA == 0) {
+                        return;
+                    }
+
+                    list[--dest] = b[--lenB];
+                    if (lenB == 1) {
+                        return;
+                    }
+
+                    k = gallop(list[baseA + lenA - 1], b, 0, lenB, lenB - 1, false);
+                    bcount = lenB - k;
+                    dest -= bcount;
+                    System.arraycopy(b, k, list, dest, bcount);
+                    lenB -= bcount;
+                    // lenB == 0 is impossible now if the comparison is consistent, but we can't
+                    // assume that it is.
+                    if (lenB <= 1) {
+                        return;
+                    }
+
+                    list[--dest] = list[baseA + --lenA];
+                    if (lenA == 0) {
+                        return;
+                    }
+
+                    if (acount < MIN_GALLOP && bcount < MIN_GALLOP) {
+                        break;
+                    }
+                }
+                gallopThreshold++;
+                minGallop = gallopThreshold;
+            }
+        } finally {
+            // The first element of b belongs at the front of the merge, so we copy the remaining
+            // elements of a and then the remaining elements of b.
+            System.arraycopy(list, baseA, list, dest - lenA, lenA);
+            System.arraycopy(b, 0, list, dest - lenA - lenB, lenB);
+        }
+    }
+}
@@ -40,6 +40,18 @@
  */
 package com.oracle.graal.python.builtins.objects.memoryview;
 
+import static com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.C_MEMORYVIEW;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETATTRIBUTE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -47,33 +59,686 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.cext.PythonNativeObject;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NormalizeIndexNode;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.GetNativeMemoryviewNode;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.ReadItemNode;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.ToJavaBytesNode;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodes.WriteItemNode;
+import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
-import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 
+/**
+ * Views of {@code bytes}, {@code bytearray} and {@code array} objects are implemented here and
+ * access the storage of the exporting object directly. All other views delegate to the native
+ * memoryview stored in {@code __c_memoryview}.
+ */
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PMemoryView)
 public class MemoryviewBuiltins extends PythonBuiltins {
-    private static final String C_MEMORYVIEW = "__c_memoryview";
 
     @Override
-    protected List<NodeFactory<SetCMemoryviewNode>> getNodeFactories() {
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return MemoryviewBuiltinsFactory.getFactories();
     }
 
+    abstract static class MemoryviewBaseNode extends PythonBuiltinNode {
+        @Child private GetNativeMemoryviewNode getNativeNode;
+        @Child private LookupAndCallBinaryNode getAttributeNode;
+        @Child private CallNode callNode;
+
+        protected final void checkReleased(PMemoryView self) {
+            if (self.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            }
+        }
+
+        protected final Object getNativeAttribute(PMemoryView self, String name) {
+            if (getNativeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getNativeNode = insert(GetNativeMemoryviewNode.create());
+            }
+            if (getAttributeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getAttributeNode = insert(LookupAndCallBinaryNode.create(__GETATTRIBUTE__));
+            }
+            return getAttributeNode.executeObject(getNativeNode.execute(self), name);
+        }
+
+        protected final Object callNative(PMemoryView self, String name, Object... args) {
+            return call(getNativeAttribute(self, name), args);
+        }
+
+        /** Native methods returning another native view are wrapped into a new memoryview. */
+        protected final Object wrapNative(Object result) {
+            if (result instanceof PythonNativeObject) {
+                return call(getCore().lookupType(PythonBuiltinClassType.PMemoryView), result);
+            }
+            return result;
+        }
+
+        private Object call(Object callable, Object... args) {
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            return callNode.execute(null, callable, args, PKeyword.EMPTY_KEYWORDS);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetItemNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doInt(PMemoryView self, int index,
+                        @Cached("createNormalize()") NormalizeIndexNode normalize,
+                        @Cached("create()") ReadItemNode readNode) {
+            checkReleased(self);
+            return readNode.execute(self, normalize.execute(index, self.getLength()));
+        }
+
+        @Specialization(guards = "!self.isNative()")
+        Object doLong(PMemoryView self, long index,
+                        @Cached("createNormalize()") NormalizeIndexNode normalize,
+                        @Cached("create()") ReadItemNode readNode) {
+            checkReleased(self);
+            return readNode.execute(self, normalize.execute(index, self.getLength()));
+        }
+
+        @Specialization(guards = "!self.isNative()")
+        Object doPInt(PMemoryView self, PInt index,
+                        @Cached("createNormalize()") NormalizeIndexNode normalize,
+                        @Cached("create()") ReadItemNode readNode) {
+            checkReleased(self);
+            return readNode.execute(self, normalize.execute(index, self.getLength()));
+        }
+
+        @Specialization(guards = "!self.isNative()")
+        Object doSlice(PMemoryView self, PSlice slice) {
+            checkReleased(self);
+            SliceInfo info = slice.computeIndices(self.getLength());
+            return factory().createMemoryView(self.getOwner(), self.toStorageIndex(info.start), info.length, self.getStep() * info.step, self.getItemSize(), self.getFormat(),
+                            self.isReadOnly());
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self, Object key) {
+            return wrapNative(callNative(self, __GETITEM__, key));
+        }
+
+        @Fallback
+        Object doInvalid(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object key) {
+            throw raise(TypeError, "memoryview: invalid slice key");
+        }
+
+        protected static NormalizeIndexNode createNormalize() {
+            return NormalizeIndexNode.create("index out of bounds on dimension 1");
+        }
+    }
+
+    @Builtin(name = __SETITEM__, fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SetItemNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = {"!self.isNative()", "isIndex(key)"})
+        PNone doIndex(PMemoryView self, Object key, Object value,
+                        @Cached("createNormalize()") NormalizeIndexNode normalize,
+                        @Cached("create()") WriteItemNode writeNode) {
+            checkWritable(self);
+            writeNode.execute(self, normalize.execute(key, self.getLength()), value);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!self.isNative()")
+        PNone doSlice(PMemoryView self, PSlice slice, Object value,
+                        @Cached("create()") ReadItemNode readNode,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("create()") WriteItemNode writeNode) {
+            checkWritable(self);
+            SliceInfo info = slice.computeIndices(self.getLength());
+            // read the source first, it may overlap with the destination
+            Object[] items = readSource(self, value, readNode, getItemNode);
+            if (items.length != info.length) {
+                throw raise(ValueError, "memoryview assignment: lvalue and rvalue have different structures");
+            }
+            for (int i = 0; i < items.length; i++) {
+                writeNode.execute(self, info.start + i * info.step, items[i]);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self, Object key, Object value) {
+            return callNative(self, __SETITEM__, key, value);
+        }
+
+        @Fallback
+        Object doInvalid(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object key, @SuppressWarnings("unused") Object value) {
+            throw raise(TypeError, "memoryview: invalid slice key");
+        }
+
+        protected static boolean isIndex(Object key) {
+            return PGuards.isInteger(key) || PGuards.isPInt(key) || key instanceof Boolean;
+        }
+
+        private void checkWritable(PMemoryView self) {
+            checkReleased(self);
+            if (self.isReadOnly()) {
+                throw raise(TypeError, "cannot modify read-only memory");
+            }
+        }
+
+        private Object[] readSource(PMemoryView self, Object value, ReadItemNode readNode, SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            if (value instanceof PMemoryView && !((PMemoryView) value).isNative()) {
+                PMemoryView source = (PMemoryView) value;
+                checkReleased(source);
+                checkSameFormat(self, source.getFormat());
+                Object[] items = new Object[source.getLength()];
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = readNode.execute(source, i);
+                }
+                return items;
+            } else if (value instanceof PIBytesLike) {
+                checkSameFormat(self, "B");
+                SequenceStorage storage = ((PIBytesLike) value).getSequenceStorage();
+                Object[] items = new Object[storage.length()];
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = getItemNode.executeInt(storage, i);
+                }
+                return items;
+            }
+            throw raise(TypeError, "a bytes-like object is required, not '%p'", value);
+        }
+
+        private void checkSameFormat(PMemoryView self, String format) {
+            if (!self.getFormat().equals(format)) {
+                throw raise(ValueError, "memoryview assignment: lvalue and rvalue have different structures");
+            }
+        }
+
+        protected static NormalizeIndexNode createNormalize() {
+            return NormalizeIndexNode.create("index out of bounds on dimension 1");
+        }
+    }
+
+    @Builtin(name = __LEN__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class LenNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        int doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.getLength();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return callNative(self, __LEN__);
+        }
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EqNode extends MemoryviewBaseNode {
+        @Child private BinaryComparisonNode eqNode;
+        @Child private CastToBooleanNode castToBooleanNode;
+
+        @Specialization(guards = {"!self.isNative()", "!other.isNative()"})
+        Object doView(PMemoryView self, PMemoryView other,
+                        @Cached("create()") ReadItemNode readNode) {
+            if (self == other) {
+                return true;
+            }
+            if (self.isReleased() || other.isReleased()) {
+                return false;
+            }
+            if (self.getLength() != other.getLength()) {
+                return false;
+            }
+            for (int i = 0; i < self.getLength(); i++) {
+                if (!itemEquals(readNode.execute(self, i), readNode.execute(other, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Specialization(guards = "!self.isNative()")
+        Object doBytes(PMemoryView self, PIBytesLike other,
+                        @Cached("create()") ReadItemNode readNode,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            if (self.isReleased()) {
+                return false;
+            }
+            SequenceStorage storage = other.getSequenceStorage();
+            if (self.getLength() != storage.length()) {
+                return false;
+            }
+            for (int i = 0; i < self.getLength(); i++) {
+                if (!itemEquals(readNode.execute(self, i), getItemNode.executeInt(storage, i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self, Object other) {
+            return callNative(self, __EQ__, other);
+        }
+
+        @Fallback
+        Object doOther(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+
+        private boolean itemEquals(Object left, Object right) {
+            if (eqNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                eqNode = insert(BinaryComparisonNode.create(__EQ__, __EQ__, "=="));
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(eqNode.executeWith(left, right));
+        }
+    }
+
+    @Builtin(name = "tobytes", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ToBytesNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self,
+                        @Cached("create()") ToJavaBytesNode toJavaBytesNode) {
+            checkReleased(self);
+            return factory().createBytes(toJavaBytesNode.execute(self));
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return callNative(self, "tobytes");
+        }
+    }
+
+    @Builtin(name = "tolist", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ToListNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self,
+                        @Cached("create()") ReadItemNode readNode) {
+            checkReleased(self);
+            Object[] items = new Object[self.getLength()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = readNode.execute(self, i);
+            }
+            return factory().createList(items);
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return callNative(self, "tolist");
+        }
+    }
+
+    @Builtin(name = "hex", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HexNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self,
+                        @Cached("create()") ToJavaBytesNode toJavaBytesNode) {
+            checkReleased(self);
+            return hex(toJavaBytesNode.execute(self));
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return callNative(self, "hex");
+        }
+
+        @TruffleBoundary
+        private static String hex(byte[] bytes) {
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = "cast", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class CastNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = {"!self.isNative()", "isNoValue(shape)", "isByteCast(self, format)"})
+        Object doBytes(PMemoryView self, String format, @SuppressWarnings("unused") PNone shape) {
+            checkReleased(self);
+            if (!self.isContiguous()) {
+                throw raise(TypeError, "memoryview: casts are restricted to C-contiguous views");
+            }
+            return factory().createMemoryView(self.getOwner(), self.getOffset(), self.getLength(), 1, 1, format, self.isReadOnly());
+        }
+
+        @Specialization(guards = "isNoValue(shape)")
+        Object doOther(PMemoryView self, Object format, @SuppressWarnings("unused") PNone shape) {
+            if (!self.isNative()) {
+                checkReleased(self);
+            }
+            return wrapNative(callNative(self, "cast", format));
+        }
+
+        @Specialization(guards = "!isNoValue(shape)")
+        Object doShape(PMemoryView self, Object format, Object shape) {
+            if (!self.isNative()) {
+                checkReleased(self);
+            }
+            return wrapNative(callNative(self, "cast", format, shape));
+        }
+
+        protected static boolean isByteCast(PMemoryView self, String format) {
+            return self.getItemSize() == 1 && MemoryviewNodes.isByteFormat(format);
+        }
+    }
+
+    @Builtin(name = "release", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReleaseNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        PNone doJava(PMemoryView self) {
+            self.release();
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return callNative(self, "release");
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self) {
+            checkReleased(self);
+            return self;
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            callNative(self, __ENTER__);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        PNone doJava(PMemoryView self, @SuppressWarnings("unused") Object[] args) {
+            self.release();
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self, Object[] args) {
+            return callNative(self, __EXIT__, args);
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends MemoryviewBaseNode {
+
+        @Specialization
+        @TruffleBoundary
+        String repr(PMemoryView self) {
+            if (!self.isNative() && self.isReleased()) {
+                return String.format("<released memory at 0x%x>", System.identityHashCode(self));
+            }
+            return String.format("<memory at 0x%x>", System.identityHashCode(self));
+        }
+    }
+
+    @Builtin(name = "obj", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ObjNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.getOwner();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self,
+                        @Cached("create()") ReadAttributeFromObjectNode readNode) {
+            // views that are not initialized yet have no native counterpart
+            if (readNode.execute(self, C_MEMORYVIEW) == PNone.NO_VALUE) {
+                return PNone.NONE;
+            }
+            return getNativeAttribute(self, "obj");
+        }
+    }
+
+    @Builtin(name = "nbytes", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NBytesNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        int doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.getLength() * self.getItemSize();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "nbytes");
+        }
+    }
+
+    @Builtin(name = "readonly", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ReadOnlyNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        boolean doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.isReadOnly();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "readonly");
+        }
+    }
+
+    @Builtin(name = "itemsize", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ItemSizeNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        int doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.getItemSize();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "itemsize");
+        }
+    }
+
+    @Builtin(name = "format", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        String doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.getFormat();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "format");
+        }
+    }
+
+    @Builtin(name = "ndim", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NDimNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        int doJava(PMemoryView self) {
+            checkReleased(self);
+            return 1;
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "ndim");
+        }
+    }
+
+    @Builtin(name = "shape", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ShapeNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self) {
+            checkReleased(self);
+            return factory().createTuple(new Object[]{self.getLength()});
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "shape");
+        }
+    }
+
+    @Builtin(name = "strides", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class StridesNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self) {
+            checkReleased(self);
+            return factory().createTuple(new Object[]{self.getStep() * self.getItemSize()});
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "strides");
+        }
+    }
+
+    @Builtin(name = "suboffsets", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SubOffsetsNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        Object doJava(PMemoryView self) {
+            checkReleased(self);
+            return factory().createEmptyTuple();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "suboffsets");
+        }
+    }
+
+    @Builtin(name = "c_contiguous", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class CContiguousNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        boolean doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.isContiguous();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "c_contiguous");
+        }
+    }
+
+    @Builtin(name = "f_contiguous", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FContiguousNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        boolean doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.isContiguous();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "f_contiguous");
+        }
+    }
+
+    @Builtin(name = "contiguous", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ContiguousNode extends MemoryviewBaseNode {
+
+        @Specialization(guards = "!self.isNative()")
+        boolean doJava(PMemoryView self) {
+            checkReleased(self);
+            return self.isContiguous();
+        }
+
+        @Specialization(guards = "self.isNative()")
+        Object doNative(PMemoryView self) {
+            return getNativeAttribute(self, "contiguous");
+        }
+    }
+
     @Builtin(name = C_MEMORYVIEW, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
     @GenerateNodeFactory
-    static abstract class SetCMemoryviewNode extends PythonBinaryBuiltinNode {
+    abstract static class SetCMemoryviewNode extends PythonBuiltinNode {
 
         /*
          * NOTE: DO NOT CHANGE THE NAME OF PROPERTY '__c_memoryview' it is also referenced in native
          * code and Java code
          */
+        @Specialization(guards = {"isNoValue(value)", "!self.isNative()"})
+        Object get(PMemoryView self, @SuppressWarnings("unused") PNone value,
+                        @Cached("create()") GetNativeMemoryviewNode getNativeNode) {
+            return getNativeNode.execute(self);
+        }
+
         @Specialization(guards = "isNoValue(value)")
-        Object set(Object self, @SuppressWarnings("unused") PNone value,
+        Object get(Object self, @SuppressWarnings("unused") PNone value,
                         @Cached("create()") ReadAttributeFromObjectNode readNode) {
             return readNode.execute(self, C_MEMORYVIEW);
         }
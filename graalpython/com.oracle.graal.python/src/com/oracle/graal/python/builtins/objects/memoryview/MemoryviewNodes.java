@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.memoryview;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodesFactory.ReadItemNodeGen;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodesFactory.ToJavaBytesNodeGen;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryviewNodesFactory.WriteItemNodeGen;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+public abstract class MemoryviewNodes {
+
+    static final String C_MEMORYVIEW = "__c_memoryview";
+
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    static boolean isByteFormat(String format) {
+        return format.length() == 1 && (format.charAt(0) == 'B' || format.charAt(0) == 'b' || format.charAt(0) == 'c');
+    }
+
+    static final String OUT_OF_BOUNDS = "memoryview: underlying buffer is smaller than the view";
+
+    /**
+     * Maps an index of the view to an index of the given storage of its owner, raising an
+     * {@code IndexError} if the owner has shrunk so much that the item is gone.
+     */
+    static int toCheckedStorageIndex(PNodeWithContext node, PMemoryView self, SequenceStorage storage, int idx) {
+        int storageIdx = self.toStorageIndex(idx);
+        if (storageIdx >= storage.length()) {
+            throw node.raise(IndexError, OUT_OF_BOUNDS);
+        }
+        return storageIdx;
+    }
+
+    /**
+     * Returns the storage of the view's owner, raising an {@code IndexError} if it no longer
+     * contains all visible items.
+     */
+    public static SequenceStorage getCheckedStorage(PNodeWithContext node, PMemoryView self) {
+        SequenceStorage storage = self.getSequenceStorage();
+        if (!self.isInBounds(storage)) {
+            throw node.raise(IndexError, OUT_OF_BOUNDS);
+        }
+        return storage;
+    }
+
+    /**
+     * Reads the item at the given (normalized) index of the view.
+     */
+    public abstract static class ReadItemNode extends PNodeWithContext {
+
+        public abstract Object execute(PMemoryView self, int idx);
+
+        @Specialization(guards = "isUnsignedBytes(self)")
+        int doUnsignedByte(PMemoryView self, int idx,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            return getItemNode.executeInt(storage, toCheckedStorageIndex(this, self, storage, idx));
+        }
+
+        @Specialization(guards = "isSignedBytes(self)")
+        int doSignedByte(PMemoryView self, int idx,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            return (byte) getItemNode.executeInt(storage, toCheckedStorageIndex(this, self, storage, idx));
+        }
+
+        @Specialization(guards = "isChars(self)")
+        Object doChar(PMemoryView self, int idx,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            byte b = (byte) getItemNode.executeInt(storage, toCheckedStorageIndex(this, self, storage, idx));
+            return factory().createBytes(new byte[]{b});
+        }
+
+        @Specialization(guards = "!isByteFormat(self.getFormat())")
+        Object doOther(PMemoryView self, int idx,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            return getItemNode.execute(storage, toCheckedStorageIndex(this, self, storage, idx));
+        }
+
+        protected static boolean isUnsignedBytes(PMemoryView self) {
+            return self.getFormat().equals("B");
+        }
+
+        protected static boolean isSignedBytes(PMemoryView self) {
+            return self.getFormat().equals("b");
+        }
+
+        protected static boolean isChars(PMemoryView self) {
+            return self.getFormat().equals("c");
+        }
+
+        protected static boolean isByteFormat(String format) {
+            return MemoryviewNodes.isByteFormat(format);
+        }
+
+        public static ReadItemNode create() {
+            return ReadItemNodeGen.create();
+        }
+    }
+
+    /**
+     * Writes the item at the given (normalized) index of the view.
+     */
+    public abstract static class WriteItemNode extends PNodeWithContext {
+
+        public abstract void execute(PMemoryView self, int idx, Object value);
+
+        @Specialization(guards = "isByteFormat(self.getFormat())")
+        void doByte(PMemoryView self, int idx, Object value,
+                        @Cached("create()") SequenceStorageNodes.SetItemScalarNode setItemNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            setItemNode.execute(storage, toCheckedStorageIndex(this, self, storage, idx), toUnsignedByte(self.getFormat(), value));
+        }
+
+        @Specialization(guards = "!isByteFormat(self.getFormat())")
+        void doOther(PMemoryView self, int idx, Object value,
+                        @Cached("create()") SequenceStorageNodes.SetItemScalarNode setItemNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            setItemNode.execute(storage, toCheckedStorageIndex(this, self, storage, idx), value);
+        }
+
+        private int toUnsignedByte(String format, Object value) {
+            long v;
+            if (format.equals("c")) {
+                if (value instanceof PBytes) {
+                    SequenceStorage storage = ((PBytes) value).getSequenceStorage();
+                    if (storage instanceof ByteSequenceStorage && storage.length() == 1) {
+                        return ((ByteSequenceStorage) storage).getIntItemNormalized(0);
+                    }
+                }
+                throw raise(ValueError, "memoryview: invalid value for format '%s'", format);
+            } else if (value instanceof Integer) {
+                v = (int) value;
+            } else if (value instanceof Long) {
+                v = (long) value;
+            } else if (value instanceof Boolean) {
+                v = (boolean) value ? 1 : 0;
+            } else if (value instanceof PInt) {
+                v = ((PInt) value).longValue();
+            } else {
+                throw raise(TypeError, "memoryview: invalid type for format '%s'", format);
+            }
+            boolean signed = format.equals("b");
+            if (signed ? v < Byte.MIN_VALUE || v > Byte.MAX_VALUE : v < 0 || v > 255) {
+                throw raise(ValueError, "memoryview: invalid value for format '%s'", format);
+            }
+            return (int) (v & 0xFF);
+        }
+
+        protected static boolean isByteFormat(String format) {
+            return MemoryviewNodes.isByteFormat(format);
+        }
+
+        public static WriteItemNode create() {
+            return WriteItemNodeGen.create();
+        }
+    }
+
+    /**
+     * Copies the items visible through the view into a new byte array, using the native byte order
+     * for items larger than one byte.
+     */
+    public abstract static class ToJavaBytesNode extends PNodeWithContext {
+
+        public abstract byte[] execute(PMemoryView self);
+
+        @Specialization(guards = {"self.isContiguous()", "isByteStorage(self.getSequenceStorage())"})
+        byte[] doContiguous(PMemoryView self) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) getCheckedStorage(this, self);
+            return copyRange(storage.getInternalByteArray(), self.getOffset(), self.getLength());
+        }
+
+        @Specialization(replaces = "doContiguous")
+        byte[] doGeneric(PMemoryView self,
+                        @Cached("create()") SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached("createBinaryProfile()") ConditionProfile isByteProfile) {
+            SequenceStorage storage = getCheckedStorage(this, self);
+            int itemSize = self.getItemSize();
+            byte[] result = new byte[self.getLength() * itemSize];
+            if (isByteProfile.profile(itemSize == 1)) {
+                for (int i = 0; i < self.getLength(); i++) {
+                    result[i] = (byte) getItemNode.executeInt(storage, self.toStorageIndex(i));
+                }
+            } else {
+                for (int i = 0; i < self.getLength(); i++) {
+                    Object item = getItemNode.execute(storage, self.toStorageIndex(i));
+                    long bits;
+                    if (item instanceof Double) {
+                        bits = Double.doubleToRawLongBits((double) item);
+                    } else if (item instanceof Integer) {
+                        bits = (int) item;
+                    } else {
+                        bits = (long) item;
+                    }
+                    writeItem(result, i * itemSize, itemSize, bits);
+                }
+            }
+            return result;
+        }
+
+        private static void writeItem(byte[] dest, int offset, int itemSize, long bits) {
+            for (int j = 0; j < itemSize; j++) {
+                int shift = LITTLE_ENDIAN ? j * 8 : (itemSize - 1 - j) * 8;
+                dest[offset + j] = (byte) (bits >> shift);
+            }
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static byte[] copyRange(byte[] array, int offset, int length) {
+            return Arrays.copyOfRange(array, offset, offset + length);
+        }
+
+        protected static boolean isByteStorage(SequenceStorage storage) {
+            return storage instanceof ByteSequenceStorage;
+        }
+
+        public static ToJavaBytesNode create() {
+            return ToJavaBytesNodeGen.create();
+        }
+    }
+
+    /**
+     * Returns the native memoryview backing the given view. For views of Java storages a native
+     * view of the exporting object is created on first use, so that native code can access them.
+     */
+    public static final class GetNativeMemoryviewNode extends PNodeWithContext {
+        @Child private ReadAttributeFromObjectNode readNode = ReadAttributeFromObjectNode.create();
+        @Child private CallNode callNode;
+
+        private final ConditionProfile hasDelegateProfile = ConditionProfile.createBinaryProfile();
+
+        public Object execute(PMemoryView self) {
+            Object delegate = readNode.execute(self, C_MEMORYVIEW);
+            if (hasDelegateProfile.profile(delegate != PNone.NO_VALUE && delegate != PNone.NONE)) {
+                return delegate;
+            }
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            getCheckedStorage(this, self);
+            int start = self.getOffset();
+            int stop = self.toStorageIndex(self.getLength());
+            Object[] args = new Object[]{self, self.getOwner(), start, stop < 0 ? PNone.NONE : stop, self.getStep()};
+            return callNode.execute(null, readHelper(getCore()), args, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        @TruffleBoundary
+        private static Object readHelper(PythonCore core) {
+            return core.lookupBuiltinModule("python_cext").getAttribute("memoryview_to_native");
+        }
+
+        public static GetNativeMemoryviewNode create() {
+            return new GetNativeMemoryviewNode();
+        }
+    }
+}
@@ -42,11 +42,108 @@ package com.oracle.graal.python.builtins.objects.memoryview;
 
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 
+/**
+ * A one-dimensional view of the storage of a {@code bytes}, {@code bytearray} or {@code array}
+ * object. The view does not copy the data; it only remembers the exporting object and which items
+ * of its storage are visible. The storage is fetched from the exporting object on every access,
+ * since a {@code bytearray} may replace it. The owner may also be resized while the view exists, so
+ * every access checks that the visible items are still inside the storage. Views of any other
+ * object are implemented in native code and delegate to the {@code __c_memoryview} attribute.
+ */
 public class PMemoryView extends PythonBuiltinObject {
 
+    private final PSequence owner;
+    private final int offset;
+    private final int length;
+    private final int step;
+    private final int itemSize;
+    private final String format;
+    private final boolean readOnly;
+    private boolean released;
+
     public PMemoryView(PythonClass cls, @SuppressWarnings("unused") Object obj) {
+        this(cls, null, 0, 0, 1, 1, "B", true);
+    }
+
+    public PMemoryView(PythonClass cls, PSequence owner, int offset, int length, int step, int itemSize, String format, boolean readOnly) {
         super(cls);
+        this.owner = owner;
+        this.offset = offset;
+        this.length = length;
+        this.step = step;
+        this.itemSize = itemSize;
+        this.format = format;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Views of objects that are not backed by a Java sequence storage are implemented in native
+     * code.
+     */
+    public boolean isNative() {
+        return owner == null;
+    }
+
+    public PSequence getOwner() {
+        return owner;
+    }
+
+    public SequenceStorage getSequenceStorage() {
+        return owner.getSequenceStorage();
+    }
+
+    /** The index of the first visible item in the storage. */
+    public int getOffset() {
+        return offset;
+    }
+
+    /** The number of visible items. */
+    public int getLength() {
+        return length;
+    }
+
+    /** The distance between two visible items in the storage. */
+    public int getStep() {
+        return step;
     }
 
+    public int getItemSize() {
+        return itemSize;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isContiguous() {
+        return step == 1 || length <= 1;
+    }
+
+    /** Maps an index of this view to an index of the underlying storage. */
+    public int toStorageIndex(int idx) {
+        return offset + idx * step;
+    }
+
+    /**
+     * Whether all visible items are still inside the given storage of the owner, which may have
+     * shrunk since the view was created.
+     */
+    public boolean isInBounds(SequenceStorage storage) {
+        return length == 0 || Math.max(offset, toStorageIndex(length - 1)) < storage.length();
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    public void release() {
+        released = true;
+    }
 }
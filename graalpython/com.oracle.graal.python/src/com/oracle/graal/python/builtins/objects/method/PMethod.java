@@ -66,6 +66,11 @@ public final class PMethod extends PythonBuiltinObject implements PythonCallable
         return function.getClosure();
     }
 
+    @Override
+    public Object[] getDefaults() {
+        return function.getDefaults();
+    }
+
     @Override
     public boolean isGeneratorFunction() {
         return function instanceof PGeneratorFunction;
@@ -29,13 +29,26 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DOC__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__NAME__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__PACKAGE__;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 
 public final class PythonModule extends PythonObject {
     private final String name;
 
+    /**
+     * These assumptions will be invalidated whenever the given name is rebound or deleted in this
+     * module, either through the module itself or through a dict wrapping its storage (see
+     * {@link com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage#getModule()}).
+     */
+    private final Map<String, Assumption> attributeFinalAssumptions = new HashMap<>();
+
     public PythonModule(PythonClass clazz, String name) {
         super(clazz);
         this.name = name;
@@ -52,6 +65,48 @@ public final class PythonModule extends PythonObject {
         return name;
     }
 
+    @TruffleBoundary
+    public Assumption getAttributeFinalAssumption(String attributeId) {
+        Assumption assumption = attributeFinalAssumptions.get(attributeId);
+        if (assumption == null) {
+            assumption = Truffle.getRuntime().createAssumption(name + "." + attributeId);
+            attributeFinalAssumptions.put(attributeId, assumption);
+        }
+        return assumption;
+    }
+
+    @TruffleBoundary
+    public void invalidateAttributeFinalAssumption(String attributeId) {
+        Assumption assumption = attributeFinalAssumptions.remove(attributeId);
+        if (assumption != null) {
+            assumption.invalidate(name + "." + attributeId);
+        }
+    }
+
+    @TruffleBoundary
+    public void invalidateAllAttributeFinalAssumptions() {
+        for (Assumption assumption : attributeFinalAssumptions.values()) {
+            assumption.invalidate();
+        }
+        attributeFinalAssumptions.clear();
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setAttribute(Object attributeId, Object value) {
+        if (attributeId instanceof String) {
+            invalidateAttributeFinalAssumption((String) attributeId);
+        }
+        super.setAttribute(attributeId, value);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void deleteAttribute(String attributeId) {
+        invalidateAttributeFinalAssumption(attributeId);
+        super.deleteAttribute(attributeId);
+    }
+
     @Override
     public PythonObject getValidStorageFullLookup(String attributeId) {
         if (isOwnAttribute(attributeId)) {
@@ -28,6 +28,7 @@ package com.oracle.graal.python.builtins.objects.range;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
@@ -84,6 +85,24 @@ public class RangeBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long doPRange(PRange self) {
+            // like CPython, only hash what __eq__ compares
+            int len = self.len();
+            long hash = len;
+            if (len > 0) {
+                hash = hash * 1000003 + self.getStart();
+                if (len > 1) {
+                    hash = hash * 1000003 + self.getStep();
+                }
+            }
+            return hash;
+        }
+    }
+
     @Builtin(name = __EQ__, fixedNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class EqNode extends PythonBinaryBuiltinNode {
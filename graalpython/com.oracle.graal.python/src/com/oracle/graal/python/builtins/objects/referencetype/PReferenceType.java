@@ -57,15 +57,18 @@ public class PReferenceType extends PythonBuiltinObject {
         private final CallTarget callback;
         private final PReferenceType ref;
         private final PythonObject globals;
+        private final Object[] defaults;
 
         public WeakRefStorage(PReferenceType ref, PythonObject referent, PFunction callback) {
             super(referent);
             if (callback != null) {
                 this.callback = callback.getCallTarget();
                 this.globals = callback.getGlobals();
+                this.defaults = callback.getDefaults();
             } else {
                 this.callback = null;
                 this.globals = null;
+                this.defaults = null;
             }
             this.ref = ref;
         }
@@ -83,6 +86,7 @@ public class PReferenceType extends PythonBuiltinObject {
                 Object[] arguments = PArguments.create(1);
                 PArguments.setArgument(arguments, 0, this.ref);
                 PArguments.setGlobals(arguments, globals);
+                PArguments.setDefaults(arguments, defaults);
                 callback.call(arguments);
             }
         }
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.FileExistsError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.FileNotFoundError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.PermissionError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * The {@code select.epoll} type. Edge-triggered registrations ({@code EPOLLET}) are reported like
+ * level-triggered ones, which is a superset of the events an edge-triggered consumer expects.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PEpoll)
+public class EpollBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return EpollBuiltinsFactory.getFactories();
+    }
+
+    static void checkOpen(PNodeWithContext node, PPoll self) {
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed epoll object");
+        }
+    }
+
+    static void checkDescriptor(PNodeWithContext node, PosixResources resources, int fd) {
+        if (!PPoll.isOpen(resources, fd)) {
+            throw node.raise(OSError, "[Errno 9] Bad file descriptor");
+        }
+    }
+
+    // epoll.register(fd, eventmask=EPOLLIN|EPOLLPRI|EPOLLOUT)
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, keywordArguments = {"eventmask"})
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone register(PPoll self, Object fd, Object eventMask,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode) {
+            checkOpen(this, self);
+            int descriptor = fileDescriptorNode.execute(fd);
+            int events = PollBuiltins.toEventMask(this, eventMask, 32);
+            PosixResources resources = getContext().getResources();
+            checkDescriptor(this, resources, descriptor);
+            if (self.isRegistered(descriptor)) {
+                throw raise(FileExistsError, "[Errno 17] File exists");
+            }
+            if (!PosixResources.isStandardStream(descriptor) && !PPoll.isSelectable(resources, descriptor)) {
+                // epoll_ctl(2) rejects regular files and directories
+                throw raise(PermissionError, "[Errno 1] Operation not permitted");
+            }
+            try {
+                self.register(resources, descriptor, events);
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // epoll.modify(fd, eventmask)
+    @Builtin(name = "modify", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone modify(PPoll self, Object fd, Object eventMask,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode) {
+            checkOpen(this, self);
+            int descriptor = fileDescriptorNode.execute(fd);
+            int events = PollBuiltins.toEventMask(this, eventMask, 32);
+            checkDescriptor(this, getContext().getResources(), descriptor);
+            if (!self.modify(descriptor, events)) {
+                throw raise(FileNotFoundError, "[Errno 2] No such file or directory");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // epoll.unregister(fd)
+    @Builtin(name = "unregister", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone unregister(PPoll self, Object fd,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode) {
+            checkOpen(this, self);
+            int descriptor = fileDescriptorNode.execute(fd);
+            boolean removed;
+            try {
+                removed = self.unregister(descriptor);
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            checkDescriptor(this, getContext().getResources(), descriptor);
+            if (!removed) {
+                throw raise(FileNotFoundError, "[Errno 2] No such file or directory");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // epoll.poll(timeout=None, maxevents=-1), the timeout is in seconds
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 3, keywordArguments = {"timeout", "maxevents"})
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBuiltinNode {
+
+        @Specialization
+        PList poll(PPoll self, Object timeout, Object maxEvents,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            checkOpen(this, self);
+            long millis = PollBuiltins.toTimeoutMillis(this, timeout, 1000);
+            int max = PGuards.isPNone(maxEvents) ? -1 : castToIndexNode.execute(maxEvents);
+            if (max == 0 || max < -1) {
+                throw raise(ValueError, "maxevents must be greater than 0, got %d", max);
+            }
+            try {
+                return PollBuiltins.createEventList(factory(), self.poll(getContext().getThreads(), millis, max));
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone close(PPoll self) {
+            try {
+                self.close();
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean closed(PPoll self) {
+            return self.isClosed();
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PPoll enter(PPoll self) {
+            checkOpen(this, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone exit(PPoll self, @SuppressWarnings("unused") Object[] args) {
+            try {
+                self.close();
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            return PNone.NONE;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * Converts an integer or an object with a {@code fileno()} method to a file descriptor, like
+ * {@code PyObject_AsFileDescriptor}.
+ */
+public abstract class FileDescriptorNode extends PNodeWithContext {
+    @Child private LookupAndCallUnaryNode callFilenoNode;
+    @Child private FileDescriptorNode recursiveNode;
+
+    private final boolean recursive;
+
+    protected FileDescriptorNode(boolean recursive) {
+        this.recursive = recursive;
+    }
+
+    public abstract int execute(Object x);
+
+    @Specialization
+    int doBoolean(boolean x) {
+        return x ? 1 : 0;
+    }
+
+    @Specialization
+    int doInt(int x) {
+        return checkNegative(x);
+    }
+
+    @Specialization
+    int doLong(long x) {
+        if (x != (int) x) {
+            throw raise(OverflowError, "Python int too large to convert to C int");
+        }
+        return checkNegative((int) x);
+    }
+
+    @Specialization
+    int doPInt(PInt x) {
+        try {
+            return checkNegative(x.intValueExact());
+        } catch (ArithmeticException e) {
+            throw raise(OverflowError, "Python int too large to convert to C int");
+        }
+    }
+
+    @Fallback
+    int doGeneric(Object x) {
+        if (recursive) {
+            if (callFilenoNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callFilenoNode = insert(LookupAndCallUnaryNode.create("fileno"));
+            }
+            Object fileno = callFilenoNode.executeObject(x);
+            if (fileno != PNone.NO_VALUE) {
+                if (recursiveNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    recursiveNode = insert(FileDescriptorNodeGen.create(false));
+                }
+                return recursiveNode.execute(fileno);
+            }
+            throw raise(TypeError, "argument must be an int, or have a fileno() method.");
+        }
+        throw raise(TypeError, "fileno() returned a non-integer");
+    }
+
+    private int checkNegative(int fd) {
+        if (fd < 0) {
+            throw raise(ValueError, "file descriptor cannot be a negative integer (%d)", fd);
+        }
+        return fd;
+    }
+
+    public static FileDescriptorNode create() {
+        return FileDescriptorNodeGen.create(true);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.graal.python.runtime.PythonThreads;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code select.poll} or {@code select.epoll} object. Both wait on a {@link Poller}; they only
+ * differ in their error reporting and in the units of their timeouts.
+ */
+public final class PPoll extends PythonBuiltinObject {
+
+    private final Poller poller = new Poller();
+
+    public PPoll(PythonClass cls) {
+        super(cls);
+    }
+
+    public boolean isClosed() {
+        return poller.isClosed();
+    }
+
+    @TruffleBoundary
+    public boolean isRegistered(int fd) {
+        return poller.isRegistered(fd);
+    }
+
+    /** Registers the descriptor {@code fd} of {@code resources}. */
+    @TruffleBoundary
+    public void register(PosixResources resources, int fd, int events) throws IOException {
+        poller.register(fd, resources.getFileChannel(fd), isOpen(resources, fd), events);
+    }
+
+    @TruffleBoundary
+    public boolean modify(int fd, int events) {
+        return poller.modify(fd, events);
+    }
+
+    @TruffleBoundary
+    public boolean unregister(int fd) throws IOException {
+        return poller.unregister(fd);
+    }
+
+    /** Waits for ready descriptors without holding the GIL, so other threads can make progress. */
+    @TruffleBoundary
+    public int[] poll(PythonThreads threads, long timeoutMillis, int maxEvents) throws IOException {
+        boolean released = threads.release();
+        try {
+            return poller.poll(timeoutMillis, maxEvents);
+        } finally {
+            threads.reacquire(released);
+        }
+    }
+
+    @TruffleBoundary
+    public void close() throws IOException {
+        poller.close();
+    }
+
+    /** Returns whether {@code fd} refers to a channel that can be waited on with a selector. */
+    @TruffleBoundary
+    public static boolean isSelectable(PosixResources resources, int fd) {
+        return resources.getFileChannel(fd) instanceof SelectableChannel;
+    }
+
+    /** Returns whether {@code fd} is open in {@code resources}. */
+    @TruffleBoundary
+    public static boolean isOpen(PosixResources resources, int fd) {
+        return PosixResources.isStandardStream(fd) || resources.getFileChannel(fd) != null;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.FileNotFoundError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPoll)
+public class PollBuiltins extends PythonBuiltins {
+
+    static final int DEFAULT_EVENTS = Poller.POLLIN | Poller.POLLPRI | Poller.POLLOUT;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PollBuiltinsFactory.getFactories();
+    }
+
+    /** Converts an event mask, which must fit into {@code maxBits} unsigned bits. */
+    static int toEventMask(PNodeWithContext node, Object mask, int maxBits) {
+        if (PGuards.isNoValue(mask)) {
+            return DEFAULT_EVENTS;
+        }
+        long value;
+        if (mask instanceof Integer) {
+            value = (int) mask;
+        } else if (mask instanceof Long) {
+            value = (long) mask;
+        } else if (mask instanceof Boolean) {
+            value = (boolean) mask ? 1 : 0;
+        } else if (mask instanceof PInt) {
+            try {
+                value = ((PInt) mask).longValueExact();
+            } catch (ArithmeticException e) {
+                throw node.raise(OverflowError, "event mask is too large");
+            }
+        } else {
+            throw node.raise(TypeError, "an integer is required (got type %p)", mask);
+        }
+        if (value < 0 || value >>> maxBits != 0) {
+            throw node.raise(OverflowError, "event mask %d is out of range", value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Converts a timeout given in units of {@code millisPerUnit} milliseconds to milliseconds,
+     * rounding up. {@code None} and negative values mean waiting indefinitely and yield {@code -1}.
+     */
+    public static long toTimeoutMillis(PNodeWithContext node, Object timeout, double millisPerUnit) {
+        if (PGuards.isPNone(timeout)) {
+            return -1;
+        }
+        double value;
+        if (timeout instanceof Integer) {
+            value = (int) timeout;
+        } else if (timeout instanceof Long) {
+            value = (long) timeout;
+        } else if (timeout instanceof Boolean) {
+            value = (boolean) timeout ? 1 : 0;
+        } else if (timeout instanceof Double) {
+            value = (double) timeout;
+        } else if (timeout instanceof PInt) {
+            value = ((PInt) timeout).doubleValue();
+        } else if (timeout instanceof PFloat) {
+            value = ((PFloat) timeout).getValue();
+        } else {
+            throw node.raise(TypeError, "timeout must be an integer or None");
+        }
+        if (Double.isNaN(value)) {
+            throw node.raise(ValueError, "Invalid value NaN (not a number)");
+        }
+        if (value < 0) {
+            return -1;
+        }
+        double millis = Math.ceil(value * millisPerUnit);
+        return millis >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) millis;
+    }
+
+    /** Turns the descriptor and event pairs from {@link Poller#poll} into a list of tuples. */
+    static PList createEventList(PythonObjectFactory factory, int[] ready) {
+        Object[] events = new Object[ready.length / 2];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = factory.createTuple(new Object[]{ready[2 * i], ready[2 * i + 1]});
+        }
+        return factory.createList(events);
+    }
+
+    // poll.register(fd, eventmask=POLLIN|POLLPRI|POLLOUT)
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone register(PPoll self, Object fd, Object eventMask,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode) {
+            int descriptor = fileDescriptorNode.execute(fd);
+            int events = toEventMask(this, eventMask, 16);
+            try {
+                self.register(getContext().getResources(), descriptor, events);
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // poll.modify(fd, eventmask)
+    @Builtin(name = "modify", fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone modify(PPoll self, Object fd, Object eventMask,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode) {
+            int descriptor = fileDescriptorNode.execute(fd);
+            if (!self.modify(descriptor, toEventMask(this, eventMask, 16))) {
+                throw raise(FileNotFoundError, "[Errno 2] No such file or directory");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // poll.unregister(fd)
+    @Builtin(name = "unregister", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone unregister(PPoll self, Object fd,
+                        @Cached("create()") FileDescriptorNode fileDescriptorNode) {
+            int descriptor = fileDescriptorNode.execute(fd);
+            try {
+                if (!self.unregister(descriptor)) {
+                    throw raise(KeyError, "%d", descriptor);
+                }
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // poll.poll(timeout=None), the timeout is in milliseconds
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PList poll(PPoll self, Object timeout) {
+            long millis = toTimeoutMillis(this, timeout, 1);
+            try {
+                return createEventList(factory(), self.poll(getContext().getThreads(), millis, -1));
+            } catch (IOException e) {
+                throw raise(OSError, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Waits for a set of file descriptors to become ready, in the manner of {@code poll(2)}.
+ * Descriptors backed by a {@link SelectableChannel} are registered with one
+ * {@link java.nio.channels.Selector}, so waiting does not need a thread per descriptor and its
+ * cost does not grow with the number of idle descriptors. Channels are switched to non-blocking
+ * mode when they are registered, as {@link java.nio.channels.Selector} requires. This does not
+ * change the blocking mode of their descriptors, which is kept in
+ * {@link com.oracle.graal.python.runtime.PosixResources}; reads and writes on a descriptor in
+ * blocking mode wait for such a channel to become ready.
+ *
+ * Descriptors that cannot be selected, such as regular files and the standard streams, are always
+ * reported as ready for reading and writing, which is what {@code poll(2)} does for regular files.
+ * Descriptors that were not open when they were registered are reported with {@link #POLLNVAL}.
+ */
+public final class Poller {
+    public static final int POLLIN = 0x001;
+    public static final int POLLPRI = 0x002;
+    public static final int POLLOUT = 0x004;
+    public static final int POLLERR = 0x008;
+    public static final int POLLHUP = 0x010;
+    public static final int POLLNVAL = 0x020;
+    public static final int POLLRDNORM = 0x040;
+    public static final int POLLRDBAND = 0x080;
+    public static final int POLLWRNORM = 0x100;
+    public static final int POLLWRBAND = 0x200;
+    public static final int POLLMSG = 0x400;
+    public static final int POLLRDHUP = 0x2000;
+
+    public static final int EPOLLEXCLUSIVE = 1 << 28;
+    public static final int EPOLLONESHOT = 1 << 30;
+    public static final int EPOLLET = 1 << 31;
+
+    private static final int READ_EVENTS = POLLIN | POLLRDNORM;
+    private static final int WRITE_EVENTS = POLLOUT | POLLWRNORM;
+
+    private static final class Registration {
+        private final int fd;
+        private final SelectableChannel channel;
+        private final boolean valid;
+        private int events;
+        private SelectionKey key;
+
+        Registration(int fd, SelectableChannel channel, boolean valid) {
+            this.fd = fd;
+            this.channel = channel;
+            this.valid = valid;
+        }
+    }
+
+    private final Map<Integer, Registration> registrations = new HashMap<>();
+    /** The number of registrations that are not backed by a selection key. */
+    private int unselectableCount;
+    private Selector selector;
+    private boolean closed;
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns whether {@code fd} is registered. Registrations whose channel has been closed in the
+     * meantime are dropped, so that the descriptor can be registered again once it is reused.
+     */
+    public boolean isRegistered(int fd) {
+        Registration registration = registrations.get(fd);
+        if (registration != null && registration.key != null && !registration.channel.isOpen()) {
+            registrations.remove(fd);
+            registration.key.cancel();
+            return false;
+        }
+        return registration != null;
+    }
+
+    /** Returns the event mask {@code fd} is registered with, or {@code 0} if it is not. */
+    public int getEvents(int fd) {
+        Registration registration = registrations.get(fd);
+        return registration == null ? 0 : registration.events;
+    }
+
+    /**
+     * Registers {@code fd}, which refers to {@code channel}. {@code channel} is {@code null} for
+     * descriptors without a channel, which are valid if {@code valid} is set.
+     */
+    public void register(int fd, Channel channel, boolean valid, int events) throws IOException {
+        if (isRegistered(fd)) {
+            modify(fd, events);
+            return;
+        }
+        Registration registration;
+        if (channel instanceof SelectableChannel) {
+            SelectableChannel selectable = (SelectableChannel) channel;
+            Selector sel = getSelector();
+            if (selectable.keyFor(sel) != null) {
+                throw new IOException("the channel of this descriptor is already registered under another descriptor");
+            }
+            registration = new Registration(fd, selectable, true);
+            selectable.configureBlocking(false);
+            registration.key = selectable.register(sel, interestOps(selectable, events), registration);
+        } else {
+            registration = new Registration(fd, null, valid);
+            unselectableCount++;
+        }
+        registration.events = events;
+        registrations.put(fd, registration);
+    }
+
+    /**
+     * Changes the event mask of {@code fd}. Returns {@code false} if {@code fd} is not registered.
+     */
+    public boolean modify(int fd, int events) {
+        Registration registration = registrations.get(fd);
+        if (registration == null) {
+            return false;
+        }
+        registration.events = events;
+        if (registration.key != null && registration.key.isValid()) {
+            registration.key.interestOps(interestOps(registration.channel, events));
+        }
+        return true;
+    }
+
+    /** Removes {@code fd}. Returns {@code false} if {@code fd} is not registered. */
+    public boolean unregister(int fd) throws IOException {
+        Registration registration = registrations.remove(fd);
+        if (registration == null) {
+            return false;
+        }
+        if (registration.key == null) {
+            unselectableCount--;
+            return true;
+        }
+        registration.key.cancel();
+        // the key is only deregistered by the next selection operation
+        selector.selectNow();
+        return true;
+    }
+
+    /**
+     * Waits until at least one registered descriptor is ready or the timeout expires. A negative
+     * timeout waits indefinitely. Returns pairs of descriptors and their ready events, at most
+     * {@code maxEvents} of them unless {@code maxEvents} is negative.
+     */
+    public int[] poll(long timeoutMillis, int maxEvents) throws IOException {
+        Selector sel = getSelector();
+        sel.selectedKeys().clear();
+        if (timeoutMillis == 0 || hasReadyUnselectable()) {
+            sel.selectNow();
+        } else if (timeoutMillis < 0) {
+            while (sel.select() == 0 && !Thread.currentThread().isInterrupted()) {
+                // woken up without a ready key, keep waiting
+            }
+        } else {
+            sel.select(timeoutMillis);
+        }
+        int limit = maxEvents < 0 ? Integer.MAX_VALUE : maxEvents;
+        int[] result = new int[2 * Math.min(16, Math.max(1, limit))];
+        int count = 0;
+        for (SelectionKey key : sel.selectedKeys()) {
+            if (count == limit) {
+                break;
+            }
+            Registration registration = (Registration) key.attachment();
+            int ready = key.isValid() ? readyEvents(key.readyOps(), registration.events) : 0;
+            if (ready != 0) {
+                result = add(result, count++, registration.fd, ready);
+                disableIfOneShot(registration);
+            }
+        }
+        sel.selectedKeys().clear();
+        if (unselectableCount > 0) {
+            for (Registration registration : registrations.values()) {
+                if (count == limit) {
+                    break;
+                }
+                if (registration.key == null) {
+                    int ready = registration.valid ? registration.events & (READ_EVENTS | WRITE_EVENTS) : POLLNVAL;
+                    if (ready != 0) {
+                        result = add(result, count++, registration.fd, ready);
+                        disableIfOneShot(registration);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(result, 2 * count);
+    }
+
+    /** Unregisters all descriptors and releases the selector. */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (selector != null) {
+            selector.close();
+        }
+        registrations.clear();
+        unselectableCount = 0;
+    }
+
+    private Selector getSelector() throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        return selector;
+    }
+
+    private boolean hasReadyUnselectable() {
+        if (unselectableCount > 0) {
+            for (Registration registration : registrations.values()) {
+                if (registration.key == null && (!registration.valid || (registration.events & (READ_EVENTS | WRITE_EVENTS)) != 0)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void disableIfOneShot(Registration registration) {
+        if ((registration.events & EPOLLONESHOT) != 0) {
+            registration.events = 0;
+            if (registration.key != null) {
+                registration.key.interestOps(0);
+            }
+        }
+    }
+
+    private static int[] add(int[] result, int index, int fd, int events) {
+        int[] array = result;
+        if (2 * index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[2 * index] = fd;
+        array[2 * index + 1] = events;
+        return array;
+    }
+
+    private static int interestOps(SelectableChannel channel, int events) {
+        int valid = channel.validOps();
+        int ops = 0;
+        if ((events & READ_EVENTS) != 0) {
+            ops |= valid & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT);
+        }
+        if ((events & WRITE_EVENTS) != 0) {
+            ops |= valid & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT);
+        }
+        return ops;
+    }
+
+    private static int readyEvents(int readyOps, int events) {
+        int ready = 0;
+        if ((readyOps & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0) {
+            ready |= events & READ_EVENTS;
+        }
+        if ((readyOps & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+            ready |= events & WRITE_EVENTS;
+        }
+        return ready;
+    }
+}
@@ -30,6 +30,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
@@ -127,6 +128,29 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = __HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long doFrozenSet(PFrozenSet self,
+                        @Cached("create()") PythonEquivalence equivalence) {
+            // adapted from CPython's frozenset_hash, which does not depend on the iteration order
+            long hash = 0;
+            for (Object key : self.getDictStorage().keys()) {
+                long keyHash = equivalence.hashCode(key) & 0xFFFFFFFFL;
+                hash ^= ((keyHash ^ 89869747L) ^ (keyHash << 16)) * 3644798167L;
+            }
+            hash ^= (self.size() + 1L) * 1927868237L;
+            hash ^= (hash >>> 11) ^ (hash >>> 25);
+            return hash * 69069L + 907133923L;
+        }
+
+        @Fallback
+        Object doGeneric(Object self) {
+            throw raise(PythonErrorType.TypeError, "unhashable type: '%p'", self);
+        }
+    }
+
     @Builtin(name = __LE__, fixedNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class LeNode extends PythonBinaryBuiltinNode {
@@ -277,21 +301,21 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
         PBaseSet doCached(PBaseSet self, Object[] args,
                         @Cached("args.length") int len,
                         @Cached("create()") HashingStorageNodes.CopyNode copyNode) {
-            PBaseSet result = create(self, copyNode.execute(self.getDictStorage()));
+            HashingStorage result = copyNode.execute(self.getDictStorage());
             for (int i = 0; i < len; i++) {
-                getBinaryUnionNode().execute(result, result.getDictStorage(), args[i]);
+                result = getBinaryUnionNode().execute(result, args[i]);
             }
-            return result;
+            return create(self, result);
         }
 
         @Specialization(replaces = "doCached")
         PBaseSet doGeneric(PBaseSet self, Object[] args,
                         @Cached("create()") HashingStorageNodes.CopyNode copyNode) {
-            PBaseSet result = create(self, copyNode.execute(self.getDictStorage()));
+            HashingStorage result = copyNode.execute(self.getDictStorage());
             for (int i = 0; i < args.length; i++) {
-                getBinaryUnionNode().execute(result, result.getDictStorage(), args[i]);
+                result = getBinaryUnionNode().execute(result, args[i]);
             }
-            return result;
+            return create(self, result);
         }
 
         private PBaseSet create(PBaseSet left, HashingStorage storage) {
@@ -305,7 +329,11 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
     abstract static class BinaryUnionNode extends PNodeWithContext {
         @Child private Equivalence equivalenceNode;
 
-        public abstract PBaseSet execute(PBaseSet container, HashingStorage left, Object right);
+        /**
+         * Adds the elements of {@code right} to {@code left} and returns the resulting storage,
+         * which is a different one if {@code left} had to be generalized.
+         */
+        public abstract HashingStorage execute(HashingStorage left, Object right);
 
         protected Equivalence getEquivalence() {
             if (equivalenceNode == null) {
@@ -316,15 +344,15 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PBaseSet doHashingCollection(PBaseSet container, EconomicMapStorage selfStorage, PHashingCollection other) {
+        HashingStorage doHashingCollection(EconomicMapStorage selfStorage, PHashingCollection other) {
             for (Object key : other.getDictStorage().keys()) {
                 selfStorage.setItem(key, PNone.NO_VALUE, getEquivalence());
             }
-            return container;
+            return selfStorage;
         }
 
         @Specialization
-        PBaseSet doIterable(PBaseSet container, HashingStorage dictStorage, Object iterable,
+        HashingStorage doIterable(HashingStorage dictStorage, Object iterable,
                         @Cached("create()") GetIteratorNode getIteratorNode,
                         @Cached("create()") GetNextNode next,
                         @Cached("createBinaryProfile()") ConditionProfile errorProfile,
@@ -338,8 +366,7 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
                     value = next.execute(iterator);
                 } catch (PException e) {
                     e.expectStopIteration(getCore(), errorProfile);
-                    container.setDictStorage(curStorage);
-                    return container;
+                    return curStorage;
                 }
                 curStorage = setItemNode.execute(curStorage, value, PNone.NO_VALUE);
             }
@@ -33,7 +33,7 @@ import com.oracle.graal.python.builtins.objects.type.PythonClass;
 
 public abstract class PBaseSet extends PHashingCollection {
 
-    protected final HashingStorage set;
+    protected HashingStorage set;
 
     public PBaseSet(PythonClass clazz) {
         super(clazz);
@@ -40,9 +40,6 @@ public final class PSet extends PBaseSet {
 
     @Override
     public void setDictStorage(HashingStorage newStorage) {
-        // ignore if storage stays unchanged
-        if (newStorage != getDictStorage()) {
-            throw new RuntimeException("set has fixed storage");
-        }
+        set = newStorage;
     }
 }
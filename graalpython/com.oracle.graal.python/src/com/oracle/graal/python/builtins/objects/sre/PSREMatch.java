@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code _sre.SRE_Match}. The group spans are copied out of the TRegex result when the match is
+ * created, so accessing groups does not go through interop.
+ */
+public final class PSREMatch extends PythonBuiltinObject {
+
+    private final Object pattern;
+    private final String string;
+    private final int pos;
+    private final int endpos;
+    private final int[] starts;
+    private final int[] ends;
+
+    public PSREMatch(PythonClass cls, Object pattern, String string, int pos, int endpos, int[] starts, int[] ends) {
+        super(cls);
+        assert starts.length == ends.length && starts.length > 0;
+        this.pattern = pattern;
+        this.string = string;
+        this.pos = pos;
+        this.endpos = endpos;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * The {@code SRE_Pattern} this match was produced by.
+     */
+    public Object getPattern() {
+        return pattern;
+    }
+
+    public String getString() {
+        return string;
+    }
+
+    public int getPos() {
+        return pos;
+    }
+
+    public int getEndpos() {
+        return endpos;
+    }
+
+    /**
+     * The number of groups including the implicit group 0.
+     */
+    public int getGroupCount() {
+        return starts.length;
+    }
+
+    public int getStart(int group) {
+        return starts[group];
+    }
+
+    public int getEnd(int group) {
+        return ends[group];
+    }
+
+    /**
+     * Returns the matched text of the group, or {@code null} if the group did not participate in
+     * the match.
+     */
+    public String getGroup(int group) {
+        int start = starts[group];
+        if (start < 0) {
+            return null;
+        }
+        return substring(start, ends[group]);
+    }
+
+    /**
+     * The index of the capturing group that was closed last, or {@code -1} if no group matched.
+     * TRegex does not report the closing order, so it is derived from the spans: of two groups
+     * ending at the same position the later one is taken to be nested in the earlier one unless it
+     * starts there.
+     */
+    public int getLastIndex() {
+        int lastIndex = -1;
+        int lastEnd = -1;
+        for (int i = 1; i < ends.length; i++) {
+            if (starts[i] >= 0 && (ends[i] > lastEnd || (ends[i] == lastEnd && starts[i] == lastEnd))) {
+                lastIndex = i;
+                lastEnd = ends[i];
+            }
+        }
+        return lastIndex;
+    }
+
+    @TruffleBoundary
+    private String substring(int start, int end) {
+        return string.substring(start, end);
+    }
+}
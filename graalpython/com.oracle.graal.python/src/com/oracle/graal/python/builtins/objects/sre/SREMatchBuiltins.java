@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.sre.SREMatchBuiltinsFactory.GroupIndexNodeGen;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PSREMatch)
+public class SREMatchBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SREMatchBuiltinsFactory.getFactories();
+    }
+
+    static Object groupOrDefault(PSREMatch self, int group, Object defaultValue) {
+        String value = self.getGroup(group);
+        return value == null ? defaultValue : value;
+    }
+
+    static Object defaultValue(Object defaultValue) {
+        return defaultValue == PNone.NO_VALUE ? PNone.NONE : defaultValue;
+    }
+
+    /**
+     * Resolves a group given by number or by name to its index.
+     */
+    abstract static class GroupIndexNode extends PNodeWithContext {
+
+        public abstract int execute(PSREMatch self, Object group);
+
+        @Specialization
+        int doInt(PSREMatch self, int group) {
+            if (group < 0 || group >= self.getGroupCount()) {
+                throw raise(IndexError, "no such group");
+            }
+            return group;
+        }
+
+        @Specialization
+        int doLong(PSREMatch self, long group) {
+            if (group < 0 || group >= self.getGroupCount()) {
+                throw raise(IndexError, "no such group");
+            }
+            return (int) group;
+        }
+
+        @Specialization
+        int doBoolean(PSREMatch self, boolean group) {
+            return doInt(self, group ? 1 : 0);
+        }
+
+        @Specialization
+        int doString(PSREMatch self, String group,
+                        @Cached("create()") ReadAttributeFromObjectNode readGroupIndexNode,
+                        @Cached("create()") HashingStorageNodes.GetItemNode getItemNode) {
+            Object groupIndex = readGroupIndexNode.execute(self.getPattern(), "groupindex");
+            if (groupIndex instanceof PDict) {
+                Object index = getItemNode.execute(((PDict) groupIndex).getDictStorage(), group);
+                if (index instanceof Integer) {
+                    return doInt(self, (int) index);
+                }
+            }
+            throw raise(IndexError, "no such group");
+        }
+
+        @Specialization
+        int doPString(PSREMatch self, PString group,
+                        @Cached("create()") ReadAttributeFromObjectNode readGroupIndexNode,
+                        @Cached("create()") HashingStorageNodes.GetItemNode getItemNode) {
+            return doString(self, group.getValue(), readGroupIndexNode, getItemNode);
+        }
+
+        @Fallback
+        int doGeneric(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object group) {
+            throw raise(IndexError, "no such group");
+        }
+
+        public static GroupIndexNode create() {
+            return GroupIndexNodeGen.create();
+        }
+    }
+
+    @Builtin(name = "group", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class GroupNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "args.length == 0")
+        Object group(PSREMatch self, @SuppressWarnings("unused") Object[] args) {
+            return self.getGroup(0);
+        }
+
+        @Specialization(guards = "args.length == 1")
+        Object group(PSREMatch self, Object[] args,
+                        @Cached("create()") GroupIndexNode groupIndexNode) {
+            return groupOrDefault(self, groupIndexNode.execute(self, args[0]), PNone.NONE);
+        }
+
+        @Specialization(guards = "args.length > 1")
+        Object groups(PSREMatch self, Object[] args,
+                        @Cached("create()") GroupIndexNode groupIndexNode) {
+            Object[] result = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                result[i] = groupOrDefault(self, groupIndexNode.execute(self, args[i]), PNone.NONE);
+            }
+            return factory().createTuple(result);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetItemNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object getItem(PSREMatch self, Object group,
+                        @Cached("create()") GroupIndexNode groupIndexNode) {
+            return groupOrDefault(self, groupIndexNode.execute(self, group), PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "groups", minNumOfPositionalArgs = 1, keywordArguments = {"default"})
+    @GenerateNodeFactory
+    abstract static class GroupsNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object groups(PSREMatch self, Object defaultValue) {
+            Object value = defaultValue(defaultValue);
+            Object[] result = new Object[self.getGroupCount() - 1];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = groupOrDefault(self, i + 1, value);
+            }
+            return factory().createTuple(result);
+        }
+    }
+
+    @Builtin(name = "groupdict", minNumOfPositionalArgs = 1, keywordArguments = {"default"})
+    @GenerateNodeFactory
+    abstract static class GroupDictNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        Object groupdict(PSREMatch self, Object defaultValue,
+                        @Cached("create()") ReadAttributeFromObjectNode readGroupIndexNode) {
+            PDict result = factory().createDict();
+            Object groupIndex = readGroupIndexNode.execute(self.getPattern(), "groupindex");
+            if (groupIndex instanceof PDict) {
+                fill(result, (PDict) groupIndex, self, defaultValue(defaultValue));
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private static void fill(PDict result, PDict groupIndex, PSREMatch self, Object defaultValue) {
+            for (DictEntry entry : groupIndex.getDictStorage().entries()) {
+                if (entry.getValue() instanceof Integer) {
+                    result.setItem(entry.getKey(), groupOrDefault(self, (int) entry.getValue(), defaultValue));
+                }
+            }
+        }
+    }
+
+    @Builtin(name = "start", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class StartNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(group)")
+        int start(PSREMatch self, @SuppressWarnings("unused") PNone group) {
+            return self.getStart(0);
+        }
+
+        @Specialization(guards = "!isNoValue(group)")
+        int start(PSREMatch self, Object group,
+                        @Cached("create()") GroupIndexNode groupIndexNode) {
+            return self.getStart(groupIndexNode.execute(self, group));
+        }
+    }
+
+    @Builtin(name = "end", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class EndNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(group)")
+        int end(PSREMatch self, @SuppressWarnings("unused") PNone group) {
+            return self.getEnd(0);
+        }
+
+        @Specialization(guards = "!isNoValue(group)")
+        int end(PSREMatch self, Object group,
+                        @Cached("create()") GroupIndexNode groupIndexNode) {
+            return self.getEnd(groupIndexNode.execute(self, group));
+        }
+    }
+
+    @Builtin(name = "span", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SpanNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(group)")
+        Object span(PSREMatch self, @SuppressWarnings("unused") PNone group) {
+            return factory().createTuple(new Object[]{self.getStart(0), self.getEnd(0)});
+        }
+
+        @Specialization(guards = "!isNoValue(group)")
+        Object span(PSREMatch self, Object group,
+                        @Cached("create()") GroupIndexNode groupIndexNode) {
+            int index = groupIndexNode.execute(self, group);
+            return factory().createTuple(new Object[]{self.getStart(index), self.getEnd(index)});
+        }
+    }
+
+    @Builtin(name = "string", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class StringNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object string(PSREMatch self) {
+            return self.getString();
+        }
+    }
+
+    @Builtin(name = "re", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ReNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object re(PSREMatch self) {
+            return self.getPattern();
+        }
+    }
+
+    @Builtin(name = "pos", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class PosNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int pos(PSREMatch self) {
+            return self.getPos();
+        }
+    }
+
+    @Builtin(name = "endpos", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EndposNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int endpos(PSREMatch self) {
+            return self.getEndpos();
+        }
+    }
+
+    @Builtin(name = "lastindex", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LastIndexNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object lastindex(PSREMatch self) {
+            int lastIndex = self.getLastIndex();
+            return lastIndex < 0 ? PNone.NONE : lastIndex;
+        }
+    }
+
+    @Builtin(name = "lastgroup", fixedNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LastGroupNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object lastgroup(PSREMatch self,
+                        @Cached("create()") ReadAttributeFromObjectNode readGroupIndexNode) {
+            int lastIndex = self.getLastIndex();
+            Object groupIndex = readGroupIndexNode.execute(self.getPattern(), "groupindex");
+            if (lastIndex >= 0 && groupIndex instanceof PDict) {
+                return findName((PDict) groupIndex, lastIndex);
+            }
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private static Object findName(PDict groupIndex, int index) {
+            for (DictEntry entry : groupIndex.getDictStorage().entries()) {
+                if (entry.getValue() instanceof Integer && (int) entry.getValue() == index) {
+                    return entry.getKey();
+                }
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        Object repr(PSREMatch self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            return "<_sre.SRE_Match object; span=(" + self.getStart(0) + ", " + self.getEnd(0) + "), match=" + reprNode.executeObject(self.getGroup(0)) + ">";
+        }
+    }
+}
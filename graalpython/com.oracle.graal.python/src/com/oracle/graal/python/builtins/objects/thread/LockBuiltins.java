@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.runtime.PythonThreads;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PLock, PythonBuiltinClassType.PRLock})
+public class LockBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return LockBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Waits for a lock that could not be taken right away. The GIL is released while waiting, so
+     * that the owner of the lock can run and release it.
+     */
+    @TruffleBoundary
+    static boolean acquireBlocking(PythonThreads threads, AbstractPythonLock lock, long timeoutNanos) {
+        boolean released = threads.release();
+        try {
+            return lock.acquire(timeoutNanos);
+        } catch (InterruptedException e) {
+            // the context is shutting down
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            threads.reacquire(released);
+        }
+    }
+
+    // lock.acquire(blocking=True, timeout=-1)
+    @Builtin(name = "acquire", minNumOfPositionalArgs = 1, keywordArguments = {"blocking", "timeout"})
+    @GenerateNodeFactory
+    abstract static class AcquireNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        boolean acquire(AbstractPythonLock self, Object blocking, Object timeout,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode,
+                        @Cached("createBinaryProfile()") ConditionProfile uncontendedProfile) {
+            boolean isBlocking = PGuards.isNoValue(blocking) || castToBooleanNode.executeWith(blocking);
+            double seconds = PGuards.isNoValue(timeout) ? -1 : castToDoubleNode.execute(timeout);
+            if (!isBlocking && seconds != -1) {
+                throw raise(ValueError, "can't specify a timeout for a non-blocking call");
+            }
+            if (seconds < 0 && seconds != -1) {
+                throw raise(ValueError, "timeout value must be positive");
+            }
+            if (seconds > AbstractPythonLock.TIMEOUT_MAX) {
+                throw raise(OverflowError, "timeout value is too large");
+            }
+            if (uncontendedProfile.profile(self.tryAcquire())) {
+                return true;
+            } else if (!isBlocking) {
+                return false;
+            }
+            return acquireBlocking(getContext().getThreads(), self, seconds < 0 ? -1 : (long) (seconds * 1.0E9));
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean enter(AbstractPythonLock self,
+                        @Cached("createBinaryProfile()") ConditionProfile uncontendedProfile) {
+            if (uncontendedProfile.profile(self.tryAcquire())) {
+                return true;
+            }
+            return acquireBlocking(getContext().getThreads(), self, -1);
+        }
+    }
+
+    static PNone release(PNodeWithContext node, PLock lock) {
+        if (!lock.locked()) {
+            throw node.raise(RuntimeError, "release unlocked lock");
+        }
+        lock.release();
+        return PNone.NONE;
+    }
+
+    static PNone release(PNodeWithContext node, PRLock lock) {
+        if (!lock.isOwned()) {
+            throw node.raise(RuntimeError, "cannot release un-acquired lock");
+        }
+        lock.release();
+        return PNone.NONE;
+    }
+
+    @Builtin(name = "release", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReleaseNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PNone release(PLock self) {
+            return LockBuiltins.release(this, self);
+        }
+
+        @Specialization
+        PNone release(PRLock self) {
+            return LockBuiltins.release(this, self);
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+
+        @Specialization
+        PNone exit(PLock self, @SuppressWarnings("unused") Object[] args) {
+            return release(this, self);
+        }
+
+        @Specialization
+        PNone exit(PRLock self, @SuppressWarnings("unused") Object[] args) {
+            return release(this, self);
+        }
+    }
+
+    @Builtin(name = "locked", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class LockedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean locked(AbstractPythonLock self) {
+            return self.locked();
+        }
+    }
+}
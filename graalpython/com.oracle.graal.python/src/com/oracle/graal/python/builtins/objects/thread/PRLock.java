@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/** A {@code _thread.RLock}, which only its owner can release. */
+public final class PRLock extends AbstractPythonLock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PRLock(PythonClass cls) {
+        super(cls);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean tryAcquire() {
+        return lock.tryLock();
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean acquire(long timeoutNanos) throws InterruptedException {
+        if (timeoutNanos < 0) {
+            lock.lockInterruptibly();
+            return true;
+        }
+        return lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void release() {
+        assert isOwned();
+        lock.unlock();
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean locked() {
+        return lock.isLocked();
+    }
+
+    @TruffleBoundary
+    public boolean isOwned() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    /** Releases the lock completely and returns how often it was held, for a condition wait. */
+    @TruffleBoundary
+    public int releaseAll() {
+        int count = lock.getHoldCount();
+        for (int i = 0; i < count; i++) {
+            lock.unlock();
+        }
+        return count;
+    }
+
+    /** Restores the holds given up by {@link #releaseAll} after the lock was acquired again. */
+    @TruffleBoundary
+    public void restoreHolds(int count) {
+        assert isOwned();
+        for (int i = 1; i < count; i++) {
+            lock.lock();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.PythonThreads;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * The methods {@code threading.Condition} uses to wait on an {@code RLock} that the current thread
+ * may hold several times.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PRLock)
+public class RLockBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return RLockBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "_is_owned", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsOwnedNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        boolean isOwned(PRLock self) {
+            return self.isOwned();
+        }
+    }
+
+    @Builtin(name = "_release_save", fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReleaseSaveNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PTuple releaseSave(PRLock self) {
+            if (!self.isOwned()) {
+                throw raise(RuntimeError, "cannot release un-acquired lock");
+            }
+            long owner = PythonThreads.getCurrentThreadId();
+            int count = self.releaseAll();
+            return factory().createTuple(new Object[]{count, owner});
+        }
+    }
+
+    @Builtin(name = "_acquire_restore", fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class AcquireRestoreNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone acquireRestore(PRLock self, PTuple state,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            Object[] items = state.getArray();
+            if (items.length != 2) {
+                throw raise(TypeError, "_acquire_restore() argument 1 must be a tuple of a count and an owner");
+            }
+            int count = castToIndexNode.execute(items[0]);
+            if (!self.tryAcquire()) {
+                LockBuiltins.acquireBlocking(getContext().getThreads(), self, -1);
+            }
+            self.restoreHolds(count);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        PNone acquireRestore(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object state) {
+            throw raise(TypeError, "_acquire_restore() argument 1 must be a tuple of a count and an owner");
+        }
+    }
+}
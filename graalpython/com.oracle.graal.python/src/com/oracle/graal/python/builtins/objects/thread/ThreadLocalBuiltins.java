@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELATTR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELETE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETATTRIBUTE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETATTR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GET__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETATTR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SET__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PFunction;
+import com.oracle.graal.python.builtins.objects.function.PythonCallable;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.CallBinaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.CallTernaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * Attribute access on {@code _thread._local} objects. It works like on other objects, except that
+ * the instance dict is the dict of the current thread.
+ */
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PThreadLocal)
+public class ThreadLocalBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ThreadLocalBuiltinsFactory.getFactories();
+    }
+
+    static boolean isDictKey(Object key) {
+        return __DICT__.equals(key);
+    }
+
+    /** Returns the dict of the current thread and initializes the object for a new thread. */
+    static final class GetThreadDictNode extends PNodeWithContext {
+        @Child private GetClassNode getClassNode;
+        @Child private LookupAttributeInMRONode lookupInitNode;
+        @Child private CallNode callInitNode;
+        private final ConditionProfile newThreadProfile = ConditionProfile.createBinaryProfile();
+
+        PDict execute(PThreadLocal local) {
+            PDict dict = local.getThreadDict();
+            if (newThreadProfile.profile(dict == null)) {
+                dict = factory().createDict();
+                local.setThreadDict(dict);
+                initialize(local);
+            }
+            return dict;
+        }
+
+        private void initialize(PThreadLocal local) {
+            if (lookupInitNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getClassNode = insert(GetClassNode.create());
+                lookupInitNode = insert(LookupAttributeInMRONode.create(__INIT__));
+                callInitNode = insert(CallNode.create());
+            }
+            Object init = lookupInitNode.execute(getClassNode.execute(local));
+            // only an __init__ defined in Python has to run again in each thread
+            if (init instanceof PFunction) {
+                Object[] arguments = local.getArguments();
+                Object[] argumentsWithSelf = new Object[arguments.length + 1];
+                argumentsWithSelf[0] = local;
+                System.arraycopy(arguments, 0, argumentsWithSelf, 1, arguments.length);
+                callInitNode.execute(null, init, argumentsWithSelf, local.getKeywords());
+            }
+        }
+
+        static GetThreadDictNode create() {
+            return new GetThreadDictNode();
+        }
+    }
+
+    @Builtin(name = __GETATTRIBUTE__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetAttributeNode extends PythonBinaryBuiltinNode {
+        @Child private LookupAndCallBinaryNode getattrNode;
+
+        @Specialization
+        Object getAttribute(PThreadLocal self, Object key,
+                        @Cached("create()") GetThreadDictNode getThreadDictNode,
+                        @Cached("create()") GetClassNode getClassNode,
+                        @Cached("create()") LookupAttributeInMRONode.Dynamic lookupNode,
+                        @Cached("create()") GetClassNode getDescrClassNode,
+                        @Cached("create(__GET__)") LookupAttributeInMRONode lookupGetNode,
+                        @Cached("create(__SET__)") LookupAttributeInMRONode lookupSetNode,
+                        @Cached("create(__DELETE__)") LookupAttributeInMRONode lookupDeleteNode,
+                        @Cached("create()") CallTernaryMethodNode callGetNode,
+                        @Cached("create()") HashingStorageNodes.GetItemNode getItemNode) {
+            PDict dict = getThreadDictNode.execute(self);
+            if (isDictKey(key)) {
+                return dict;
+            }
+            PythonClass type = getClassNode.execute(self);
+            Object descr = lookupNode.execute(type, key);
+            Object get = PNone.NO_VALUE;
+            if (descr != PNone.NO_VALUE) {
+                PythonClass descrClass = getDescrClassNode.execute(descr);
+                get = lookupGetNode.execute(descrClass);
+                boolean isDataDescriptor = lookupSetNode.execute(descrClass) != PNone.NO_VALUE || lookupDeleteNode.execute(descrClass) != PNone.NO_VALUE;
+                if (isDataDescriptor && get instanceof PythonCallable) {
+                    return callGetNode.execute(get, descr, self, type);
+                }
+            }
+            Object value = getItemNode.execute(dict.getDictStorage(), key);
+            if (value != null) {
+                return value;
+            }
+            if (descr != PNone.NO_VALUE) {
+                if (get instanceof PythonCallable) {
+                    return callGetNode.execute(get, descr, self, type);
+                }
+                return descr;
+            }
+            return fallbackGetattr(self, key);
+        }
+
+        private Object fallbackGetattr(Object object, Object key) {
+            if (getattrNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getattrNode = insert(LookupAndCallBinaryNode.create(__GETATTR__));
+            }
+            return getattrNode.executeObject(object, key);
+        }
+    }
+
+    @Builtin(name = __SETATTR__, fixedNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SetAttrNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone setAttr(PThreadLocal self, Object key, Object value,
+                        @Cached("create()") GetThreadDictNode getThreadDictNode,
+                        @Cached("create()") GetClassNode getClassNode,
+                        @Cached("create()") LookupAttributeInMRONode.Dynamic lookupNode,
+                        @Cached("create()") GetClassNode getDescrClassNode,
+                        @Cached("create(__SET__)") LookupAttributeInMRONode lookupSetNode,
+                        @Cached("create()") CallTernaryMethodNode callSetNode,
+                        @Cached("create()") HashingCollectionNodes.SetItemNode setItemNode) {
+            if (isDictKey(key)) {
+                throw raise(AttributeError, "'%p' object attribute '__dict__' is read-only", self);
+            }
+            PDict dict = getThreadDictNode.execute(self);
+            Object descr = lookupNode.execute(getClassNode.execute(self), key);
+            if (descr != PNone.NO_VALUE) {
+                Object set = lookupSetNode.execute(getDescrClassNode.execute(descr));
+                if (set instanceof PythonCallable) {
+                    callSetNode.execute(set, descr, self, value);
+                    return PNone.NONE;
+                }
+            }
+            setItemNode.execute(dict, key, value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELATTR__, fixedNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DelAttrNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PNone delAttr(PThreadLocal self, Object key,
+                        @Cached("create()") GetThreadDictNode getThreadDictNode,
+                        @Cached("create()") GetClassNode getClassNode,
+                        @Cached("create()") LookupAttributeInMRONode.Dynamic lookupNode,
+                        @Cached("create()") GetClassNode getDescrClassNode,
+                        @Cached("create(__DELETE__)") LookupAttributeInMRONode lookupDeleteNode,
+                        @Cached("create()") CallBinaryMethodNode callDeleteNode,
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode) {
+            if (isDictKey(key)) {
+                throw raise(AttributeError, "'%p' object attribute '__dict__' is read-only", self);
+            }
+            PDict dict = getThreadDictNode.execute(self);
+            Object descr = lookupNode.execute(getClassNode.execute(self), key);
+            if (descr != PNone.NO_VALUE) {
+                Object delete = lookupDeleteNode.execute(getDescrClassNode.execute(descr));
+                if (delete instanceof PythonCallable) {
+                    callDeleteNode.executeObject(delete, descr, self);
+                    return PNone.NONE;
+                }
+            }
+            if (!delItemNode.execute(dict, dict.getDictStorage(), key)) {
+                throw raise(AttributeError, "'%p' object has no attribute '%s'", self, key);
+            }
+            return PNone.NONE;
+        }
+    }
+}
@@ -40,6 +40,7 @@ import com.oracle.graal.python.builtins.modules.BuiltinFunctionsFactory;
 import com.oracle.graal.python.builtins.modules.MathGuards;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.PythonEquivalence;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
@@ -380,6 +381,27 @@ public class TupleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = SpecialMethodNames.__HASH__, fixedNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        long doPTuple(PTuple self,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode,
+                        @Cached("create()") PythonEquivalence equivalence) {
+            // adapted from CPython's tuplehash
+            SequenceStorage tupleStore = self.getSequenceStorage();
+            int len = tupleStore.length();
+            long multiplier = 0xf4243;
+            long hash = 0x345678;
+            for (int i = 0; i < len; i++) {
+                hash = (hash ^ equivalence.hashCode(getItemNode.execute(tupleStore, i))) * multiplier;
+                multiplier += 82520 + len + len;
+            }
+            return hash + 97531;
+        }
+    }
+
     @Builtin(name = SpecialMethodNames.__NE__, fixedNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class NeNode extends PythonBinaryBuiltinNode {
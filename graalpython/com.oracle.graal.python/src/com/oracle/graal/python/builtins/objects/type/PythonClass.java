@@ -68,10 +68,12 @@ public class PythonClass extends PythonObject {
      */
     private final CyclicAssumption lookupStableAssumption;
     /**
-     * These assumptions will be invalidated whenever the value of the given slot changes. All
+     * One assumption per attribute name, invalidated and dropped whenever the value of the given
+     * slot changes in this class or any class of its mro. Subclasses are reached through the weak
+     * {@link #subClasses} set, so the map never holds more than one entry per looked up name. All
      * assumptions will be invalidated if the mro changes.
      */
-    private final Map<String, List<Assumption>> attributesInMROFinalAssumptions = new HashMap<>();
+    private final Map<String, Assumption> attributesInMROFinalAssumptions = new HashMap<>();
 
     private final Set<PythonClass> subClasses = Collections.newSetFromMap(new WeakHashMap<PythonClass, Boolean>());
     private final Shape instanceShape;
@@ -119,37 +121,37 @@ public class PythonClass extends PythonObject {
         return lookupStableAssumption.getAssumption();
     }
 
-    public Assumption createAttributeInMROFinalAssumption(String name) {
-        CompilerAsserts.neverPartOfCompilation();
-        List<Assumption> attrAssumptions = attributesInMROFinalAssumptions.getOrDefault(name, null);
-        if (attrAssumptions == null) {
-            attrAssumptions = new ArrayList<>();
-            attributesInMROFinalAssumptions.put(name, attrAssumptions);
+    /**
+     * Returns the assumption that the lookup of {@code name} in the MRO of this class still
+     * yields the same value. The assumption is shared by all lookups of that name starting at
+     * this class and is only replaced once it has been invalidated.
+     */
+    @TruffleBoundary
+    public Assumption getAttributeInMROFinalAssumption(String name) {
+        Assumption assumption = attributesInMROFinalAssumptions.get(name);
+        if (assumption == null) {
+            // make sure every class in the MRO has an entry, so that invalidation only needs to
+            // walk down the subclasses
+            for (PythonClass cls : methodResolutionOrder) {
+                if (!cls.attributesInMROFinalAssumptions.containsKey(name)) {
+                    cls.attributesInMROFinalAssumptions.put(name, Truffle.getRuntime().createAssumption(cls.className + "." + name));
+                }
+            }
+            assumption = attributesInMROFinalAssumptions.get(name);
         }
-
-        Assumption assumption = Truffle.getRuntime().createAssumption(name.toString());
-        attrAssumptions.add(assumption);
         return assumption;
     }
 
-    public void addAttributeInMROFinalAssumption(String name, Assumption assumption) {
-        CompilerAsserts.neverPartOfCompilation();
-        List<Assumption> attrAssumptions = attributesInMROFinalAssumptions.getOrDefault(name, null);
-        if (attrAssumptions == null) {
-            attrAssumptions = new ArrayList<>();
-            attributesInMROFinalAssumptions.put(name, attrAssumptions);
-        }
-
-        attrAssumptions.add(assumption);
-    }
-
     @TruffleBoundary
     public void invalidateAttributeInMROFinalAssumptions(String name) {
-        List<Assumption> assumptions = attributesInMROFinalAssumptions.getOrDefault(name, new ArrayList<>());
-        if (!assumptions.isEmpty()) {
-            String message = className + "." + name;
-            for (Assumption assumption : assumptions) {
-                assumption.invalidate(message);
+        Assumption assumption = attributesInMROFinalAssumptions.remove(name);
+        if (assumption != null) {
+            assumption.invalidate(className + "." + name);
+            // a subclass can only have an entry for the name if this class has one
+            for (PythonClass subclass : getSubClasses()) {
+                if (subclass != null) {
+                    subclass.invalidateAttributeInMROFinalAssumptions(name);
+                }
             }
         }
     }
@@ -159,11 +161,10 @@ public class PythonClass extends PythonObject {
      */
     public void lookupChanged() {
         CompilerAsserts.neverPartOfCompilation();
-        for (List<Assumption> list : attributesInMROFinalAssumptions.values()) {
-            for (Assumption assumption : list) {
-                assumption.invalidate();
-            }
+        for (Assumption assumption : attributesInMROFinalAssumptions.values()) {
+            assumption.invalidate();
         }
+        attributesInMROFinalAssumptions.clear();
         lookupStableAssumption.invalidate();
         for (PythonClass subclass : getSubClasses()) {
             if (subclass != null) {
@@ -29,7 +29,6 @@ import java.math.BigInteger;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
-import com.oracle.graal.python.builtins.objects.complex.PComplex;
 import com.oracle.graal.python.nodes.attributes.DeleteAttributeNode;
 import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
 import com.oracle.graal.python.nodes.attributes.SetAttributeNode;
@@ -76,6 +75,7 @@ import com.oracle.graal.python.nodes.frame.WriteNode;
 import com.oracle.graal.python.nodes.function.ClassBodyRootNode;
 import com.oracle.graal.python.nodes.function.FunctionRootNode;
 import com.oracle.graal.python.nodes.generator.DictConcatNode;
+import com.oracle.graal.python.nodes.generator.YieldFromNode;
 import com.oracle.graal.python.nodes.generator.YieldNode;
 import com.oracle.graal.python.nodes.literal.BooleanLiteralNode;
 import com.oracle.graal.python.nodes.literal.BuiltinsLiteralNode;
@@ -213,6 +213,14 @@ public class NodeFactory {
         return new YieldNode(createWriteLocal(right, returnSlot));
     }
 
+    public YieldFromNode createYieldFrom(ExpressionNode right, FrameSlot returnSlot) {
+        return new YieldFromNode(right, createWriteLocal(EmptyNode.create(), returnSlot), false);
+    }
+
+    public YieldFromNode createAwait(ExpressionNode right, FrameSlot returnSlot) {
+        return new YieldFromNode(right, createWriteLocal(EmptyNode.create(), returnSlot), true);
+    }
+
     public ExpressionNode createIntegerLiteral(int value) {
         return new IntegerLiteralNode(value);
     }
@@ -229,8 +237,8 @@ public class NodeFactory {
         return new DoubleLiteralNode(value);
     }
 
-    public ExpressionNode createComplexLiteral(PComplex value) {
-        return new ComplexLiteralNode(value);
+    public ExpressionNode createComplexLiteral(double real, double imag) {
+        return new ComplexLiteralNode(real, imag);
     }
 
     public ExpressionNode createStringLiteral(String value) {
@@ -25,28 +25,47 @@
  */
 package com.oracle.graal.python.nodes.argument;
 
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 
+/**
+ * Provides the value of a default argument. The values are evaluated in the declaring scope and
+ * stored on the function object, which passes them in the frame arguments of each call. Builtins
+ * only have {@link PNone#NO_VALUE} as default.
+ */
 public final class ReadDefaultArgumentNode extends Node {
 
-    @CompilationFinal private Object value;
+    private static final int NO_VALUE_INDEX = -1;
+
+    private final int index;
 
-    public ReadDefaultArgumentNode() {
-        value = null;
+    private ReadDefaultArgumentNode(int index) {
+        this.index = index;
     }
 
-    public void setValue(Object value) {
-        this.value = value;
+    public static ReadDefaultArgumentNode create(int index) {
+        assert index >= 0;
+        return new ReadDefaultArgumentNode(index);
     }
 
-    public Object execute() {
-        assert value != null : "ReadDefaultArgumentNode: value cannot be null!";
-        return value;
+    public static ReadDefaultArgumentNode createNoValue() {
+        return new ReadDefaultArgumentNode(NO_VALUE_INDEX);
     }
 
-    @Override
-    public Node copy() {
-        return this;
+    /**
+     * Returns the default value, or {@code null} if the function's defaults were replaced by fewer
+     * values.
+     */
+    public Object execute(VirtualFrame frame) {
+        if (index == NO_VALUE_INDEX) {
+            return PNone.NO_VALUE;
+        }
+        Object[] defaults = PArguments.getDefaults(frame);
+        if (defaults == null || index >= defaults.length) {
+            return null;
+        }
+        return defaults[index];
     }
 }
@@ -131,11 +131,11 @@ public abstract class ReadKeywordNode extends ReadArgumentNode {
             }
         }
         if (keyword == null) {
-            if (defaultNode == null) {
+            Object defaultValue = defaultNode == null ? null : defaultNode.execute(frame);
+            if (defaultValue == null) {
                 throw raise(TypeError, "missing required keyword-only argument: '%s'", name);
-            } else {
-                return profile.profile(defaultNode.execute());
             }
+            return profile.profile(defaultValue);
         } else {
             return profile.profile(keyword.getValue());
         }
@@ -144,11 +144,4 @@ public abstract class ReadKeywordNode extends ReadArgumentNode {
     public String getName() {
         return name;
     }
-
-    public Object getDefaultValue() {
-        if (defaultNode != null) {
-            return defaultNode.execute();
-        }
-        return null;
-    }
 }
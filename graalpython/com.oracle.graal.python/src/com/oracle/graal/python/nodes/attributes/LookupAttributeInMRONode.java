@@ -117,13 +117,10 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
 
     protected PythonClassAssumptionPair findAttrClassAndAssumptionInMRO(PythonClass klass) {
         PythonClass[] mro = klass.getMethodResolutionOrder();
-        Assumption attrAssumption = klass.createAttributeInMROFinalAssumption(key);
+        Assumption attrAssumption = klass.getAttributeInMROFinalAssumption(key);
         for (int i = 0; i < mro.length; i++) {
             PythonClass cls = mro[i];
-            if (i > 0) {
-                assert cls != klass : "MRO chain is incorrect: '" + klass + "' was found at position " + i;
-                cls.addAttributeInMROFinalAssumption(key, attrAssumption);
-            }
+            assert i == 0 || cls != klass : "MRO chain is incorrect: '" + klass + "' was found at position " + i;
 
             if (cls.getStorage().containsKey(key)) {
                 Object value = cls.getStorage().get(key);
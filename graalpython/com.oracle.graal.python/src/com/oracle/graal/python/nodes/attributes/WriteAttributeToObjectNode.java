@@ -40,6 +40,7 @@
  */
 package com.oracle.graal.python.nodes.attributes;
 
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.str.PString;
@@ -84,12 +85,17 @@ public abstract class WriteAttributeToObjectNode extends PNodeWithContext {
     }
 
     private final ConditionProfile isClassProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile isModuleProfile = ConditionProfile.createBinaryProfile();
 
     private void handlePythonClass(PythonObject object, Object key) {
         if (isClassProfile.profile(object instanceof PythonClass)) {
             if (key instanceof String) {
                 ((PythonClass) object).invalidateAttributeInMROFinalAssumptions((String) key);
             }
+        } else if (isModuleProfile.profile(object instanceof PythonModule)) {
+            if (key instanceof String) {
+                ((PythonModule) object).invalidateAttributeFinalAssumption((String) key);
+            }
         }
     }
 
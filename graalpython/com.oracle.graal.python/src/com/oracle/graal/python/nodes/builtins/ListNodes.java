@@ -50,6 +50,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.modules.MathGuards;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListAppendNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
@@ -66,7 +67,6 @@ import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
-import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
@@ -95,7 +95,7 @@ public abstract class ListNodes {
 
         @Child private GetNextNode next = GetNextNode.create();
 
-        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile exhaustedProfile = ConditionProfile.createBinaryProfile();
 
         @CompilationFinal private ListStorageType type = ListStorageType.Uninitialized;
 
@@ -110,16 +110,14 @@ public abstract class ListNodes {
                     Object[] elements = new Object[START_SIZE];
                     int i = 0;
                     while (true) {
-                        try {
-                            Object value = next.execute(iterator);
-                            if (i >= elements.length) {
-                                elements = Arrays.copyOf(elements, elements.length * 2);
-                            }
-                            elements[i++] = value;
-                        } catch (PException e) {
-                            e.expectStopIteration(getCore(), errorProfile);
+                        Object value = next.executeOrExhausted(iterator);
+                        if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                             break;
                         }
+                        if (i >= elements.length) {
+                            elements = Arrays.copyOf(elements, elements.length * 2);
+                        }
+                        elements[i++] = value;
                     }
                     storage = new SequenceStorageFactory().createStorage(Arrays.copyOf(elements, i));
                     if (storage instanceof IntSequenceStorage) {
@@ -148,16 +146,17 @@ public abstract class ListNodes {
                             int[] elements = new int[START_SIZE];
                             array = elements;
                             while (true) {
-                                try {
-                                    int value = next.executeInt(iterator);
-                                    if (i >= elements.length) {
-                                        elements = Arrays.copyOf(elements, elements.length * 2);
-                                    }
-                                    elements[i++] = value;
-                                } catch (PException e) {
-                                    e.expectStopIteration(getCore(), errorProfile);
+                                Object value = next.executeOrExhausted(iterator);
+                                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                                     break;
+                                } else if (!(value instanceof Integer)) {
+                                    throw new UnexpectedResultException(value);
+                                }
+                                if (i >= elements.length) {
+                                    elements = Arrays.copyOf(elements, elements.length * 2);
+                                    array = elements;
                                 }
+                                elements[i++] = (int) value;
                             }
                             storage = new IntSequenceStorage(elements, i);
                             break;
@@ -166,16 +165,17 @@ public abstract class ListNodes {
                             long[] elements = new long[START_SIZE];
                             array = elements;
                             while (true) {
-                                try {
-                                    long value = next.executeLong(iterator);
-                                    if (i >= elements.length) {
-                                        elements = Arrays.copyOf(elements, elements.length * 2);
-                                    }
-                                    elements[i++] = value;
-                                } catch (PException e) {
-                                    e.expectStopIteration(getCore(), errorProfile);
+                                Object value = next.executeOrExhausted(iterator);
+                                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                                     break;
+                                } else if (!(value instanceof Long)) {
+                                    throw new UnexpectedResultException(value);
                                 }
+                                if (i >= elements.length) {
+                                    elements = Arrays.copyOf(elements, elements.length * 2);
+                                    array = elements;
+                                }
+                                elements[i++] = (long) value;
                             }
                             storage = new LongSequenceStorage(elements, i);
                             break;
@@ -184,16 +184,17 @@ public abstract class ListNodes {
                             double[] elements = new double[START_SIZE];
                             array = elements;
                             while (true) {
-                                try {
-                                    double value = next.executeDouble(iterator);
-                                    if (i >= elements.length) {
-                                        elements = Arrays.copyOf(elements, elements.length * 2);
-                                    }
-                                    elements[i++] = value;
-                                } catch (PException e) {
-                                    e.expectStopIteration(getCore(), errorProfile);
+                                Object value = next.executeOrExhausted(iterator);
+                                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                                     break;
+                                } else if (!(value instanceof Double)) {
+                                    throw new UnexpectedResultException(value);
+                                }
+                                if (i >= elements.length) {
+                                    elements = Arrays.copyOf(elements, elements.length * 2);
+                                    array = elements;
                                 }
+                                elements[i++] = (double) value;
                             }
                             storage = new DoubleSequenceStorage(elements, i);
                             break;
@@ -202,16 +203,15 @@ public abstract class ListNodes {
                             PList[] elements = new PList[START_SIZE];
                             array = elements;
                             while (true) {
-                                try {
-                                    PList value = PList.expect(next.execute(iterator));
-                                    if (i >= elements.length) {
-                                        elements = Arrays.copyOf(elements, elements.length * 2);
-                                    }
-                                    elements[i++] = value;
-                                } catch (PException e) {
-                                    e.expectStopIteration(getCore(), errorProfile);
+                                Object value = next.executeOrExhausted(iterator);
+                                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                                     break;
                                 }
+                                if (i >= elements.length) {
+                                    elements = Arrays.copyOf(elements, elements.length * 2);
+                                    array = elements;
+                                }
+                                elements[i++] = PList.expect(value);
                             }
                             storage = new ListSequenceStorage(elements, i);
                             break;
@@ -220,34 +220,30 @@ public abstract class ListNodes {
                             PTuple[] elements = new PTuple[START_SIZE];
                             array = elements;
                             while (true) {
-                                try {
-                                    PTuple value = PTuple.expect(next.execute(iterator));
-                                    if (i >= elements.length) {
-                                        elements = Arrays.copyOf(elements, elements.length * 2);
-                                    }
-                                    elements[i++] = value;
-                                } catch (PException e) {
-                                    e.expectStopIteration(getCore(), errorProfile);
+                                Object value = next.executeOrExhausted(iterator);
+                                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                                     break;
                                 }
+                                if (i >= elements.length) {
+                                    elements = Arrays.copyOf(elements, elements.length * 2);
+                                    array = elements;
+                                }
+                                elements[i++] = PTuple.expect(value);
                             }
                             storage = new TupleSequenceStorage(elements, i);
                             break;
                         }
                         case Generic: {
                             Object[] elements = new Object[START_SIZE];
-                            array = elements;
                             while (true) {
-                                try {
-                                    Object value = next.execute(iterator);
-                                    if (i >= elements.length) {
-                                        elements = Arrays.copyOf(elements, elements.length * 2);
-                                    }
-                                    elements[i++] = value;
-                                } catch (PException e) {
-                                    e.expectStopIteration(getCore(), errorProfile);
+                                Object value = next.executeOrExhausted(iterator);
+                                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                                     break;
                                 }
+                                if (i >= elements.length) {
+                                    elements = Arrays.copyOf(elements, elements.length * 2);
+                                }
+                                elements[i++] = value;
                             }
                             storage = new ObjectSequenceStorage(elements, i);
                             break;
@@ -271,16 +267,14 @@ public abstract class ListNodes {
             }
             elements[i++] = result;
             while (true) {
-                try {
-                    Object value = next.execute(iterator);
-                    if (i >= elements.length) {
-                        elements = Arrays.copyOf(elements, elements.length * 2);
-                    }
-                    elements[i++] = value;
-                } catch (PException e) {
-                    e.expectStopIteration(getCore(), errorProfile);
+                Object value = next.executeOrExhausted(iterator);
+                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                     break;
                 }
+                if (i >= elements.length) {
+                    elements = Arrays.copyOf(elements, elements.length * 2);
+                }
+                elements[i++] = value;
             }
             return new ObjectSequenceStorage(elements, i);
         }
@@ -45,6 +45,7 @@ import java.util.List;
 
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.PNodeWithContext;
@@ -53,7 +54,6 @@ import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
-import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -107,17 +107,16 @@ public abstract class TupleNodes {
         public PTuple tuple(PythonClass cls, Object iterable,
                         @Cached("create()") GetIteratorNode getIterator,
                         @Cached("create()") GetNextNode next,
-                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+                        @Cached("createBinaryProfile()") ConditionProfile exhaustedProfile) {
 
             Object iterator = getIterator.executeWith(iterable);
             List<Object> internalStorage = new ArrayList<>();
             while (true) {
-                try {
-                    internalStorage.add(next.execute(iterator));
-                } catch (PException e) {
-                    e.expectStopIteration(getCore(), errorProfile);
+                Object value = next.executeOrExhausted(iterator);
+                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                     return factory().createTuple(cls, internalStorage.toArray());
                 }
+                internalStorage.add(value);
             }
         }
 
@@ -141,6 +141,7 @@ final class GenericInvokeNode extends AbstractInvokeNode {
             Object[] combined = applyKeywords.execute(arity, arguments, keywords);
             PArguments.setGlobals(combined, callee.getGlobals());
             PArguments.setClosure(combined, callee.getClosure());
+            PArguments.setDefaults(combined, callee.getDefaults());
             arityCheck.execute(arity, combined, PArguments.getKeywordArguments(combined));
             return callNode.call(callTarget, combined);
         }
@@ -172,31 +173,33 @@ abstract class CallTargetInvokeNode extends AbstractInvokeNode {
         return CallTargetInvokeNodeGen.create(callTarget, callee.getArity(), builtin, callee.isGeneratorFunction());
     }
 
-    public abstract Object execute(VirtualFrame frame, PythonObject globals, PCell[] closure, Object[] arguments, PKeyword[] keywords);
+    public abstract Object execute(VirtualFrame frame, PythonObject globals, PCell[] closure, Object[] defaults, Object[] arguments, PKeyword[] keywords);
 
     @Specialization(guards = {"keywords.length == 0"})
-    protected Object doNoKeywords(VirtualFrame frame, PythonObject globals, PCell[] closure, Object[] arguments, PKeyword[] keywords) {
+    protected Object doNoKeywords(VirtualFrame frame, PythonObject globals, PCell[] closure, Object[] defaults, Object[] arguments, PKeyword[] keywords) {
         PArguments.setGlobals(arguments, globals);
         PArguments.setClosure(arguments, closure);
+        PArguments.setDefaults(arguments, defaults);
         PArguments.setCallerFrame(arguments, getCallerFrame(frame, callNode.getCallTarget()));
         arityCheck.execute(arity, arguments, keywords);
         return callNode.call(arguments);
     }
 
     @Specialization(guards = {"!isBuiltin"})
-    protected Object doWithKeywords(VirtualFrame frame, PythonObject globals, PCell[] closure, Object[] arguments, PKeyword[] keywords,
+    protected Object doWithKeywords(VirtualFrame frame, PythonObject globals, PCell[] closure, Object[] defaults, Object[] arguments, PKeyword[] keywords,
                     @Cached("create()") ApplyKeywordsNode applyKeywords) {
         Object[] combined = applyKeywords.execute(arity, arguments, keywords);
         PArguments.setGlobals(combined, globals);
         PArguments.setClosure(combined, closure);
+        PArguments.setDefaults(combined, defaults);
         PArguments.setCallerFrame(arguments, getCallerFrame(frame, callNode.getCallTarget()));
         arityCheck.execute(arity, combined, PArguments.getKeywordArguments(combined));
         return callNode.call(combined);
     }
 
     @Specialization(guards = "isBuiltin")
-    protected Object doBuiltinWithKeywords(VirtualFrame frame, @SuppressWarnings("unused") PythonObject globals, @SuppressWarnings("unused") PCell[] closure, Object[] arguments,
-                    PKeyword[] keywords) {
+    protected Object doBuiltinWithKeywords(VirtualFrame frame, @SuppressWarnings("unused") PythonObject globals, @SuppressWarnings("unused") PCell[] closure,
+                    @SuppressWarnings("unused") Object[] defaults, Object[] arguments, PKeyword[] keywords) {
         PArguments.setKeywordArguments(arguments, keywords);
         PArguments.setCallerFrame(arguments, getCallerFrame(frame, callNode.getCallTarget()));
         arityCheck.execute(arity, arguments, keywords);
@@ -210,9 +213,10 @@ public abstract class InvokeNode extends AbstractInvokeNode {
     private final Arity arity;
     private final PythonObject globals;
     private final PCell[] closure;
+    private final PythonCallable callee;
     protected final boolean isBuiltin;
 
-    protected InvokeNode(CallTarget callTarget, Arity calleeArity, PythonObject globals, PCell[] closure, boolean isBuiltin, boolean isGenerator) {
+    protected InvokeNode(CallTarget callTarget, Arity calleeArity, PythonObject globals, PCell[] closure, PythonCallable callee, boolean isBuiltin, boolean isGenerator) {
         this.callNode = Truffle.getRuntime().createDirectCallNode(callTarget);
         if (isBuiltin) {
             callNode.cloneCallTarget();
@@ -223,6 +227,7 @@ public abstract class InvokeNode extends AbstractInvokeNode {
         this.arity = calleeArity;
         this.globals = globals;
         this.closure = closure;
+        this.callee = callee;
         this.isBuiltin = isBuiltin;
     }
 
@@ -232,13 +237,14 @@ public abstract class InvokeNode extends AbstractInvokeNode {
     public static InvokeNode create(PythonCallable callee) {
         RootCallTarget callTarget = getCallTarget(callee);
         boolean builtin = isBuiltin(callee);
-        return InvokeNodeGen.create(callTarget, getArity(callee), callee.getGlobals(), callee.getClosure(), builtin, callee.isGeneratorFunction());
+        return InvokeNodeGen.create(callTarget, getArity(callee), callee.getGlobals(), callee.getClosure(), callee, builtin, callee.isGeneratorFunction());
     }
 
     @Specialization(guards = {"keywords.length == 0"})
     protected Object doNoKeywords(VirtualFrame frame, Object[] arguments, PKeyword[] keywords) {
         PArguments.setGlobals(arguments, globals);
         PArguments.setClosure(arguments, closure);
+        PArguments.setDefaults(arguments, callee.getDefaults());
         PArguments.setCallerFrame(arguments, getCallerFrame(frame, callNode.getCallTarget()));
         arityCheck.execute(arity, arguments, keywords);
         return callNode.call(arguments);
@@ -250,6 +256,7 @@ public abstract class InvokeNode extends AbstractInvokeNode {
         Object[] combined = applyKeywords.execute(arity, arguments, keywords);
         PArguments.setGlobals(combined, globals);
         PArguments.setClosure(combined, closure);
+        PArguments.setDefaults(combined, callee.getDefaults());
         PArguments.setCallerFrame(arguments, getCallerFrame(frame, callNode.getCallTarget()));
         arityCheck.execute(arity, combined, PArguments.getKeywordArguments(combined));
         return callNode.call(combined);
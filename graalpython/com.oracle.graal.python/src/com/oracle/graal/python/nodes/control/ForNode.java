@@ -25,6 +25,7 @@
  */
 package com.oracle.graal.python.nodes.control;
 
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongIterator;
@@ -34,7 +35,7 @@ import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.frame.WriteNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.runtime.PythonOptions;
-import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -63,6 +64,10 @@ final class ForRepeatingNode extends PNodeWithContext implements RepeatingNode {
     }
 
     public boolean executeRepeating(VirtualFrame frame) {
+        PythonThreads threads = getContext().getThreads();
+        if (!threads.getSingleThreadedAssumption().isValid()) {
+            threads.yield();
+        }
         try {
             if (!nextElement.execute(frame, frame.getObject(iteratorSlot))) {
                 return false;
@@ -129,14 +134,13 @@ abstract class ForNextElementNode extends PNodeWithContext {
     @Specialization
     protected boolean doIterator(VirtualFrame frame, Object object,
                     @Cached("create()") GetNextNode next,
-                    @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
-        try {
-            ((WriteNode) target).doWrite(frame, next.execute(object));
-            return true;
-        } catch (PException e) {
-            e.expectStopIteration(getCore(), errorProfile);
+                    @Cached("createBinaryProfile()") ConditionProfile exhaustedProfile) {
+        Object value = next.executeOrExhausted(object);
+        if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
             return false;
         }
+        ((WriteNode) target).doWrite(frame, value);
+        return true;
     }
 }
 
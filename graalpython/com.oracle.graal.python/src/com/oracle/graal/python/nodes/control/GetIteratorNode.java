@@ -29,7 +29,10 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.iterator.PBuiltinIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PItertoolsIterator;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
@@ -83,6 +86,21 @@ public abstract class GetIteratorNode extends UnaryOpNode {
         return value;
     }
 
+    @Specialization(guards = "iterCannotBeOverridden(value)")
+    public PythonObject doPMap(PMap value) {
+        return value;
+    }
+
+    @Specialization(guards = "iterCannotBeOverridden(value)")
+    public PythonObject doPFilter(PFilter value) {
+        return value;
+    }
+
+    @Specialization(guards = "iterCannotBeOverridden(value)")
+    public PythonObject doItertools(PItertoolsIterator value) {
+        return value;
+    }
+
     @Specialization(guards = {"!isNoValue(value)"})
     public Object doGeneric(Object value,
                     @Cached("createIdentityProfile()") ValueProfile getattributeProfile,
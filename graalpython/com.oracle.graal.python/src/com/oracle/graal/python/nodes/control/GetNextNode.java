@@ -44,9 +44,12 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
 import static com.oracle.truffle.api.nodes.NodeCost.NONE;
 
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes.NextOrExhaustedNode;
 import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -59,6 +62,7 @@ public final class GetNextNode extends PNodeWithContext {
     }
 
     @Child private LookupAndCallUnaryNode nextCall = LookupAndCallUnaryNode.create(__NEXT__);
+    @Child private NextOrExhaustedNode nextOrExhausted;
 
     private final ConditionProfile notAnIterator = ConditionProfile.createBinaryProfile();
 
@@ -74,6 +78,18 @@ public final class GetNextNode extends PNodeWithContext {
         return checkResult(nextCall.executeObject(iterator), iterator);
     }
 
+    /**
+     * Returns the next item or {@link IteratorNodes#EXHAUSTED} instead of raising
+     * {@code StopIteration}. Use this where the end of the iteration is not visible to user code.
+     */
+    public Object executeOrExhausted(Object iterator) {
+        if (nextOrExhausted == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            nextOrExhausted = insert(NextOrExhaustedNode.create());
+        }
+        return nextOrExhausted.execute(iterator);
+    }
+
     public boolean executeBoolean(Object iterator) throws UnexpectedResultException {
         try {
             return nextCall.executeBoolean(iterator);
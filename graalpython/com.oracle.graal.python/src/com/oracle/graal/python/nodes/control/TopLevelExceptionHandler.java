@@ -61,6 +61,7 @@ import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonExitException;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -103,6 +104,9 @@ public class TopLevelExceptionHandler extends RootNode {
             printExc(exception);
             return null;
         } else {
+            // the embedder may run code on a thread that does not hold the GIL yet
+            PythonThreads threads = context.getThreads();
+            int holds = threads.enter();
             assert context.getCurrentException() == null;
             try {
                 return run(frame);
@@ -117,6 +121,8 @@ public class TopLevelExceptionHandler extends RootNode {
                     }
                 }
                 throw e;
+            } finally {
+                threads.leave(holds);
             }
         }
     }
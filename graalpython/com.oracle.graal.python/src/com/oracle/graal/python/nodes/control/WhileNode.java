@@ -25,16 +25,17 @@
  */
 package com.oracle.graal.python.nodes.control;
 
+import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 
-final class WhileRepeatingNode extends Node implements RepeatingNode {
+final class WhileRepeatingNode extends PNodeWithContext implements RepeatingNode {
 
     private final LoopConditionProfile conditionProfile = LoopConditionProfile.createCountingProfile();
 
@@ -48,6 +49,10 @@ final class WhileRepeatingNode extends Node implements RepeatingNode {
 
     @Override
     public boolean executeRepeating(VirtualFrame frame) {
+        PythonThreads threads = getContext().getThreads();
+        if (!threads.getSingleThreadedAssumption().isValid()) {
+            threads.yield();
+        }
         if (conditionProfile.profile(condition.executeBoolean(frame))) {
             body.executeVoid(frame);
             return true;
@@ -42,7 +42,10 @@ package com.oracle.graal.python.nodes.datamodel;
 
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PItertoolsIterator;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
@@ -79,6 +82,21 @@ public abstract class IsIterableNode extends PDataModelEmulationNode {
         return true;
     }
 
+    @Specialization
+    public boolean isIterable(@SuppressWarnings("unused") PMap map) {
+        return true;
+    }
+
+    @Specialization
+    public boolean isIterable(@SuppressWarnings("unused") PFilter filter) {
+        return true;
+    }
+
+    @Specialization
+    public boolean isIterable(@SuppressWarnings("unused") PItertoolsIterator iterator) {
+        return true;
+    }
+
     @Specialization
     public boolean isIterable(Object object,
                     @Cached("create()") GetClassNode getClassNode,
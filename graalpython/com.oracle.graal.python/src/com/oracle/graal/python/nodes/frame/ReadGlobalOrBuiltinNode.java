@@ -32,6 +32,7 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
@@ -40,12 +41,15 @@ import com.oracle.graal.python.nodes.subscript.GetItemNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.utilities.AlwaysValidAssumption;
+import com.oracle.truffle.api.utilities.NeverValidAssumption;
 
 @NodeInfo(shortName = "read_global")
 public abstract class ReadGlobalOrBuiltinNode extends ExpressionNode implements ReadNode, GlobalNode {
@@ -58,6 +62,27 @@ public abstract class ReadGlobalOrBuiltinNode extends ExpressionNode implements
     @Child private HashingStorageNodes.GetItemNode getHashingItemNode;
     @Child private GetItemNode readFromDictNode;
 
+    /**
+     * Names that keep being rebound (e.g. loop variables at module level) are read from the
+     * storage after this many invalidations instead of being deoptimized over and over.
+     */
+    private static final int MAX_CONSTANT_RESOLUTIONS = 5;
+    private int constantResolutions = 0;
+
+    static final class CachedGlobal {
+        static final CachedGlobal UNCACHEABLE = new CachedGlobal(null, NeverValidAssumption.INSTANCE, NeverValidAssumption.INSTANCE);
+
+        final Object value;
+        final Assumption globalAssumption;
+        final Assumption builtinAssumption;
+
+        CachedGlobal(Object value, Assumption globalAssumption, Assumption builtinAssumption) {
+            this.value = value;
+            this.globalAssumption = globalAssumption;
+            this.builtinAssumption = builtinAssumption;
+        }
+    }
+
     protected ReadGlobalOrBuiltinNode(String attributeId) {
         this.attributeId = attributeId;
     }
@@ -71,6 +96,51 @@ public abstract class ReadGlobalOrBuiltinNode extends ExpressionNode implements
         return WriteGlobalNode.create(attributeId, rhs);
     }
 
+    protected static PythonObject getGlobals(VirtualFrame frame) {
+        return PArguments.getGlobals(frame);
+    }
+
+    protected static PythonModule getModuleGlobals(VirtualFrame frame) {
+        return (PythonModule) PArguments.getGlobals(frame);
+    }
+
+    private static Object readModuleStorage(PythonModule module, String attributeId) {
+        Object value = module.getStorage().get(attributeId);
+        return value == null ? PNone.NO_VALUE : value;
+    }
+
+    /**
+     * Resolves the name against the module and, if it is not bound there, against the builtins. The
+     * result stays valid until the name is rebound in the module or in the builtins.
+     */
+    protected CachedGlobal resolveConstant(PythonModule globals) {
+        PythonContext context = getContext();
+        if (constantResolutions >= MAX_CONSTANT_RESOLUTIONS || !context.getCore().isInitialized()) {
+            return CachedGlobal.UNCACHEABLE;
+        }
+        constantResolutions++;
+        Assumption globalAssumption = globals.getAttributeFinalAssumption(attributeId);
+        Object value = readModuleStorage(globals, attributeId);
+        if (value != PNone.NO_VALUE) {
+            return new CachedGlobal(value, globalAssumption, AlwaysValidAssumption.INSTANCE);
+        }
+        PythonModule builtins = context.getBuiltins();
+        Assumption builtinAssumption = builtins.getAttributeFinalAssumption(attributeId);
+        value = readModuleStorage(builtins, attributeId);
+        if (value != PNone.NO_VALUE) {
+            return new CachedGlobal(value, globalAssumption, builtinAssumption);
+        }
+        // a NameError is raised by the generic case
+        return CachedGlobal.UNCACHEABLE;
+    }
+
+    @Specialization(guards = {"isInModule(frame)", "getGlobals(frame) == cachedGlobals"}, limit = "1", assumptions = {"singleContextAssumption()", "cachedGlobal.globalAssumption", "cachedGlobal.builtinAssumption"})
+    protected Object readGlobalConstant(@SuppressWarnings("unused") VirtualFrame frame,
+                    @Cached("getModuleGlobals(frame)") @SuppressWarnings("unused") PythonModule cachedGlobals,
+                    @Cached("resolveConstant(cachedGlobals)") CachedGlobal cachedGlobal) {
+        return cachedGlobal.value;
+    }
+
     @Specialization(guards = "isInModule(frame)")
     protected Object readGlobal(VirtualFrame frame) {
         Object result = readFromModuleNode.execute(PArguments.getGlobals(frame), attributeId);
@@ -29,7 +29,6 @@ import java.util.ArrayList;
 
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
-import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.nodes.PRootNode;
 import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
@@ -186,8 +185,7 @@ public final class BuiltinFunctionRootNode extends PRootNode {
         // read named keyword arguments
         for (int i = 0; i < builtin.keywordArguments().length; i++) {
             String name = builtin.keywordArguments()[i];
-            ReadDefaultArgumentNode defaultNode = new ReadDefaultArgumentNode();
-            defaultNode.setValue(PNone.NO_VALUE);
+            ReadDefaultArgumentNode defaultNode = ReadDefaultArgumentNode.createNoValue();
             if (!builtin.takesVarArgs()) {
                 // if there's no splat, we also accept the keywords positionally
                 args.add(ReadKeywordNode.create(name, i + numOfPositionalArgs, defaultNode));
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.function;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.expression.ExpressionNode;
+import com.oracle.graal.python.nodes.statement.StatementNode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+/**
+ * Adds one element to the result collection of a {@link ComprehensionNode}. Lists append directly
+ * to their {@link SequenceStorage}, which is generalized only as far as the elements require, and
+ * sets and dicts write into their hashing storage.
+ */
+public abstract class ComprehensionAppendNode extends StatementNode {
+
+    @Child protected ExpressionNode collection;
+
+    protected ComprehensionAppendNode(ExpressionNode collection) {
+        this.collection = collection;
+    }
+
+    public static ComprehensionAppendNode createListAppend(ExpressionNode collection, ExpressionNode element) {
+        return new ListAppendNode(collection, element);
+    }
+
+    public static ComprehensionAppendNode createSetAdd(ExpressionNode collection, ExpressionNode element) {
+        return new SetItemNode(collection, element, null);
+    }
+
+    public static ComprehensionAppendNode createDictSetItem(ExpressionNode collection, ExpressionNode key, ExpressionNode value) {
+        return new SetItemNode(collection, key, value);
+    }
+
+    private static final class ListAppendNode extends ComprehensionAppendNode {
+        @Child private ExpressionNode element;
+        @Child private SequenceStorageNodes.AppendNode appendNode = SequenceStorageNodes.AppendNode.create(() -> ListGeneralizationNode.create());
+
+        private final BranchProfile updateStoreProfile = BranchProfile.create();
+
+        ListAppendNode(ExpressionNode collection, ExpressionNode element) {
+            super(collection);
+            this.element = element;
+        }
+
+        @Override
+        public void executeVoid(VirtualFrame frame) {
+            PList list = (PList) collection.execute(frame);
+            Object value = element.execute(frame);
+            SequenceStorage newStore = appendNode.execute(list.getSequenceStorage(), value);
+            if (list.getSequenceStorage() != newStore) {
+                updateStoreProfile.enter();
+                list.setSequenceStorage(newStore);
+            }
+        }
+    }
+
+    private static final class SetItemNode extends ComprehensionAppendNode {
+        @Child private ExpressionNode key;
+        @Child private ExpressionNode value;
+        @Child private HashingCollectionNodes.SetItemNode setItemNode = HashingCollectionNodes.SetItemNode.create();
+
+        SetItemNode(ExpressionNode collection, ExpressionNode key, ExpressionNode value) {
+            super(collection);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public void executeVoid(VirtualFrame frame) {
+            PHashingCollection c = (PHashingCollection) collection.execute(frame);
+            Object k = key.execute(frame);
+            setItemNode.execute(c, k, value == null ? PNone.NO_VALUE : value.execute(frame));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.function;
+
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.nodes.PRootNode;
+import com.oracle.graal.python.nodes.expression.ExpressionNode;
+import com.oracle.graal.python.parser.DefinitionCellSlots;
+import com.oracle.graal.python.parser.ExecutionCellSlots;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * A list, set or dict comprehension. The comprehension body has its own scope and is compiled to
+ * a plain function with a loop that adds each element straight into the result collection, so
+ * unlike a generator expression it does not have to be resumed for every element. The function
+ * is called right away with the iterator of the outermost loop (which is evaluated in the
+ * enclosing scope) as its first argument and the empty result collection as its second argument.
+ */
+public final class ComprehensionNode extends ExpressionDefinitionNode {
+
+    public enum Kind {
+        List("<listcomp>"),
+        Set("<setcomp>"),
+        Dict("<dictcomp>");
+
+        private final String name;
+
+        Kind(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final Kind kind;
+    private final RootCallTarget callTarget;
+    private final ConditionProfile needsFrameProfile = ConditionProfile.createBinaryProfile();
+
+    @Child private ExpressionNode getIterator;
+    @Child private DirectCallNode callNode;
+
+    public ComprehensionNode(Kind kind, RootCallTarget callTarget, ExpressionNode getIterator, DefinitionCellSlots definitionCellSlots, ExecutionCellSlots executionCellSlots) {
+        super(definitionCellSlots, executionCellSlots);
+        this.kind = kind;
+        this.callTarget = callTarget;
+        this.getIterator = getIterator;
+        this.callNode = Truffle.getRuntime().createDirectCallNode(callTarget);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public RootCallTarget getCallTarget() {
+        return callTarget;
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object[] arguments = PArguments.create(2);
+        PArguments.setArgument(arguments, 0, getIterator.execute(frame));
+        PArguments.setArgument(arguments, 1, createCollection(factory()));
+        PArguments.setGlobals(arguments, PArguments.getGlobals(frame));
+        PArguments.setClosure(arguments, getClosureFromGeneratorOrFunctionLocals(frame));
+        if (needsFrameProfile.profile(((PRootNode) callTarget.getRootNode()).needsCallerFrame())) {
+            PArguments.setCallerFrame(arguments, frame.materialize());
+        }
+        return callNode.call(arguments);
+    }
+
+    private Object createCollection(PythonObjectFactory factory) {
+        switch (kind) {
+            case List:
+                return factory.createList();
+            case Set:
+                return factory.createSet();
+            default:
+                return factory.createDict();
+        }
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return kind.getName();
+    }
+}
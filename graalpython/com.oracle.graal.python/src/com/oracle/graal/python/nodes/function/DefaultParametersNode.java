@@ -23,44 +23,36 @@
  * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
  * OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-package com.oracle.graal.python.nodes.statement;
+package com.oracle.graal.python.nodes.function;
 
-import com.oracle.graal.python.nodes.argument.ReadDefaultArgumentNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 /**
- * Evaluates default arguments in the declaration scope and feeds the evaluated values to the
- * {@link ReadDefaultArgumentNode}s.
+ * Evaluates default arguments in the declaration scope. The values are stored on the function
+ * object and read by {@link com.oracle.graal.python.nodes.argument.ReadDefaultArgumentNode}.
  */
-public class DefaultParametersNode extends StatementNode {
+public class DefaultParametersNode extends ExpressionNode {
 
     @Children private final ExpressionNode[] functionDefaults;
 
-    private final ReadDefaultArgumentNode[] defaultReads; // It's parked here, but not adopted.
-
-    public DefaultParametersNode(ExpressionNode[] functionDefaults, ReadDefaultArgumentNode[] defaultReads) {
+    public DefaultParametersNode(ExpressionNode[] functionDefaults) {
         this.functionDefaults = functionDefaults;
-        this.defaultReads = defaultReads;
         assert functionDefaults != null & functionDefaults.length > 0;
-        assert defaultReads != null & defaultReads.length > 0;
     }
 
     @ExplodeLoop
     @Override
-    public void executeVoid(VirtualFrame frame) {
+    public Object[] execute(VirtualFrame frame) {
+        Object[] values = new Object[functionDefaults.length];
         for (int i = 0; i < functionDefaults.length; i++) {
-            final Object defaultVal = functionDefaults[i].execute(frame);
-            defaultReads[i].setValue(defaultVal);
+            values[i] = functionDefaults[i].execute(frame);
         }
+        return values;
     }
 
     public ExpressionNode[] getFunctionDefaults() {
         return functionDefaults;
     }
-
-    public ReadDefaultArgumentNode[] getDefaultReads() {
-        return defaultReads;
-    }
 }
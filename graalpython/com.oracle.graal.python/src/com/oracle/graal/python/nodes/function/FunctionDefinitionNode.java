@@ -32,10 +32,8 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
-import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.parser.DefinitionCellSlots;
 import com.oracle.graal.python.parser.ExecutionCellSlots;
-import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -45,23 +43,21 @@ public class FunctionDefinitionNode extends ExpressionDefinitionNode {
 
     protected final String functionName;
     protected final String enclosingClassName;
-    protected final PythonCore core;
     protected final RootCallTarget callTarget;
     protected final FrameDescriptor frameDescriptor;
     protected final Arity arity;
 
-    @Child protected StatementNode defaults;
+    @Child protected DefaultParametersNode defaults;
     @Child private ExpressionNode doc;
     @Child private WriteAttributeToObjectNode writeDocNode = WriteAttributeToObjectNode.create();
 
-    public FunctionDefinitionNode(String functionName, String enclosingClassName, ExpressionNode doc, PythonCore core, Arity arity, StatementNode defaults, RootCallTarget callTarget,
+    public FunctionDefinitionNode(String functionName, String enclosingClassName, ExpressionNode doc, Arity arity, DefaultParametersNode defaults, RootCallTarget callTarget,
                     FrameDescriptor frameDescriptor,
                     DefinitionCellSlots definitionCellSlots, ExecutionCellSlots executionCellSlots) {
         super(definitionCellSlots, executionCellSlots);
         this.functionName = functionName;
         this.enclosingClassName = enclosingClassName;
         this.doc = doc;
-        this.core = core;
         this.callTarget = callTarget;
         this.frameDescriptor = frameDescriptor;
         this.arity = arity;
@@ -70,10 +66,10 @@ public class FunctionDefinitionNode extends ExpressionDefinitionNode {
 
     @Override
     public Object execute(VirtualFrame frame) {
-        defaults.executeVoid(frame);
+        Object[] defaultValues = defaults == null ? null : defaults.execute(frame);
 
         PCell[] closure = getClosureFromGeneratorOrFunctionLocals(frame);
-        return withDocString(frame, factory().createFunction(functionName, enclosingClassName, arity, callTarget, frameDescriptor, PArguments.getGlobals(frame), closure));
+        return withDocString(frame, factory().createFunction(functionName, enclosingClassName, arity, callTarget, frameDescriptor, PArguments.getGlobals(frame), defaultValues, closure));
     }
 
     protected final <T extends PFunction> T withDocString(VirtualFrame frame, T func) {
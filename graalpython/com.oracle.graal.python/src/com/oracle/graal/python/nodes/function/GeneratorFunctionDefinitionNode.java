@@ -29,14 +29,10 @@ import com.oracle.graal.python.builtins.objects.cell.PCell;
 import com.oracle.graal.python.builtins.objects.function.Arity;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PGeneratorFunction;
-import com.oracle.graal.python.nodes.EmptyNode;
-import com.oracle.graal.python.nodes.control.BlockNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.generator.GeneratorFunctionRootNode;
-import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.parser.DefinitionCellSlots;
 import com.oracle.graal.python.parser.ExecutionCellSlots;
-import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.RootCallTarget;
@@ -48,45 +44,48 @@ public class GeneratorFunctionDefinitionNode extends FunctionDefinitionNode {
     protected final int numOfActiveFlags;
     protected final int numOfGeneratorBlockNode;
     protected final int numOfGeneratorForNode;
+    protected final boolean isCoroutine;
     @CompilationFinal private RootCallTarget generatorCallTarget;
 
-    public GeneratorFunctionDefinitionNode(String name, String enclosingClassName, ExpressionNode doc, PythonCore core, Arity arity, StatementNode defaults, RootCallTarget callTarget,
+    public GeneratorFunctionDefinitionNode(String name, String enclosingClassName, ExpressionNode doc, Arity arity, DefaultParametersNode defaults, RootCallTarget callTarget,
                     FrameDescriptor frameDescriptor, DefinitionCellSlots definitionCellSlots, ExecutionCellSlots executionCellSlots,
-                    int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode) {
-        super(name, enclosingClassName, doc, core, arity, defaults, callTarget, frameDescriptor, definitionCellSlots, executionCellSlots);
+                    int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode, boolean isCoroutine) {
+        super(name, enclosingClassName, doc, arity, defaults, callTarget, frameDescriptor, definitionCellSlots, executionCellSlots);
         this.numOfActiveFlags = numOfActiveFlags;
         this.numOfGeneratorBlockNode = numOfGeneratorBlockNode;
         this.numOfGeneratorForNode = numOfGeneratorForNode;
+        this.isCoroutine = isCoroutine;
     }
 
-    public static GeneratorFunctionDefinitionNode create(String name, String enclosingClassName, ExpressionNode doc, PythonCore core, Arity arity, StatementNode defaults, RootCallTarget callTarget,
+    public static GeneratorFunctionDefinitionNode create(String name, String enclosingClassName, ExpressionNode doc, Arity arity, DefaultParametersNode defaults, RootCallTarget callTarget,
                     FrameDescriptor frameDescriptor, DefinitionCellSlots definitionCellSlots, ExecutionCellSlots executionCellSlots,
-                    int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode) {
-        if (!EmptyNode.isEmpty(defaults)) {
-            return new GeneratorFunctionDefinitionNode(name, enclosingClassName, doc, core, arity, defaults, callTarget,
+                    int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode, boolean isCoroutine) {
+        if (defaults != null) {
+            return new GeneratorFunctionDefinitionNode(name, enclosingClassName, doc, arity, defaults, callTarget,
                             frameDescriptor, definitionCellSlots, executionCellSlots,
-                            numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode);
+                            numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode, isCoroutine);
         }
 
-        return new StatelessGeneratorFunctionDefinitionNode(name, enclosingClassName, doc, core, arity, callTarget,
+        return new StatelessGeneratorFunctionDefinitionNode(name, enclosingClassName, doc, arity, callTarget,
                         frameDescriptor, definitionCellSlots, executionCellSlots,
-                        numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode);
+                        numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode, isCoroutine);
     }
 
     @Override
     public PGeneratorFunction execute(VirtualFrame frame) {
-        defaults.executeVoid(frame);
+        Object[] defaultValues = defaults.execute(frame);
 
         PCell[] closure = getClosureFromLocals(frame);
         return withDocString(frame,
-                        factory().createGeneratorFunction(functionName, enclosingClassName, arity, getGeneratorCallTarget(closure), frameDescriptor, PArguments.getGlobals(frame), closure));
+                        factory().createGeneratorFunction(functionName, enclosingClassName, arity, getGeneratorCallTarget(), frameDescriptor, PArguments.getGlobals(frame), defaultValues,
+                                        closure));
     }
 
-    protected RootCallTarget getGeneratorCallTarget(PCell[] closure) {
+    protected RootCallTarget getGeneratorCallTarget() {
         if (generatorCallTarget == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             GeneratorFunctionRootNode generatorFunctionRootNode = new GeneratorFunctionRootNode(getContext().getLanguage(), callTarget, functionName,
-                            frameDescriptor, closure, executionCellSlots, numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode);
+                            frameDescriptor, executionCellSlots, numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode, isCoroutine);
             generatorCallTarget = Truffle.getRuntime().createCallTarget(generatorFunctionRootNode);
         }
         return generatorCallTarget;
@@ -99,21 +98,27 @@ public class GeneratorFunctionDefinitionNode extends FunctionDefinitionNode {
     public static final class StatelessGeneratorFunctionDefinitionNode extends GeneratorFunctionDefinitionNode {
         @CompilationFinal private PGeneratorFunction cached;
 
-        public StatelessGeneratorFunctionDefinitionNode(String name, String enclosingClassName, ExpressionNode doc, PythonCore core, Arity arity, RootCallTarget callTarget,
+        public StatelessGeneratorFunctionDefinitionNode(String name, String enclosingClassName, ExpressionNode doc, Arity arity, RootCallTarget callTarget,
                         FrameDescriptor frameDescriptor, DefinitionCellSlots definitionCellSlots, ExecutionCellSlots executionCellSlots,
-                        int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode) {
-            super(name, enclosingClassName, doc, core, arity, BlockNode.create(), callTarget,
+                        int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode, boolean isCoroutine) {
+            super(name, enclosingClassName, doc, arity, null, callTarget,
                             frameDescriptor, definitionCellSlots, executionCellSlots,
-                            numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode);
+                            numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode, isCoroutine);
         }
 
         @Override
         public PGeneratorFunction execute(VirtualFrame frame) {
+            if (!singleContextAssumption().isValid()) {
+                // the function object belongs to a context, so it cannot be cached in a shared AST
+                PCell[] closure = getClosureFromLocals(frame);
+                return withDocString(frame,
+                                factory().createGeneratorFunction(functionName, enclosingClassName, arity, getGeneratorCallTarget(), frameDescriptor, PArguments.getGlobals(frame), null, closure));
+            }
             if (cached == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 PCell[] closure = getClosureFromLocals(frame);
                 cached = withDocString(frame,
-                                factory().createGeneratorFunction(functionName, enclosingClassName, arity, getGeneratorCallTarget(closure), frameDescriptor, PArguments.getGlobals(frame), closure));
+                                factory().createGeneratorFunction(functionName, enclosingClassName, arity, getGeneratorCallTarget(), frameDescriptor, PArguments.getGlobals(frame), null, closure));
             }
             return cached;
         }
@@ -40,7 +40,10 @@
  */
 package com.oracle.graal.python.nodes.generator;
 
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.PythonEquivalence;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
@@ -75,12 +78,26 @@ public final class DictConcatNode extends ExpressionNode {
                 first = expectDict(n.execute(frame));
             } else {
                 other = expectDict(n.execute(frame));
-                first.getDictStorage().addAll(other.getDictStorage(), getEquivalence());
+                addAll(first, other);
             }
         }
         return first;
     }
 
+    private void addAll(PDict dict, PDict other) {
+        HashingStorage storage = dict.getDictStorage();
+        try {
+            storage.addAll(other.getDictStorage(), getEquivalence());
+        } catch (UnmodifiableStorageException e) {
+            CompilerDirectives.transferToInterpreter();
+            // e.g. an empty storage or string keys added to a LongKeyStorage
+            EconomicMapStorage newStorage = EconomicMapStorage.create(storage.length() + other.size(), false);
+            newStorage.addAll(storage, getEquivalence());
+            newStorage.addAll(other.getDictStorage(), getEquivalence());
+            dict.setDictStorage(newStorage);
+        }
+    }
+
     private static PDict expectDict(Object first) {
         if (!(first instanceof PDict)) {
             CompilerDirectives.transferToInterpreter();
@@ -82,6 +82,14 @@ final class GeneratorAccessNode extends Node {
         getControlData(frame).setActiveException(ex);
     }
 
+    public boolean isSuspended(VirtualFrame frame) {
+        return getControlData(frame).isSuspended();
+    }
+
+    public void setSuspended(VirtualFrame frame, boolean value) {
+        getControlData(frame).setSuspended(value);
+    }
+
     public static GeneratorAccessNode create() {
         return new GeneratorAccessNode();
     }
@@ -30,6 +30,7 @@ import java.util.List;
 import com.oracle.graal.python.nodes.control.BaseBlockNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.runtime.exception.YieldException;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.profiles.BranchProfile;
@@ -43,9 +44,13 @@ public final class GeneratorBlockNode extends BaseBlockNode implements Generator
     private final BranchProfile seenYield = BranchProfile.create();
     private final int indexSlot;
 
+    /** The statements that contain a yield that suspends without throwing. */
+    @CompilationFinal(dimensions = 1) private final boolean[] suspendingStatements;
+
     public GeneratorBlockNode(StatementNode[] statements, int indexSlot) {
         super(statements);
         this.indexSlot = indexSlot;
+        this.suspendingStatements = new boolean[statements.length];
     }
 
     public static GeneratorBlockNode create(StatementNode[] statements, int indexSlot) {
@@ -56,6 +61,14 @@ public final class GeneratorBlockNode extends BaseBlockNode implements Generator
         return indexSlot;
     }
 
+    public void setStatementSuspends(StatementNode statement) {
+        for (int i = 0; i < statements.length; i++) {
+            if (statements[i] == statement) {
+                suspendingStatements[i] = true;
+            }
+        }
+    }
+
     public GeneratorBlockNode insertNodesBefore(StatementNode insertBefore, List<StatementNode> insertees) {
         return new GeneratorBlockNode(insertStatementsBefore(insertBefore, insertees), getIndexSlot());
     }
@@ -70,6 +83,11 @@ public final class GeneratorBlockNode extends BaseBlockNode implements Generator
             for (i = 0; i < statements.length; i++) {
                 if (i >= startIndex) {
                     statements[i].executeVoid(frame);
+                    if (suspendingStatements[i] && gen.isSuspended(frame)) {
+                        seenYield.enter();
+                        nextIndex = i;
+                        return;
+                    }
                 }
             }
         } catch (YieldException e) {
@@ -25,14 +25,16 @@
  */
 package com.oracle.graal.python.nodes.generator;
 
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.control.LoopNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.frame.WriteNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
-import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.YieldException;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -45,11 +47,13 @@ public final class GeneratorForNode extends LoopNode implements GeneratorControl
     @Child protected GetNextNode getNext = GetNextNode.create();
     @Child protected GeneratorAccessNode gen = GeneratorAccessNode.create();
 
-    private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile exhaustedProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile executesHeadProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile needsUpdateProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile seenYield = BranchProfile.create();
 
+    @CompilationFinal private boolean bodySuspends;
+
     private final int iteratorSlot;
 
     public GeneratorForNode(WriteNode target, ExpressionNode getIterator, StatementNode body, int iteratorSlot) {
@@ -68,6 +72,11 @@ public final class GeneratorForNode extends LoopNode implements GeneratorControl
         return body;
     }
 
+    /** The body contains a yield that suspends without throwing. */
+    public void setBodySuspends() {
+        this.bodySuspends = true;
+    }
+
     public final int getIteratorSlot() {
         return iteratorSlot;
     }
@@ -79,11 +88,8 @@ public final class GeneratorForNode extends LoopNode implements GeneratorControl
         Object iterator;
         if (executesHeadProfile.profile(startIterator == null)) {
             iterator = getIterator.execute(frame);
-            Object value;
-            try {
-                value = getNext.execute(iterator);
-            } catch (PException e) {
-                e.expectStopIteration(getCore(), errorProfile);
+            Object value = getNext.executeOrExhausted(iterator);
+            if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                 return;
             }
             target.doWrite(frame, value);
@@ -96,11 +102,17 @@ public final class GeneratorForNode extends LoopNode implements GeneratorControl
         try {
             while (true) {
                 body.executeVoid(frame);
-                Object value;
-                try {
-                    value = getNext.execute(iterator);
-                } catch (PException e) {
-                    e.expectStopIteration(getCore(), errorProfile);
+                if (bodySuspends && gen.isSuspended(frame)) {
+                    seenYield.enter();
+                    nextIterator = iterator;
+                    return;
+                }
+                PythonThreads threads = getContext().getThreads();
+                if (!threads.getSingleThreadedAssumption().isValid()) {
+                    threads.yield();
+                }
+                Object value = getNext.executeOrExhausted(iterator);
+                if (exhaustedProfile.profile(value == IteratorNodes.EXHAUSTED)) {
                     break;
                 }
                 target.doWrite(frame, value);
@@ -30,6 +30,7 @@ import com.oracle.graal.python.nodes.control.BlockNode;
 import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.runtime.exception.YieldException;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -49,6 +50,8 @@ public class GeneratorIfNode extends StatementNode implements GeneratorControlNo
     private final ConditionProfile needsElseUpdateProfile = ConditionProfile.createBinaryProfile();
     protected final BranchProfile seenYield = BranchProfile.create();
 
+    @CompilationFinal protected boolean bodySuspends;
+
     public GeneratorIfNode(CastToBooleanNode condition, StatementNode then, StatementNode orelse, int thenFlagSlot, int elseFlagSlot) {
         this.condition = condition;
         this.then = then;
@@ -65,6 +68,11 @@ public class GeneratorIfNode extends StatementNode implements GeneratorControlNo
         }
     }
 
+    /** One of the branches contains a yield that suspends without throwing. */
+    public void setBodySuspends() {
+        this.bodySuspends = true;
+    }
+
     @Override
     public void executeVoid(VirtualFrame frame) {
         boolean startThenFlag = gen.isActive(frame, thenFlagSlot);
@@ -82,6 +90,11 @@ public class GeneratorIfNode extends StatementNode implements GeneratorControlNo
             } else {
                 orelse.executeVoid(frame);
             }
+            if (bodySuspends && gen.isSuspended(frame)) {
+                seenYield.enter();
+                nextThenFlag = thenFlag;
+                nextElseFlag = !thenFlag;
+            }
             return;
         } catch (YieldException e) {
             seenYield.enter();
@@ -119,6 +132,10 @@ public class GeneratorIfNode extends StatementNode implements GeneratorControlNo
                 }
                 if (thenFlag) {
                     then.executeVoid(frame);
+                    if (bodySuspends && gen.isSuspended(frame)) {
+                        seenYield.enter();
+                        nextThenFlag = true;
+                    }
                 }
                 return;
             } catch (YieldException e) {
@@ -27,12 +27,18 @@ package com.oracle.graal.python.nodes.generator;
 
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
 
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.iterator.IteratorNodes;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.ReturnException;
 import com.oracle.graal.python.runtime.exception.YieldException;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 public final class GeneratorReturnTargetNode extends ExpressionNode implements GeneratorControlNode {
 
@@ -44,6 +50,10 @@ public final class GeneratorReturnTargetNode extends ExpressionNode implements G
     private final BranchProfile returnProfile = BranchProfile.create();
     private final BranchProfile fallthroughProfile = BranchProfile.create();
     private final BranchProfile yieldProfile = BranchProfile.create();
+    private final ConditionProfile returnValueProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile suspendedProfile = ConditionProfile.createBinaryProfile();
+
+    @CompilationFinal private boolean bodySuspends;
 
     private final int flagSlot;
 
@@ -58,24 +68,43 @@ public final class GeneratorReturnTargetNode extends ExpressionNode implements G
         return parameters;
     }
 
+    /** The body contains a yield that suspends without throwing. */
+    public void setBodySuspends() {
+        this.bodySuspends = true;
+    }
+
     @Override
     public Object execute(VirtualFrame frame) {
         if (!gen.isActive(frame, flagSlot)) {
+            Object specialArgument = PArguments.getSpecialArgument(frame);
+            if (specialArgument instanceof PException) {
+                // an exception thrown into a generator that has not started yet ends it right away
+                throw (PException) specialArgument;
+            }
             parameters.executeVoid(frame);
             gen.setActive(frame, flagSlot, true);
         }
 
         try {
             body.executeVoid(frame);
+            if (bodySuspends && suspendedProfile.profile(gen.isSuspended(frame))) {
+                gen.setSuspended(frame, false);
+                return returnValue.execute(frame);
+            }
             fallthroughProfile.enter();
         } catch (YieldException eye) {
             yieldProfile.enter();
             return returnValue.execute(frame);
         } catch (ReturnException ire) {
-            // return statement in generators throws StopIteration.
+            // a return statement with a value in generators throws StopIteration.
             returnProfile.enter();
+            Object value = returnValue.execute(frame);
+            if (returnValueProfile.profile(value != PNone.NONE)) {
+                throw raise(factory().createBaseException(getCore().getErrorClass(StopIteration), factory().createTuple(new Object[]{value})));
+            }
         }
 
-        throw raise(StopIteration);
+        // the caller raises StopIteration if the end of the generator is observed by user code
+        return IteratorNodes.EXHAUSTED;
     }
 }
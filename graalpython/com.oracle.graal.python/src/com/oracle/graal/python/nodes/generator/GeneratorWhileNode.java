@@ -28,9 +28,11 @@ package com.oracle.graal.python.nodes.generator;
 import com.oracle.graal.python.nodes.control.LoopNode;
 import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.BreakException;
 import com.oracle.graal.python.runtime.exception.YieldException;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -43,6 +45,8 @@ public final class GeneratorWhileNode extends LoopNode implements GeneratorContr
 
     private final ConditionProfile needsUpdateProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile seenYield = BranchProfile.create();
+
+    @CompilationFinal private boolean bodySuspends;
     private final BranchProfile seenBreak = BranchProfile.create();
     private final int flagSlot;
 
@@ -57,6 +61,11 @@ public final class GeneratorWhileNode extends LoopNode implements GeneratorContr
         return body;
     }
 
+    /** The body contains a yield that suspends without throwing. */
+    public void setBodySuspends() {
+        this.bodySuspends = true;
+    }
+
     @Override
     public void executeVoid(VirtualFrame frame) {
         boolean startFlag = gen.isActive(frame, flagSlot);
@@ -71,6 +80,15 @@ public final class GeneratorWhileNode extends LoopNode implements GeneratorContr
         try {
             do {
                 body.executeVoid(frame);
+                if (bodySuspends && gen.isSuspended(frame)) {
+                    seenYield.enter();
+                    nextFlag = true;
+                    return;
+                }
+                PythonThreads threads = getContext().getThreads();
+                if (!threads.getSingleThreadedAssumption().isValid()) {
+                    threads.yield();
+                }
                 if (CompilerDirectives.inInterpreter()) {
                     count++;
                 }
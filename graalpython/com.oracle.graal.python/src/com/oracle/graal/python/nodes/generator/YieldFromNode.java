@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.generator;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__AWAIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.GeneratorExit;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.ExpressionNode;
+import com.oracle.graal.python.nodes.frame.WriteNode;
+import com.oracle.graal.python.nodes.statement.StatementNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.YieldException;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+/**
+ * Delegation to a sub-iterator ({@code yield from} and {@code await}). Every value the sub-iterator
+ * produces is yielded to the caller of the generator, and every value sent or exception thrown into
+ * the generator is passed on to the sub-iterator. While suspended, the sub-iterator is kept in an
+ * iterator slot of the generator. The result of the expression is the value of the
+ * {@code StopIteration} that ends the sub-iterator.
+ */
+public final class YieldFromNode extends AbstractYieldNode {
+
+    @Child private ExpressionNode right;
+    @Child private StatementNode yieldValue;
+    @Child private GetNextNode getNext = GetNextNode.create();
+    @Child private GetIteratorNode getIterator;
+    @Child private LookupAndCallUnaryNode callAwait;
+    @Child private LookupAndCallBinaryNode callSend;
+    @Child private LookupAndCallBinaryNode callThrow;
+    @Child private LookupAndCallUnaryNode callClose;
+
+    private final boolean isAwait;
+    @CompilationFinal private int iteratorSlot;
+
+    private final ConditionProfile stopIterationProfile = ConditionProfile.createBinaryProfile();
+    private final BranchProfile gotException = BranchProfile.create();
+    private final BranchProfile gotValue = BranchProfile.create();
+    private final BranchProfile gotNothing = BranchProfile.create();
+
+    public YieldFromNode(ExpressionNode right, StatementNode yieldValue, boolean isAwait) {
+        this.right = right;
+        this.yieldValue = yieldValue;
+        this.isAwait = isAwait;
+    }
+
+    public ExpressionNode getRhs() {
+        return right;
+    }
+
+    public boolean isAwait() {
+        return isAwait;
+    }
+
+    public void setIteratorSlot(int slot) {
+        this.iteratorSlot = slot;
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        boolean resuming = access.isActive(frame, flagSlot);
+        Object iterator;
+        if (resuming) {
+            iterator = access.getIterator(frame, iteratorSlot);
+        } else {
+            iterator = getSubIterator(right.execute(frame));
+        }
+
+        Object value;
+        try {
+            if (resuming) {
+                value = resume(frame, iterator);
+            } else {
+                value = getNext.execute(iterator);
+            }
+        } catch (PException e) {
+            if (resuming) {
+                access.setActive(frame, flagSlot, false);
+                access.setIterator(frame, iteratorSlot, null);
+            }
+            e.expectStopIteration(getCore(), stopIterationProfile);
+            return getStopIterationValue(e);
+        }
+
+        if (!resuming) {
+            access.setIterator(frame, iteratorSlot, iterator);
+            access.setActive(frame, flagSlot, true);
+        }
+        ((WriteNode) yieldValue).doWrite(frame, value);
+        throw YieldException.INSTANCE;
+    }
+
+    private Object resume(VirtualFrame frame, Object iterator) {
+        Object specialArgument = PArguments.getSpecialArgument(frame);
+        if (specialArgument == null || specialArgument == PNone.NONE) {
+            gotNothing.enter();
+            return getNext.execute(iterator);
+        } else if (specialArgument instanceof PException) {
+            gotException.enter();
+            return throwIntoIterator(iterator, (PException) specialArgument);
+        } else {
+            gotValue.enter();
+            Object result = getCallSend().executeObject(iterator, specialArgument);
+            if (result == PNotImplemented.NOT_IMPLEMENTED) {
+                throw raise(AttributeError, "'%p' object has no attribute 'send'", iterator);
+            }
+            return result;
+        }
+    }
+
+    private Object throwIntoIterator(Object iterator, PException exception) {
+        PBaseException exceptionObject = exception.getExceptionObject();
+        if (exceptionObject.getPythonClass() == getCore().getErrorClass(GeneratorExit)) {
+            // the sub-iterator is closed, but the exception still finishes this generator
+            getCallClose().executeObject(iterator);
+            throw exception;
+        }
+        Object result = getCallThrow().executeObject(iterator, exceptionObject);
+        if (result == PNotImplemented.NOT_IMPLEMENTED) {
+            throw exception;
+        }
+        return result;
+    }
+
+    private Object getSubIterator(Object iterable) {
+        if (isAwait) {
+            // plain generators have no __await__, so only coroutines get through here
+            Object awaitable = getCallAwait().executeObject(iterable);
+            if (awaitable == PNone.NO_VALUE) {
+                throw raise(TypeError, "object %p can't be used in 'await' expression", iterable);
+            }
+            return awaitable;
+        }
+        return getGetIterator().executeWith(iterable);
+    }
+
+    /**
+     * The {@code value} of a {@code StopIteration}, i.e., its first argument or {@code None}.
+     */
+    public static Object getStopIterationValue(PException e) {
+        PTuple args = e.getExceptionObject().getArgs();
+        if (args != null) {
+            SequenceStorage storage = args.getSequenceStorage();
+            if (storage.length() > 0) {
+                return storage.getItemNormalized(0);
+            }
+        }
+        return PNone.NONE;
+    }
+
+    private GetIteratorNode getGetIterator() {
+        if (getIterator == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            getIterator = insert(GetIteratorNode.create());
+        }
+        return getIterator;
+    }
+
+    private LookupAndCallUnaryNode getCallAwait() {
+        if (callAwait == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callAwait = insert(LookupAndCallUnaryNode.create(__AWAIT__));
+        }
+        return callAwait;
+    }
+
+    private LookupAndCallBinaryNode getCallSend() {
+        if (callSend == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callSend = insert(LookupAndCallBinaryNode.create("send"));
+        }
+        return callSend;
+    }
+
+    private LookupAndCallBinaryNode getCallThrow() {
+        if (callThrow == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callThrow = insert(LookupAndCallBinaryNode.create("throw"));
+        }
+        return callThrow;
+    }
+
+    private LookupAndCallUnaryNode getCallClose() {
+        if (callClose == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callClose = insert(LookupAndCallUnaryNode.create("close"));
+        }
+        return callClose;
+    }
+}
@@ -28,7 +28,6 @@ package com.oracle.graal.python.nodes.generator;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.nodes.PNode;
-import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.YieldException;
@@ -36,17 +35,16 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 
-public class YieldNode extends ExpressionNode implements GeneratorControlNode {
+public class YieldNode extends AbstractYieldNode {
 
     @Child private StatementNode right;
-    @Child private GeneratorAccessNode access = GeneratorAccessNode.create();
-
-    @CompilationFinal private int flagSlot;
 
     private final BranchProfile gotException = BranchProfile.create();
     private final BranchProfile gotValue = BranchProfile.create();
     private final BranchProfile gotNothing = BranchProfile.create();
 
+    @CompilationFinal private boolean returnsOnSuspend;
+
     public YieldNode(StatementNode right) {
         this.right = right;
     }
@@ -55,6 +53,15 @@ public class YieldNode extends ExpressionNode implements GeneratorControlNode {
         return right;
     }
 
+    /**
+     * Lets this yield suspend the generator by marking the frame as suspended and returning,
+     * instead of throwing a {@link YieldException}. The generator translator only enables this
+     * when the yield is a statement of its own and all enclosing nodes check for the suspension.
+     */
+    public void setReturnsOnSuspend() {
+        this.returnsOnSuspend = true;
+    }
+
     @Override
     public Object execute(VirtualFrame frame) {
         if (access.isActive(frame, flagSlot)) {
@@ -74,11 +81,11 @@ public class YieldNode extends ExpressionNode implements GeneratorControlNode {
         } else {
             right.executeVoid(frame);
             access.setActive(frame, flagSlot, true);
+            if (returnsOnSuspend) {
+                access.setSuspended(frame, true);
+                return PNone.NONE;
+            }
             throw YieldException.INSTANCE;
         }
     }
-
-    public void setFlagSlot(int slot) {
-        this.flagSlot = slot;
-    }
 }
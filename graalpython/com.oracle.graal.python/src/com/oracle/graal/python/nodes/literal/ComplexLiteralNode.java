@@ -26,22 +26,34 @@
 package com.oracle.graal.python.nodes.literal;
 
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
+/**
+ * The AST may be shared between contexts, so the {@link PComplex} object, which belongs to a
+ * context, is only cached while a single context is active.
+ */
 public final class ComplexLiteralNode extends LiteralNode {
 
-    private final PComplex value;
-
-    public ComplexLiteralNode(PComplex value) {
-        this.value = value;
-    }
+    private final double real;
+    private final double imag;
+    @CompilationFinal private PComplex cachedValue;
 
-    public PComplex getValue() {
-        return value;
+    public ComplexLiteralNode(double real, double imag) {
+        this.real = real;
+        this.imag = imag;
     }
 
     @Override
     public Object execute(VirtualFrame frame) {
-        return value;
+        if (singleContextAssumption().isValid()) {
+            if (cachedValue == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                cachedValue = factory().createComplex(real, imag);
+            }
+            return cachedValue;
+        }
+        return factory().createComplex(real, imag);
     }
 }
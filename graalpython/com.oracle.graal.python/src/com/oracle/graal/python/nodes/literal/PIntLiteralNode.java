@@ -28,22 +28,36 @@ package com.oracle.graal.python.nodes.literal;
 import java.math.BigInteger;
 
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
+/**
+ * The AST may be shared between contexts, so the {@link PInt} object, which belongs to a context,
+ * is only cached while a single context is active.
+ */
 public final class PIntLiteralNode extends LiteralNode {
 
-    private final PInt value;
+    private final BigInteger value;
+    @CompilationFinal private PInt cachedValue;
 
     public PIntLiteralNode(BigInteger value) {
-        this.value = factory().createInt(value);
+        this.value = value;
     }
 
-    public PInt getValue() {
+    public BigInteger getValue() {
         return value;
     }
 
     @Override
     public Object execute(VirtualFrame frame) {
-        return value;
+        if (singleContextAssumption().isValid()) {
+            if (cachedValue == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                cachedValue = factory().createInt(value);
+            }
+            return cachedValue;
+        }
+        return factory().createInt(value);
     }
 }
@@ -30,22 +30,28 @@ import static com.oracle.graal.python.nodes.PNodeUtil.replace;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.graal.python.nodes.PNodeUtil;
 import com.oracle.graal.python.nodes.argument.ReadIndexedArgumentNode;
 import com.oracle.graal.python.nodes.control.BlockNode;
 import com.oracle.graal.python.nodes.control.BreakTargetNode;
+import com.oracle.graal.python.nodes.control.ContinueTargetNode;
 import com.oracle.graal.python.nodes.control.ForNode;
 import com.oracle.graal.python.nodes.control.IfNode;
+import com.oracle.graal.python.nodes.control.ReturnNode;
+import com.oracle.graal.python.nodes.control.ReturnNode.FrameReturnNode;
 import com.oracle.graal.python.nodes.control.ReturnTargetNode;
 import com.oracle.graal.python.nodes.control.WhileNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
+import com.oracle.graal.python.nodes.expression.ExpressionNode.ExpressionStatementNode;
 import com.oracle.graal.python.nodes.frame.ReadLocalVariableNode;
 import com.oracle.graal.python.nodes.frame.ReadNode;
 import com.oracle.graal.python.nodes.frame.WriteLocalVariableNode;
 import com.oracle.graal.python.nodes.frame.WriteNode;
 import com.oracle.graal.python.nodes.function.FunctionRootNode;
 import com.oracle.graal.python.nodes.function.GeneratorExpressionNode;
+import com.oracle.graal.python.nodes.generator.AbstractYieldNode;
 import com.oracle.graal.python.nodes.generator.GeneratorBlockNode;
 import com.oracle.graal.python.nodes.generator.GeneratorControlNode;
 import com.oracle.graal.python.nodes.generator.GeneratorForNode;
@@ -56,7 +62,9 @@ import com.oracle.graal.python.nodes.generator.GeneratorTryFinallyNode;
 import com.oracle.graal.python.nodes.generator.GeneratorWhileNode;
 import com.oracle.graal.python.nodes.generator.ReadGeneratorFrameVariableNode;
 import com.oracle.graal.python.nodes.generator.WriteGeneratorFrameVariableNode;
+import com.oracle.graal.python.nodes.generator.YieldFromNode;
 import com.oracle.graal.python.nodes.generator.YieldNode;
+import com.oracle.graal.python.nodes.literal.ObjectLiteralNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.nodes.statement.TryExceptNode;
 import com.oracle.graal.python.nodes.statement.TryFinallyNode;
@@ -90,8 +98,19 @@ public class GeneratorTranslator {
          */
         List<ReturnTargetNode> returnTargets = NodeUtil.findAllNodeInstances(root, ReturnTargetNode.class);
         assert returnTargets.size() == 1;
+        ReadNode returnValue = (ReadNode) returnTargets.get(0).getReturn();
         splitArgumentLoads(returnTargets.get(0));
 
+        /**
+         * The return slot also holds the yielded values, so a bare return has to store None to
+         * report the right value with the StopIteration.
+         */
+        for (ReturnNode returnNode : NodeUtil.findAllNodeInstances(root, ReturnNode.class)) {
+            if (!(returnNode instanceof FrameReturnNode)) {
+                replace(returnNode, new FrameReturnNode(returnValue.makeWriteNode(new ObjectLiteralNode(PNone.NONE))));
+            }
+        }
+
         ForNode outerMostLoop = NodeUtil.findFirstNodeInstance(root, ForNode.class);
         if (outerMostLoop != null && inGeneratorExpression) {
             replaceOuterMostForNode(outerMostLoop);
@@ -111,7 +130,7 @@ public class GeneratorTranslator {
         /**
          * Rewrite all control flow paths leading to yields.
          */
-        for (YieldNode yield : NodeUtil.findAllNodeInstances(root, YieldNode.class)) {
+        for (AbstractYieldNode yield : NodeUtil.findAllNodeInstances(root, AbstractYieldNode.class)) {
             replaceYield(yield);
         }
 
@@ -119,12 +138,67 @@ public class GeneratorTranslator {
             genexp.setEnclosingFrameGenerator(true);
         }
 
+        /**
+         * Let yield statements suspend by returning where all enclosing nodes can handle it.
+         */
+        for (YieldNode yield : NodeUtil.findAllNodeInstances(root, YieldNode.class)) {
+            if (canSuspendWithoutException(yield)) {
+                lowerSuspension(yield);
+            }
+        }
+
         return callTarget;
     }
 
-    private void replaceYield(YieldNode yield) {
+    /**
+     * A yield can suspend the generator without throwing a {@code YieldException} if it is a
+     * statement of its own and only blocks, conditionals and loops enclose it. These nodes stop
+     * executing as soon as the generator frame is marked as suspended. Anything else, like a yield
+     * in a larger expression or in a try statement, still throws.
+     */
+    private static boolean canSuspendWithoutException(YieldNode yield) {
+        Node current = yield.getParent();
+        if (!(current instanceof ExpressionStatementNode)) {
+            return false;
+        }
+        while (!(current instanceof GeneratorReturnTargetNode)) {
+            current = current.getParent();
+            if (!(current instanceof GeneratorBlockNode || current instanceof GeneratorIfNode || current instanceof GeneratorWhileNode || current instanceof GeneratorForNode ||
+                            current instanceof BreakTargetNode || current instanceof ContinueTargetNode || current instanceof GeneratorReturnTargetNode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void lowerSuspension(YieldNode yield) {
+        yield.setReturnsOnSuspend();
+        Node child = yield.getParent();
+        Node current = child.getParent();
+        while (true) {
+            if (current instanceof GeneratorBlockNode) {
+                ((GeneratorBlockNode) current).setStatementSuspends((StatementNode) child);
+            } else if (current instanceof GeneratorIfNode) {
+                ((GeneratorIfNode) current).setBodySuspends();
+            } else if (current instanceof GeneratorWhileNode) {
+                ((GeneratorWhileNode) current).setBodySuspends();
+            } else if (current instanceof GeneratorForNode) {
+                ((GeneratorForNode) current).setBodySuspends();
+            } else if (current instanceof GeneratorReturnTargetNode) {
+                ((GeneratorReturnTargetNode) current).setBodySuspends();
+                return;
+            }
+            child = current;
+            current = current.getParent();
+        }
+    }
+
+    private void replaceYield(AbstractYieldNode yield) {
         PNode current = yield;
         yield.setFlagSlot(nextActiveFlagSlot());
+        if (yield instanceof YieldFromNode) {
+            ((YieldFromNode) yield).setIteratorSlot(nextGeneratorForNodeSlot());
+        }
 
         if (yield.getParent() instanceof GeneratorReturnTargetNode) {
             // if this yield is the only thing in the body, we introduce a block
@@ -148,7 +222,7 @@ public class GeneratorTranslator {
         }
     }
 
-    public void handleComplicatedYieldExpression(YieldNode yield) {
+    public void handleComplicatedYieldExpression(AbstractYieldNode yield) {
         // Find the dominating StatementNode.
         StatementNode targetingStatement = (StatementNode) PNodeUtil.getParentFor(yield, WriteNode.class);
 
@@ -300,7 +374,7 @@ public class GeneratorTranslator {
                 continue;
             }
 
-            if (NodeUtil.findAllNodeInstances(child, YieldNode.class).size() != 0) {
+            if (NodeUtil.findAllNodeInstances(child, AbstractYieldNode.class).size() != 0) {
                 continue;
             }
 
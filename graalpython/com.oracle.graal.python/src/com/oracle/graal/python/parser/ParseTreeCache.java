@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A cache of ANTLR parse trees keyed by parser mode and a SHA-256 digest of the source text. The
+ * result of lexing and parsing does not depend on a context, so all contexts of a language instance
+ * share the trees of the core library, of imported modules and of repeatedly compiled strings. The
+ * scope and tree translation still run for every cached tree; since the scope translation
+ * annotates the tree, users must hold the tree's monitor while translating.
+ * <p>
+ * The cache lives in memory only and holds at most {@link #MAX_ENTRIES} trees per process. Neither
+ * the trees nor the Truffle ASTs built from them can be persisted, so a freshly started process
+ * parses everything again and does not start up any faster.
+ */
+public final class ParseTreeCache {
+
+    private static final int MAX_ENTRIES = 256;
+
+    static final class Key {
+        private final ParserMode mode;
+        private final byte[] digest;
+        private final int hash;
+
+        Key(ParserMode mode, byte[] digest) {
+            this.mode = mode;
+            this.digest = digest;
+            this.hash = mode.hashCode() * 31 + Arrays.hashCode(digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return mode == other.mode && Arrays.equals(digest, other.digest);
+        }
+    }
+
+    private final Map<Key, ParserRuleContext> trees = new LinkedHashMap<Key, ParserRuleContext>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ParserRuleContext> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    static boolean isCacheable(ParserMode mode) {
+        // interactive and inline parsing depend on a frame or have fallbacks that are not cached
+        return mode == ParserMode.File || mode == ParserMode.Eval || mode == ParserMode.Statement;
+    }
+
+    @TruffleBoundary
+    synchronized ParserRuleContext get(Key key) {
+        return trees.get(key);
+    }
+
+    @TruffleBoundary
+    synchronized void put(Key key, ParserRuleContext tree) {
+        trees.put(key, tree);
+    }
+
+    @TruffleBoundary
+    static Key key(ParserMode mode, String text) {
+        return new Key(mode, digest(text));
+    }
+
+    private static byte[] digest(String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // digest the UTF-16 code units so that lone surrogates are not conflated
+        byte[] bytes = new byte[text.length() * 2];
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            bytes[2 * i] = (byte) (c >> 8);
+            bytes[2 * i + 1] = (byte) c;
+        }
+        return digest.digest(bytes);
+    }
+}
@@ -55,8 +55,25 @@ public final class PythonParserImpl implements PythonParser {
     @Override
     @TruffleBoundary
     public Node parse(ParserMode mode, PythonCore core, Source source, Frame currentFrame) {
+        String text = source.getCharacters().toString();
+        ParseTreeCache cache = ParseTreeCache.isCacheable(mode) ? core.getLanguage().parseTreeCache : null;
+        ParseTreeCache.Key key = cache != null ? ParseTreeCache.key(mode, text) : null;
+        ParserRuleContext input = cache != null ? cache.get(key) : null;
+        if (input == null) {
+            input = parseTree(mode, core, source, text);
+            if (cache != null) {
+                cache.put(key, input);
+            }
+        }
+        // the scope translator annotates the (possibly shared) tree
+        synchronized (input) {
+            return translate(mode, core, source, currentFrame, input);
+        }
+    }
+
+    private static ParserRuleContext parseTree(ParserMode mode, PythonCore core, Source source, String text) {
         // ANTLR parsing
-        Python3Parser parser = getPython3Parser(source.getCharacters().toString());
+        Python3Parser parser = getPython3Parser(text);
         ParserRuleContext input;
         try {
             switch (mode) {
@@ -91,6 +108,10 @@ public final class PythonParserImpl implements PythonParser {
             }
         }
 
+        return input;
+    }
+
+    private static Node translate(ParserMode mode, PythonCore core, Source source, Frame currentFrame, ParserRuleContext input) {
         // prepare scope translator
         TranslationEnvironment environment = new TranslationEnvironment(core.getLanguage());
         FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
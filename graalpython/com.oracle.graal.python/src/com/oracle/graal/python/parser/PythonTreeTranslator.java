@@ -32,6 +32,7 @@ import static com.oracle.graal.python.nodes.BuiltinNames.SUPER;
 import static com.oracle.graal.python.nodes.BuiltinNames.__BUILD_CLASS__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__CLASS__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DOC__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.SyntaxError;
 
 import java.math.BigInteger;
@@ -55,6 +56,7 @@ import com.oracle.graal.python.nodes.EmptyNode;
 import com.oracle.graal.python.nodes.NodeFactory;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.graal.python.nodes.argument.ReadDefaultArgumentNode;
+import com.oracle.graal.python.nodes.argument.ReadIndexedArgumentNode;
 import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
 import com.oracle.graal.python.nodes.call.PythonCallNode;
 import com.oracle.graal.python.nodes.classes.ClassDefinitionEpilogNode;
@@ -72,6 +74,9 @@ import com.oracle.graal.python.nodes.frame.ReadLocalNode;
 import com.oracle.graal.python.nodes.frame.ReadNode;
 import com.oracle.graal.python.nodes.frame.WriteNode;
 import com.oracle.graal.python.nodes.function.ClassBodyRootNode;
+import com.oracle.graal.python.nodes.function.ComprehensionAppendNode;
+import com.oracle.graal.python.nodes.function.ComprehensionNode;
+import com.oracle.graal.python.nodes.function.DefaultParametersNode;
 import com.oracle.graal.python.nodes.function.FunctionDefinitionNode;
 import com.oracle.graal.python.nodes.function.FunctionRootNode;
 import com.oracle.graal.python.nodes.function.GeneratorExpressionNode;
@@ -80,7 +85,6 @@ import com.oracle.graal.python.nodes.literal.LiteralNode;
 import com.oracle.graal.python.nodes.literal.StarredExpressionNode;
 import com.oracle.graal.python.nodes.literal.StringLiteralNode;
 import com.oracle.graal.python.nodes.literal.TupleLiteralNode;
-import com.oracle.graal.python.nodes.statement.DefaultParametersNode;
 import com.oracle.graal.python.nodes.statement.ExceptNode;
 import com.oracle.graal.python.nodes.statement.RaiseNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
@@ -259,16 +263,23 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
 
     @Override
     public Object visitAtom_expr(Python3Parser.Atom_exprContext ctx) {
-        // TODO: deal with AWAIT
+        Object result;
         if (ctx.trailer().isEmpty()) {
-            return super.visitAtom_expr(ctx);
+            result = super.visitAtom_expr(ctx);
         } else {
             ExpressionNode expr = (ExpressionNode) visitAtom(ctx.atom());
             for (Python3Parser.TrailerContext t : ctx.trailer()) {
                 expr = visitTrailerFrom(expr, t);
             }
-            return expr;
+            result = expr;
         }
+        if (ctx.AWAIT() != null) {
+            if (!environment.isInCoroutineScope()) {
+                throw core.raise(SyntaxError, "'await' outside async function");
+            }
+            return factory.createAwait((ExpressionNode) result, environment.getReturnSlot());
+        }
+        return result;
     }
 
     private ExpressionNode visitTrailerFrom(ExpressionNode owner, Python3Parser.TrailerContext t) {
@@ -433,7 +444,12 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
             return factory.createDictLiteral();
         } else if (ctx.getChild(0).getText().equals("[")) { // list
             if (ctx.testlist_comp() != null && ctx.testlist_comp().comp_for() != null) {
-                return factory.callBuiltin(LIST, (ExpressionNode) super.visitAtom(ctx));
+                Python3Parser.Testlist_compContext comp = ctx.testlist_comp();
+                if (containsYield(comp)) {
+                    return factory.callBuiltin(LIST, (ExpressionNode) super.visitAtom(ctx));
+                }
+                return createComprehension(comp, comp.comp_for(), ComprehensionNode.Kind.List,
+                                c -> ComprehensionAppendNode.createListAppend(c, (ExpressionNode) comp.getChild(0).accept(this)));
             } else {
                 return factory.createListLiteral(asList(super.visitAtom(ctx)));
             }
@@ -454,8 +470,10 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         if (ctx.comp_for() == null) {
             List<ExpressionNode> nodes = asList(super.visitSetmaker(ctx));
             return factory.createSetLiteral(nodes);
-        } else {
+        } else if (containsYield(ctx)) {
             return factory.callBuiltin(SET, createComprehensionExpression(ctx, ctx.comp_for()));
+        } else {
+            return createComprehension(ctx, ctx.comp_for(), ComprehensionNode.Kind.Set, c -> ComprehensionAppendNode.createSetAdd(c, (ExpressionNode) ctx.getChild(0).accept(this)));
         }
     }
 
@@ -483,6 +501,52 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         }
     }
 
+    /**
+     * Translates a list, set or dict comprehension into a {@link ComprehensionNode}. The function
+     * of the comprehension receives the iterator of the outermost loop as its first argument and
+     * the result collection as its second argument, which {@code getAppend} adds the elements to.
+     */
+    private ExpressionNode createComprehension(ParserRuleContext ctx, Python3Parser.Comp_forContext compctx, ComprehensionNode.Kind kind,
+                    Function<ExpressionNode, StatementNode> getAppend) {
+        try {
+            environment.enterScope(compctx.scope);
+            StatementNode append = getAppend.apply(ReadIndexedArgumentNode.create(1).asExpression());
+            ScopeInfo old = environment.pushCurentScope();
+            ExpressionNode iterable = (ExpressionNode) compctx.or_test().accept(this);
+            environment.popCurrentScope(old);
+            GetIteratorNode getIterator = factory.createGetIterator(iterable);
+            getIterator.assignSourceSection(iterable.getSourceSection());
+
+            StatementNode loop = createComprehensionLoop(compctx, append, ReadIndexedArgumentNode.create(0).asExpression());
+            SourceSection srcSection = loop.getSourceSection();
+            ExpressionNode returnTarget = new ReturnTargetNode(loop, ReadIndexedArgumentNode.create(1).asExpression());
+            returnTarget.assignSourceSection(srcSection);
+            FunctionRootNode funcRoot = factory.createFunctionRoot(srcSection, kind.getName(), false, environment.getCurrentFrame(), returnTarget, environment.getExecutionCellSlots());
+            RootCallTarget callTarget = Truffle.getRuntime().createCallTarget(funcRoot);
+            ComprehensionNode comprehension = new ComprehensionNode(kind, callTarget, getIterator, environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
+            comprehension.assignSourceSection(srcSection);
+            return comprehension;
+        } finally {
+            environment.leaveScope();
+        }
+    }
+
+    /**
+     * A {@code yield} inside a comprehension turns it into a generator, so such comprehensions
+     * still have to be translated as generator expressions.
+     */
+    private static boolean containsYield(ParseTree tree) {
+        if (tree instanceof Python3Parser.Yield_exprContext) {
+            return true;
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            if (containsYield(tree.getChild(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private GeneratorExpressionNode createGeneratorExpressionDefinition(ExpressionNode body, int lineNum) {
         FrameDescriptor fd = environment.getCurrentFrame();
         String generatorName = "generator_exp:" + lineNum;
@@ -540,8 +604,12 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         if (!ctx.expr().isEmpty()) {
             throw core.raise(SyntaxError, "dict unpacking cannot be used in dict comprehension");
         }
-        return factory.callBuiltin(DICT,
-                        createComprehensionExpression(ctx, ctx.comp_for(), c -> factory.createTupleLiteral((ExpressionNode) ctx.test(0).accept(this), (ExpressionNode) ctx.test(1).accept(this))));
+        if (containsYield(ctx)) {
+            return factory.callBuiltin(DICT,
+                            createComprehensionExpression(ctx, ctx.comp_for(), c -> factory.createTupleLiteral((ExpressionNode) ctx.test(0).accept(this), (ExpressionNode) ctx.test(1).accept(this))));
+        }
+        return createComprehension(ctx, ctx.comp_for(), ComprehensionNode.Kind.Dict,
+                        c -> ComprehensionAppendNode.createDictSetItem(c, (ExpressionNode) ctx.test(0).accept(this), (ExpressionNode) ctx.test(1).accept(this)));
     }
 
     private Object parseSpecialLiteral(String text) {
@@ -835,7 +903,7 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
     }
 
     private Object parseImaginaryNumber(String text) {
-        return factory.createComplexLiteral(core.factory().createComplex(0.0, Double.parseDouble(text)));
+        return factory.createComplexLiteral(0.0, Double.parseDouble(text));
     }
 
     private Object parseFloatNumber(String text) {
@@ -1230,6 +1298,16 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         }
     }
 
+    @Override
+    public Object visitAsync_stmt(Python3Parser.Async_stmtContext ctx) {
+        if (ctx.for_stmt() != null) {
+            throw core.raise(NotImplementedError, "'async for' is not supported");
+        } else if (ctx.with_stmt() != null) {
+            throw core.raise(NotImplementedError, "'async with' is not supported");
+        }
+        return super.visitAsync_stmt(ctx);
+    }
+
     @Override
     public Object visitFor_stmt(Python3Parser.For_stmtContext ctx) {
         loops.beginLoop(ctx);
@@ -1308,7 +1386,11 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
     public Object visitYield_expr(Python3Parser.Yield_exprContext ctx) {
         environment.setToGeneratorScope();
         ExpressionNode right;
-        if (ctx.yield_arg() != null) {
+        if (ctx.yield_arg() != null && ctx.yield_arg().test() != null) {
+            // yield from
+            right = (ExpressionNode) ctx.yield_arg().test().accept(this);
+            return factory.createYieldFrom(right, environment.getReturnSlot());
+        } else if (ctx.yield_arg() != null) {
             right = (ExpressionNode) ctx.yield_arg().accept(this);
         } else {
             right = EmptyNode.create();
@@ -1429,6 +1511,9 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
 
         environment.enterScope(ctx.scope);
         environment.setDefaultArgumentNodes(defaultArgs);
+        if (ctx.getParent() instanceof Python3Parser.Async_funcdefContext || ctx.getParent() instanceof Python3Parser.Async_stmtContext) {
+            environment.setToCoroutineScope();
+        }
 
         /**
          * Parameters
@@ -1456,7 +1541,7 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         /**
          * Defaults
          */
-        StatementNode defaults = createDefaultArgumentsNode();
+        DefaultParametersNode defaults = createDefaultArgumentsNode();
 
         /**
          * Function root
@@ -1473,11 +1558,11 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         if (environment.isInGeneratorScope()) {
             GeneratorTranslator gtran = new GeneratorTranslator(funcRoot, false);
             RootCallTarget callTarget = gtran.translate();
-            funcDef = GeneratorFunctionDefinitionNode.create(funcName, enclosingClassName, doc, core, arity, defaults, callTarget, fd,
+            funcDef = GeneratorFunctionDefinitionNode.create(funcName, enclosingClassName, doc, arity, defaults, callTarget, fd,
                             environment.getDefinitionCellSlots(), environment.getExecutionCellSlots(),
-                            gtran.getNumOfActiveFlags(), gtran.getNumOfGeneratorBlockNode(), gtran.getNumOfGeneratorForNode());
+                            gtran.getNumOfActiveFlags(), gtran.getNumOfGeneratorBlockNode(), gtran.getNumOfGeneratorForNode(), environment.isInCoroutineScope());
         } else {
-            funcDef = new FunctionDefinitionNode(funcName, enclosingClassName, doc, core, arity, defaults, ct, fd, environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
+            funcDef = new FunctionDefinitionNode(funcName, enclosingClassName, doc, arity, defaults, ct, fd, environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
         }
         environment.leaveScope();
 
@@ -1510,7 +1595,7 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         boolean starArgsMarker = false;
         List<String> parameterIds = new ArrayList<>();
         List<StatementNode> argumentReads = new ArrayList<>();
-        List<ReadDefaultArgumentNode> defaultReads = new ArrayList<>();
+        int numOfDefaults = 0;
         List<String> keywordNames = new ArrayList<>();
         List<Arity.KeywordName> arityKeywordNames = new ArrayList<>();
         int childCount = ctx.getChildCount();
@@ -1558,8 +1643,7 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
             }
             if (argumentReadNode == null && argname != null) {
                 if (test != null) {
-                    ReadDefaultArgumentNode readDefaultArgumentNode = new ReadDefaultArgumentNode();
-                    defaultReads.add(readDefaultArgumentNode);
+                    ReadDefaultArgumentNode readDefaultArgumentNode = ReadDefaultArgumentNode.create(numOfDefaults++);
                     if (!varargsSeen && !starArgsMarker) {
                         argumentReadNode = environment.getWriteKeywordArgumentToLocal(argname, readDefaultArgumentNode);
                         maxNumPosArgs++;
@@ -1583,18 +1667,15 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
                 argumentReads.add(argumentReadNode);
             }
         }
-        environment.setDefaultArgumentReads(defaultReads.toArray(new ReadDefaultArgumentNode[0]));
         return new Args(factory.createBlock(argumentReads), new Arity(functionName, minNumPosArgs, maxNumPosArgs, kwargsSeen, varargsSeen, starArgsMarker, parameterIds, arityKeywordNames));
     }
 
-    private StatementNode createDefaultArgumentsNode() {
+    private DefaultParametersNode createDefaultArgumentsNode() {
         if (environment.hasDefaultArguments()) {
             List<ExpressionNode> defaultParameters = environment.getDefaultArgumentNodes();
-            ReadDefaultArgumentNode[] defaultReads = environment.getDefaultArgumentReads();
-            return new DefaultParametersNode(defaultParameters.toArray(new ExpressionNode[defaultParameters.size()]),
-                            defaultReads);
+            return new DefaultParametersNode(defaultParameters.toArray(new ExpressionNode[defaultParameters.size()]));
         } else {
-            return factory.createBlock();
+            return null;
         }
     }
 
@@ -1633,7 +1714,7 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         /**
          * Defaults
          */
-        StatementNode defaults = createDefaultArgumentsNode();
+        DefaultParametersNode defaults = createDefaultArgumentsNode();
 
         /**
          * Lambda function root
@@ -1649,11 +1730,11 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         if (environment.isInGeneratorScope()) {
             GeneratorTranslator gtran = new GeneratorTranslator(funcRoot, false);
             RootCallTarget callTarget = gtran.translate();
-            funcDef = GeneratorFunctionDefinitionNode.create(funcname, null, null, core, arity, defaults, callTarget, fd,
+            funcDef = GeneratorFunctionDefinitionNode.create(funcname, null, null, arity, defaults, callTarget, fd,
                             environment.getDefinitionCellSlots(), environment.getExecutionCellSlots(),
-                            gtran.getNumOfActiveFlags(), gtran.getNumOfGeneratorBlockNode(), gtran.getNumOfGeneratorForNode());
+                            gtran.getNumOfActiveFlags(), gtran.getNumOfGeneratorBlockNode(), gtran.getNumOfGeneratorForNode(), false);
         } else {
-            funcDef = new FunctionDefinitionNode(funcname, null, null, core, arity, defaults, ct, fd, environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
+            funcDef = new FunctionDefinitionNode(funcname, null, null, arity, defaults, ct, fd, environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
         }
         environment.leaveScope();
 
@@ -1720,8 +1801,8 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         ExpressionNode body = asClassBody(ctx.suite().accept(this), qualName);
         ClassBodyRootNode classBodyRoot = factory.createClassBodyRoot(deriveSourceSection(ctx), className, environment.getCurrentFrame(), body, environment.getExecutionCellSlots());
         RootCallTarget ct = Truffle.getRuntime().createCallTarget(classBodyRoot);
-        FunctionDefinitionNode funcDef = new FunctionDefinitionNode(className, null, null, core, Arity.createOneArgumentWithVarKwArgs(className),
-                        factory.createBlock(), ct, environment.getCurrentFrame(), environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
+        FunctionDefinitionNode funcDef = new FunctionDefinitionNode(className, null, null, Arity.createOneArgumentWithVarKwArgs(className),
+                        null, ct, environment.getCurrentFrame(), environment.getDefinitionCellSlots(), environment.getExecutionCellSlots());
         environment.leaveScope();
 
         argumentNodes.add(0, factory.createStringLiteral(className));
@@ -1841,7 +1922,9 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
     }
 
     private StatementNode createGeneratorExpression(Python3Parser.Comp_forContext comp_for, StatementNode yield, boolean iteratorInParentScope) {
-        // TODO: async
+        if (comp_for.ASYNC() != null) {
+            throw core.raise(NotImplementedError, "asynchronous comprehensions are not supported");
+        }
         ScopeInfo old = null;
         if (iteratorInParentScope) {
             old = environment.pushCurentScope();
@@ -1850,7 +1933,12 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         if (iteratorInParentScope) {
             environment.popCurrentScope(old);
         }
+        GetIteratorNode getIterator = factory.createGetIterator(iterator);
+        getIterator.assignSourceSection(iterator.getSourceSection());
+        return createComprehensionLoop(comp_for, yield, getIterator);
+    }
 
+    private StatementNode createComprehensionLoop(Python3Parser.Comp_forContext comp_for, StatementNode yield, ExpressionNode getIterator) {
         StatementNode targets = assigns.translate(comp_for.exprlist());
         StatementNode myBody = yield;
         ExpressionNode condition = null;
@@ -1870,7 +1958,7 @@ public final class PythonTreeTranslator extends Python3BaseVisitor<Object> {
         if (condition != null) {
             myBody = factory.createIf(factory.createYesNode(condition), myBody, factory.createBlock());
         }
-        LoopNode loop = createForInScope(targets, iterator, myBody);
+        LoopNode loop = new ForNode(myBody, targets, getIterator);
         deriveSourceSection(comp_for, loop);
         return loop;
     }
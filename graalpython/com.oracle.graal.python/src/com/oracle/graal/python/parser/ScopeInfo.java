@@ -31,7 +31,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
-import com.oracle.graal.python.nodes.argument.ReadDefaultArgumentNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.frame.FrameDescriptor;
@@ -52,6 +51,7 @@ public final class ScopeInfo {
     private final String scopeId;
     private final FrameDescriptor frameDescriptor;
     private ScopeKind scopeKind;
+    private boolean isCoroutine;
     private final ScopeInfo parent;
 
     private ScopeInfo firstChildScope; // start of a linked list
@@ -77,7 +77,6 @@ public final class ScopeInfo {
      * function has default arguments.
      */
     private List<ExpressionNode> defaultArgumentNodes;
-    private ReadDefaultArgumentNode[] defaultArgumentReads;
 
     private int loopCount = 0;
 
@@ -126,6 +125,18 @@ public final class ScopeInfo {
         scopeKind = ScopeKind.Generator;
     }
 
+    /**
+     * The body of an {@code async def} is a generator even if it neither yields nor awaits.
+     */
+    public void setAsCoroutine() {
+        setAsGenerator();
+        isCoroutine = true;
+    }
+
+    public boolean isCoroutine() {
+        return isCoroutine;
+    }
+
     public FrameDescriptor getFrameDescriptor() {
         return frameDescriptor;
     }
@@ -241,14 +252,6 @@ public final class ScopeInfo {
         return defaultArgumentNodes;
     }
 
-    public void setDefaultArgumentReads(ReadDefaultArgumentNode[] defaultArgumentReads) {
-        this.defaultArgumentReads = defaultArgumentReads;
-    }
-
-    public ReadDefaultArgumentNode[] getDefaultArgumentReads() {
-        return this.defaultArgumentReads;
-    }
-
     public void createFrameSlotsForCellAndFreeVars() {
         if (cellVars != null) {
             for (String identifier : cellVars) {
@@ -129,6 +129,14 @@ public final class TranslationEnvironment implements CellFrameSlotSupplier {
         currentScope.setAsGenerator();
     }
 
+    public void setToCoroutineScope() {
+        currentScope.setAsCoroutine();
+    }
+
+    public boolean isInCoroutineScope() {
+        return currentScope.isCoroutine();
+    }
+
     public boolean isInModuleScope() {
         return getScopeKind() == ScopeKind.Module;
     }
@@ -392,14 +400,6 @@ public final class TranslationEnvironment implements CellFrameSlotSupplier {
         return currentScope.getDefaultArgumentNodes() != null && currentScope.getDefaultArgumentNodes().size() > 0;
     }
 
-    protected void setDefaultArgumentReads(ReadDefaultArgumentNode[] defaultReads) {
-        currentScope.setDefaultArgumentReads(defaultReads);
-    }
-
-    protected ReadDefaultArgumentNode[] getDefaultArgumentReads() {
-        return currentScope.getDefaultArgumentReads();
-    }
-
     public FrameSlot getReturnSlot() {
         return currentScope.getFrameDescriptor().findOrAddFrameSlot(RETURN_SLOT_ID);
     }
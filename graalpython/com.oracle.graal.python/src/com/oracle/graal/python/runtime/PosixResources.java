@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The file descriptor table of a context. Descriptors 0, 1 and 2 are reserved for the standard
+ * streams, which are handled by the context directly. Like POSIX, a new descriptor is always the
+ * lowest one that is not in use. Duplicated descriptors share their channel, which is only closed
+ * when its last descriptor is closed, and their blocking mode. The blocking mode is kept here
+ * rather than in the channel, because a channel has to be non-blocking while it is registered with
+ * a selector, whatever mode the program set for its descriptor.
+ */
+public final class PosixResources {
+    private static final int FIRST_FREE_FD = 3;
+
+    private static final class ChannelRef {
+        private final Channel channel;
+        private int count = 1;
+        private boolean blocking = true;
+
+        ChannelRef(Channel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private ChannelRef[] channels = new ChannelRef[16];
+    private String[] paths = new String[16];
+    private final BitSet usedFds = new BitSet();
+
+    public PosixResources() {
+        usedFds.set(0, FIRST_FREE_FD);
+        paths[0] = "stdin";
+        paths[1] = "stdout";
+        paths[2] = "stderr";
+    }
+
+    /** Whether {@code fd} is one of the standard streams, which have no channel in this table. */
+    public static boolean isStandardStream(int fd) {
+        return fd >= 0 && fd < FIRST_FREE_FD;
+    }
+
+    @TruffleBoundary
+    public synchronized Channel getFileChannel(int fd) {
+        if (fd < FIRST_FREE_FD || fd >= channels.length || channels[fd] == null) {
+            return null;
+        }
+        return channels[fd].channel;
+    }
+
+    @TruffleBoundary
+    public synchronized String getFilePath(int fd) {
+        if (fd < FIRST_FREE_FD || fd >= paths.length) {
+            return null;
+        }
+        return paths[fd];
+    }
+
+    /** Whether {@code fd} is in blocking mode. The standard streams always are. */
+    @TruffleBoundary
+    public synchronized boolean isBlocking(int fd) {
+        return getFileChannel(fd) == null || channels[fd].blocking;
+    }
+
+    /** Sets the blocking mode of {@code fd} and its duplicates, if {@code fd} is open. */
+    @TruffleBoundary
+    public synchronized void setBlocking(int fd, boolean blocking) {
+        if (getFileChannel(fd) != null) {
+            channels[fd].blocking = blocking;
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized int open(String path, Channel channel) {
+        return add(path, new ChannelRef(channel));
+    }
+
+    /**
+     * Returns a new descriptor for the channel of {@code fd}, or {@code -1} if {@code fd} is not
+     * open.
+     */
+    @TruffleBoundary
+    public synchronized int dup(int fd) {
+        if (getFileChannel(fd) == null) {
+            return -1;
+        }
+        ChannelRef ref = channels[fd];
+        ref.count++;
+        return add(paths[fd], ref);
+    }
+
+    /**
+     * Frees the descriptor and closes its channel if no other descriptor refers to it. Returns
+     * {@code false} if {@code fd} is not open.
+     */
+    @TruffleBoundary
+    public boolean close(int fd) throws IOException {
+        Channel toClose;
+        synchronized (this) {
+            if (getFileChannel(fd) == null) {
+                return false;
+            }
+            ChannelRef ref = channels[fd];
+            channels[fd] = null;
+            paths[fd] = null;
+            usedFds.clear(fd);
+            toClose = --ref.count == 0 ? ref.channel : null;
+        }
+        if (toClose != null) {
+            toClose.close();
+        }
+        return true;
+    }
+
+    private int add(String path, ChannelRef ref) {
+        int fd = usedFds.nextClearBit(FIRST_FREE_FD);
+        usedFds.set(fd);
+        if (fd == channels.length) {
+            channels = Arrays.copyOf(channels, fd * 2);
+            paths = Arrays.copyOf(paths, fd * 2);
+        }
+        channels[fd] = ref;
+        paths[fd] = path;
+        return fd;
+    }
+}
@@ -38,9 +38,11 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.graalvm.options.OptionValues;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.cext.HandleCache;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.sre.TRegexCache;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.Assumption;
@@ -75,12 +77,19 @@ public class PythonContext {
     private OutputStream err;
     private InputStream in;
     @CompilationFinal private Object capiLibrary = null;
+    private HandleCache handleCache;
     private final static Assumption singleNativeContext = Truffle.getRuntime().createAssumption("single native context assumption");
 
     @CompilationFinal private HashingStorage.Equivalence slowPathEquivalence;
 
+    private final PosixResources resources = new PosixResources();
+
+    private final PythonThreads threads = new PythonThreads(this);
+
+    private final TRegexCache regexCache = new TRegexCache();
+
     /** A thread-local dictionary for custom user state. */
-    private ThreadLocal<PDict> customThreadState;
+    private volatile ThreadLocal<PDict> customThreadState;
 
     public PythonContext(PythonLanguage language, TruffleLanguage.Env env, PythonCore core) {
         this.language = language;
@@ -110,6 +119,18 @@ public class PythonContext {
         return language;
     }
 
+    public PosixResources getResources() {
+        return resources;
+    }
+
+    public PythonThreads getThreads() {
+        return threads;
+    }
+
+    public TRegexCache getRegexCache() {
+        return regexCache;
+    }
+
     public ReentrantLock getImportLock() {
         return importLock;
     }
@@ -155,6 +176,10 @@ public class PythonContext {
         return out;
     }
 
+    public void setIn(InputStream in) {
+        this.in = in;
+    }
+
     public void setOut(OutputStream out) {
         this.out = out;
     }
@@ -181,8 +206,14 @@ public class PythonContext {
         core.postInitialize();
     }
 
+    /**
+     * Rebinds a context that was pre-initialized at image build time to a new environment. The
+     * core modules and types are reused as they are; only the standard streams, {@code sys.argv},
+     * the paths and the environment are taken from the new environment.
+     */
     public void patch(Env newEnv) {
         setEnv(newEnv);
+        setIn(newEnv.in());
         setOut(newEnv.out());
         setErr(newEnv.err());
         setupRuntimeInformation();
@@ -215,6 +246,14 @@ public class PythonContext {
         this.capiLibrary = capiLibrary;
     }
 
+    public HandleCache getHandleCache() {
+        return handleCache;
+    }
+
+    public void setHandleCache(HandleCache handleCache) {
+        this.handleCache = handleCache;
+    }
+
     public HashingStorage.Equivalence getSlowPathEquivalence() {
         if (slowPathEquivalence == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -243,9 +282,11 @@ public class PythonContext {
     @TruffleBoundary
     public PDict getCustomThreadState() {
         if (customThreadState == null) {
-            ThreadLocal<PDict> threadLocal = new ThreadLocal<>();
-            threadLocal.set(PythonObjectFactory.create().createDict());
-            customThreadState = threadLocal;
+            synchronized (this) {
+                if (customThreadState == null) {
+                    customThreadState = ThreadLocal.withInitial(() -> PythonObjectFactory.create().createDict());
+                }
+            }
         }
         return customThreadState.get();
     }
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * The threads of a context and the global interpreter lock (GIL) that serializes them.
+ *
+ * Every entry from the host into Python code, be it a call target or an interop message, takes the
+ * GIL with {@link #enter} unless the current thread holds it already. A thread therefore only runs
+ * Python code while it holds the GIL, whether it was started by the {@code _thread} module or by
+ * the embedder, so the storages of dicts, lists and other mutable objects are never modified
+ * concurrently. The GIL is released around blocking operations.
+ *
+ * As long as the context is only used by one thread, its
+ * {@linkplain #getSingleThreadedAssumption() single threaded assumption} holds and compiled loops
+ * do not offer the GIL to others. Once a second thread is started or enters the context, the GIL
+ * is handed over to waiting threads every {@link #SWITCH_INTERVAL} loop iterations.
+ */
+public final class PythonThreads {
+    /** The number of thread switch points a thread passes before it offers the GIL to others. */
+    private static final int SWITCH_INTERVAL = 1000;
+
+    private final Assumption singleThreaded = Truffle.getRuntime().createAssumption("single threaded assumption");
+
+    private final PythonContext context;
+    /** Fair, so that a thread offering the GIL actually hands it over. */
+    private final ReentrantLock gil = new ReentrantLock(true);
+    private volatile boolean multiThreaded;
+    private volatile boolean shuttingDown;
+    private int switchCountdown = SWITCH_INTERVAL;
+    /**
+     * The value of {@code _thread.stack_size}. It is only recorded, threads get the default stack
+     * size of the VM.
+     */
+    private long stackSize;
+
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    /** The exception being handled by a thread while it does not hold the GIL. */
+    private final ThreadLocal<PException> savedException = new ThreadLocal<>();
+    private final ThreadLocal<List<Runnable>> exitActions = new ThreadLocal<>();
+
+    PythonThreads(PythonContext context) {
+        this.context = context;
+    }
+
+    /** Holds as long as no second thread has been started in or has entered this context. */
+    public Assumption getSingleThreadedAssumption() {
+        return singleThreaded;
+    }
+
+    /**
+     * Called when a second thread is started or enters the context, after which the threads take
+     * turns at the GIL.
+     */
+    @TruffleBoundary
+    public void initializeMultiThreading() {
+        multiThreaded = true;
+        singleThreaded.invalidate();
+    }
+
+    /** The identifier of the current thread, as returned by {@code _thread.get_ident()}. */
+    @TruffleBoundary
+    public static long getCurrentThreadId() {
+        return Thread.currentThread().getId();
+    }
+
+    /** The number of threads started in this context that are still running. */
+    public int getThreadCount() {
+        return threads.size();
+    }
+
+    public long getStackSize() {
+        return stackSize;
+    }
+
+    public void setStackSize(long stackSize) {
+        this.stackSize = stackSize;
+    }
+
+    /**
+     * Starts {@code body} in a new thread, which holds the GIL while it runs. Returns the
+     * identifier of the thread.
+     */
+    @TruffleBoundary
+    public long startThread(Runnable body) {
+        initializeMultiThreading();
+        Thread thread = context.getEnv().createThread(() -> {
+            try {
+                acquire();
+                context.setCurrentException(null);
+                body.run();
+            } catch (ThreadKilledException e) {
+                // the context is shutting down
+            } finally {
+                runExitActions();
+                threads.remove(Thread.currentThread());
+                releaseAll();
+            }
+        });
+        threads.add(thread);
+        thread.start();
+        return thread.getId();
+    }
+
+    /** Registers an action that runs when the current thread, if started here, terminates. */
+    @TruffleBoundary
+    public void addExitAction(Runnable action) {
+        List<Runnable> actions = exitActions.get();
+        if (actions == null) {
+            actions = new ArrayList<>();
+            exitActions.set(actions);
+        }
+        actions.add(action);
+    }
+
+    /**
+     * Takes the GIL when a thread enters Python code from the outside, if the current thread does
+     * not hold it yet. Returns the number of holds to restore with {@link #leave}.
+     */
+    @TruffleBoundary
+    public int enter() {
+        int holds = gil.getHoldCount();
+        if (holds == 0) {
+            acquire();
+            context.setCurrentException(null);
+        }
+        return holds;
+    }
+
+    /** Gives up the holds on the GIL taken since the corresponding {@link #enter}. */
+    @TruffleBoundary
+    public void leave(int holds) {
+        while (gil.getHoldCount() > holds) {
+            gil.unlock();
+        }
+    }
+
+    /**
+     * Releases the GIL before a blocking operation. Returns whether it was released, which has to
+     * be passed to {@link #reacquire} when the operation is done.
+     */
+    @TruffleBoundary
+    public boolean release() {
+        if (gil.isHeldByCurrentThread()) {
+            savedException.set(context.getCurrentException());
+            gil.unlock();
+            return true;
+        }
+        return false;
+    }
+
+    @TruffleBoundary
+    public void reacquire(boolean released) {
+        if (released) {
+            acquire();
+            context.setCurrentException(savedException.get());
+            savedException.remove();
+        }
+    }
+
+    /**
+     * A thread switch point, called at loop back edges once a second thread has been started or
+     * has entered the context. Only every {@link #SWITCH_INTERVAL}th call leaves compiled code to
+     * offer the GIL.
+     */
+    public void yield() {
+        if (--switchCountdown <= 0) {
+            offerGil();
+        }
+    }
+
+    @TruffleBoundary
+    private void offerGil() {
+        switchCountdown = SWITCH_INTERVAL;
+        if ((shuttingDown || gil.hasQueuedThreads()) && gil.isHeldByCurrentThread()) {
+            reacquire(release());
+        }
+    }
+
+    /**
+     * Waits for the threads that are not daemon threads when the context is finalized. Like in
+     * CPython, this is left to {@code threading._shutdown()}, since only the threading module knows
+     * which of its threads are daemons.
+     */
+    @TruffleBoundary
+    public void joinNonDaemonThreads() {
+        if (!multiThreaded) {
+            return;
+        }
+        Object modules = context.getCore().lookupBuiltinModule("sys").getAttribute("modules");
+        Object threading = modules instanceof PDict ? ((PDict) modules).getItem("threading") : null;
+        if (threading instanceof PythonModule) {
+            Object shutdown = ((PythonModule) threading).getAttribute("_shutdown");
+            if (shutdown != PNone.NO_VALUE) {
+                try {
+                    Truffle.getRuntime().createCallTarget(new CallRootNode(context.getLanguage(), shutdown)).call();
+                } catch (PException e) {
+                    // the threads are killed anyway
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the threads that are still running when the context is finalized. Waiting threads are
+     * interrupted and every thread terminates when it next tries to take the GIL.
+     */
+    @TruffleBoundary
+    public void shutdown() {
+        if (!multiThreaded) {
+            return;
+        }
+        shuttingDown = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        leave(0);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether the current thread was started by this context, which is shutting down. Such a
+     * thread terminates when it next takes the GIL.
+     */
+    @TruffleBoundary
+    public boolean isKilled() {
+        return shuttingDown && threads.contains(Thread.currentThread());
+    }
+
+    private void acquire() {
+        try {
+            gil.lockInterruptibly();
+        } catch (InterruptedException e) {
+            // a shutdown interrupts the waiting threads, which still take the GIL before they
+            // unwind; other interrupts are kept for the code that runs next
+            gil.lock();
+            if (!shuttingDown) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (isKilled()) {
+            // keep the GIL, so that finally blocks run serialized while the thread unwinds
+            throw new ThreadKilledException();
+        }
+    }
+
+    private void releaseAll() {
+        while (gil.isHeldByCurrentThread()) {
+            gil.unlock();
+        }
+    }
+
+    private void runExitActions() {
+        List<Runnable> actions = exitActions.get();
+        if (actions != null) {
+            exitActions.remove();
+            for (Runnable action : actions) {
+                action.run();
+            }
+        }
+    }
+
+    private static final class CallRootNode extends RootNode {
+        @Child private CallNode callNode = CallNode.create();
+        private final Object callable;
+
+        CallRootNode(PythonLanguage language, Object callable) {
+            super(language);
+            this.callable = callable;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return callNode.execute(frame, callable, new Object[0], PKeyword.EMPTY_KEYWORDS);
+        }
+    }
+
+    /** Unwinds a thread that is still running when its context shuts down. */
+    @SuppressWarnings("serial")
+    private static final class ThreadKilledException extends RuntimeException {
+        ThreadKilledException() {
+            super(null, null, false, false);
+        }
+    }
+}
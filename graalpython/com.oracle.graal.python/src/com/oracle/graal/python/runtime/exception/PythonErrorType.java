@@ -34,6 +34,7 @@ public enum PythonErrorType {
     BaseException,
     BytesWarning,
     DeprecationWarning,
+    EOFError,
     Exception,
     FloatingPointError,
     IOError,
@@ -67,7 +68,11 @@ public enum PythonErrorType {
     Warning,
     ZeroDivisionError,
     BufferError,
-    FileNotFoundError;
+    FileNotFoundError,
+    FileExistsError,
+    PermissionError,
+    BlockingIOError,
+    GeneratorExit;
 
     @CompilationFinal(dimensions = 1) public static final PythonErrorType[] VALUES = values();
 }
@@ -48,6 +48,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
 
 import java.util.Arrays;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
 import com.oracle.graal.python.builtins.modules.BuiltinFunctionsFactory;
 import com.oracle.graal.python.builtins.objects.PNone;
@@ -83,11 +84,14 @@ import com.oracle.graal.python.nodes.interop.PTypeUnboxNode;
 import com.oracle.graal.python.nodes.subscript.DeleteItemNode;
 import com.oracle.graal.python.nodes.subscript.GetItemNode;
 import com.oracle.graal.python.nodes.subscript.SetItemNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonThreads;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.interop.PythonMessageResolutionFactory.ArgumentsFromForeignNodeGen;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.CanResolve;
@@ -167,6 +171,22 @@ public class PythonMessageResolution {
         }
     }
 
+    /**
+     * Takes the GIL around an interop message that may run Python code, since the host may send it
+     * from any thread. See {@link PythonThreads}.
+     */
+    private static final class GilNode extends Node {
+        private final ContextReference<PythonContext> contextRef = PythonLanguage.getContextRef();
+
+        int enter() {
+            return contextRef.get().getThreads().enter();
+        }
+
+        void leave(int holds) {
+            contextRef.get().getThreads().leave(holds);
+        }
+    }
+
     private static final class ReadNode extends Node {
         private static final Object NONEXISTING_IDENTIFIER = new Object();
 
@@ -307,9 +327,16 @@ public class PythonMessageResolution {
     @Resolve(message = "READ")
     abstract static class PForeignReadNode extends Node {
         @Child private ReadNode readNode = new ReadNode();
+        @Child private GilNode gil = new GilNode();
 
         public Object access(Object object, Object key) {
-            Object result = readNode.execute(object, key);
+            Object result;
+            int holds = gil.enter();
+            try {
+                result = readNode.execute(object, key);
+            } finally {
+                gil.leave(holds);
+            }
             if (result != ReadNode.NONEXISTING_IDENTIFIER) {
                 return result;
             }
@@ -339,9 +366,19 @@ public class PythonMessageResolution {
         @Child private HasSetItem hasSetItem = new HasSetItem();
         @Child private KeyForAttributeAccess getAttributeKey = new KeyForAttributeAccess();
         @Child private KeyForItemAccess getItemKey = new KeyForItemAccess();
+        @Child private GilNode gil = new GilNode();
         final ConditionProfile strProfile = ConditionProfile.createBinaryProfile();
 
         public Object access(Object object, Object field, Object value) {
+            int holds = gil.enter();
+            try {
+                return write(object, field, value);
+            } finally {
+                gil.leave(holds);
+            }
+        }
+
+        private Object write(Object object, Object field, Object value) {
             String attrKey = getAttributeKey.execute(field);
             if (attrKey != null) {
                 return writeNode.execute(object, attrKey, value);
@@ -384,9 +421,19 @@ public class PythonMessageResolution {
         @Child private HasDelItem hasDelItem = new HasDelItem();
         @Child private KeyForAttributeAccess getAttributeKey = new KeyForAttributeAccess();
         @Child private KeyForItemAccess getItemKey = new KeyForItemAccess();
+        @Child private GilNode gil = new GilNode();
         final ConditionProfile strProfile = ConditionProfile.createBinaryProfile();
 
         public boolean access(Object object, Object field) {
+            int holds = gil.enter();
+            try {
+                return remove(object, field);
+            } finally {
+                gil.leave(holds);
+            }
+        }
+
+        private boolean remove(Object object, Object field) {
             String attrKey = getAttributeKey.execute(field);
             if (attrKey != null) {
                 delNode.execute(object, attrKey);
@@ -425,9 +472,15 @@ public class PythonMessageResolution {
     @Resolve(message = "EXECUTE")
     abstract static class PForeignFunctionExecuteNode extends Node {
         @Child private ExecuteNode execNode = new ExecuteNode();
+        @Child private GilNode gil = new GilNode();
 
         public Object access(Object receiver, Object[] arguments) {
-            return execNode.execute(receiver, arguments);
+            int holds = gil.enter();
+            try {
+                return execNode.execute(receiver, arguments);
+            } finally {
+                gil.leave(holds);
+            }
         }
     }
 
@@ -455,20 +508,32 @@ public class PythonMessageResolution {
     abstract static class PForeignInvokeNode extends Node {
         @Child private LookupAndCallBinaryNode getattr = LookupAndCallBinaryNode.create(__GETATTRIBUTE__);
         @Child private ExecuteNode execNode = new ExecuteNode();
+        @Child private GilNode gil = new GilNode();
 
         public Object access(Object receiver, String name, Object[] arguments) {
-            Object attribute = getattr.executeObject(receiver, name);
-            return execNode.execute(attribute, arguments);
+            int holds = gil.enter();
+            try {
+                Object attribute = getattr.executeObject(receiver, name);
+                return execNode.execute(attribute, arguments);
+            } finally {
+                gil.leave(holds);
+            }
         }
     }
 
     @Resolve(message = "NEW")
     abstract static class NewNode extends Node {
         @Child private ExecuteNode execNode = new ExecuteNode();
+        @Child private GilNode gil = new GilNode();
 
         public Object access(Object receiver, Object[] arguments) {
             if (receiver instanceof PythonClass) {
-                return execNode.execute(receiver, arguments);
+                int holds = gil.enter();
+                try {
+                    return execNode.execute(receiver, arguments);
+                } finally {
+                    gil.leave(holds);
+                }
             } else {
                 throw UnsupportedTypeException.raise(new Object[]{receiver});
             }
@@ -489,11 +554,20 @@ public class PythonMessageResolution {
         @Child private BuiltinFunctions.LenNode lenNode;
         @Child private PTypeUnboxNode unboxNode;
         @Child private LookupAndCallBinaryNode callGetItemNode;
+        @Child private GilNode gil = new GilNode();
 
         private final ValueProfile profile = ValueProfile.createClassProfile();
 
         public Object access(Object object) {
-            Object profiled = profile.profile(object);
+            int holds = gil.enter();
+            try {
+                return hasSize(profile.profile(object));
+            } finally {
+                gil.leave(holds);
+            }
+        }
+
+        private boolean hasSize(Object profiled) {
             // A sequence object always has a size even if there is no '__len__' attribute. This is,
             // e.g., the case for 'array'.
             if (profiled instanceof PSequence) {
@@ -564,10 +638,16 @@ public class PythonMessageResolution {
         @Child IsSequenceNode isSeq = IsSequenceNode.create();
         @Child private BuiltinFunctions.LenNode lenNode = BuiltinFunctionsFactory.LenNodeFactory.create();
         @Child private PTypeUnboxNode unboxNode = PTypeUnboxNode.create();
+        @Child private GilNode gil = new GilNode();
 
         public Object access(Object object) {
-            if (isSeq.execute(object)) {
-                return unboxNode.execute(lenNode.executeWith(object));
+            int holds = gil.enter();
+            try {
+                if (isSeq.execute(object)) {
+                    return unboxNode.execute(lenNode.executeWith(object));
+                }
+            } finally {
+                gil.leave(holds);
             }
             throw UnsupportedMessageException.raise(Message.GET_SIZE);
         }
@@ -586,8 +666,18 @@ public class PythonMessageResolution {
 
         @Child ReadNode readNode = new ReadNode();
         @Child IsImmutable isImmutable = new IsImmutable();
+        @Child private GilNode gil = new GilNode();
 
         public int access(Object object, Object fieldName) {
+            int holds = gil.enter();
+            try {
+                return keyInfo(object, fieldName);
+            } finally {
+                gil.leave(holds);
+            }
+        }
+
+        private int keyInfo(Object object, Object fieldName) {
             Object attr = readNode.execute(object, fieldName);
             int info = KeyInfo.NONE;
             if (attr != ReadNode.NONEXISTING_IDENTIFIER) {
@@ -627,8 +717,15 @@ public class PythonMessageResolution {
             return factory.createTuple(new Object[0]);
         }
 
+        @Child private GilNode gil = new GilNode();
+
         public Object access(Object object) {
-            return keysNode.execute(object);
+            int holds = gil.enter();
+            try {
+                return keysNode.execute(object);
+            } finally {
+                gil.leave(holds);
+            }
         }
     }
 
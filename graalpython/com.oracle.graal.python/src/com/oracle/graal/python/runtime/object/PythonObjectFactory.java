@@ -32,6 +32,9 @@ import java.util.Optional;
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.asyncio.PFuture;
+import com.oracle.graal.python.builtins.objects.asyncio.PFutureIter;
+import com.oracle.graal.python.builtins.objects.asyncio.PTask;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.cell.PCell;
@@ -45,6 +48,8 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIterator;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsView;
@@ -59,23 +64,46 @@ import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PGeneratorFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.function.PPartial;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
 import com.oracle.graal.python.builtins.objects.iterator.PArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
 import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCompress;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PTee;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
@@ -89,12 +117,17 @@ import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
 import com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator;
 import com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.sre.PSREMatch;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.superobject.SuperObject;
+import com.oracle.graal.python.builtins.objects.thread.PLock;
+import com.oracle.graal.python.builtins.objects.thread.PRLock;
+import com.oracle.graal.python.builtins.objects.thread.PThreadLocal;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
@@ -102,6 +135,7 @@ import com.oracle.graal.python.parser.ExecutionCellSlots;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.CharSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
@@ -340,6 +374,14 @@ public final class PythonObjectFactory extends Node {
         return trace(new PMemoryView(metaclass, value));
     }
 
+    public PMemoryView createMemoryView(PythonClass metaclass, PSequence owner, int offset, int length, int step, int itemSize, String format, boolean readOnly) {
+        return trace(new PMemoryView(metaclass, owner, offset, length, step, itemSize, format, readOnly));
+    }
+
+    public PMemoryView createMemoryView(PSequence owner, int offset, int length, int step, int itemSize, String format, boolean readOnly) {
+        return createMemoryView(lookupClass(PythonBuiltinClassType.PMemoryView), owner, offset, length, step, itemSize, format, readOnly);
+    }
+
     public final PMethod createMethod(PythonClass cls, Object self, PFunction function) {
         return trace(new PMethod(cls, self, function));
     }
@@ -464,6 +506,10 @@ public final class PythonObjectFactory extends Node {
     }
 
     public PDict createDictFixedStorage(PythonObject pythonObject) {
+        if (pythonObject instanceof PythonModule) {
+            // the dict writes to the module storage directly and must invalidate its assumptions
+            return createDict(new PythonObjectDictStorage(pythonObject.getStorage(), (PythonModule) pythonObject));
+        }
         return createDict(new PythonObjectDictStorage(pythonObject.getStorage()));
     }
 
@@ -494,10 +540,17 @@ public final class PythonObjectFactory extends Node {
                         numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode));
     }
 
+    public PGenerator createCoroutine(String name, RootCallTarget callTarget,
+                    FrameDescriptor frameDescriptor, Object[] arguments, PCell[] closure, ExecutionCellSlots cellSlots,
+                    int numOfActiveFlags, int numOfGeneratorBlockNode, int numOfGeneratorForNode) {
+        return trace(PGenerator.create(lookupClass(PythonBuiltinClassType.PCoroutine), name, callTarget, frameDescriptor, arguments, closure, cellSlots,
+                        numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode));
+    }
+
     public PGeneratorFunction createGeneratorFunction(String name, String enclosingClassName, Arity arity, RootCallTarget callTarget,
-                    FrameDescriptor frameDescriptor, PythonObject globals, PCell[] closure) {
+                    FrameDescriptor frameDescriptor, PythonObject globals, Object[] defaults, PCell[] closure) {
         return trace(PGeneratorFunction.create(lookupClass(PythonBuiltinClassType.PGeneratorFunction), name, enclosingClassName, arity, callTarget,
-                        frameDescriptor, globals, closure));
+                        frameDescriptor, globals, defaults, closure));
     }
 
     public PMappingproxy createMappingproxy(PythonObject object) {
@@ -532,6 +585,10 @@ public final class PythonObjectFactory extends Node {
         return trace(new PFrame(lookupClass(PythonBuiltinClassType.PFrame), exception, index));
     }
 
+    public PFrame createPFrame(Frame frame, Node location, boolean inClassScope) {
+        return trace(new PFrame(lookupClass(PythonBuiltinClassType.PFrame), frame, location, inClassScope));
+    }
+
     public PFrame createPFrame(Object threadState, PCode code, PythonObject globals, Object locals) {
         return trace(new PFrame(lookupClass(PythonBuiltinClassType.PFrame), threadState, code, globals, locals));
     }
@@ -700,6 +757,166 @@ public final class PythonObjectFactory extends Node {
         return trace(new PZip(cls, iterables));
     }
 
+    public PMap createMap(PythonClass cls, Object function, Object[] iterators) {
+        return trace(new PMap(cls, function, iterators));
+    }
+
+    public PFilter createFilter(PythonClass cls, Object function, Object iterator) {
+        return trace(new PFilter(cls, function, iterator));
+    }
+
+    public PPartial createPartial(PythonClass cls, Object function, Object[] arguments, PKeyword[] keywords) {
+        return trace(new PPartial(cls, function, arguments, keywords));
+    }
+
+    /*
+     * itertools
+     */
+
+    public PCount createCount(PythonClass cls, long start, long step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PCount createCount(PythonClass cls, Object start, Object step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PRepeat createRepeat(PythonClass cls, Object element, int times) {
+        return trace(new PRepeat(cls, element, times));
+    }
+
+    public PChain createChain(PythonClass cls, Object source) {
+        return trace(new PChain(cls, source));
+    }
+
+    public PStarmap createStarmap(PythonClass cls, Object function, Object iterator) {
+        return trace(new PStarmap(cls, function, iterator));
+    }
+
+    public PIslice createIslice(PythonClass cls, Object iterator, long start, long stop, long step) {
+        return trace(new PIslice(cls, iterator, start, stop, step));
+    }
+
+    public PIslice createIslice(PythonClass cls, PList list, long start, long stop, long step) {
+        return trace(new PIslice(cls, list, start, stop, step));
+    }
+
+    public PPermutations createPermutations(PythonClass cls, Object[] pool, int r) {
+        return trace(new PPermutations(cls, pool, r));
+    }
+
+    public PCombinations createCombinations(PythonClass cls, Object[] pool, int r, boolean withReplacement) {
+        return trace(new PCombinations(cls, pool, r, withReplacement));
+    }
+
+    public PProduct createProduct(PythonClass cls, Object[][] gears) {
+        return trace(new PProduct(cls, gears));
+    }
+
+    public PProduct createProduct(PythonClass cls, int[] rangeStarts, int[] rangeSteps, int[] lengths) {
+        return trace(new PProduct(cls, rangeStarts, rangeSteps, lengths));
+    }
+
+    public PAccumulate createAccumulate(PythonClass cls, Object iterator, Object function) {
+        return trace(new PAccumulate(cls, iterator, function));
+    }
+
+    public PGroupBy createGroupBy(PythonClass cls, Object iterator, Object keyFunction) {
+        return trace(new PGroupBy(cls, iterator, keyFunction));
+    }
+
+    public PGrouper createGrouper(PGroupBy parent, Object targetKey) {
+        return createGrouper(lookupClass(PythonBuiltinClassType.PGrouper), parent, targetKey);
+    }
+
+    public PGrouper createGrouper(PythonClass cls, PGroupBy parent, Object targetKey) {
+        return trace(new PGrouper(cls, parent, targetKey));
+    }
+
+    public PZipLongest createZipLongest(PythonClass cls, Object[] iterators, Object fillValue) {
+        return trace(new PZipLongest(cls, iterators, fillValue));
+    }
+
+    public PTee createTee(PTee.Data data, int index) {
+        return trace(new PTee(lookupClass(PythonBuiltinClassType.PTee), data, index));
+    }
+
+    public PCycle createCycle(PythonClass cls, Object iterator) {
+        return trace(new PCycle(cls, iterator));
+    }
+
+    public PTakewhile createTakewhile(PythonClass cls, Object predicate, Object iterator) {
+        return trace(new PTakewhile(cls, predicate, iterator));
+    }
+
+    public PDropwhile createDropwhile(PythonClass cls, Object predicate, Object iterator) {
+        return trace(new PDropwhile(cls, predicate, iterator));
+    }
+
+    public PFilterfalse createFilterfalse(PythonClass cls, Object predicate, Object iterator) {
+        return trace(new PFilterfalse(cls, predicate, iterator));
+    }
+
+    public PCompress createCompress(PythonClass cls, Object data, Object selectors) {
+        return trace(new PCompress(cls, data, selectors));
+    }
+
+    public PDeque createDeque(PythonClass cls) {
+        return trace(new PDeque(cls));
+    }
+
+    public PDequeIterator createDequeIterator(PDeque deque) {
+        return trace(new PDequeIterator(lookupClass(PythonBuiltinClassType.PDequeIterator), deque, false));
+    }
+
+    public PDequeIterator createDequeReverseIterator(PDeque deque) {
+        return trace(new PDequeIterator(lookupClass(PythonBuiltinClassType.PDequeReverseIterator), deque, true));
+    }
+
+    public PBuffered createBuffered(PythonClass cls, boolean readable, boolean writable) {
+        return trace(new PBuffered(cls, readable, writable));
+    }
+
+    public PTextIO createTextIO(PythonClass cls) {
+        return trace(new PTextIO(cls));
+    }
+
+    public PPoll createPoll() {
+        return trace(new PPoll(lookupClass(PythonBuiltinClassType.PPoll)));
+    }
+
+    public PPoll createEpoll(PythonClass cls) {
+        return trace(new PPoll(cls));
+    }
+
+    public PLock createLock() {
+        return trace(new PLock(lookupClass(PythonBuiltinClassType.PLock)));
+    }
+
+    public PRLock createRLock(PythonClass cls) {
+        return trace(new PRLock(cls));
+    }
+
+    public PThreadLocal createThreadLocal(PythonClass cls, Object[] arguments, PKeyword[] keywords) {
+        return trace(new PThreadLocal(cls, arguments, keywords));
+    }
+
+    public PFuture createFuture(PythonClass cls) {
+        return trace(new PFuture(cls));
+    }
+
+    public PTask createTask(PythonClass cls) {
+        return trace(new PTask(cls));
+    }
+
+    public PFutureIter createFutureIter(PFuture future) {
+        return trace(new PFutureIter(lookupClass(PythonBuiltinClassType.PFutureIter), future));
+    }
+
+    public PSREMatch createSREMatch(Object pattern, String string, int pos, int endpos, int[] starts, int[] ends) {
+        return trace(new PSREMatch(lookupClass(PythonBuiltinClassType.PSREMatch), pattern, string, pos, endpos, starts, ends));
+    }
+
     public PForeignArrayIterator createForeignArrayIterator(TruffleObject iterable, int size) {
         return trace(new PForeignArrayIterator(lookupClass(PythonBuiltinClassType.PForeignArrayIterator), iterable, size));
     }
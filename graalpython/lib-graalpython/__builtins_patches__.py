@@ -38,7 +38,6 @@
 # SOFTWARE.
 
 import sys
-import builtins
 
 # ----------------------------------------------------------------------------------------------------------------------
 #
@@ -51,24 +50,12 @@ import _pyio
 import io
 
 
-@__builtin__
-def open(*args, **kwargs):
-    return _pyio.open(*args, **kwargs)
-
-
+# BufferedReader, BufferedWriter, BufferedRandom, TextIOWrapper and open are implemented in _io
 for module in [_io, io]:
-    setattr(module, 'open', open)
-    setattr(module, 'TextIOWrapper', _pyio.TextIOWrapper)
     setattr(module, 'IncrementalNewlineDecoder', _pyio.IncrementalNewlineDecoder)
-    setattr(module, 'BufferedRandom', _pyio.BufferedRandom)
     setattr(module, 'BufferedRWPair', _pyio.BufferedRWPair)
-    setattr(module, 'BufferedWriter', _pyio.BufferedWriter)
-    setattr(module, 'BufferedReader', _pyio.BufferedReader)
     setattr(module, 'StringIO', _pyio.StringIO)
     setattr(module, '_IOBase', _pyio.IOBase)
     setattr(module, 'RawIOBase', _pyio.RawIOBase)
     setattr(module, 'BytesIO', _pyio.BytesIO)
     setattr(module, '_TextIOBase', _pyio.TextIOBase)
-
-
-setattr(builtins, 'open', open)
@@ -0,0 +1,187 @@
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+# The parts of the accelerated Future and Task that need the rest of asyncio.
+# The asyncio package imports this module, so these helpers import it lazily.
+
+_current_tasks = {}
+_all_tasks = None
+
+
+def _get_event_loop():
+    from asyncio import events
+    return events.get_event_loop()
+
+
+def _extract_stack():
+    import sys
+    import traceback
+    return traceback.extract_stack(sys._getframe(2))
+
+
+def _cancelled_error():
+    from asyncio.base_futures import CancelledError
+    return CancelledError()
+
+
+def _as_cancelled_error(exc):
+    from asyncio.base_futures import CancelledError
+    if isinstance(exc, CancelledError):
+        return exc
+    return CancelledError()
+
+
+def _invalid_state_error(msg):
+    from asyncio.base_futures import InvalidStateError
+    return InvalidStateError(msg)
+
+
+def _already_done_error(fut):
+    return _invalid_state_error('{}: {!r}'.format(fut._state, fut))
+
+
+def _check_coroutine(coro):
+    from asyncio import coroutines
+    assert coroutines.iscoroutine(coro), repr(coro)
+
+
+def _register_task(task):
+    global _all_tasks
+    if _all_tasks is None:
+        import weakref
+        _all_tasks = weakref.WeakSet()
+    _all_tasks.add(task)
+
+
+def _enter_task(loop, task):
+    _current_tasks[loop] = task
+
+
+def _leave_task(loop, task):
+    _current_tasks.pop(loop, None)
+
+
+def _task_step_exception(task, exc):
+    """Finishes the task with an exception raised by its coroutine. Returns True if the exception
+    must be propagated out of '_step'."""
+    from asyncio.base_futures import CancelledError
+    if isinstance(exc, CancelledError):
+        Future.cancel(task)
+        return False
+    task.set_exception(exc)
+    return not isinstance(exc, Exception)
+
+
+def _task_handle_result(task, result):
+    loop = task._loop
+    blocking = getattr(result, '_asyncio_future_blocking', None)
+    if blocking is not None:
+        # Yielded Future must come from Future.__iter__().
+        if result._loop is not loop:
+            loop.call_soon(task._step, RuntimeError(
+                'Task {!r} got Future {!r} attached to a different loop'.format(task, result)))
+        elif blocking:
+            if result is task:
+                loop.call_soon(task._step, RuntimeError('Task cannot await on itself: {!r}'.format(task)))
+            else:
+                result._asyncio_future_blocking = False
+                result.add_done_callback(task._wakeup)
+                task._fut_waiter = result
+                if task._must_cancel:
+                    if result.cancel():
+                        task._must_cancel = False
+        else:
+            loop.call_soon(task._step, RuntimeError(
+                'yield was used instead of yield from in task {!r} with {!r}'.format(task, result)))
+    else:
+        from inspect import isgenerator
+        if isgenerator(result):
+            loop.call_soon(task._step, RuntimeError(
+                'yield was used instead of yield from for generator in task {!r} with {}'.format(task, result)))
+        else:
+            loop.call_soon(task._step, RuntimeError('Task got bad yield: {!r}'.format(result)))
+
+
+def _future_repr_info(self):
+    from asyncio import base_futures
+    return base_futures._future_repr_info(self)
+
+
+def _future_repr(self):
+    return '<%s %s>' % (self.__class__.__name__, ' '.join(self._repr_info()))
+
+
+Future._repr_info = _future_repr_info
+Future.__repr__ = _future_repr
+
+
+def _task_repr_info(self):
+    from asyncio import base_tasks
+    return base_tasks._task_repr_info(self)
+
+
+def _current_task(cls, loop=None):
+    if loop is None:
+        loop = _get_event_loop()
+    return _current_tasks.get(loop)
+
+
+def _all_tasks_of(cls, loop=None):
+    if loop is None:
+        loop = _get_event_loop()
+    if _all_tasks is None:
+        return set()
+    return {t for t in _all_tasks if t._loop is loop}
+
+
+def _get_stack(self, *, limit=None):
+    from asyncio import base_tasks
+    return base_tasks._task_get_stack(self, limit)
+
+
+def _print_stack(self, *, limit=None, file=None):
+    from asyncio import base_tasks
+    return base_tasks._task_print_stack(self, limit, file)
+
+
+Task._repr_info = _task_repr_info
+Task.current_task = classmethod(_current_task)
+Task.all_tasks = classmethod(_all_tasks_of)
+Task.get_stack = _get_stack
+Task.print_stack = _print_stack
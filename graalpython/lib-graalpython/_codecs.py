@@ -162,7 +162,7 @@ def utf_8_encode(string, errors=None):
 
 @__builtin__
 def utf_8_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-8", errors)
+    return __truffle_decode(string, "utf-8", errors, final)
 
 
 @__builtin__
@@ -172,7 +172,7 @@ def utf_7_encode(string, errors=None):
 
 @__builtin__
 def utf_7_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-7", errors)
+    return __truffle_decode(string, "utf-7", errors, final)
 
 
 @__builtin__
@@ -182,7 +182,7 @@ def utf_16_encode(string, errors=None, byteorder=0):
 
 @__builtin__
 def utf_16_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-16", errors)
+    return __truffle_decode(string, "utf-16", errors, final)
 
 
 @__builtin__
@@ -192,7 +192,7 @@ def utf_16_le_encode(string, errors=None):
 
 @__builtin__
 def utf_16_le_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-16-le", errors)
+    return __truffle_decode(string, "utf-16-le", errors, final)
 
 
 @__builtin__
@@ -202,7 +202,7 @@ def utf_16_be_encode(string, errors=None):
 
 @__builtin__
 def utf_16_be_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-16-be", errors)
+    return __truffle_decode(string, "utf-16-be", errors, final)
 
 
 @__builtin__
@@ -217,7 +217,7 @@ def utf_32_encode(string, errors=None, byteorder=0):
 
 @__builtin__
 def utf_32_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-32", errors)
+    return __truffle_decode(string, "utf-32", errors, final)
 
 
 @__builtin__
@@ -227,7 +227,7 @@ def utf_32_le_encode(string, errors=None):
 
 @__builtin__
 def utf_32_le_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-32-le", errors)
+    return __truffle_decode(string, "utf-32-le", errors, final)
 
 
 @__builtin__
@@ -237,7 +237,7 @@ def utf_32_be_encode(string, errors=None):
 
 @__builtin__
 def utf_32_be_decode(string, errors=None, final=False):
-    return __truffle_decode(string, "utf-32-be", errors)
+    return __truffle_decode(string, "utf-32-be", errors, final)
 
 
 @__builtin__
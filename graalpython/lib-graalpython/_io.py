@@ -29,8 +29,8 @@ _os = sys.modules.get("posix", sys.modules.get("nt"))
 DEFAULT_BUFFER_SIZE = 8192
 
 
-class BlockingIOError(OSError):
-    pass
+# the same class that os.read and os.write raise
+BlockingIOError = BlockingIOError
 
 
 class UnsupportedOperation(OSError, ValueError):
@@ -489,31 +489,50 @@ class FileIO(_RawIOBase):
     def write(self, data):
         self._checkClosed()
         self._checkWritable()
-        return _os.write(self.__fd__, data)
+        try:
+            return _os.write(self.__fd__, data)
+        except BlockingIOError:
+            return None
 
     def read(self, size=-1):
         self._checkClosed()
         self._checkReadable()
         if size < 0:
             return self.readall()
-        return _os.read(self.__fd__, size)
+        try:
+            return _os.read(self.__fd__, size)
+        except BlockingIOError:
+            return None
 
     def readinto(self, rwbuffer):
         self._checkClosed()
         self._checkReadable()
-        length = len(rwbuffer)
-        buf = _os.read(self.__fd__, length)
-        rwbuffer[:] = buf
-        return len(buf)
+        try:
+            if isinstance(rwbuffer, bytearray):
+                return _os.readv(self.__fd__, [rwbuffer])
+            buf = _os.read(self.__fd__, len(rwbuffer))
+        except BlockingIOError:
+            return None
+        n = len(buf)
+        rwbuffer[:n] = buf
+        return n
 
     def readall(self):
         self._checkClosed()
         self._checkReadable()
         total = 0
         builder = []
+        try:
+            # read the rest of a regular file with a single call
+            remaining = _os.fstat(self.__fd__)[6] - _os.lseek(self.__fd__, 0, 1)
+        except OSError:
+            remaining = 0
+        if remaining > 0:
+            chunk = _os.read(self.__fd__, remaining)
+            builder.append(chunk)
+            total += len(chunk)
         while True:
-            newsize = FileIO.BIGCHUNK
-            chunk = _os.read(self.__fd__, newsize - total)
+            chunk = _os.read(self.__fd__, FileIO.BIGCHUNK)
             if len(chunk) == 0:
                 break
             builder.append(chunk)
@@ -566,39 +585,228 @@ class StringIO(_TextIOBase):
     pass
 
 
-class BufferedReader(_BufferedIOBase):
-    pass
-
-
-class BufferedWriter(_BufferedIOBase):
-    pass
-
-
 class BufferedRWPair(_BufferedIOBase):
     pass
 
 
-class BufferedRandom(_BufferedIOBase):
-    pass
-
-
 class IncrementalNewlineDecoder(object):
     pass
 
 
-class TextIOWrapper(_TextIOBase):
-    pass
-
-
-def open(*args, **kwargs):
-    raise NotImplementedError
-
-
 # ----------------------------------------------------------------------------------------------------------------------
 #
-# needed for imports will be patched in the __builtins_patches__ module
+# BufferedReader, BufferedWriter, BufferedRandom and TextIOWrapper are builtin classes, the methods below complete them
 #
 # ----------------------------------------------------------------------------------------------------------------------
+def _unsupported(name):
+    def unsupported(self, *args, **kwargs):
+        raise UnsupportedOperation(name)
+    unsupported.__name__ = name
+    return unsupported
+
+
+def _enter(self):
+    if self.closed:
+        raise ValueError("I/O operation on closed file.")
+    return self
+
+
+def _exit(self, *args):
+    self.close()
+
+
+def _readlines(self, hint=-1):
+    if hint is None or hint <= 0:
+        return list(self)
+    lines = []
+    length = 0
+    for line in self:
+        lines.append(line)
+        length += len(line)
+        if length >= hint:
+            break
+    return lines
+
+
+def _writelines(self, lines):
+    for line in lines:
+        self.write(line)
+
+
+def _getstate(self):
+    raise TypeError("cannot serialize '%s' object" % type(self).__name__)
+
+
+def _repr(self):
+    clsname = type(self).__name__
+    try:
+        name = self.name
+    except Exception:
+        return "<_io.%s>" % clsname
+    return "<_io.%s name=%r>" % (clsname, name)
+
+
+def _buffered_readinto(self, b):
+    data = self.read(len(b))
+    n = len(data)
+    b[:n] = data
+    return n
+
+
+def _buffered_readinto1(self, b):
+    data = self.read1(len(b))
+    n = len(data)
+    b[:n] = data
+    return n
+
+
+def _buffered_truncate(self, pos=None):
+    self.flush()
+    if pos is None:
+        pos = self.tell()
+    return self.raw.truncate(pos)
+
+
+for _cls in (BufferedReader, BufferedWriter, BufferedRandom):
+    _cls.__enter__ = _enter
+    _cls.__exit__ = _exit
+    _cls.__repr__ = _repr
+    _cls.__getstate__ = _getstate
+    _cls.readlines = _readlines
+    _cls.writelines = _writelines
+    _cls.truncate = _buffered_truncate
+    _cls.closed = property(lambda self: self.raw.closed)
+    _cls.name = property(lambda self: self.raw.name)
+    _cls.mode = property(lambda self: self.raw.mode)
+    _cls.fileno = lambda self: self.raw.fileno()
+    _cls.isatty = lambda self: self.raw.isatty()
+    _cls.readable = lambda self: self.raw.readable()
+    _cls.writable = lambda self: self.raw.writable()
+    _cls.seekable = lambda self: self.raw.seekable()
+
+for _cls in (BufferedReader, BufferedRandom):
+    _cls.readinto = _buffered_readinto
+    _cls.readinto1 = _buffered_readinto1
+
+for _name in ("read", "read1", "readinto", "readinto1", "readline", "peek"):
+    setattr(BufferedWriter, _name, _unsupported(_name))
+BufferedReader.write = _unsupported("write")
+
+
+def _text_repr(self):
+    result = "<_io.TextIOWrapper"
+    try:
+        result += " name=%r" % (self.name,)
+    except Exception:
+        pass
+    try:
+        result += " mode=%r" % (self.mode,)
+    except Exception:
+        pass
+    return result + " encoding=%r>" % (self.encoding,)
+
+
+def _text_truncate(self, pos=None):
+    self.flush()
+    if pos is None:
+        pos = self.tell()
+    return self.buffer.truncate(pos)
+
+
+TextIOWrapper.__enter__ = _enter
+TextIOWrapper.__exit__ = _exit
+TextIOWrapper.__repr__ = _text_repr
+TextIOWrapper.__getstate__ = _getstate
+TextIOWrapper.readlines = _readlines
+TextIOWrapper.writelines = _writelines
+TextIOWrapper.truncate = _text_truncate
+TextIOWrapper.closed = property(lambda self: self.buffer.closed)
+TextIOWrapper.name = property(lambda self: self.buffer.name)
+TextIOWrapper.fileno = lambda self: self.buffer.fileno()
+TextIOWrapper.isatty = lambda self: self.buffer.isatty()
+TextIOWrapper.readable = lambda self: self.buffer.readable()
+TextIOWrapper.writable = lambda self: self.buffer.writable()
+TextIOWrapper.seekable = lambda self: self.buffer.seekable()
+del _cls, _name
+
+
+def open(file, mode="r", buffering=-1, encoding=None, errors=None, newline=None, closefd=True, opener=None):
+    if not isinstance(file, int):
+        file = _os.fspath(file)
+    if not isinstance(file, (str, bytes, int)):
+        raise TypeError("invalid file: %r" % file)
+    if not isinstance(mode, str):
+        raise TypeError("invalid mode: %r" % mode)
+    if not isinstance(buffering, int):
+        raise TypeError("invalid buffering: %r" % buffering)
+    if encoding is not None and not isinstance(encoding, str):
+        raise TypeError("invalid encoding: %r" % encoding)
+    if errors is not None and not isinstance(errors, str):
+        raise TypeError("invalid errors: %r" % errors)
+    modes = set(mode)
+    if modes - set("axrwb+tU") or len(mode) > len(modes):
+        raise ValueError("invalid mode: %r" % mode)
+    creating = "x" in modes
+    reading = "r" in modes
+    writing = "w" in modes
+    appending = "a" in modes
+    updating = "+" in modes
+    text = "t" in modes
+    binary = "b" in modes
+    if "U" in modes:
+        if creating or writing or appending or updating:
+            raise ValueError("mode U cannot be combined with 'x', 'w', 'a', or '+'")
+        _warn("'U' mode is deprecated", DeprecationWarning, 2)
+        reading = True
+    if text and binary:
+        raise ValueError("can't have text and binary mode at once")
+    if creating + reading + writing + appending > 1:
+        raise ValueError("can't have read/write/append mode at once")
+    if not (creating or reading or writing or appending):
+        raise ValueError("must have exactly one of read/write/append mode")
+    if binary and encoding is not None:
+        raise ValueError("binary mode doesn't take an encoding argument")
+    if binary and errors is not None:
+        raise ValueError("binary mode doesn't take an errors argument")
+    if binary and newline is not None:
+        raise ValueError("binary mode doesn't take a newline argument")
+    raw = FileIO(file,
+                 (creating and "x" or "") +
+                 (reading and "r" or "") +
+                 (writing and "w" or "") +
+                 (appending and "a" or "") +
+                 (updating and "+" or ""),
+                 closefd, opener=opener)
+    result = raw
+    try:
+        line_buffering = False
+        if buffering == 1 or buffering < 0 and raw.isatty():
+            buffering = -1
+            line_buffering = True
+        if buffering < 0:
+            buffering = DEFAULT_BUFFER_SIZE
+        if buffering == 0:
+            if binary:
+                return result
+            raise ValueError("can't have unbuffered text I/O")
+        if updating:
+            buffer = BufferedRandom(raw, buffering)
+        elif creating or writing or appending:
+            buffer = BufferedWriter(raw, buffering)
+        else:
+            buffer = BufferedReader(raw, buffering)
+        result = buffer
+        if binary:
+            return result
+        text = TextIOWrapper(buffer, encoding, errors, newline, line_buffering)
+        result = text
+        text.mode = mode
+        return result
+    except:
+        result.close()
+        raise
+
+
 import builtins
 setattr(builtins, 'open', open)
 globals()['open'] = open
@@ -39,12 +39,12 @@
 
 import polyglot as _interop
 
-def default(value, default):
-    return default if not value else value
+def _endpos(endpos):
+    if endpos is None:
+        import sys
+        return sys.maxsize
+    return endpos
 
-def maxsize():
-    import sys
-    return sys.maxsize
 try:
     TREGEX_ENGINE = _interop.eval(string="", language="regex")()
 except BaseException:
@@ -63,76 +63,9 @@ _FLAGS_TO_JS = ["", "i", "", "m",
                  "s", "u", "", "",
                  ""]
 
-
-class SRE_Match():
-    def __init__(self, pattern, pos, endpos, result):
-        self.result = result
-        self.compiled_regex = result.regex
-        self.re = pattern
-        self.pos = pos
-        self.endpos = endpos
-
-    def end(self, groupnum=0):
-        return self.result.end[groupnum]
-
-    def group(self, *args):
-        if not args:
-            return self.__group__(0)
-        elif len(args) == 1:
-            return self.__group__(args[0])
-        else:
-            lst = []
-            for arg in args:
-                lst.append(self.__group__(arg))
-            return tuple(lst)
-
-    def groups(self, default=None):
-        lst = []
-        for arg in range(1, self.result.groupCount):
-            lst.append(self.__group__(arg))
-        return tuple(lst)
-
-    def __groupidx__(self, idx):
-        if isinstance(idx, str):
-            return self.compiled_regex.groups[idx]
-        else:
-            return idx
-
-    def __group__(self, idx):
-        idxarg = self.__groupidx__(idx)
-        start = self.result.start[idxarg]
-        if start < 0:
-            return None
-        else:
-            return self.result.input[start:self.result.end[idxarg]]
-
-    def groupdict(self, default=None):
-        d = {}
-        assert _interop.__has_keys__(self.compiled_regex.groups)
-        for k in _interop.__keys__(self.compiled_regex.groups):
-            idx = self.compiled_regex.groups[k]
-            d[k] = self.__group__(idx)
-        return d
-
-    def span(self, groupnum=0):
-        idxarg = self.__groupidx__(groupnum)
-        return (self.result.start[idxarg], self.result.end[idxarg])
-
-    def start(self, groupnum=0):
-        idxarg = self.__groupidx__(groupnum)
-        return self.result.start[idxarg]
-
-    @property
-    def string(self):
-        return self.result.input
-
-    @property
-    def lastgroup(self):
-        return self.result.groupCount
-
-    @property
-    def lastindex(self):
-        return self.result.end[0]
+_MODE_SEARCH = 0
+_MODE_MATCH = 1
+_MODE_FULLMATCH = 2
 
 
 _cpython_sre = None
@@ -148,6 +81,9 @@ class SRE_Pattern():
         self.groupindex = groupindex
         self.indexgroup = indexgroup
         self.__compiled_sre_pattern = None
+        # compiled TRegex regexes for search, match and fullmatch; False if TRegex cannot handle
+        # the pattern
+        self.__tregex_compiled = [None, None, None]
         jsflags = []
         for i,jsflag in enumerate(_FLAGS_TO_JS):
             if flags & (1 << i):
@@ -155,10 +91,28 @@ class SRE_Pattern():
         self.jsflags = "".join(jsflags)
 
 
-    def __tregex_compile(self, pattern):
-        if TREGEX_ENGINE is not None:
-            return tregex_call_safe(TREGEX_ENGINE, pattern, self.jsflags)
-        raise RuntimeError("TREGEX engine not available")
+    def __tregex_compile(self, mode=_MODE_SEARCH):
+        compiled = self.__tregex_compiled[mode]
+        if compiled is None:
+            compiled = self.__tregex_compile_mode(mode)
+            self.__tregex_compiled[mode] = compiled
+        if compiled is False:
+            raise RuntimeError("pattern not supported by TREGEX")
+        return compiled
+
+
+    def __tregex_compile_mode(self, mode):
+        pattern = self.pattern
+        if TREGEX_ENGINE is None or not isinstance(pattern, str):
+            return False
+        if mode == _MODE_MATCH:
+            pattern = "^(?:" + pattern + ")"
+        elif mode == _MODE_FULLMATCH:
+            pattern = "^(?:" + pattern + ")$"
+        try:
+            return tregex_compile(TREGEX_ENGINE, pattern, self.jsflags)
+        except RuntimeError:
+            return False
 
 
     def __compile_cpython_sre(self):
@@ -201,190 +155,63 @@ class SRE_Pattern():
             sflags = "|".join(flag_items)
         return "re.compile(%s%s%s)" % (self.pattern, sep, sflags)
 
-    def _search(self, pattern, string, pos, endpos):
-        pattern = self.__tregex_compile(pattern)
-        if endpos == -1 or endpos >= len(string):
-            result = tregex_call_safe(pattern.exec, string, pos)
-        else:
-            result = tregex_call_safe(pattern.exec, string[:endpos], pos)
-        if result.isMatch:
-            return SRE_Match(self, pos, endpos, result)
-        else:
-            return None
-
     def search(self, string, pos=0, endpos=None):
         try:
-            return self._search(self.pattern, string, pos, default(endpos, -1))
+            return tregex_search(self, self.__tregex_compile(), string, pos, endpos)
         except RuntimeError:
-            return self.__compile_cpython_sre().search(string, pos, default(endpos, maxsize()))
+            return self.__compile_cpython_sre().search(string, pos, _endpos(endpos))
 
     def match(self, string, pos=0, endpos=None):
-        pattern = self.pattern
-        if isinstance(pattern, str):
-            try:
-                if not pattern.startswith("^"):
-                    return self._search("^" + pattern, string, pos, default(endpos, -1))
-                else:
-                    return self._search(pattern, string, pos, default(endpos, -1))
-            except RuntimeError:
-                pass
-        return self.__compile_cpython_sre().match(string, pos, default(endpos, maxsize()))
+        try:
+            if pos > 0:
+                # the TRegex pattern is anchored at the start of the string, not at 'pos'
+                raise RuntimeError
+            return tregex_search(self, self.__tregex_compile(_MODE_MATCH), string, pos, endpos)
+        except RuntimeError:
+            return self.__compile_cpython_sre().match(string, pos, _endpos(endpos))
 
     def fullmatch(self, string, pos=0, endpos=None):
-        pattern = self.pattern
-        if isinstance(pattern, str):
-            try:
-                if not pattern.startswith("^"):
-                    pattern = "^" + pattern
-                if not pattern.endswith("$"):
-                    pattern = pattern + "$"
-                return self._search(pattern, string, pos, default(endpos, -1))
-            except RuntimeError:
-                pass
-        return self.__compile_cpython_sre().fullmatch(string, pos, default(endpos, maxsize()))
-
-    def findall(self, string, pos=0, endpos=-1):
         try:
-            pattern = self.__tregex_compile(self.pattern)
-            if endpos > len(string):
-                endpos = len(string)
-            elif endpos < 0:
-                endpos = endpos % len(string) + 1
-            matchlist = []
-            while pos < endpos:
-                result = tregex_call_safe(pattern.exec, string, pos)
-                if not result.isMatch:
-                    break
-                elif result.groupCount == 0:
-                    assert False, "inconsistent regex result"
-                    matchlist.append('')
-                elif result.groupCount == 1:
-                    matchlist.append(str(string[result.start[0]:result.end[0]]))
-                elif result.groupCount == 2:
-                    matchlist.append(str(string[result.start[1]:result.end[1]]))
-                else:
-                    matchlist.append(SRE_Match(self, pos, endpos, result).groups())
-                no_progress = (result.start[0] == result.end[0])
-                pos = result.end[0] + no_progress
-            return matchlist
+            if pos > 0:
+                # the TRegex pattern is anchored at the start of the string, not at 'pos'
+                raise RuntimeError
+            return tregex_search(self, self.__tregex_compile(_MODE_FULLMATCH), string, pos, endpos)
         except RuntimeError:
-            return self.__compile_cpython_sre().findall(string, pos, maxsize() if endpos == -1 else endpos)
-
-
-    def __replace_groups(self, repl, string, match_result, pattern):
-        def group(match_result, group_nr, string):
-            if group_nr >= match_result.groupCount:
-                return None
-            group_start = match_result.start[group_nr]
-            group_end = match_result.end[group_nr]
-            return string[group_start:group_end]
-
-        n = len(repl)
-        result = ""
-        start = 0
-        backslash = '\\'
-        pos = repl.find(backslash, start)
-        while pos != -1 and start < n:
-            if pos+1 < n:
-                if repl[pos + 1].isdigit() and match_result.groupCount > 0:
-                    group_nr = int(repl[pos+1])
-                    group_str = group(match_result, group_nr, string)
-                    if group_str is None:
-                        raise ValueError("invalid group reference %s at position %s" % (group_nr, pos))
-                    result += repl[start:pos] + group_str
-                    start = pos + 2
-                elif repl[pos + 1] == 'g':
-                    group_ref, group_ref_end, digits_only = self.__extract_groupname(repl, pos + 2)
-                    if group_ref:
-                        group_str = group(match_result, int(group_ref) if digits_only else pattern.groups[group_ref], string)
-                        if group_str is None:
-                            raise ValueError("invalid group reference %s at position %s" % (group_ref, pos))
-                        result += repl[start:pos] + group_str
-                    start = group_ref_end + 1
-                elif repl[pos + 1] == backslash:
-                    result += repl[start:pos] + backslash
-                    start = pos + 2
-                else:
-                    result += repl[start:pos + 2]
-                    start = pos + 2
-            pos = repl.find(backslash, start)
-        result += repl[start:]
-        return result
-
-
-    def __extract_groupname(self, repl, pos):
-        if repl[pos] == '<':
-            digits_only = True
-            n = len(repl)
-            i = pos + 1
-            while i < n and repl[i] != '>':
-                digits_only = digits_only and repl[i].isdigit()
-                i += 1
-            if i < n:
-                # found '>'
-                return repl[pos + 1 : i], i, digits_only
-        return None, pos, False
+            return self.__compile_cpython_sre().fullmatch(string, pos, _endpos(endpos))
 
+    def findall(self, string, pos=0, endpos=None):
+        try:
+            return tregex_findall(self, self.__tregex_compile(), string, pos, endpos)
+        except RuntimeError:
+            return self.__compile_cpython_sre().findall(string, pos, _endpos(endpos))
 
-    def sub(self, repl, string, count=0):
-        n = 0
+    def finditer(self, string, pos=0, endpos=None):
         try:
-            pattern = self.__tregex_compile(self.pattern)
-            result = []
-            pos = 0
-            is_string_rep = isinstance(repl, str) or isinstance(repl, bytes) or isinstance(repl, bytearray)
-            if is_string_rep:
-                repl = _process_escape_sequences(repl)
-            progress = True
-            while (count == 0 or n < count) and pos <= len(string) and progress:
-                match_result = tregex_call_safe(pattern.exec, string, pos)
-                if not match_result.isMatch:
-                    break
-                n += 1
-                start = match_result.start[0]
-                end = match_result.end[0]
-                result.append(string[pos:start])
-                if is_string_rep:
-                    result.append(self.__replace_groups(repl, string, match_result, pattern))
-                else:
-                    _srematch = SRE_Match(self, pos, -1, match_result)
-                    _repl = repl(_srematch)
-                    result.append(_repl)
-                pos = end
-                progress = (start != end)
-            result.append(string[pos:])
-            return "".join(result)
-        except BaseException:
-            return self.__compile_cpython_sre().sub(repl, string, count)
+            return iter(tregex_finditer(self, self.__tregex_compile(), string, pos, endpos))
+        except RuntimeError:
+            return self.__compile_cpython_sre().finditer(string, pos, _endpos(endpos))
+
+    def sub(self, repl, string, count=0):
+        return self.subn(repl, string, count)[0]
 
+    def subn(self, repl, string, count=0):
+        try:
+            compiled = self.__tregex_compile()
+            template = repl
+            if isinstance(repl, str):
+                try:
+                    template = _process_escape_sequences(repl)
+                except ValueError:
+                    # let the CPython implementation report the bad template
+                    raise RuntimeError
+            return tregex_subn(self, compiled, template, string, count)
+        except RuntimeError:
+            return self.__compile_cpython_sre().subn(repl, string, count)
 
     def split(self, string, maxsplit=0):
-        n = 0
         try:
-            pattern = self.__tregex_compile(self.pattern)
-            result = []
-            pos = 0
-            progress = True
-            while (maxsplit == 0 or n < maxsplit) and pos <= len(string) and progress:
-                match_result = tregex_call_safe(pattern.exec, string, pos)
-                if not match_result.isMatch:
-                    break
-                n += 1
-                start = match_result.start[0]
-                end = match_result.end[0]
-                result.append(str(string[pos:start]))
-                # add all group strings
-                for i in range(match_result.groupCount-1):
-                    groupStart = match_result.start[i + 1]
-                    if groupStart >= 0:
-                        result.append(str(string[groupStart:match_result.end[i+1]]))
-                    else:
-                        result.append(None)
-                pos = end
-                progress = (start != end)
-            result.append(str(string[pos:]))
-            return result
-        except BaseException:
+            return tregex_split(self, self.__tregex_compile(), string, maxsplit)
+        except RuntimeError:
             return self.__compile_cpython_sre().split(string, maxsplit)
 
 
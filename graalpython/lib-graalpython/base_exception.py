@@ -46,3 +46,10 @@ def __str__(self):
 
 
 BaseException.__str__ = __str__
+
+
+def _stop_iteration_value(self):
+    return self.args[0] if self.args else None
+
+
+StopIteration.value = property(_stop_iteration_value)
@@ -49,4 +49,3 @@ _imp._truffle_bootstrap_file_into_module("exceptions.py", "builtins")
 _imp._truffle_bootstrap_file_into_module("super.py", "builtins")
 _imp._truffle_bootstrap_file_into_module("property.py", "builtins")
 _imp._truffle_bootstrap_file_into_module("ellipsis.py", "builtins")
-_imp._truffle_bootstrap_file_into_module("timsort.py", "builtins")
@@ -37,86 +37,6 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
-@__builtin__
-def hasattr(obj, key):
-    try:
-        type(obj).__getattribute__(obj, key)
-        return True
-    except AttributeError:
-        return False
-
-
-# We re-define the print function here, because that makes it easier for us to
-# deal with the default arguments. The builtin version simply requires all
-# arguments.
-def make_print():
-    builtin_print = print
-
-    def print_f(*objects, sep=" ", end="\n", file=None, flush=False):
-        if file is not None:
-            sz = len(objects) - 1
-            for i in range(sz):
-                file.write(str(objects[i]))
-                file.write(str(sep))
-            file.write(str(objects[-1]))
-            file.write(str(end))
-        else:
-            builtin_print(tuple(objects), sep, end, file, flush)
-    print_f.__name__ = "print"
-    return print_f
-print = __builtin__(make_print())
-del make_print
-
-
-# We close over the globals to avoid leaking sys to the builtins scope
-def make_globals_function():
-    import sys
-
-    def globals_f():
-        return sys._getframe(1).f_globals
-    globals_f.__name__ = "globals"
-    return globals_f
-globals = __builtin__(make_globals_function())
-del make_globals_function
-
-
-def make_locals_function():
-    import sys
-
-    def locals_f():
-        return sys._getframe(1).f_locals
-    locals_f.__name__ = "locals"
-    return locals_f
-locals = __builtin__(make_locals_function())
-del make_locals_function
-
-
-@__builtin__
-def any(iterable):
-    for i in iterable:
-        if i:
-            return True
-    return False
-
-
-@__builtin__
-def all(iterable):
-    for i in iterable:
-        if not i:
-            return False
-    return True
-
-
-@__builtin__
-def filter(func, iterable):
-    result = []
-    predicate = func if func is not None else lambda a: a
-    for i in iterable:
-        if predicate(i):
-            result.append(i)
-    return tuple(result)
-
-
 @__builtin__
 def exec(source, globals=None, locals=None):
     # compile returns the source if already a code object
@@ -137,24 +57,6 @@ def __build_class__(func, name, *bases, metaclass=None, **kwargs):
     return type(name, bases, ns)
 
 
-class map(object):
-    def __init__(self, func, iterable, *args):
-        self.__func = func
-        iterators = [iter(iterable)]
-        for i in args:
-            iterators.append(iter(i))
-        self.__iterators = iterators
-
-    def __next__(self):
-        args = []
-        for it in self.__iterators:
-            args.append(next(it))
-        return self.__func(*args)
-
-    def __iter__(self):
-        return self
-
-
 def _caller_locals():
     import sys
     return sys._getframe(2).f_locals
@@ -37,7 +37,8 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
-# memoryview is mainly implemented in C
+# memoryviews of bytes, bytearray and array objects are implemented in Java,
+# all other memoryviews are implemented in C
 from python_cext import PyTruffle_SetAttr
 
 
@@ -45,6 +46,9 @@ c_memoryview_module = None
 
 
 def __memoryview_init(self, *args, **kwargs):
+    if self.obj is not None:
+        # the view was already created in Java, the C module is not needed yet
+        return
     import _memoryview
     global c_memoryview_module
     c_memoryview_module = _memoryview
@@ -53,6 +57,9 @@ def __memoryview_init(self, *args, **kwargs):
 
 
 def __memoryview_init2(self, *args, **kwargs):
+    if self.obj is not None:
+        # the view was already created in Java
+        return
     # NOTE: DO NOT CHANGE THE NAME OF PROPERTY '__c_memoryview'
     # it is also referenced in native code and Java code
     if args and isinstance(args[0], c_memoryview_module.nativememoryview):
@@ -62,43 +69,4 @@ def __memoryview_init2(self, *args, **kwargs):
         PyTruffle_SetAttr(self, "__c_memoryview", c_memoryview_module.nativememoryview(*args, **kwargs))
 
 
-def __memoryview_getitem(self, key):
-    res = self.__c_memoryview.__getitem__(key)
-    return memoryview(res) if isinstance(res, type(self.__c_memoryview)) else res
-
-
-getsetdescriptor = type(type(__memoryview_init).__code__)
-
-
-def make_property(name):
-    def getter(self):
-        return getattr(self.__c_memoryview, name)
-
-    error_string = "attribute '%s' of 'memoryview' objects is not writable" % name
-    def setter(self, value):
-        raise AttributeError(error_string)
-
-    return getsetdescriptor(fget=getter, fset=setter, name=name, owner=memoryview)
-
-
-for p in ["nbytes", "readonly", "itemsize", "format", "ndim", "shape", "strides",
-          "suboffsets", "c_contiguous", "f_contiguous", "contiguous"]:
-    setattr(memoryview, p, make_property(p))
-
-
-def make_delegate0(p):
-    def delegate(self):
-        return getattr(self.__c_memoryview, p)()
-    delegate.__name__ = p
-    return delegate
-
-for p in ["__repr__", "__len__", "release", "tobytes", "hex", "tolist",
-          "__enter__", "__exit__"]:
-    setattr(memoryview, p, make_delegate0(p))
-
-
-# other delegate methods
 memoryview.__init__ = __memoryview_init
-memoryview.__getitem__ = __memoryview_getitem
-memoryview.__setitem__ = lambda self, key, value: self.__c_memoryview.__setitem__(key, value)
-memoryview.cast = lambda self, *args: memoryview(self.__c_memoryview.cast(*args))
@@ -106,21 +106,6 @@ def PyDict_New():
     return {}
 
 
-@may_raise
-def PyDict_Next(dictObj, pos):
-    if not isinstance(dictObj, dict):
-        return native_null
-    curPos = 0
-    max = len(dictObj)
-    if pos >= max:
-        return native_null
-    for key in dictObj:
-        if curPos == pos:
-            return key, dictObj[key]
-        curPos = curPos + 1
-    return native_null
-
-
 @may_raise(-1)
 def PyDict_Size(dictObj):
     if not isinstance(dictObj, dict):
@@ -135,21 +120,6 @@ def PyDict_Copy(dictObj):
     return dictObj.copy()
 
 
-@may_raise
-def PyDict_GetItem(dictObj, key):
-    if not isinstance(dictObj, dict):
-        raise TypeError('expected dict, {!s} found'.format(type(dictObj)))
-    return dictObj.get(key, native_null)
-
-
-@may_raise(-1)
-def PyDict_SetItem(dictObj, key, value):
-    if not isinstance(dictObj, dict):
-        raise TypeError('expected dict, {!s} found'.format(type(dictObj)))
-    dictObj[key] = value
-    return 0
-
-
 @may_raise(-1)
 def PyDict_DelItem(dictObj, key):
     if not isinstance(dictObj, dict):
@@ -264,25 +234,6 @@ def PyList_New(size):
     return [None] * size
 
 
-@may_raise
-def PyList_GetItem(listObj, pos):
-    if not isinstance(listObj, list):
-        __bad_internal_call(None, None, listObj)
-    if pos < 0:
-        raise IndexError("list index out of range")
-    return listObj[pos]
-
-
-@may_raise(-1)
-def PyList_SetItem(listObj, pos, newitem):
-    if not isinstance(listObj, list):
-        __bad_internal_call(None, None, listObj)
-    if pos < 0:
-        raise IndexError("list assignment index out of range")
-    listObj[pos] = newitem
-    return 0
-
-
 @may_raise(-1)
 def PyList_Append(listObj, newitem):
     if not isinstance(listObj, list):
@@ -322,14 +273,6 @@ def PyLong_FromLongLong(n, signed):
         return int(n & 0xffffffffffffffff)
 
 
-@may_raise(-1)
-def PyLong_AsPrimitive(n, signed, size, descr):
-    if isinstance(n, int):
-        return TrufflePInt_AsPrimitive(n, signed, size, descr)
-    else:
-        return TrufflePInt_AsPrimitive(int(n), signed, size, descr)
-
-
 def _PyLong_Sign(n):
     if n==0:
         return 0
@@ -350,11 +293,6 @@ def PyLong_FromString(string, base, negative):
 
 ##################### FLOAT
 
-@may_raise
-def PyFloat_FromDouble(n):
-    return float(n)
-
-
 @may_raise
 def PyFloat_FromObject(n):
     return float(n)
@@ -1201,6 +1139,14 @@ def import_native_memoryview(capi_library):
     assert _memoryview is not None
 
 
+def memoryview_to_native(mv, obj, start, stop, step):
+    """Creates the native counterpart of a memoryview of a Java storage"""
+    import _memoryview
+    native = _memoryview.nativememoryview(obj)[start:stop:step]
+    PyTruffle_SetAttr(mv, "__c_memoryview", native)
+    return native
+
+
 def initialize_datetime_capi():
     import datetime
 
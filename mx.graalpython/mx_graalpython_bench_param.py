@@ -79,6 +79,7 @@ MICRO_BENCHMARKS = {
     'generator-expression': ITER_25 + [],
     'generator-notaligned': ITER_25 + [],
     'generator': ITER_25 + [],
+    'generator-pipeline': ITER_15 + ['1000000'],
     'genexp-builtin-call': ITER_25 + ['1000'],
     'list-comp': ITER_15 + ['5000'],
     'list-indexing': ITER_15 + ['1000000'],
@@ -94,6 +95,7 @@ MICRO_BENCHMARKS = {
     'member_access': ITER_10 + ['5'],
     'c_member_access': ITER_25 + ['5'],
     'c-list-iterating-obj': ITER_15 + ['50000000'],
+    'c-list-getitem': ITER_15 + ['100000'],
     'magic-bool': ITER_10 + ['100000000'],
     'c-magic-bool': ITER_10 + ['100000000'],
     'magic-iter': ITER_10 + ['50000000'],
@@ -103,7 +105,8 @@ MICRO_BENCHMARKS = {
     'c_arith-binop': ITER_25 + ['5'],
     'c_arith_binop_2': ITER_25 + ['50'],
     'call-classmethod': ITER_15 + ['50000000'],
-    'c-call-classmethod': ITER_15 + ['50000000']
+    'c-call-classmethod': ITER_15 + ['50000000'],
+    'threading-cpu': ITER_10 + ['16000000'],
 }
 
 